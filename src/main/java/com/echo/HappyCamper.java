@@ -1,10 +1,13 @@
 package com.echo;
 
+import java.nio.file.Path;
+
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 
 import com.echo.automation.TestPreset;
 import com.echo.service.ExportService;
+import com.echo.service.ImportCache;
 import com.echo.service.ImportService;
 import com.echo.service.RosterService;
 import com.echo.ui.MainWindow;
@@ -35,6 +38,9 @@ public class HappyCamper {
         ImportService importService = new ImportService();
         ExportService exportService = new ExportService();
         RosterService rosterService = new RosterService(importService, exportService);
+        rosterService.setSnapshotDirectory(Path.of(System.getProperty("user.home"), "." + NAME.toLowerCase(), "snapshots"));
+        rosterService.setImportCache(new ImportCache(ImportCache.DEFAULT_CAPACITY,
+                Path.of(System.getProperty("user.home"), "." + NAME.toLowerCase(), "import-cache"), ImportCache.DEFAULT_DISK_CAPACITY));
 
         // Create UI immediately instead of using invokeLater
         createSingleWindow(rosterService);
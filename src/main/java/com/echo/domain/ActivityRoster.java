@@ -1,17 +1,16 @@
 package com.echo.domain;
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 import com.echo.logging.RosterException;
-import com.echo.logging.RosterWarning;
 import com.echo.logging.WarningManager;
+import com.echo.service.ImportProgress;
+import com.echo.validation.FormatValidator;
 import com.echo.validation.RosterRegexBuilder;
 
 /**
@@ -41,15 +40,10 @@ public class ActivityRoster extends Roster {
     );
 
     /**
-     * Patterns used to validate the format of specific fields in the activity roster.
-     * Each entry maps a field name to a regular expression pattern that valid values must match.
+     * Validates the format of specific fields in the activity roster.
+     * Built once from the patterns each field name maps to, which valid values must match.
      */
-    private static final Map<String, Pattern> VALIDATION_PATTERNS;
-
-    static {
-        // Get validation patterns from the centralized RosterRegexBuilder
-        VALIDATION_PATTERNS = Collections.unmodifiableMap(RosterRegexBuilder.buildActivityFormats());
-    }
+    private static final FormatValidator FORMAT_VALIDATOR = new FormatValidator(RosterRegexBuilder.buildActivityFormats());
 
     /**
      * Creates a new empty ActivityRoster with no headers or campers.
@@ -68,20 +62,34 @@ public class ActivityRoster extends Roster {
      * @throws RosterException if critical validation fails (missing required headers)
      */
     public void validate(WarningManager warningManager) throws RosterException {
+        validate(warningManager, ImportProgress.untracked());
+    }
+
+    /**
+     * Validates the roster as validate(WarningManager) does, stopping early if the import it's part of is cancelled.
+     *
+     * @param warningManager The warning manager to use for logging validation issues
+     * @param progress The import's progress, checked for cancellation at each row
+     * @throws RosterException if critical validation fails (missing required headers)
+     * @throws java.util.concurrent.CancellationException if the import is cancelled
+     */
+    public void validate(WarningManager warningManager, ImportProgress progress) throws RosterException {
         // Check for required headers - should have been checked in import step but cost is minimal
         // Set<String> headerSet = new HashSet<>(getHeaderMap().keySet());
         // ValidationUtils.validateHeaders("Activity Roster",headerSet, REQUIRED_HEADERS);
 
-        // Validate data in each row
+        // Check each row for required fields, then validate field formats across all rows
         for (Camper activity : getCampers()) {
-            validateActivity(activity,warningManager);
+            progress.checkCancelled();
+            Roster.validateHeaders(activity.view().keySet(), REQUIRED_HEADERS);
         }
+        FORMAT_VALIDATOR.validate(this, warningManager, progress);
     }
 
     /**
      * Gets the activity data organized by camper ID for efficient lookup.
      * This method creates a map where each key is a camper ID and the value is
-     * the map of that camper's activity data.
+     * a snapshot of that camper's activity data, which the caller owns and may modify.
      *
      * @return A map of camper IDs to their activity data maps
      */
@@ -89,37 +97,11 @@ public class ActivityRoster extends Roster {
         Map<String, Map<String, String>> keyedData = new HashMap<>();
         for (Camper activityData : getCampers()) {
             String key = activityData.getId();
-            keyedData.put(key, activityData.getData());
+            keyedData.put(key, activityData.view().snapshot());
         }
         return keyedData;
     }
 
-    /**
-     * Validates a single activity entry for required fields and correct data formats.
-     * This method checks that the activity has all required fields and that the values
-     * match the expected formats. Issues are logged to the warning manager.
-     *
-     * @param activity The activity entry to validate
-     * @param warningManager The warning manager to log validation issues
-     * @throws RosterException if critical validation fails (missing required fields)
-     */
-    private void validateActivity(Camper activity,WarningManager warningManager) throws RosterException {
-        // Check for required fields
-        Roster.validateHeaders(activity.getData().keySet(), REQUIRED_HEADERS);
-        
-        // Validate field formats
-        for (Map.Entry<String, Pattern> entry : VALIDATION_PATTERNS.entrySet()) {
-            String field = entry.getKey();
-            Pattern pattern = entry.getValue();
-
-            String value = activity.getValue(field);
-            if (value != null && !pattern.matcher(value).matches()) {
-                RosterWarning warning = RosterWarning.create_badDataFormat(activity.getData(),field,pattern.toString());
-                warningManager.logWarning(warning);
-            }
-        }
-    }
-
     /**
      * Gets the list of headers that must be present in a valid activity roster.
      * This method is used by external components to check if a file has the necessary
@@ -143,14 +125,17 @@ public class ActivityRoster extends Roster {
      * @return A unique camper ID string in the format "firstname_lastname_grade"
      */
     public static String generateCamperIdFromActivity(Map<String, String> activityData) {
-        // Use the activityRosterName if available, otherwise fall back to direct string
-
-        String firstName = activityData.getOrDefault(RosterHeader.FIRST_NAME.activityRosterName, "");
-        String lastName = activityData.getOrDefault(RosterHeader.LAST_NAME.activityRosterName, "");
-        String grade = activityData.getOrDefault(RosterHeader.GRADE.activityRosterName, "");
+        return generateCamperKeyFromActivity(activityData).toString();
+    }
 
-        return String.format("%s_%s_%s", firstName, lastName, grade)
-                .toLowerCase()
-                .replace(" ", "_");
+    /**
+     * Generates the key of the camper an activity data row belongs to.
+     * Equal to the key of the matching camper in the camper roster, so activities can be linked without building ID strings.
+     *
+     * @param activityData The map containing activity and camper data
+     * @return The camper's key, whose string form matches generateCamperIdFromActivity
+     */
+    public static CamperKey generateCamperKeyFromActivity(Map<String, String> activityData) {
+        return CamperKey.fromActivityData(activityData);
     }
 }
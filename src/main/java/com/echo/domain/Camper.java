@@ -1,8 +1,6 @@
 package com.echo.domain;
 
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Represents a camper in the roster system.
@@ -11,10 +9,16 @@ import java.util.Set;
  * The fundamental data unit in the roster system
  * Each camper instance store data about an individual camper, initially based on data from a User Report
  * Each camper is identified by a unique ID, generated from fields also present in Elective Rosters so data can easilly be linked
+ * The ID is held as a CamperKey, which rosters index on - the ID string is only built when needed for display
+ *
+ * A camper doesn't hold its own data - it is a view over one row of a ColumnStore.
+ * Campers created on their own get a private single-row store, and are moved into a roster's store when added to that roster.
  */
 public class Camper {
-    private final String id;
-    private final Map<String, String> data;
+    private final CamperKey key;
+    private ColumnStore store;
+    private int row;
+    private RowView view;
 
     /**
      * Creates a new Camper with the given ID and data.
@@ -23,8 +27,22 @@ public class Camper {
      * @param data Map of camper data
      */
     public Camper(String id, Map<String, String> data) {
-        this.id = id;
-        this.data = new HashMap<>(data);
+        this(CamperKey.ofId(id), data);
+    }
+
+    /**
+     * Creates a new Camper with the given key and data.
+     *
+     * @param key The unique key for this camper
+     * @param data Map of camper data
+     */
+    public Camper(CamperKey key, Map<String, String> data) {
+        this.key = key;
+        this.store = new ColumnStore(false);
+        this.row = store.addRow();
+        for (Map.Entry<String, String> entry : data.entrySet()) {
+            store.set(row, store.ensureColumn(entry.getKey()), entry.getValue());
+        }
     }
 
     /**
@@ -33,8 +51,21 @@ public class Camper {
      * @param data Map of camper data used to generate the ID and populate the camper's information
      */
     public Camper(Map<String, String> data) {
-        this.id = Roster.generateCamperId(data);
-        this.data = new HashMap<>(data);
+        this(Roster.generateCamperKey(data), data);
+    }
+
+    /**
+     * Creates a Camper viewing an existing row of a store.
+     * Used by rosters and import code that write cells straight into the store.
+     *
+     * @param key The unique key for this camper
+     * @param store The store holding this camper's data
+     * @param row The row index of this camper's data in the store
+     */
+    Camper(CamperKey key, ColumnStore store, int row) {
+        this.key = key;
+        this.store = store;
+        this.row = row;
     }
 
     /**
@@ -43,7 +74,16 @@ public class Camper {
      * @return The camper's ID
      */
     public String getId() {
-        return id;
+        return key.toString();
+    }
+
+    /**
+     * Gets the key identifying this camper, used to index and match campers without building ID strings.
+     *
+     * @return The camper's key
+     */
+    public CamperKey getKey() {
+        return key;
     }
 
     /**
@@ -53,7 +93,71 @@ public class Camper {
      * @return The value of the field, or null if the field doesn't exist
      */
     public String getValue(String field) {
-        return data.get(field);
+        return store.get(row, store.columnOf(field));
+    }
+
+    /**
+     * Gets the value for a column by its stable index, skipping name resolution.
+     * Column indices come from Roster.getColumnIndex and are only valid for campers in that roster.
+     *
+     * @param column The column index
+     * @return The value of the field, or null if it has no value
+     */
+    public String getValue(int column) {
+        return store.get(row, column);
+    }
+
+    /**
+     * Gets the whole number held by a field in a numeric column (see RosterHeader.getColumnType), without parsing.
+     *
+     * @param field The field name (typically a header name from RosterHeader class)
+     * @param defaultValue Value to return if the field doesn't hold a number
+     * @return The field's number, or defaultValue if the field is missing, null, holds text, or isn't numeric
+     */
+    public int getInt(String field, int defaultValue) {
+        return store.getInt(row, store.columnOf(field), defaultValue);
+    }
+
+    /**
+     * Gets the number held by a field in a numeric column (see RosterHeader.getColumnType), without parsing.
+     *
+     * @param field The field name (typically a header name from RosterHeader class)
+     * @param defaultValue Value to return if the field doesn't hold a number
+     * @return The field's number, or defaultValue if the field is missing, null, holds text, or isn't numeric
+     */
+    public double getDouble(String field, double defaultValue) {
+        return store.getDouble(row, store.columnOf(field), defaultValue);
+    }
+
+    /**
+     * Gets the value of a field as its typed object, leaving numbers unformatted for sorting and display.
+     *
+     * @param field The field name (typically a header name from RosterHeader class)
+     * @return An Integer or Double for fields holding a number, otherwise the field's String value (null if missing)
+     */
+    public Object getTypedValue(String field) {
+        return store.getTyped(row, store.columnOf(field));
+    }
+
+    /**
+     * Gets the dictionary code for a field held in a dictionary-encoded column.
+     * Codes can be compared directly with other codes from the same dictionary, see getDictionary.
+     *
+     * @param field The field name (typically a header name from RosterHeader class)
+     * @return The value's code, ValueDictionary.UNSET_CODE if unset, or ValueDictionary.NO_CODE if the field isn't dictionary-encoded
+     */
+    public int getCode(String field) {
+        return store.getCode(row, store.columnOf(field));
+    }
+
+    /**
+     * Gets the dictionary encoding a field, for resolving values to codes and back.
+     *
+     * @param field The field name (typically a header name from RosterHeader class)
+     * @return The field's dictionary, or null if the field isn't dictionary-encoded
+     */
+    public ValueDictionary getDictionary(String field) {
+        return store.getDictionary(store.columnOf(field));
     }
 
     /**
@@ -63,16 +167,70 @@ public class Camper {
      * @param value The value to set for the field
      */
     public void setValue(String field, String value) {
-        data.put(field, value);
+        store.set(row, store.ensureColumn(field), value);
+    }
+
+    /**
+     * Sets the value for a column by its stable index, skipping name resolution.
+     * Column indices come from Roster.getColumnIndex and are only valid for campers in that roster.
+     *
+     * @param column The column index
+     * @param value The value to set for the field
+     */
+    public void setValue(int column, String value) {
+        store.set(row, column, value);
+    }
+
+    /**
+     * Clears a field, leaving it unset as if it had never been written - unlike setValue with null, which keeps the field present.
+     *
+     * @param field The field name (typically a header name from RosterHeader class)
+     */
+    public void clearValue(String field) {
+        store.clear(row, store.columnOf(field));
+    }
+
+    /**
+     * Sets a whole number for a field. Numeric columns store it without formatting, other columns store its text.
+     *
+     * @param field The field name (typically a header name from RosterHeader class)
+     * @param value The value to set for the field
+     */
+    public void setInt(String field, int value) {
+        store.setInt(row, store.ensureColumn(field), value);
+    }
+
+    /**
+     * Sets a fractional number for a field. Numeric columns store it without formatting, other columns store its text.
+     *
+     * @param field The field name (typically a header name from RosterHeader class)
+     * @param value The value to set for the field
+     */
+    public void setDouble(String field, double value) {
+        store.setDouble(row, store.ensureColumn(field), value);
     }
 
     /**
      * Gets all data for this camper.
+     * Copies the camper's row - callers that only read the data should use view() instead.
      *
      * @return A defensive copy of the map containing all camper data
      */
     public Map<String, String> getData() {
-        return new HashMap<>(data);
+        return store.toMap(row);
+    }
+
+    /**
+     * Gets a read-only view of this camper's data, without copying it.
+     * The view is created once and reused, and always reflects the camper's current data.
+     *
+     * @return An unmodifiable map view of this camper's data
+     */
+    public RowView view() {
+        if (view == null) {
+            view = new RowView(this);
+        }
+        return view;
     }
 
     /**
@@ -82,6 +240,38 @@ public class Camper {
      * @return true if the field exists and has a non-null value, false otherwise
      */
     public boolean hasValue(String field) {
-        return data.containsKey(field) && data.get(field) != null;
+        return getValue(field) != null;
+    }
+
+    /**
+     * Gets the store currently holding this camper's data.
+     *
+     * @return The backing ColumnStore
+     */
+    ColumnStore getStore() {
+        return store;
+    }
+
+    /**
+     * Gets the index of this camper's row in its current store.
+     *
+     * @return The row index
+     */
+    int getRow() {
+        return row;
+    }
+
+    /**
+     * Moves this camper's data into a new row of the given store, so it can be read through that store's column indices.
+     * Does nothing if the camper's data is already held by the given store.
+     *
+     * @param target The store to move this camper's data into
+     */
+    void moveTo(ColumnStore target) {
+        if (store == target) {
+            return;
+        }
+        row = target.copyRowFrom(store, row);
+        store = target;
     }
 }
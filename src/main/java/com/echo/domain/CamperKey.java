@@ -0,0 +1,206 @@
+package com.echo.domain;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable key identifying a camper, used to index rosters and to match activity rows to campers.
+ *
+ * A key is built from a camper's first name, last name and grade, each normalized once (lowercased, with spaces replaced by underscores).
+ * Its hash is computed up front, and its string form ("firstname_lastname_grade", as shown in warnings) is only built when requested.
+ * Building a key doesn't go through format strings or regex, and normalizing already-normalized text doesn't allocate.
+ *
+ * Keys compare by their string form, so a key built from name parts equals one built from the equivalent ID string (see ofId),
+ * and matching behaves exactly as it did when campers were keyed by ID strings.
+ */
+public final class CamperKey {
+
+    private static final char SEPARATOR = '_';
+
+    private final String[] parts;
+    private final int length;
+    private final int hash;
+    private String id;
+
+    /**
+     * Creates a key from normalized parts, joined by separators in its string form.
+     */
+    private CamperKey(String... parts) {
+        this.parts = parts;
+
+        int totalLength = parts.length - 1;
+        int h = 0;
+        for (int p = 0; p < parts.length; p++) {
+            if (p > 0) {
+                h = 31 * h + SEPARATOR;
+            }
+            String part = parts[p];
+            totalLength += part.length();
+            for (int i = 0; i < part.length(); i++) {
+                h = 31 * h + part.charAt(i);
+            }
+        }
+        this.length = totalLength;
+        this.hash = h; // Matches toString().hashCode()
+
+        if (parts.length == 1) {
+            this.id = parts[0];
+        }
+    }
+
+    /**
+     * Builds a key from a camper's name and grade fields.
+     *
+     * @param firstName The camper's first name (null is treated as empty)
+     * @param lastName The camper's last name (null is treated as empty)
+     * @param grade The camper's grade (null is treated as empty)
+     * @return The camper's key
+     */
+    public static CamperKey of(String firstName, String lastName, String grade) {
+        return new CamperKey(normalize(firstName), normalize(lastName), normalize(grade));
+    }
+
+    /**
+     * Wraps an existing camper ID string as a key. The ID is used as-is, without normalization.
+     *
+     * @param id The camper ID
+     * @return A key equal to any key whose string form matches the ID
+     */
+    public static CamperKey ofId(String id) {
+        return new CamperKey(id == null ? "null" : id);
+    }
+
+    /**
+     * Builds a key from a row of camper roster data, using camper roster header names.
+     *
+     * @param camperData Map of camper data
+     * @return The camper's key
+     */
+    public static CamperKey fromCamperData(Map<String, String> camperData) {
+        return of(camperData.getOrDefault(RosterHeader.FIRST_NAME.camperRosterName, ""),
+                  camperData.getOrDefault(RosterHeader.LAST_NAME.camperRosterName, ""),
+                  camperData.getOrDefault(RosterHeader.GRADE.camperRosterName, ""));
+    }
+
+    /**
+     * Builds a key from a row of activity roster data, using activity roster header names.
+     *
+     * @param activityData Map of activity data
+     * @return The key of the camper the activity belongs to
+     */
+    public static CamperKey fromActivityData(Map<String, String> activityData) {
+        return of(activityData.getOrDefault(RosterHeader.FIRST_NAME.activityRosterName, ""),
+                  activityData.getOrDefault(RosterHeader.LAST_NAME.activityRosterName, ""),
+                  activityData.getOrDefault(RosterHeader.GRADE.activityRosterName, ""));
+    }
+
+    /**
+     * Normalizes one part of a key: lowercased, with spaces replaced by underscores.
+     * ASCII text is converted in a single pass, returning the original string if nothing changes.
+     * Other text falls back to String.toLowerCase, using the root locale so keys don't depend on the system locale.
+     *
+     * @param text The text to normalize (null is treated as the string "null", as String.format did)
+     * @return The normalized text
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "null";
+        }
+
+        int length = text.length();
+        int first = 0;
+        while (first < length) {
+            char c = text.charAt(first);
+            if (c >= 0x80) {
+                return text.toLowerCase(Locale.ROOT).replace(' ', SEPARATOR);
+            }
+            if (c == ' ' || (c >= 'A' && c <= 'Z')) {
+                break;
+            }
+            first++;
+        }
+        if (first == length) {
+            return text;
+        }
+
+        char[] chars = text.toCharArray();
+        for (int i = first; i < length; i++) {
+            char c = chars[i];
+            if (c >= 0x80) {
+                return text.toLowerCase(Locale.ROOT).replace(' ', SEPARATOR);
+            }
+            if (c == ' ') {
+                chars[i] = SEPARATOR;
+            } else if (c >= 'A' && c <= 'Z') {
+                chars[i] = (char) (c + ('a' - 'A'));
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Gets the character at a position of this key's string form, without building it.
+     */
+    private char charAt(int index) {
+        for (String part : parts) {
+            if (index < part.length()) {
+                return part.charAt(index);
+            }
+            if (index == part.length()) {
+                return SEPARATOR;
+            }
+            index -= part.length() + 1;
+        }
+        throw new IndexOutOfBoundsException(index);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CamperKey other) || hash != other.hash || length != other.length) {
+            return false;
+        }
+
+        // Fast path: keys built the same way compare part by part
+        if (parts.length == other.parts.length) {
+            boolean partsEqual = true;
+            for (int p = 0; p < parts.length && partsEqual; p++) {
+                partsEqual = parts[p].equals(other.parts[p]);
+            }
+            if (partsEqual) {
+                return true;
+            }
+            if (parts.length == 1) {
+                return false;
+            }
+        }
+
+        // Otherwise compare string forms character by character
+        for (int i = 0; i < length; i++) {
+            if (charAt(i) != other.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Gets this key's string form, "firstname_lastname_grade", building it on first use.
+     *
+     * @return The camper ID string
+     */
+    @Override
+    public String toString() {
+        if (id == null) {
+            id = String.join(String.valueOf(SEPARATOR), parts);
+        }
+        return id;
+    }
+}
@@ -5,11 +5,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 import com.echo.logging.RosterException;
 import com.echo.logging.RosterWarning;
 import com.echo.logging.WarningManager;
+import com.echo.service.ImportProgress;
+import com.echo.validation.FormatValidator;
 import com.echo.validation.RosterRegexBuilder;
 
 
@@ -36,10 +37,10 @@ public class CamperRoster extends Roster {
     );
 
     /**
-     * Patterns used to validate the format of specific fields in the camper roster.
-     * Each entry maps a field name to a regular expression pattern that valid values must match.
+     * Validates the format of specific fields in the camper roster.
+     * Built once from the patterns each field name maps to, which valid values must match.
      */
-    private static final Map<String, Pattern> VALIDATION_PATTERNS = RosterRegexBuilder.buildCamperFormats();
+    private static final FormatValidator FORMAT_VALIDATOR = new FormatValidator(RosterRegexBuilder.buildCamperFormats());
 
     /**
      * Creates a new empty CamperRoster with no headers or campers.
@@ -58,44 +59,35 @@ public class CamperRoster extends Roster {
      * @throws RosterException if critical validation fails (missing required headers)
      */
     public void validate(WarningManager warningManager) throws RosterException {
+        validate(warningManager, ImportProgress.untracked());
+    }
+
+    /**
+     * Validates the roster as validate(WarningManager) does, stopping early if the import it's part of is cancelled.
+     *
+     * @param warningManager The warning manager to use for logging validation issues
+     * @param progress The import's progress, checked for cancellation at each row
+     * @throws RosterException if critical validation fails (missing required headers)
+     * @throws java.util.concurrent.CancellationException if the import is cancelled
+     */
+    public void validate(WarningManager warningManager, ImportProgress progress) throws RosterException {
         // Check for required headers - should have been checked in import step but cost is minimal
 
         validateHeaders(getHeaderMap().keySet(), REQUIRED_HEADERS);
 
-        // Validate data in each row
+        // Check each row for required fields, then validate field formats across all rows
         for (Camper camper : getCampers()) {
-            validateCamper(camper,warningManager);
+            progress.checkCancelled();
+            validateHeaders(camper.view().keySet(), REQUIRED_HEADERS);
         }
-    }
+        FORMAT_VALIDATOR.validate(this, warningManager, progress);
 
-    /**
-     * Validates a single camper's data for required fields and correct data formats.
-     * This method checks that the camper has all required fields and that the values
-     * match the expected formats. Issues are logged to the warning manager.
-     *
-     * @param camper The camper entry to validate
-     * @param warningManager The warning manager to log validation issues
-     * @throws RosterException if critical validation fails (missing required fields)
-     */
-    private void validateCamper(Camper camper,WarningManager warningManager) throws RosterException {
-        // Check for required fields
-        validateHeaders(camper.getData().keySet(), REQUIRED_HEADERS);
-        
-        // Validate field formats
-        for (Map.Entry<String, Pattern> entry : VALIDATION_PATTERNS.entrySet()) {
-            String field = entry.getKey();
-            Pattern pattern = entry.getValue();
-
-            String value = camper.getValue(field);
-            if (value != null && !pattern.matcher(value).matches()) {
-                RosterWarning warning = RosterWarning.create_badDataFormat(camper.getData(), field, pattern.toString());
-                warningManager.logWarning(warning);
-            }
+        // Report campers whose generated IDs collide, since only the first can be matched to activity data
+        for (Map.Entry<String, Integer> duplicate : getDuplicateCamperIds().entrySet()) {
+            warningManager.logWarning(RosterWarning.create_duplicateCamperId(duplicate.getKey(), duplicate.getValue()));
         }
     }
 
-
-
     /**
      * Gets the list of headers that must be present in a valid camper roster.
      * This method is used by external components to check if a file has the necessary
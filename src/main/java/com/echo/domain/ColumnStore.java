@@ -0,0 +1,769 @@
+package com.echo.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Columnar storage engine backing a Roster.
+ *
+ * Cell data is held as one array per column, indexed by row number, instead of a map per camper.
+ * Each column is assigned a stable integer index when first added. These indices never change, unlike the
+ * display positions held in Roster.getHeaderMap(), which are reassigned by RosterHeader.updateHeaderMapOrder.
+ *
+ * Columns are stored in one of three ways:
+ * - Plain columns hold a String array
+ * - Dictionary-encoded columns hold an int array of codes into a ValueDictionary. These are used for the
+ *   low-cardinality headers named by RosterHeader.getDictionaryKey, and columns with the same key share a dictionary.
+ * - Numeric columns (see RosterHeader.getColumnType) hold an int or double array, read without parsing by getInt/getDouble.
+ *   Their String array tracks each cell's state, and holds text values that aren't in the type's canonical form.
+ *   Numbers are only formatted when read as a String.
+ *
+ * Growth is amortized O(1) in both directions:
+ * - Adding a column only registers its name; the column's array is allocated on its first write
+ * - Adding a row only bumps the row count; column arrays are grown (by doubling) on the first write past their end
+ *
+ * Cells that were never written are distinguished from cells explicitly set to null, mirroring the
+ * key-present/key-absent behavior of the map each Camper previously held.
+ *
+ * A checkpoint (see beginCheckpoint) starts an undo journal: the first write to each existing cell records the cell's prior state,
+ * and rows or columns added afterwards are simply truncated on rollback. Nothing is copied up front, so a checkpoint costs
+ * O(1) to take and O(changed cells) to roll back.
+ *
+ * A column can also be deferred (see deferColumn), handing its cells to a ColumnLoader that fills them in on the column's first access.
+ * RosterSnapshot uses this so reopened rosters only decode the columns that are actually read.
+ *
+ * Stores aren't thread-safe in general, but once every column being written exists, threads may write to different columns
+ * (and dictionaries) at once, as when the RosterService applies independent features concurrently.
+ */
+public final class ColumnStore {
+
+    /** Marker stored for cells explicitly set to null, so they remain distinct from unset cells */
+    private static final String NULL_CELL = new String("");
+
+    /** Marker stored in a numeric column's String array for cells whose value is held in its int or double array */
+    private static final String NUMBER_CELL = new String("");
+
+    /** Result of parseCanonicalInt for text that isn't a canonical whole number */
+    private static final long NOT_NUMERIC = Long.MIN_VALUE;
+
+    private static final int INITIAL_COLUMNS = 8;
+    private static final int INITIAL_ROWS = 16;
+
+    private final boolean encodeColumns;
+    private final Map<String, Integer> columnIndex = new HashMap<>();
+    private final List<String> columnNames = new ArrayList<>();
+    private final Map<String, ValueDictionary> sharedDictionaries = new HashMap<>();
+    private String[][] columns = new String[INITIAL_COLUMNS][];
+    private int[][] codeColumns = new int[INITIAL_COLUMNS][];
+    private ValueDictionary[] dictionaries = new ValueDictionary[INITIAL_COLUMNS];
+    private ColumnType[] types = new ColumnType[INITIAL_COLUMNS];
+    private int[][] intColumns = new int[INITIAL_COLUMNS][];
+    private double[][] doubleColumns = new double[INITIAL_COLUMNS][];
+    private ColumnLoader[] loaders = new ColumnLoader[INITIAL_COLUMNS];
+    private int rowCount = 0;
+    private Journal journal;
+
+    /**
+     * Source of a deferred column's cells, called once on the column's first access.
+     */
+    @FunctionalInterface
+    public interface ColumnLoader {
+        /**
+         * Writes a deferred column's cells into the store, through set, setInt or setDouble.
+         *
+         * @param store The store holding the column
+         * @param column The column index
+         */
+        void load(ColumnStore store, int column);
+    }
+
+    /**
+     * Creates a new empty ColumnStore, dictionary-encoding low-cardinality columns.
+     */
+    public ColumnStore() {
+        this(true);
+    }
+
+    /**
+     * Creates a new empty ColumnStore.
+     *
+     * @param encodeColumns Whether low-cardinality columns should be dictionary-encoded.
+     *      Not worthwhile for short-lived single-row stores, such as those of campers not yet added to a roster.
+     */
+    public ColumnStore(boolean encodeColumns) {
+        this.encodeColumns = encodeColumns;
+    }
+
+    /**
+     * Gets the number of rows allocated in this store.
+     *
+     * @return The row count
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the number of columns registered in this store.
+     *
+     * @return The column count
+     */
+    public int getColumnCount() {
+        return columnNames.size();
+    }
+
+    /**
+     * Gets the names of all registered columns, in order of their column index.
+     *
+     * @return Unmodifiable list of column names
+     */
+    public List<String> getColumnNames() {
+        return Collections.unmodifiableList(columnNames);
+    }
+
+    /**
+     * Gets the name of the column at the given index.
+     *
+     * @param column The column index
+     * @return The column name
+     */
+    public String getColumnName(int column) {
+        return columnNames.get(column);
+    }
+
+    /**
+     * Resolves a column name to its stable index.
+     *
+     * @param name The column name
+     * @return The column index, or -1 if the column doesn't exist
+     */
+    public int columnOf(String name) {
+        Integer index = columnIndex.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Resolves a column name to its stable index, registering the column if it doesn't exist yet.
+     *
+     * @param name The column name
+     * @return The column index
+     */
+    public int ensureColumn(String name) {
+        Integer index = columnIndex.get(name);
+        if (index != null) {
+            return index;
+        }
+
+        int newIndex = columnNames.size();
+        if (newIndex == columns.length) {
+            int capacity = columns.length * 2;
+            columns = Arrays.copyOf(columns, capacity);
+            codeColumns = Arrays.copyOf(codeColumns, capacity);
+            dictionaries = Arrays.copyOf(dictionaries, capacity);
+            types = Arrays.copyOf(types, capacity);
+            intColumns = Arrays.copyOf(intColumns, capacity);
+            doubleColumns = Arrays.copyOf(doubleColumns, capacity);
+            loaders = Arrays.copyOf(loaders, capacity);
+        }
+        columnNames.add(name);
+        columnIndex.put(name, newIndex);
+
+        ColumnType type = RosterHeader.getColumnType(name);
+        types[newIndex] = type;
+        if (type.isNumeric()) {
+            return newIndex;
+        }
+
+        String dictionaryKey = encodeColumns ? RosterHeader.getDictionaryKey(name) : null;
+        if (dictionaryKey != null) {
+            dictionaries[newIndex] = sharedDictionaries.computeIfAbsent(dictionaryKey, key -> new ValueDictionary());
+        }
+        return newIndex;
+    }
+
+    /**
+     * Gets the storage type of a column.
+     *
+     * @param column The column index, or -1 for a column that doesn't exist
+     * @return The column's type, or ColumnType.TEXT for a column that doesn't exist
+     */
+    public ColumnType getColumnType(int column) {
+        return column < 0 ? ColumnType.TEXT : types[column];
+    }
+
+    /**
+     * Defers a column's cells to a loader, which fills them in the first time any cell of the column is read or written.
+     * The column should have no cells set yet. Writes made by the loader aren't journaled, since they restore existing data.
+     *
+     * @param column The column index
+     * @param loader The loader supplying the column's cells
+     */
+    public void deferColumn(int column, ColumnLoader loader) {
+        loaders[column] = loader;
+    }
+
+    /**
+     * Checks if a column is still waiting on its loader.
+     *
+     * @param column The column index
+     * @return true if the column has been deferred and not yet accessed
+     */
+    public boolean isDeferred(int column) {
+        return column >= 0 && loaders[column] != null;
+    }
+
+    /**
+     * Allocates a new empty row.
+     *
+     * @return The index of the new row
+     */
+    public int addRow() {
+        return rowCount++;
+    }
+
+    /**
+     * Gets the value of a cell.
+     *
+     * @param row The row index
+     * @param column The column index, or -1 for a column that doesn't exist
+     * @return The cell value, or null if unset
+     */
+    public String get(int row, int column) {
+        return translate(row, column, getRaw(row, column));
+    }
+
+    /**
+     * Sets the value of a cell, growing the column's storage if needed.
+     * Values written to dictionary-encoded columns are interned.
+     * Values written to numeric columns are parsed once here if they're in the type's canonical form (a plain whole number,
+     * as produced by ColumnType.format), so they read back unchanged. Other text is kept as text.
+     *
+     * @param row The row index
+     * @param column The column index
+     * @param value The value to store (null is kept as an explicitly set value)
+     */
+    public void set(int row, int column, String value) {
+        if (loaders[column] != null) {
+            loadDeferred(column);
+        }
+        if (types[column].isNumeric() && value != null) {
+            long number = parseCanonicalInt(value);
+            if (number != NOT_NUMERIC) {
+                setNumber(row, column, number);
+                return;
+            }
+        }
+
+        if (journal != null) {
+            journal.record(row, column);
+        }
+
+        ValueDictionary dictionary = dictionaries[column];
+        if (dictionary != null) {
+            int[] codes = codeColumns[column];
+            if (codes == null || row >= codes.length) {
+                codes = growCodeColumn(column, row);
+            }
+            codes[row] = dictionary.encode(value);
+            return;
+        }
+
+        String[] cells = columns[column];
+        if (cells == null || row >= cells.length) {
+            cells = growColumn(column, row);
+        }
+        cells[row] = value == null ? NULL_CELL : value;
+    }
+
+    /**
+     * Clears a cell, returning it to the unset state of a cell that was never written.
+     *
+     * @param row The row index
+     * @param column The column index, or -1 for a column that doesn't exist
+     */
+    public void clear(int row, int column) {
+        if (!isSet(row, column)) {
+            return;
+        }
+        if (journal != null) {
+            journal.record(row, column);
+        }
+
+        if (dictionaries[column] != null) {
+            codeColumns[column][row] = ValueDictionary.UNSET_CODE;
+        } else {
+            columns[column][row] = null;
+        }
+    }
+
+    /**
+     * Sets a whole number in a cell.
+     * Numeric columns store the number directly, other columns store its text.
+     *
+     * @param row The row index
+     * @param column The column index
+     * @param value The value to store
+     */
+    public void setInt(int row, int column, int value) {
+        if (types[column].isNumeric()) {
+            setNumber(row, column, value);
+        } else {
+            set(row, column, Integer.toString(value));
+        }
+    }
+
+    /**
+     * Sets a fractional number in a cell.
+     * DECIMAL columns store the number directly, INTEGER columns store it rounded, and other columns store its text.
+     *
+     * @param row The row index
+     * @param column The column index
+     * @param value The value to store
+     */
+    public void setDouble(int row, int column, double value) {
+        if (types[column].isNumeric()) {
+            setNumber(row, column, value);
+        } else {
+            set(row, column, Double.toString(value));
+        }
+    }
+
+    /**
+     * Gets the whole number held by a cell in a numeric column.
+     *
+     * @param row The row index
+     * @param column The column index, or -1 for a column that doesn't exist
+     * @param defaultValue Value to return if the cell doesn't hold a number
+     * @return The cell's number (rounded, for DECIMAL columns), or defaultValue if the cell is unset, null, text, or not in a numeric column
+     */
+    public int getInt(int row, int column, int defaultValue) {
+        if (!holdsNumber(row, column)) {
+            return defaultValue;
+        }
+        return types[column] == ColumnType.INTEGER ? intColumns[column][row] : (int) Math.round(doubleColumns[column][row]);
+    }
+
+    /**
+     * Gets the number held by a cell in a numeric column.
+     *
+     * @param row The row index
+     * @param column The column index, or -1 for a column that doesn't exist
+     * @param defaultValue Value to return if the cell doesn't hold a number
+     * @return The cell's number, or defaultValue if the cell is unset, null, text, or not in a numeric column
+     */
+    public double getDouble(int row, int column, double defaultValue) {
+        if (!holdsNumber(row, column)) {
+            return defaultValue;
+        }
+        return types[column] == ColumnType.INTEGER ? intColumns[column][row] : doubleColumns[column][row];
+    }
+
+    /**
+     * Gets the value of a cell as its typed object, without formatting numbers.
+     *
+     * @param row The row index
+     * @param column The column index, or -1 for a column that doesn't exist
+     * @return An Integer or Double for cells holding a number, otherwise the cell's String value (null if unset)
+     */
+    public Object getTyped(int row, int column) {
+        if (holdsNumber(row, column)) {
+            return types[column] == ColumnType.INTEGER ? (Object) intColumns[column][row] : (Object) doubleColumns[column][row];
+        }
+        return get(row, column);
+    }
+
+    /**
+     * Checks if a cell in a numeric column holds a number, rather than being unset or holding null or text.
+     *
+     * @param row The row index
+     * @param column The column index, or -1 for a column that doesn't exist
+     * @return true if the cell holds a number
+     */
+    public boolean holdsNumber(int row, int column) {
+        if (column < 0 || !types[column].isNumeric()) {
+            return false;
+        }
+        if (loaders[column] != null) {
+            loadDeferred(column);
+        }
+        String[] cells = columns[column];
+        return cells != null && row < cells.length && cells[row] == NUMBER_CELL;
+    }
+
+    /**
+     * Checks if a cell has been written, even if it was written with null.
+     *
+     * @param row The row index
+     * @param column The column index, or -1 for a column that doesn't exist
+     * @return true if the cell has been set
+     */
+    public boolean isSet(int row, int column) {
+        return getRaw(row, column) != null;
+    }
+
+    /**
+     * Gets the dictionary encoding a column.
+     *
+     * @param column The column index, or -1 for a column that doesn't exist
+     * @return The column's dictionary, or null if the column isn't dictionary-encoded
+     */
+    public ValueDictionary getDictionary(int column) {
+        return column < 0 ? null : dictionaries[column];
+    }
+
+    /**
+     * Gets the dictionary code of a cell in a dictionary-encoded column.
+     *
+     * @param row The row index
+     * @param column The column index
+     * @return The cell's code, ValueDictionary.UNSET_CODE if unset, or ValueDictionary.NO_CODE if the column isn't encoded
+     */
+    public int getCode(int row, int column) {
+        if (column < 0 || dictionaries[column] == null) {
+            return ValueDictionary.NO_CODE;
+        }
+        if (loaders[column] != null) {
+            loadDeferred(column);
+        }
+        int[] codes = codeColumns[column];
+        if (codes == null || row >= codes.length) {
+            return ValueDictionary.UNSET_CODE;
+        }
+        return codes[row];
+    }
+
+    /**
+     * Copies every set cell of a row into a map keyed by column name.
+     *
+     * @param row The row index
+     * @return A new map containing the row's data
+     */
+    public Map<String, String> toMap(int row) {
+        Map<String, String> data = new HashMap<>();
+        for (int column = 0; column < columnNames.size(); column++) {
+            String raw = getRaw(row, column);
+            if (raw != null) {
+                data.put(columnNames.get(column), translate(row, column, raw));
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Copies every set cell of a row in another store into a new row of this store.
+     * Columns missing from this store are registered as needed.
+     *
+     * @param source The store holding the row
+     * @param sourceRow The row index in the source store
+     * @return The index of the new row in this store
+     */
+    public int copyRowFrom(ColumnStore source, int sourceRow) {
+        int row = addRow();
+        for (int sourceColumn = 0; sourceColumn < source.columnNames.size(); sourceColumn++) {
+            String raw = source.getRaw(sourceRow, sourceColumn);
+            if (raw == null) {
+                continue;
+            }
+            int column = ensureColumn(source.columnNames.get(sourceColumn));
+            if (raw == NUMBER_CELL && types[column].isNumeric()) {
+                setNumber(row, column, source.getDouble(sourceRow, sourceColumn, 0));
+            } else {
+                set(row, column, source.translate(sourceRow, sourceColumn, raw));
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Starts a checkpoint, journaling changes so they can be undone by rollbackCheckpoint.
+     * Any checkpoint already in progress is replaced.
+     */
+    public void beginCheckpoint() {
+        journal = new Journal();
+    }
+
+    /**
+     * Ends the current checkpoint, keeping all changes made since it began.
+     */
+    public void commitCheckpoint() {
+        journal = null;
+    }
+
+    /**
+     * Restores the store to its state when the current checkpoint began, then ends the checkpoint.
+     * Cells written since are restored from the journal, and rows and columns added since are removed.
+     * Values interned into dictionaries since the checkpoint are left in place - they're unused, but harmless.
+     *
+     * @throws IllegalStateException if no checkpoint is in progress
+     */
+    public void rollbackCheckpoint() {
+        if (journal == null) {
+            throw new IllegalStateException("No checkpoint in progress");
+        }
+        Journal undo = journal;
+        journal = null;
+        undo.rollback();
+    }
+
+    /**
+     * Checks if a checkpoint is in progress.
+     *
+     * @return true if changes are being journaled
+     */
+    public boolean hasCheckpoint() {
+        return journal != null;
+    }
+
+    /**
+     * Gets the stored value of a cell without translating the null marker.
+     */
+    private String getRaw(int row, int column) {
+        if (column < 0) {
+            return null;
+        }
+        if (loaders[column] != null) {
+            loadDeferred(column);
+        }
+
+        ValueDictionary dictionary = dictionaries[column];
+        if (dictionary != null) {
+            int[] codes = codeColumns[column];
+            if (codes == null || row >= codes.length || codes[row] == ValueDictionary.UNSET_CODE) {
+                return null;
+            }
+            String value = dictionary.decode(codes[row]);
+            return value == null ? NULL_CELL : value;
+        }
+
+        String[] cells = columns[column];
+        if (cells == null || row >= cells.length) {
+            return null;
+        }
+        return cells[row];
+    }
+
+    /**
+     * Converts a stored value to the value callers see, translating the null marker and formatting numbers.
+     */
+    private String translate(int row, int column, String raw) {
+        if (raw == NULL_CELL) {
+            return null;
+        }
+        if (raw == NUMBER_CELL) {
+            ColumnType type = types[column];
+            return type == ColumnType.INTEGER ? type.format(intColumns[column][row]) : type.format(doubleColumns[column][row]);
+        }
+        return raw;
+    }
+
+    /**
+     * Stores a number in a numeric column, growing its arrays if needed.
+     * INTEGER columns store the value rounded.
+     */
+    private void setNumber(int row, int column, double value) {
+        if (loaders[column] != null) {
+            loadDeferred(column);
+        }
+        if (journal != null) {
+            journal.record(row, column);
+        }
+        String[] cells = columns[column];
+        if (cells == null || row >= cells.length) {
+            cells = growColumn(column, row);
+        }
+        if (types[column] == ColumnType.INTEGER) {
+            int[] numbers = intColumns[column];
+            if (numbers == null || numbers.length < cells.length) {
+                numbers = numbers == null ? new int[cells.length] : Arrays.copyOf(numbers, cells.length);
+                intColumns[column] = numbers;
+            }
+            numbers[row] = (int) Math.round(value);
+        } else {
+            double[] numbers = doubleColumns[column];
+            if (numbers == null || numbers.length < cells.length) {
+                numbers = numbers == null ? new double[cells.length] : Arrays.copyOf(numbers, cells.length);
+                doubleColumns[column] = numbers;
+            }
+            numbers[row] = value;
+        }
+        cells[row] = NUMBER_CELL;
+    }
+
+    /**
+     * Runs a deferred column's loader, with journaling suspended so a rollback doesn't undo the loaded cells.
+     */
+    private void loadDeferred(int column) {
+        ColumnLoader loader = loaders[column];
+        loaders[column] = null;
+
+        Journal suspended = journal;
+        journal = null;
+        try {
+            loader.load(this, column);
+        } finally {
+            journal = suspended;
+        }
+    }
+
+    /**
+     * Parses text in the canonical whole number form produced by ColumnType.format - an optional minus sign and up to 9 digits,
+     * without leading zeros or whitespace. Any other text is rejected, so numbers stored from text always read back unchanged.
+     *
+     * @return The parsed number, or NOT_NUMERIC
+     */
+    private static long parseCanonicalInt(String text) {
+        int length = text.length();
+        int start = length > 1 && text.charAt(0) == '-' ? 1 : 0;
+        int digits = length - start;
+        if (digits == 0 || digits > 9 || (text.charAt(start) == '0' && (digits > 1 || start == 1))) {
+            return NOT_NUMERIC;
+        }
+
+        long value = 0;
+        for (int i = start; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return NOT_NUMERIC;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return start == 1 ? -value : value;
+    }
+
+    /**
+     * Gets the capacity a column's array should grow to so it can hold the given row, doubling to keep growth amortized.
+     */
+    private int grownCapacity(int currentLength, int row) {
+        int capacity = Math.max(Math.max(INITIAL_ROWS, rowCount), row + 1);
+        return Math.max(capacity, currentLength * 2);
+    }
+
+    /**
+     * Grows a plain column's array so it can hold the given row.
+     */
+    private String[] growColumn(int column, int row) {
+        String[] cells = columns[column];
+        int capacity = grownCapacity(cells == null ? 0 : cells.length, row);
+        cells = cells == null ? new String[capacity] : Arrays.copyOf(cells, capacity);
+        columns[column] = cells;
+        return cells;
+    }
+
+    /**
+     * Grows a dictionary-encoded column's array so it can hold the given row.
+     */
+    private int[] growCodeColumn(int column, int row) {
+        int[] codes = codeColumns[column];
+        int capacity = grownCapacity(codes == null ? 0 : codes.length, row);
+        codes = codes == null ? new int[capacity] : Arrays.copyOf(codes, capacity);
+        codeColumns[column] = codes;
+        return codes;
+    }
+
+    /**
+     * Undo journal for a checkpoint.
+     * Holds the prior state of each cell that existed at the checkpoint and has been written since, recorded on its first write.
+     * Cells in rows or columns added after the checkpoint aren't journaled, since rolling back removes them entirely.
+     */
+    private final class Journal {
+        private final int rowCount = ColumnStore.this.rowCount;
+        private final int columnCount = columnNames.size();
+        private final Set<Long> touchedCells = new HashSet<>();
+        private final List<CellState> priorStates = new ArrayList<>();
+
+        /**
+         * Records a cell's current state, if it existed at the checkpoint and hasn't been recorded yet.
+         * Synchronized, since features applied concurrently write to different columns under the same checkpoint.
+         */
+        synchronized void record(int row, int column) {
+            if (row >= rowCount || column >= columnCount || !touchedCells.add(((long) row << 32) | column)) {
+                return;
+            }
+
+            String[] cells = columns[column];
+            int[] codes = codeColumns[column];
+            String raw = cells != null && row < cells.length ? cells[row] : null;
+            int code = codes != null && row < codes.length ? codes[row] : ValueDictionary.UNSET_CODE;
+            double number = raw == NUMBER_CELL ? getDouble(row, column, 0) : 0;
+            priorStates.add(new CellState(row, column, raw, code, number));
+        }
+
+        /**
+         * Restores every recorded cell, then removes rows and columns added since the checkpoint.
+         */
+        void rollback() {
+            for (CellState state : priorStates) {
+                state.restore();
+            }
+
+            // Clear cells in added rows, so the row indices can be reused
+            int currentRowCount = ColumnStore.this.rowCount;
+            for (int column = 0; column < columnCount; column++) {
+                String[] cells = columns[column];
+                if (cells != null && rowCount < cells.length) {
+                    Arrays.fill(cells, rowCount, Math.min(cells.length, currentRowCount), null);
+                }
+                int[] codes = codeColumns[column];
+                if (codes != null && rowCount < codes.length) {
+                    Arrays.fill(codes, rowCount, Math.min(codes.length, currentRowCount), ValueDictionary.UNSET_CODE);
+                }
+            }
+            ColumnStore.this.rowCount = rowCount;
+
+            // Remove added columns
+            for (int column = columnNames.size() - 1; column >= columnCount; column--) {
+                columnIndex.remove(columnNames.remove(column));
+                columns[column] = null;
+                codeColumns[column] = null;
+                intColumns[column] = null;
+                doubleColumns[column] = null;
+                loaders[column] = null;
+                dictionaries[column] = null;
+                types[column] = null;
+            }
+        }
+    }
+
+    /**
+     * Prior state of a journaled cell.
+     */
+    private final class CellState {
+        private final int row;
+        private final int column;
+        private final String raw;
+        private final int code;
+        private final double number;
+
+        CellState(int row, int column, String raw, int code, double number) {
+            this.row = row;
+            this.column = column;
+            this.raw = raw;
+            this.code = code;
+            this.number = number;
+        }
+
+        /**
+         * Writes this state back into the cell. The cell's arrays already exist, since it was written after being recorded.
+         */
+        void restore() {
+            if (dictionaries[column] != null) {
+                codeColumns[column][row] = code;
+                return;
+            }
+            columns[column][row] = raw;
+            if (raw == NUMBER_CELL) {
+                if (types[column] == ColumnType.INTEGER) {
+                    intColumns[column][row] = (int) number;
+                } else {
+                    doubleColumns[column][row] = number;
+                }
+            }
+        }
+    }
+}
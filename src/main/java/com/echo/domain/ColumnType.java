@@ -0,0 +1,36 @@
+package com.echo.domain;
+
+/**
+ * Storage type of a roster column, declared per header by RosterHeader.getColumnType.
+ *
+ * Numeric columns are held by a ColumnStore as primitive arrays, so filters, sorters and features can read them without parsing.
+ * They are only formatted as text when read as a String - for display, export, or code that hasn't been moved to typed access.
+ */
+public enum ColumnType {
+    TEXT,       // Plain or dictionary-encoded String values
+    INTEGER,    // Whole numbers, held in an int array - e.g. Rounds Assigned
+    DECIMAL;    // Fractional numbers, held in a double array and displayed rounded to a whole number - e.g. Preference Score
+
+    /**
+     * Checks if this column type is held as numbers rather than text.
+     *
+     * @return true for numeric column types
+     */
+    public boolean isNumeric() {
+        return this != TEXT;
+    }
+
+    /**
+     * Formats a number held by a column of this type for display or export.
+     *
+     * @param value The value to format
+     * @return The formatted value
+     */
+    public String format(Number value) {
+        return switch (this) {
+            case INTEGER -> Integer.toString(value.intValue());
+            case DECIMAL -> Long.toString(Math.round(value.doubleValue()));
+            case TEXT -> String.valueOf(value);
+        };
+    }
+}
@@ -1,7 +1,11 @@
 package com.echo.domain;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Extended roster that supports feature tracking and enhancement.
@@ -13,9 +17,15 @@ import java.util.Map;
  * Features are identified by their unique feature IDs, which are stored in a map
  * along with their enabled state. This class is the primary data structure used
  * by the RosterService when processing and enhancing roster data.
+ *
+ * Feature application can be made transactional with checkpoint(), commit() and rollback(),
+ * letting the RosterService undo a feature that fails post-validation and continue with the rest.
+ * Features that keep state derived from the roster publish it with whenCommitted(), so a rollback can't leave it out of step.
  */
 public class EnhancedRoster extends Roster {
-    private final Map<String, Boolean> enabledFeatures = new HashMap<>();
+    private final Map<String, Boolean> enabledFeatures = new ConcurrentHashMap<>(); // Features applied concurrently enable themselves at once
+    private Map<String, Boolean> checkpointFeatures;
+    private final List<Runnable> commitActions = Collections.synchronizedList(new ArrayList<>()); // Features applied concurrently register at once
 
     /**
      * Creates a new empty EnhancedRoster with no enabled features.
@@ -51,4 +61,51 @@ public class EnhancedRoster extends Roster {
     public Map<String, Boolean> getEnabledFeatures() {
         return new HashMap<>(enabledFeatures);
     }
+
+    /**
+     * Saves a checkpoint of the roster's current state, typically before applying a feature.
+     * Changes to cell data are journaled copy-on-write, so this doesn't copy camper data.
+     */
+    public void checkpoint() {
+        beginCheckpoint();
+        checkpointFeatures = new HashMap<>(enabledFeatures);
+    }
+
+    /**
+     * Keeps all changes made since the last checkpoint, and ends it.
+     */
+    public void commit() {
+        commitCheckpoint();
+        checkpointFeatures = null;
+        List<Runnable> actions = new ArrayList<>(commitActions);
+        commitActions.clear();
+        actions.forEach(Runnable::run);
+    }
+
+    /**
+     * Undoes all changes made since the last checkpoint - including added campers, headers and enabled features - and ends it.
+     *
+     * @throws IllegalStateException if no checkpoint is in progress
+     */
+    public void rollback() {
+        rollbackCheckpoint();
+        enabledFeatures.clear();
+        enabledFeatures.putAll(checkpointFeatures);
+        checkpointFeatures = null;
+        commitActions.clear();
+    }
+
+    /**
+     * Runs an action once the changes made so far are kept: when the current checkpoint is committed, or right away if
+     * no checkpoint is in progress. The action is dropped if the checkpoint is rolled back instead.
+     *
+     * @param action The action to run, typically publishing state a feature derived from the roster
+     */
+    public void whenCommitted(Runnable action) {
+        if (checkpointFeatures == null) {
+            action.run();
+        } else {
+            commitActions.add(action);
+        }
+    }
 }
@@ -9,9 +9,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+
 import com.echo.logging.RosterException;
 import com.echo.service.ImportUtils;
-import com.echo.service.ParsedCSV;
 
 /**
  * Base class for all roster types in the system.
@@ -24,15 +24,30 @@ import com.echo.service.ParsedCSV;
  * - EnhancedRoster - output roster, created based on CamperRoster data and contributed to by some number of RosterFeatures
  *
  * Key responsibilities here:
- * - Managing a collection of Camper objects
+ * - Managing a collection of Camper objects, whose data is held in a shared columnar ColumnStore
  * - Tracking header information and visibility
  * - Providing methods to access and modify roster data
  * - Loading roster data from CSV files
  */
 public class Roster {
     private final List<Camper> campers = new ArrayList<>();
-    private final Map<String, Integer> headerMap = new LinkedHashMap<>();
+    private final ColumnStore store = new ColumnStore();
+    private final Map<CamperKey, Camper> camperIndex = new HashMap<>();
+    private final Map<String, Integer> duplicateCamperIds = new LinkedHashMap<>();
+    private final HeaderMap headerMap = new HeaderMap();
     private final Map<String, Boolean> headerVisibility = new HashMap<>();
+    private int visibilityVersion = 0;
+
+    // Cached header views, rebuilt only after a structural header change or a visibility change (see refreshHeaderViews)
+    private List<String> allHeadersView;
+    private List<String> visibleHeadersView;
+    private List<String> orderedHeadersView;
+    private List<String> orderedVisibleHeadersView;
+    private int viewStructureVersion = -1;
+    private int viewHeaderCount = -1;
+    private int viewVisibilityVersion = -1;
+
+    private Checkpoint checkpoint;
 
     /**
      * Creates a new empty Roster.
@@ -60,6 +75,39 @@ public class Roster {
         return headerMap;
     }
 
+    /**
+     * Gets the stable storage index of a column, for use with Camper.getValue(int) and Camper.setValue(int, String).
+     * Unlike the positions in getHeaderMap(), these indices are never reassigned by header reordering.
+     * Indices are only valid for campers currently held by this roster (a camper added to another roster moves with its data).
+     *
+     * @param header The header name
+     * @return The column index, or -1 if no camper data or header exists for this name
+     */
+    public int getColumnIndex(String header) {
+        return store.columnOf(header);
+    }
+
+    /**
+     * Gets the dictionary encoding a low-cardinality column, for resolving values to codes once and comparing codes per camper.
+     *
+     * @param header The header name
+     * @return The column's dictionary, or null if the column doesn't exist or isn't dictionary-encoded
+     */
+    public ValueDictionary getDictionary(String header) {
+        return store.getDictionary(store.columnOf(header));
+    }
+
+    /**
+     * Gets the storage type of a column, as declared by RosterHeader.getColumnType.
+     * Values in numeric columns can be read without parsing through Camper.getInt and Camper.getDouble.
+     *
+     * @param header The header name
+     * @return The column's type, or ColumnType.TEXT if the column doesn't exist
+     */
+    public ColumnType getColumnType(String header) {
+        return store.getColumnType(store.columnOf(header));
+    }
+
     /**
      * Gets the value for a specific camper and header.
      *
@@ -99,20 +147,11 @@ public class Roster {
     /**
      * Gets the list of headers that are currently visible.
      *
-     * @return List of visible header names
+     * @return Unmodifiable list of visible header names, cached until headers or visibility change
      */
     public List<String> getVisibleHeaders() {
-        List<String> visibleHeaders = new ArrayList<>();
-        for (String header: headerMap.keySet()){
-            boolean isVisible = headerVisibility.getOrDefault(header, true);
-            if (isVisible){
-                visibleHeaders.add(header);
-            }
-        }
-
-
-
-        return visibleHeaders;
+        refreshHeaderViews();
+        return visibleHeadersView;
     }
 
     /**
@@ -138,27 +177,11 @@ public class Roster {
     /**
      * Gets the list of headers that are currently visible, ordered according to RosterHeader enum order.
      *
-     * @return List of visible header names in the correct display order
+     * @return Unmodifiable list of visible header names in the correct display order, cached until headers or visibility change
      */
     public List<String> getOrderedVisibleHeaders() {
-        List<String> visibleHeaders = getVisibleHeaders();
-        List<String> orderedHeaders = new ArrayList<>();
-
-        // First add headers that match RosterHeader enums in their defined order
-        for (RosterHeader header : RosterHeader.values()) {
-            if (visibleHeaders.contains(header.standardName)) {
-                orderedHeaders.add(header.standardName);
-            }
-        }
-
-        // Then add any remaining headers that weren't matched
-        for (String header : visibleHeaders) {
-            if (!orderedHeaders.contains(header)) {
-                orderedHeaders.add(header);
-            }
-        }
-
-        return orderedHeaders;
+        refreshHeaderViews();
+        return orderedVisibleHeadersView;
     }
 
     /**
@@ -169,7 +192,7 @@ public class Roster {
      */
     public void setHeaderVisibility(String header, boolean visible) {
         if (headerMap.containsKey(header)) {
-            headerVisibility.put(header, visible);
+            putHeaderVisibility(header, visible);
         }
     }
 
@@ -195,9 +218,9 @@ public class Roster {
 
             if (rosterHeader != null) {
                 defaultVisibility = rosterHeader.defaultVisibility;
-                headerVisibility.put(header, defaultVisibility);
+                putHeaderVisibility(header, defaultVisibility);
             } else {
-                headerVisibility.put(header, true);
+                putHeaderVisibility(header, true);
             }
         }
     }
@@ -209,43 +232,71 @@ public class Roster {
      */
     public void setAllHeadersVisibility(boolean visible) {
         for (String header : headerMap.keySet()) {
-            headerVisibility.put(header, visible);
+            putHeaderVisibility(header, visible);
         }
     }
 
     /**
      * Gets all headers in the roster.
      *
-     * @return List of all header names
+     * @return Unmodifiable list of all header names, cached until headers change
      */
     public List<String> getAllHeaders() {
-        return new ArrayList<>(headerMap.keySet());
+        refreshHeaderViews();
+        return allHeadersView;
     }
 
     /**
      * Gets all headers in the roster, ordered according to RosterHeader enum order.
      *
-     * @return List of all header names in the correct display order
+     * @return Unmodifiable list of all header names in the correct display order, cached until headers change
      */
     public List<String> getOrderedHeaders() {
-        List<String> allHeaders = getAllHeaders();
-        List<String> orderedHeaders = new ArrayList<>();
+        refreshHeaderViews();
+        return orderedHeadersView;
+    }
 
-        // First add headers that match RosterHeader enums in their defined order
-        for (RosterHeader header : RosterHeader.values()) {
-            if (allHeaders.contains(header.standardName)) {
-                orderedHeaders.add(header.standardName);
-            }
+    /**
+     * Rebuilds the cached header views if headers or visibility settings have changed since they were built.
+     * Structural changes are detected through HeaderMap's version (and size, for changes made through its key or entry views),
+     * so changes made through getHeaderMap() - like RosterHeader.updateHeaderMapOrder - are picked up too.
+     * Between changes, header view queries are allocation-free.
+     */
+    private void refreshHeaderViews() {
+        if (viewStructureVersion != headerMap.version || viewHeaderCount != headerMap.size()) {
+            allHeadersView = Collections.unmodifiableList(new ArrayList<>(headerMap.keySet()));
+            orderedHeadersView = Collections.unmodifiableList(RosterHeader.sortHeaderNames(headerMap.keySet()));
+            viewStructureVersion = headerMap.version;
+            viewHeaderCount = headerMap.size();
+            viewVisibilityVersion = -1; // Visible views are derived from the views above
         }
 
-        // Then add any remaining headers that weren't matched
-        for (String header : allHeaders) {
-            if (!orderedHeaders.contains(header)) {
-                orderedHeaders.add(header);
+        if (viewVisibilityVersion != visibilityVersion) {
+            visibleHeadersView = filterVisible(allHeadersView);
+            orderedVisibleHeadersView = filterVisible(orderedHeadersView);
+            viewVisibilityVersion = visibilityVersion;
+        }
+    }
+
+    /**
+     * Filters a list of headers down to the visible ones, keeping their order.
+     */
+    private List<String> filterVisible(List<String> headers) {
+        List<String> visibleHeaders = new ArrayList<>(headers.size());
+        for (String header : headers) {
+            if (headerVisibility.getOrDefault(header, true)) {
+                visibleHeaders.add(header);
             }
         }
+        return Collections.unmodifiableList(visibleHeaders);
+    }
 
-        return orderedHeaders;
+    /**
+     * Records a header's visibility, invalidating the cached visible header views.
+     */
+    private void putHeaderVisibility(String header, boolean visible) {
+        headerVisibility.put(header, visible);
+        visibilityVersion++;
     }
 
     /**
@@ -257,7 +308,7 @@ public class Roster {
     public void setHeadersVisibility(List<String> headers, boolean visible) {
         for (String header : headers) {
             if (headerMap.containsKey(header)) {
-                headerVisibility.put(header, visible);
+                putHeaderVisibility(header, visible);
             }
         }
     }
@@ -270,13 +321,14 @@ public class Roster {
     public void addHeader(String header) {
         if (!headerMap.containsKey(header)) {
             headerMap.put(header, headerMap.size());
+            store.ensureColumn(header);
 
             // Set visibility based on RosterHeader defaults if this is a known header type
             RosterHeader rosterHeader = RosterHeader.determineHeaderType(header);
             if (rosterHeader != null) {
-                headerVisibility.put(header, rosterHeader.defaultVisibility);
+                putHeaderVisibility(header, rosterHeader.defaultVisibility);
             } else {
-                headerVisibility.put(header, true);
+                putHeaderVisibility(header, true);
             }
         }
     }
@@ -290,7 +342,8 @@ public class Roster {
     public void addHeader(RosterHeader header) {
         if (!headerMap.containsKey(header.standardName)) {
             headerMap.put(header.standardName, headerMap.size());
-            headerVisibility.put(header.standardName, header.defaultVisibility);
+            store.ensureColumn(header.standardName);
+            putHeaderVisibility(header.standardName, header.defaultVisibility);
         }
     }
 
@@ -351,26 +404,142 @@ public class Roster {
 
     /**
      * Adds a camper to the roster.
+     * The camper's data is moved into this roster's store, so column indices from getColumnIndex apply to it.
      *
      * @param camper The camper to add
      */
     public void addCamper(Camper camper) {
+        camper.moveTo(store);
         campers.add(camper);
+
+        // Index by key, keeping the first camper on collision so lookups match list order
+        Camper existing = camperIndex.putIfAbsent(camper.getKey(), camper);
+        if (existing != null) {
+            duplicateCamperIds.merge(camper.getId(), 2, (count, ignored) -> count + 1);
+        }
     }
 
     /**
-     * Gets a camper by ID.
+     * Adds a camper whose values are written straight into this roster's store, without an intermediate map or private store.
+     * Used by imports that stream records into a roster.
      *
-     * @param camperId The ID of the camper to get
-     * @return The camper, or null if not found
+     * @param key The new camper's key
+     * @param columns Column index of each value, from getColumnIndex
+     * @param values The camper's values, in the same order as columns. Copied into the store, so callers may reuse the array.
+     * @return The new camper
      */
-    public Camper getCamperById(String camperId) {
+    public Camper addCamper(CamperKey key, int[] columns, String[] values) {
+        int row = store.addRow();
+        for (int i = 0; i < columns.length; i++) {
+            store.set(row, columns[i], values[i]);
+        }
+        Camper camper = new Camper(key, store, row);
+        addCamper(camper);
+        return camper;
+    }
+
+    /**
+     * Copies this roster's headers and campers into an empty roster, such as a fresh instance of the same roster type.
+     * Rows are copied store to store without going through maps, and the copy shares no mutable state with this roster,
+     * so either can be modified - or have its campers moved into another roster - without affecting the other.
+     *
+     * @param target The empty roster to copy into
+     * @return The target roster, for chaining
+     */
+    public <R extends Roster> R copyInto(R target) {
+        for (String header : headerMap.keySet()) {
+            target.addHeader(header);
+            target.setHeaderVisibility(header, isHeaderVisible(header));
+        }
         for (Camper camper : campers) {
-            if (camper.getId().equals(camperId)) {
-                return camper;
+            target.addCamper(new Camper(camper.getKey(), store, camper.getRow()));
+        }
+        return target;
+    }
+
+    /**
+     * Gets the IDs shared by more than one camper in this roster.
+     * Generated IDs are built from name and grade, so distinct campers can collide.
+     * For a duplicated ID, getCamperById returns the first camper added with it.
+     *
+     * @return Unmodifiable map of each duplicated ID to the number of campers sharing it, in order of first collision
+     */
+    public Map<String, Integer> getDuplicateCamperIds() {
+        return Collections.unmodifiableMap(duplicateCamperIds);
+    }
+
+    /**
+     * Merges rows of data into the campers they belong to, as a hash join on camper ID.
+     * Each row's values are written to the camper with the matching ID, the same way Camper.setValue would write them.
+     * Rows without a matching camper are left untouched and returned, so callers can decide how to handle them.
+     *
+     * @param rowsById Map of camper IDs to the data to merge into each camper
+     * @return Map of the rows that had no matching camper, keyed by ID, in the order given
+     */
+    public Map<String, Map<String, String>> mergeRowsById(Map<String, Map<String, String>> rowsById) {
+        Map<CamperKey, Map<String, String>> rowsByKey = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, String>> entry : rowsById.entrySet()) {
+            rowsByKey.put(CamperKey.ofId(entry.getKey()), entry.getValue());
+        }
+
+        Map<String, Map<String, String>> unmatchedRows = new LinkedHashMap<>();
+        for (Map.Entry<CamperKey, Map<String, String>> entry : mergeRowsByKey(rowsByKey).entrySet()) {
+            unmatchedRows.put(entry.getKey().toString(), entry.getValue());
+        }
+        return unmatchedRows;
+    }
+
+    /**
+     * Merges rows of data into the campers they belong to, as a hash join on camper key.
+     * Behaves like mergeRowsById, without building ID strings for rows that match.
+     *
+     * @param rowsByKey Map of camper keys to the data to merge into each camper
+     * @return Map of the rows that had no matching camper, keyed by camper key, in the order given
+     */
+    public Map<CamperKey, Map<String, String>> mergeRowsByKey(Map<CamperKey, Map<String, String>> rowsByKey) {
+        Map<CamperKey, Map<String, String>> unmatchedRows = new LinkedHashMap<>();
+
+        for (Map.Entry<CamperKey, Map<String, String>> entry : rowsByKey.entrySet()) {
+            Camper camper = camperIndex.get(entry.getKey());
+            if (camper == null) {
+                unmatchedRows.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+
+            for (Map.Entry<String, String> cell : entry.getValue().entrySet()) {
+                camper.setValue(cell.getKey(), cell.getValue());
             }
         }
-        return null;
+        return unmatchedRows;
+    }
+
+    /**
+     * Gets the columnar store holding this roster's camper data.
+     *
+     * @return The roster's ColumnStore
+     */
+    ColumnStore getStore() {
+        return store;
+    }
+
+    /**
+     * Gets a camper by ID, using the index maintained by addCamper.
+     *
+     * @param camperId The ID of the camper to get
+     * @return The camper (the first one added, if the ID is duplicated), or null if not found
+     */
+    public Camper getCamperById(String camperId) {
+        return camperIndex.get(CamperKey.ofId(camperId));
+    }
+
+    /**
+     * Gets a camper by key, using the index maintained by addCamper.
+     *
+     * @param key The key of the camper to get
+     * @return The camper (the first one added, if the key is duplicated), or null if not found
+     */
+    public Camper getCamperByKey(CamperKey key) {
+        return camperIndex.get(key);
     }
 
     /**
@@ -381,14 +550,17 @@ public class Roster {
      * @return A unique identifier string in the format "firstname_lastname_grade"
      */
     public static String generateCamperId(Map<String, String> camperData) {
-        // Default implementation uses first name, last name, and grade if available
-        String firstName = camperData.getOrDefault(RosterHeader.FIRST_NAME.camperRosterName, "");
-        String lastName = camperData.getOrDefault(RosterHeader.LAST_NAME.camperRosterName, "");
-        String grade = camperData.getOrDefault(RosterHeader.GRADE.camperRosterName, "");
+        return generateCamperKey(camperData).toString();
+    }
 
-        return String.format("%s_%s_%s", firstName, lastName, grade)
-                .toLowerCase()
-                .replace(" ", "_");
+    /**
+     * Generates the key identifying a camper based on their data, from the same fields as generateCamperId.
+     *
+     * @param camperData Map of camper data containing at least first name and last name
+     * @return The camper's key, whose string form is the camper's ID
+     */
+    public static CamperKey generateCamperKey(Map<String, String> camperData) {
+        return CamperKey.fromCamperData(camperData);
     }
 
     /**
@@ -401,43 +573,50 @@ public class Roster {
      */
     public void loadFromCSV(File file) throws RosterException {
         try {
-            ParsedCSV parsedCSV = ImportUtils.parseFile(file);
-            // Get headers from parser
-            List<String> headerList = parsedCSV.getHeaderNames();
-            Map<String, Integer> parsedHeaders = new HashMap<>();
-            for (int i = 0; i < headerList.size(); i++) {
-                parsedHeaders.put(headerList.get(i), i);
-            }
-
-            // Check for case where headers are missing
-            if (parsedHeaders.isEmpty()) {
-                throw RosterException.create_normalWrapper("No headers found in file '"+file.getName()+"'", null);
-            }
-
-            // Add headers to roster
-            for (String header : parsedHeaders.keySet()) {
-                addHeader(header);
-            }
-
-            // Process rows
-            for (Map<String,String> record : parsedCSV.getRows()) {
-                Map<String, String> rowData = new HashMap<>();
+            // Stream records straight into the store, in a single pass
+            ImportUtils.streamFile(file, new ImportUtils.RecordHandler() {
+                private int[] columns;
+                private String[] values;
+                private int firstNameIndex;
+                private int lastNameIndex;
+                private int gradeIndex;
+
+                @Override
+                public void handleHeaders(List<String> headers) throws RosterException {
+                    // Check for case where headers are missing
+                    if (headers.isEmpty()) {
+                        throw RosterException.create_normalWrapper("No headers found in file '"+file.getName()+"'", null);
+                    }
 
-                // Convert record to map
-                for (String header : parsedHeaders.keySet()) {
-                    String value = record.get(header);
-                    // Normalize empty values
-                    if (value == null || value.trim().isEmpty()) {
-                        value = "";
+                    // Add headers to roster
+                    columns = new int[headers.size()];
+                    values = new String[headers.size()];
+                    for (int i = 0; i < headers.size(); i++) {
+                        addHeader(headers.get(i));
+                        columns[i] = getColumnIndex(headers.get(i));
                     }
-                    rowData.put(header, value);
+                    firstNameIndex = headers.lastIndexOf(RosterHeader.FIRST_NAME.camperRosterName);
+                    lastNameIndex = headers.lastIndexOf(RosterHeader.LAST_NAME.camperRosterName);
+                    gradeIndex = headers.lastIndexOf(RosterHeader.GRADE.camperRosterName);
                 }
 
-                // Create and add camper
-                Camper camper = new Camper(rowData);
-                addCamper(camper);
-            }
+                @Override
+                public void handleRecord(String[] record) {
+                    for (int i = 0; i < values.length; i++) {
+                        String value = record[i];
+                        // Normalize empty values
+                        values[i] = value == null || value.trim().isEmpty() ? "" : value;
+                    }
 
+                    // Create and add camper
+                    CamperKey key = CamperKey.of(valueAt(firstNameIndex), valueAt(lastNameIndex), valueAt(gradeIndex));
+                    addCamper(key, columns, values);
+                }
+
+                private String valueAt(int index) {
+                    return index < 0 ? "" : values[index];
+                }
+            });
         } catch (Exception e) {
             if (e instanceof RosterException) {
                 throw (RosterException) e;
@@ -465,4 +644,119 @@ public class Roster {
             throw RosterException.missingHeaders_Basic(missingHeaders);
         }
     }
+
+    /**
+     * Starts a checkpoint, so all changes to this roster's campers, data, headers and header visibility can be undone.
+     * Cell data is journaled copy-on-write by the ColumnStore, and only the small header and index maps are copied here,
+     * so taking a checkpoint is cheap even for large rosters. Any checkpoint already in progress is replaced.
+     */
+    protected void beginCheckpoint() {
+        checkpoint = new Checkpoint(campers.size(), new LinkedHashMap<>(headerMap),
+                                    new HashMap<>(headerVisibility), new LinkedHashMap<>(duplicateCamperIds));
+        store.beginCheckpoint();
+    }
+
+    /**
+     * Ends the current checkpoint, keeping all changes made since it began.
+     */
+    protected void commitCheckpoint() {
+        checkpoint = null;
+        store.commitCheckpoint();
+    }
+
+    /**
+     * Restores the roster to its state when the current checkpoint began, then ends the checkpoint.
+     * Runs in O(changed cells + headers), plus O(added campers) for any campers added since the checkpoint.
+     *
+     * @throws IllegalStateException if no checkpoint is in progress
+     */
+    protected void rollbackCheckpoint() {
+        if (checkpoint == null) {
+            throw new IllegalStateException("No checkpoint in progress");
+        }
+
+        // Drop campers added since the checkpoint, unindexing them unless an earlier camper holds their ID
+        List<Camper> addedCampers = campers.subList(checkpoint.camperCount, campers.size());
+        for (Camper camper : addedCampers) {
+            camperIndex.remove(camper.getKey(), camper);
+        }
+        addedCampers.clear();
+        duplicateCamperIds.clear();
+        duplicateCamperIds.putAll(checkpoint.duplicateCamperIds);
+
+        headerMap.clear();
+        headerMap.putAll(checkpoint.headerMap);
+        headerVisibility.clear();
+        headerVisibility.putAll(checkpoint.headerVisibility);
+        visibilityVersion++;
+
+        store.rollbackCheckpoint();
+        checkpoint = null;
+    }
+
+    /**
+     * Roster state saved by beginCheckpoint, other than cell data (which the ColumnStore journals itself).
+     */
+    private static final class Checkpoint {
+        private final int camperCount;
+        private final Map<String, Integer> headerMap;
+        private final Map<String, Boolean> headerVisibility;
+        private final Map<String, Integer> duplicateCamperIds;
+
+        Checkpoint(int camperCount, Map<String, Integer> headerMap, Map<String, Boolean> headerVisibility, Map<String, Integer> duplicateCamperIds) {
+            this.camperCount = camperCount;
+            this.headerMap = headerMap;
+            this.headerVisibility = headerVisibility;
+            this.duplicateCamperIds = duplicateCamperIds;
+        }
+    }
+
+    /**
+     * Header map that counts structural changes, so Roster can tell when its cached header views are stale.
+     * getHeaderMap() exposes this map directly for reordering, so changes are tracked here rather than in Roster's own methods.
+     * Changing an existing header's position doesn't affect any view, so only insertions and removals are counted.
+     */
+    private static final class HeaderMap extends LinkedHashMap<String, Integer> {
+        private int version = 0;
+
+        @Override
+        public Integer put(String key, Integer value) {
+            if (!containsKey(key)) {
+                version++;
+            }
+            return super.put(key, value);
+        }
+
+        @Override
+        public Integer putIfAbsent(String key, Integer value) {
+            if (!containsKey(key)) {
+                version++;
+            }
+            return super.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void putAll(Map<? extends String, ? extends Integer> map) {
+            version++;
+            super.putAll(map);
+        }
+
+        @Override
+        public Integer remove(Object key) {
+            version++;
+            return super.remove(key);
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            version++;
+            return super.remove(key, value);
+        }
+
+        @Override
+        public void clear() {
+            version++;
+            super.clear();
+        }
+    }
 }
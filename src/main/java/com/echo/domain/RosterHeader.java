@@ -1,8 +1,13 @@
 package com.echo.domain;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 
 
@@ -52,6 +57,12 @@ public enum RosterHeader {
 
     private static final String ROUND_BASE = "Round "; //Field is used to build round headers
 
+    // Immutable lookup tables resolving each naming scheme to its header in O(1), built once when the enum loads.
+    // Where two headers share a name, the first in declaration order wins, matching the original linear search.
+    private static final Map<String, RosterHeader> BY_STANDARD_NAME = buildLookup(header -> header.standardName);
+    private static final Map<String, RosterHeader> BY_CAMPER_ROSTER_NAME = buildLookup(header -> header.camperRosterName);
+    private static final Map<String, RosterHeader> BY_ACTIVITY_ROSTER_NAME = buildLookup(header -> header.activityRosterName);
+
     /**
      * Constructor for input-only headers.
      *
@@ -99,56 +110,112 @@ public enum RosterHeader {
 
 
     public boolean doNumericSort(){
+        return this == GRADE || getColumnType().isNumeric();
+    }
+
+    /**
+     * Gets the type a ColumnStore should hold this header's values as.
+     * Numeric columns are formatted as text only when read as a String, see ColumnType.
+     *
+     * @return The column type for this header
+     */
+    public ColumnType getColumnType(){
         return switch (this){
-            case GRADE, PREFERENCE_PERCENTILE, PREFERENCE_SCORE -> true;
-            default -> false;
+            case ROUND_COUNT -> ColumnType.INTEGER;
+            case PREFERENCE_SCORE, PREFERENCE_PERCENTILE -> ColumnType.DECIMAL;
+            default -> ColumnType.TEXT;
         };
     }
 
-    public static RosterHeader determineHeaderType(String headerText){
-        for (RosterHeader header : RosterHeader.values()){
-            if (header.standardName != null && header.standardName.equals(headerText)){
-                return header;
-            }
+    /**
+     * Gets the column type for a header name, see getColumnType().
+     *
+     * @param headerName The header name to check
+     * @return The column type, or ColumnType.TEXT for unrecognized headers
+     */
+    public static ColumnType getColumnType(String headerName) {
+        RosterHeader header = determineHeaderType(headerName);
+        return header == null ? ColumnType.TEXT : header.getColumnType();
+    }
+
+    /**
+     * Gets the key of the dictionary a low-cardinality column should be encoded with by a ColumnStore.
+     * Columns sharing a key share a dictionary - round assignments and activity names all draw from the same set of activities,
+     * so their codes can be compared across columns.
+     *
+     * @param headerName The header name to check
+     * @return The dictionary key, or null if the column shouldn't be dictionary-encoded
+     */
+    public static String getDictionaryKey(String headerName) {
+        if (isRound(headerName)) {
+            return ACTIVITY.name();
         }
-        for (RosterHeader header : RosterHeader.values()){
-            if (header.camperRosterName != null && header.camperRosterName.equals(headerText)){
-                return header;
-            }
+        RosterHeader header = determineHeaderType(headerName);
+        if (header == null) {
+            return null;
         }
-        for (RosterHeader header : RosterHeader.values()){
-            if (header.activityRosterName != null && header.activityRosterName.equals(headerText)){
-                return header;
-            }
+        return switch (header) {
+            case ACTIVITY, ROUND_1, ROUND_2, ROUND_3 -> ACTIVITY.name();
+            case GRADE, ESP, PROGRAM, ROUND, CABIN, SWIMCOLOR -> header.name();
+            default -> null;
+        };
+    }
+
+    /**
+     * Resolves a header name to its RosterHeader, checking standard names, then camper roster names, then activity roster names.
+     *
+     * @param headerText The header name to resolve
+     * @return The matching header, or null if the name isn't recognized
+     */
+    public static RosterHeader determineHeaderType(String headerText){
+        RosterHeader header = BY_STANDARD_NAME.get(headerText);
+        if (header == null) {
+            header = BY_CAMPER_ROSTER_NAME.get(headerText);
         }
-        return null;
+        if (header == null) {
+            header = BY_ACTIVITY_ROSTER_NAME.get(headerText);
+        }
+        return header;
     }
 
+    /**
+     * Resolves a header name to its RosterHeader, using the naming scheme of the given roster type.
+     *
+     * @param headerText The header name to resolve
+     * @param rosterClass The roster type whose naming scheme to use (EnhancedRoster uses standard names)
+     * @return The matching header, or null if the name isn't recognized for that roster type
+     */
     public static RosterHeader determineHeaderType(String headerText, Class<?> rosterClass){
         if (rosterClass == EnhancedRoster.class){
-            for (RosterHeader header : RosterHeader.values()){
-                if (header.standardName.equals(headerText)){
-                    return header;
-                }
-            }
+            return BY_STANDARD_NAME.get(headerText);
         }
         else if (rosterClass == CamperRoster.class){
-            for (RosterHeader header : RosterHeader.values()){
-                if (header.camperRosterName != null && header.camperRosterName.equals(headerText)){
-                    return header;
-                }
-            }
+            return BY_CAMPER_ROSTER_NAME.get(headerText);
         } else if (rosterClass == ActivityRoster.class){
-            for (RosterHeader header : RosterHeader.values()){
-                if (header.activityRosterName != null && header.activityRosterName.equals(headerText)){
-                    return header;
-                }
-            }
+            return BY_ACTIVITY_ROSTER_NAME.get(headerText);
         }
 
         return null;
     }
 
+    /**
+     * Builds an immutable lookup table from one of the headers' naming schemes.
+     * Backed by a HashMap rather than Map.copyOf, so lookups of null names return null instead of throwing.
+     *
+     * @param nameGetter Function getting a header's name in the naming scheme (null for headers without one)
+     * @return Unmodifiable map of names to headers
+     */
+    private static Map<String, RosterHeader> buildLookup(Function<RosterHeader, String> nameGetter) {
+        Map<String, RosterHeader> lookup = new HashMap<>();
+        for (RosterHeader header : values()) {
+            String name = nameGetter.apply(header);
+            if (name != null) {
+                lookup.putIfAbsent(name, header);
+            }
+        }
+        return Collections.unmodifiableMap(lookup);
+    }
+
     // public int getInherentPosition(){
     //     int index = values().indexOf(this);
     //     return index;
@@ -158,9 +225,11 @@ public enum RosterHeader {
         // return headers.stream()
         //         .sorted(Comparator.comparingInt(RosterHeader::getInherentPosition))
         //         .collect(Collectors.toList());
+        Set<RosterHeader> headerSet = EnumSet.noneOf(RosterHeader.class);
+        headerSet.addAll(headers);
         List<RosterHeader> sortedHeaders = new ArrayList<>();
         for (RosterHeader header:values()){
-            if (headers.contains(header)){
+            if (headerSet.contains(header)){
                 sortedHeaders.add(header);
             }
         }
@@ -202,9 +271,24 @@ public enum RosterHeader {
      * @param headerMap A map of header names to position integers (typically from Roster.getHeaderMap())
      */
     public static void updateHeaderMapOrder(Map<String, Integer> headerMap) {
-        // Convert header names to RosterHeader enums where possible
-        List<String> headerNames = new ArrayList<>(headerMap.keySet());
-        List<String> sortedHeaders = new ArrayList<>();
+        List<String> sortedHeaders = sortHeaderNames(headerMap.keySet());
+
+        // Clear and reassign indices based on sorted order
+        headerMap.clear();
+        for (int i = 0; i < sortedHeaders.size(); i++) {
+            headerMap.put(sortedHeaders.get(i), i);
+        }
+    }
+
+    /**
+     * Orders header names for display: names matching a RosterHeader's standard name come first, in enum order,
+     * followed by any remaining names in their original order. Runs in O(h) using the standard name lookup table.
+     *
+     * @param headerNames The header names to order
+     * @return A new list of the names in display order
+     */
+    public static List<String> sortHeaderNames(Set<String> headerNames) {
+        List<String> sortedHeaders = new ArrayList<>(headerNames.size());
 
         // First add headers that match RosterHeader enums in their defined order
         for (RosterHeader header : RosterHeader.values()) {
@@ -215,16 +299,11 @@ public enum RosterHeader {
 
         // Then add any remaining headers that weren't matched
         for (String header : headerNames) {
-            if (!sortedHeaders.contains(header)) {
+            if (!BY_STANDARD_NAME.containsKey(header)) {
                 sortedHeaders.add(header);
             }
         }
-
-        // Clear and reassign indices based on sorted order
-        headerMap.clear();
-        for (int i = 0; i < sortedHeaders.size(); i++) {
-            headerMap.put(sortedHeaders.get(i), i);
-        }
+        return sortedHeaders;
     }
 
     /**
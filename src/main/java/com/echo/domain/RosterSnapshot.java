@@ -0,0 +1,558 @@
+package com.echo.domain;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+import com.echo.logging.RosterWarning;
+import com.echo.logging.RosterWarning.WarningType;
+import com.echo.logging.WarningManager;
+
+/**
+ * Compact binary save format for a fully enhanced EnhancedRoster.
+ *
+ * A snapshot holds everything needed to reopen a roster without re-parsing its CSVs or re-running its features:
+ * headers with their positions and visibility, enabled features, camper IDs, every column of cell data, and the warnings
+ * logged while the roster was built, so they're shown again when it's reopened.
+ * Snapshots are written through a FileChannel and read back through a memory-mapped MemorySegment.
+ * Metadata is decoded up front, while each column is deferred (see ColumnStore.deferColumn) and only decoded when first read,
+ * so reopening a large roster costs little more than decoding the columns that get displayed.
+ *
+ * Layout (big-endian):
+ * - Header: magic, format version, source fingerprint, metadata offset and length, CRC32C of the metadata
+ * - Column blocks: the column's distinct values, then its cells - a reference per row into the values
+ *   (or UNSET_REF, NULL_REF, NUMBER_REF), and for numeric columns a double per row
+ * - Metadata: headers, enabled features, camper IDs, each column's name, block offsets and CRC32Cs of its values and cells,
+ *   then warnings by type as ImportCache writes them: exact counts, counts by column and value, then the examples kept for display
+ *
+ * A snapshot is only used if its format version, source fingerprint and every checksum match - otherwise read returns null,
+ * and callers should fall back to a normal CSV import. Opening checks every checksum in one sequential pass over the mapping,
+ * so a corrupt column is rejected up front rather than failing wherever it's first read; only decoding is deferred.
+ */
+public final class RosterSnapshot {
+
+    /** Marks snapshot files ("HCSN") */
+    private static final int MAGIC = 0x4843534E;
+
+    /** Bumped whenever the layout changes, so snapshots written by other versions are ignored */
+    public static final int FORMAT_VERSION = 3;
+
+    private static final int HEADER_SIZE = 32;
+    private static final int CHECKSUM_OFFSET = 28;
+
+    // Cell references in a column block, other than indices into the column's values
+    private static final int UNSET_REF = -1;
+    private static final int NULL_REF = -2;
+    private static final int NUMBER_REF = -3;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private RosterSnapshot() {
+        // Static utility class
+    }
+
+    /**
+     * Writes a snapshot of a roster.
+     * The snapshot is written to a temporary file and moved into place, so an interrupted write never leaves a partial snapshot.
+     *
+     * @param roster The roster to save. Any deferred columns are loaded in the process.
+     * @param warnings The warnings logged while the roster was built
+     * @param file The snapshot file to write
+     * @param fingerprint Value identifying the roster's sources (files, settings), checked by read
+     * @throws IOException if the snapshot can't be written
+     */
+    public static void write(EnhancedRoster roster, WarningManager warnings, Path file, long fingerprint) throws IOException {
+        ColumnStore store = roster.getStore();
+        List<Camper> campers = roster.getCampers();
+        SnapshotOutput out = new SnapshotOutput();
+        out.position(HEADER_SIZE);
+
+        // Column blocks
+        int columnCount = store.getColumnCount();
+        int[] columnOffsets = new int[columnCount];
+        int[] cellOffsets = new int[columnCount];
+        int[] columnEnds = new int[columnCount];
+        for (int column = 0; column < columnCount; column++) {
+            columnOffsets[column] = out.position();
+            cellOffsets[column] = writeColumn(out, store, campers, column);
+            columnEnds[column] = out.position();
+        }
+
+        // Metadata
+        int metadataOffset = out.position();
+        Map<String, Integer> headerMap = roster.getHeaderMap();
+        out.putInt(headerMap.size());
+        for (Map.Entry<String, Integer> header : headerMap.entrySet()) {
+            out.putString(header.getKey());
+            out.putInt(header.getValue());
+            out.putInt(roster.isHeaderVisible(header.getKey()) ? 1 : 0);
+        }
+
+        List<String> enabledFeatures = new ArrayList<>();
+        for (Map.Entry<String, Boolean> feature : roster.getEnabledFeatures().entrySet()) {
+            if (feature.getValue()) {
+                enabledFeatures.add(feature.getKey());
+            }
+        }
+        out.putInt(enabledFeatures.size());
+        for (String featureId : enabledFeatures) {
+            out.putString(featureId);
+        }
+
+        out.putInt(campers.size());
+        for (Camper camper : campers) {
+            out.putString(camper.getId());
+        }
+
+        out.putInt(columnCount);
+        for (int column = 0; column < columnCount; column++) {
+            out.putString(store.getColumnName(column));
+            out.putLong(columnOffsets[column]);
+            out.putLong(cellOffsets[column]);
+            out.putLong(columnEnds[column]);
+            out.putInt(out.checksum(columnOffsets[column], cellOffsets[column]));
+            out.putInt(out.checksum(cellOffsets[column], columnEnds[column]));
+        }
+        writeWarnings(out, warnings);
+        int end = out.position();
+
+        // Header, with a checksum of the metadata - column blocks have checksums of their own, in the metadata
+        int metadataChecksum = out.checksum(metadataOffset, end);
+        ByteBuffer buffer = out.finish();
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, FORMAT_VERSION);
+        buffer.putLong(8, fingerprint);
+        buffer.putLong(16, metadataOffset);
+        buffer.putInt(24, end - metadataOffset);
+        buffer.putInt(CHECKSUM_OFFSET, metadataChecksum);
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Reads a snapshot written by write, adding the warnings saved with it to the given manager.
+     * The file stays mapped until the returned roster's deferred columns have all been loaded and the roster is unreachable.
+     *
+     * @param file The snapshot file to read
+     * @param fingerprint Value identifying the expected sources, compared against the one the snapshot was written with
+     * @param warnings The manager to add the snapshot's warnings to. Left untouched unless the roster is restored.
+     * @return The restored roster, or null if the file is missing, from another format version, stale (fingerprint mismatch), or corrupt
+     * @throws IOException if the file exists but can't be read
+     */
+    public static EnhancedRoster read(Path file, long fingerprint, WarningManager warnings) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        MemorySegment segment;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), Arena.ofAuto());
+        }
+
+        if (segment.get(INT, 0) != MAGIC || segment.get(INT, 4) != FORMAT_VERSION || segment.get(LONG, 8) != fingerprint) {
+            return null;
+        }
+        // The metadata is checked before it's decoded, and each column block as readRoster finds it
+        long metadataOffset = segment.get(LONG, 16);
+        long metadataLength = Integer.toUnsignedLong(segment.get(INT, 24));
+        if (metadataOffset < HEADER_SIZE || metadataOffset + metadataLength != segment.byteSize()
+                || checksum(segment, metadataOffset, segment.byteSize()) != segment.get(INT, CHECKSUM_OFFSET)) {
+            return null;
+        }
+
+        try {
+            WarningManager restoredWarnings = new WarningManager();
+            EnhancedRoster roster = readRoster(segment, metadataOffset, restoredWarnings);
+            warnings.mergeFrom(restoredWarnings);
+            return roster;
+        } catch (IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException e) {
+            // A column block failed its checksum, or the metadata checksum matched but the layout doesn't hold together
+            return null;
+        }
+    }
+
+    /**
+     * Computes the CRC32C of a range of a mapped snapshot.
+     */
+    private static int checksum(MemorySegment segment, long start, long end) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(segment.asSlice(start, end - start).asByteBuffer());
+        return (int) checksum.getValue();
+    }
+
+    /**
+     * Writes a column block: the column's distinct values, each row's reference into them, and numbers for numeric columns.
+     *
+     * @return The offset of the column's cells, after its values
+     */
+    private static int writeColumn(SnapshotOutput out, ColumnStore store, List<Camper> campers, int column) {
+        Map<String, Integer> valueRefs = new HashMap<>();
+        List<String> values = new ArrayList<>();
+        int[] refs = new int[campers.size()];
+        boolean numeric = store.getColumnType(column).isNumeric();
+        double[] numbers = numeric ? new double[campers.size()] : null;
+
+        for (int i = 0; i < refs.length; i++) {
+            int row = campers.get(i).getRow();
+            if (!store.isSet(row, column)) {
+                refs[i] = UNSET_REF;
+            } else if (numeric && store.holdsNumber(row, column)) {
+                refs[i] = NUMBER_REF;
+                numbers[i] = store.getDouble(row, column, 0);
+            } else {
+                String value = store.get(row, column);
+                if (value == null) {
+                    refs[i] = NULL_REF;
+                } else {
+                    refs[i] = valueRefs.computeIfAbsent(value, v -> {
+                        values.add(v);
+                        return values.size() - 1;
+                    });
+                }
+            }
+        }
+
+        out.putInt(values.size());
+        for (String value : values) {
+            out.putString(value);
+        }
+        int cellOffset = out.position();
+        for (int ref : refs) {
+            out.putInt(ref);
+        }
+        if (numeric) {
+            for (double number : numbers) {
+                out.putDouble(number);
+            }
+        }
+        return cellOffset;
+    }
+
+    /**
+     * Decodes a snapshot's metadata into a roster, checking each column block and deferring its cells, then its warnings.
+     *
+     * @throws IllegalArgumentException if a column block is out of range or fails its checksums
+     */
+    private static EnhancedRoster readRoster(MemorySegment segment, long metadataOffset, WarningManager warnings) {
+        SnapshotInput in = new SnapshotInput(segment, metadataOffset);
+        EnhancedRoster roster = new EnhancedRoster();
+        ColumnStore store = roster.getStore();
+
+        // Headers are added first so their columns register in header order, then given their saved positions and visibility
+        int headerCount = in.getInt();
+        String[] headers = new String[headerCount];
+        int[] positions = new int[headerCount];
+        boolean[] visible = new boolean[headerCount];
+        for (int i = 0; i < headerCount; i++) {
+            headers[i] = in.getString();
+            positions[i] = in.getInt();
+            visible[i] = in.getInt() != 0;
+            roster.addHeader(headers[i]);
+        }
+        for (int i = 0; i < headerCount; i++) {
+            roster.getHeaderMap().put(headers[i], positions[i]);
+            roster.setHeaderVisibility(headers[i], visible[i]);
+        }
+
+        int featureCount = in.getInt();
+        for (int i = 0; i < featureCount; i++) {
+            roster.enableFeature(in.getString());
+        }
+
+        // Campers view rows of the roster's store directly, so adding them doesn't copy anything
+        int camperCount = in.getInt();
+        for (int i = 0; i < camperCount; i++) {
+            CamperKey key = CamperKey.ofId(in.getString());
+            roster.addCamper(new Camper(key, store, store.addRow()));
+        }
+
+        int columnCount = in.getInt();
+        for (int i = 0; i < columnCount; i++) {
+            String name = in.getString();
+            ColumnBlock block = new ColumnBlock(name, in.getLong(), in.getLong(), in.getLong(), in.getInt(), in.getInt());
+            if (block.offset() < HEADER_SIZE || block.cellOffset() < block.offset() || block.end() < block.cellOffset()
+                    || block.end() > metadataOffset) {
+                throw new IllegalArgumentException("Column block out of range: " + name);
+            }
+            if (!block.intact(segment)) {
+                throw new IllegalArgumentException("Snapshot column is corrupt: " + name);
+            }
+            deferColumn(store, store.ensureColumn(name), segment, block, camperCount);
+        }
+        readWarnings(in, warnings);
+        return roster;
+    }
+
+    /**
+     * Writes warnings by type: exact counts, counts by column and value, then the examples kept for display.
+     */
+    private static void writeWarnings(SnapshotOutput out, WarningManager warnings) {
+        Map<WarningType, ArrayList<RosterWarning>> warningLog = warnings.getWarningLog();
+        Map<WarningType, Long> warningCounts = warnings.getWarningCounts();
+        out.putInt(warningCounts.size());
+        for (Map.Entry<WarningType, Long> typeCount : warningCounts.entrySet()) {
+            WarningType type = typeCount.getKey();
+            out.putString(type.name());
+            out.putLong(typeCount.getValue());
+            writeCounts(out, warnings.getWarningCountsByColumn(type));
+            writeCounts(out, warnings.getWarningCountsByValue(type));
+
+            List<RosterWarning> exemplars = warningLog.getOrDefault(type, new ArrayList<>());
+            out.putInt(exemplars.size());
+            for (RosterWarning warning : exemplars) {
+                String[] cells = warning.getDisplayData();
+                out.putInt(cells.length);
+                for (String cell : cells) {
+                    out.putString(cell);
+                }
+            }
+        }
+    }
+
+    private static void writeCounts(SnapshotOutput out, Map<String, Long> counts) {
+        out.putInt(counts.size());
+        for (Map.Entry<String, Long> count : counts.entrySet()) {
+            out.putString(count.getKey());
+            out.putLong(count.getValue());
+        }
+    }
+
+    /**
+     * Reads warnings written by writeWarnings into a manager.
+     *
+     * @throws IllegalArgumentException if a warning type isn't known to this version
+     */
+    private static void readWarnings(SnapshotInput in, WarningManager warnings) {
+        int typeCount = in.getInt();
+        for (int t = 0; t < typeCount; t++) {
+            WarningType type = WarningType.valueOf(in.getString());
+            long count = in.getLong();
+            Map<String, Long> countsByColumn = readCounts(in);
+            Map<String, Long> countsByValue = readCounts(in);
+
+            List<RosterWarning> exemplars = new ArrayList<>();
+            int exemplarCount = in.getInt();
+            for (int w = 0; w < exemplarCount; w++) {
+                String[] cells = new String[in.getInt()];
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] = in.getString();
+                }
+                exemplars.add(RosterWarning.restore(type, cells));
+            }
+            warnings.restoreWarnings(type, exemplars, count, countsByColumn, countsByValue);
+        }
+    }
+
+    private static Map<String, Long> readCounts(SnapshotInput in) {
+        int size = in.getInt();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            counts.put(in.getString(), in.getLong());
+        }
+        return counts;
+    }
+
+    /**
+     * Where a column's block lies in a snapshot, and the checksums of its values and cells.
+     */
+    private record ColumnBlock(String name, long offset, long cellOffset, long end, int valuesChecksum, int cellsChecksum) {
+
+        /**
+         * Checks the block's values and cells against their checksums.
+         * @return true if both match
+         */
+        boolean intact(MemorySegment segment) {
+            return checksum(segment, offset, cellOffset) == valuesChecksum && checksum(segment, cellOffset, end) == cellsChecksum;
+        }
+    }
+
+    /**
+     * Defers a column to its already checked block in the snapshot.
+     * Values of dictionary-encoded columns are interned up front, so dictionaries shared between columns don't grow
+     * (invalidating code tables sized from them) when a deferred column loads later on.
+     */
+    private static void deferColumn(ColumnStore store, int column, MemorySegment segment, ColumnBlock block, int rowCount) {
+        ValueDictionary dictionary = store.getDictionary(column);
+        if (dictionary == null) {
+            store.deferColumn(column, (target, targetColumn) -> {
+                String[] values = readValues(new SnapshotInput(segment, block.offset()));
+                loadCells(target, targetColumn, segment, block.cellOffset(), rowCount, values);
+            });
+            return;
+        }
+
+        String[] values = readValues(new SnapshotInput(segment, block.offset()));
+        for (String value : values) {
+            dictionary.encode(value);
+        }
+        store.deferColumn(column, (target, targetColumn) -> loadCells(target, targetColumn, segment, block.cellOffset(), rowCount, values));
+    }
+
+    /**
+     * Reads the distinct values at the start of a column block.
+     */
+    private static String[] readValues(SnapshotInput in) {
+        String[] values = new String[in.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.getString();
+        }
+        return values;
+    }
+
+    /**
+     * Writes a column's cells into the store from the row references (and numbers) of its block.
+     */
+    private static void loadCells(ColumnStore store, int column, MemorySegment segment, long refsOffset, int rowCount, String[] values) {
+        long numbersOffset = refsOffset + (long) Integer.BYTES * rowCount;
+        for (int row = 0; row < rowCount; row++) {
+            int ref = segment.get(INT, refsOffset + (long) Integer.BYTES * row);
+            switch (ref) {
+                case UNSET_REF -> { }
+                case NULL_REF -> store.set(row, column, null);
+                case NUMBER_REF -> store.setDouble(row, column, segment.get(DOUBLE, numbersOffset + (long) Double.BYTES * row));
+                default -> store.set(row, column, values[ref]);
+            }
+        }
+    }
+
+    /**
+     * Growable big-endian buffer a snapshot is assembled in before being written.
+     */
+    private static final class SnapshotOutput {
+        private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+        int position() {
+            return buffer.position();
+        }
+
+        void position(int position) {
+            ensureCapacity(position - buffer.position());
+            buffer.position(position);
+        }
+
+        void putInt(int value) {
+            ensureCapacity(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) {
+            ensureCapacity(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putDouble(double value) {
+            ensureCapacity(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        /**
+         * Writes a nullable string as its UTF-8 length (-1 for null) and bytes.
+         */
+        void putString(String value) {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            ensureCapacity(bytes.length);
+            buffer.put(bytes);
+        }
+
+        /**
+         * Computes the CRC32C of bytes already written.
+         */
+        int checksum(int start, int end) {
+            CRC32C checksum = new CRC32C();
+            checksum.update(buffer.slice(start, end - start));
+            return (int) checksum.getValue();
+        }
+
+        /**
+         * Flips the buffer for writing, returning it.
+         */
+        ByteBuffer finish() {
+            return buffer.flip();
+        }
+
+        private void ensureCapacity(int bytes) {
+            if (buffer.remaining() < bytes) {
+                int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+                buffer = ByteBuffer.allocate(capacity).put(buffer.flip());
+            }
+        }
+    }
+
+    /**
+     * Sequential reader over a mapped snapshot.
+     */
+    private static final class SnapshotInput {
+        private final MemorySegment segment;
+        private long position;
+
+        SnapshotInput(MemorySegment segment, long position) {
+            this.segment = segment;
+            this.position = position;
+        }
+
+        int getInt() {
+            int value = segment.get(INT, position);
+            position += Integer.BYTES;
+            return value;
+        }
+
+        long getLong() {
+            long value = segment.get(LONG, position);
+            position += Long.BYTES;
+            return value;
+        }
+
+        String getString() {
+            int length = getInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, position, bytes, 0, length);
+            position += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.echo.domain;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only, zero-copy Map view over a camper's row.
+ *
+ * Reads go straight to the camper's ColumnStore, so a view never copies the row and always reflects the camper's current data,
+ * including after the camper is moved into a roster's store. Each camper caches a single view (see Camper.view()),
+ * so internal callers that only read a row - validation, warning factories, feature passes - allocate nothing per row.
+ *
+ * Mutating methods throw UnsupportedOperationException. Callers taking ownership of a row's data
+ * (to modify it or keep it beyond the camper's lifetime) should call snapshot() instead.
+ */
+public final class RowView extends AbstractMap<String, String> {
+
+    private final Camper camper;
+    private Set<Map.Entry<String, String>> entrySet;
+
+    /**
+     * Creates a view over a camper's row. Use Camper.view() rather than calling this directly.
+     *
+     * @param camper The camper whose row should be viewed
+     */
+    RowView(Camper camper) {
+        this.camper = camper;
+    }
+
+    /**
+     * Copies the viewed row into a new, independent map.
+     *
+     * @return A new modifiable map containing the row's data
+     */
+    public Map<String, String> snapshot() {
+        return camper.getStore().toMap(camper.getRow());
+    }
+
+    @Override
+    public String get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        ColumnStore store = camper.getStore();
+        return store.get(camper.getRow(), store.columnOf((String) key));
+    }
+
+    @Override
+    public String getOrDefault(Object key, String defaultValue) {
+        if (!(key instanceof String)) {
+            return defaultValue;
+        }
+        ColumnStore store = camper.getStore();
+        int row = camper.getRow();
+        int column = store.columnOf((String) key);
+        return store.isSet(row, column) ? store.get(row, column) : defaultValue;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (!(key instanceof String)) {
+            return false;
+        }
+        ColumnStore store = camper.getStore();
+        return store.isSet(camper.getRow(), store.columnOf((String) key));
+    }
+
+    @Override
+    public int size() {
+        ColumnStore store = camper.getStore();
+        int row = camper.getRow();
+        int size = 0;
+        for (int column = 0; column < store.getColumnCount(); column++) {
+            if (store.isSet(row, column)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<String, String>> iterator() {
+                    return new EntryIterator(camper.getStore(), camper.getRow());
+                }
+
+                @Override
+                public int size() {
+                    return RowView.this.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /**
+     * Iterates over the set cells of a row, in column order.
+     */
+    private static final class EntryIterator implements Iterator<Map.Entry<String, String>> {
+        private final ColumnStore store;
+        private final int row;
+        private int nextColumn;
+
+        EntryIterator(ColumnStore store, int row) {
+            this.store = store;
+            this.row = row;
+            this.nextColumn = advance(0);
+        }
+
+        /**
+         * Finds the first set column at or after the given index.
+         */
+        private int advance(int column) {
+            while (column < store.getColumnCount() && !store.isSet(row, column)) {
+                column++;
+            }
+            return column;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextColumn < store.getColumnCount();
+        }
+
+        @Override
+        public Map.Entry<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int column = nextColumn;
+            nextColumn = advance(column + 1);
+            return new AbstractMap.SimpleImmutableEntry<>(store.getColumnName(column), store.get(row, column));
+        }
+    }
+}
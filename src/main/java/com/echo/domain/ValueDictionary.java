@@ -0,0 +1,83 @@
+package com.echo.domain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary interning the distinct values of low-cardinality columns to int codes.
+ *
+ * Columns like Cabin, Grade, Program and the round activities hold a few dozen distinct values across thousands of campers.
+ * A ColumnStore keeps those columns as int codes into a ValueDictionary, so each distinct value is stored once,
+ * and callers can compare codes instead of strings.
+ *
+ * Code 0 is reserved for cells that were never set. Every other code, including the one for an explicit null, maps to one value.
+ * Codes are only meaningful within the dictionary (and therefore the store) that issued them.
+ */
+public final class ValueDictionary {
+
+    /** Code for cells that have never been set */
+    public static final int UNSET_CODE = 0;
+
+    /** Code returned for values that have never been interned */
+    public static final int NO_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * Creates a new empty ValueDictionary.
+     */
+    public ValueDictionary() {
+        values.add(null); // Reserve UNSET_CODE
+    }
+
+    /**
+     * Interns a value, assigning it a new code if it hasn't been seen before.
+     *
+     * @param value The value to intern (may be null)
+     * @return The value's code
+     */
+    public int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            values.add(value);
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    /**
+     * Looks up the code for a value without interning it.
+     * Useful for resolving a filter or lookup value once, then comparing codes.
+     *
+     * @param value The value to look up (may be null)
+     * @return The value's code, or NO_CODE if the value has never been interned
+     */
+    public int codeOf(String value) {
+        Integer code = codes.get(value);
+        return code == null ? NO_CODE : code;
+    }
+
+    /**
+     * Gets the value for a code.
+     *
+     * @param code The code to decode
+     * @return The value, or null for UNSET_CODE
+     */
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    /**
+     * Gets the number of codes issued, including UNSET_CODE.
+     * Valid codes range from 0 to size() - 1, so this can size lookup tables indexed by code.
+     *
+     * @return The number of codes
+     */
+    public int size() {
+        return values.size();
+    }
+}
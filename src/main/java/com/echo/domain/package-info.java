@@ -10,6 +10,12 @@
  * <ul>
  *   <li>{@link com.echo.domain.Roster} - Base class for all roster types with core functionality</li>
  *   <li>{@link com.echo.domain.Camper} - Represents an individual camper with their data</li>
+ *   <li>{@link com.echo.domain.CamperKey} - Immutable key identifying a camper, used to index and match roster rows</li>
+ *   <li>{@link com.echo.domain.RowView} - Read-only, zero-copy map view over a camper's data</li>
+ *   <li>{@link com.echo.domain.RosterSnapshot} - Memory-mapped binary save format for enhanced rosters</li>
+ *   <li>{@link com.echo.domain.ColumnStore} - Columnar storage engine holding a roster's camper data</li>
+ *   <li>{@link com.echo.domain.ColumnType} - Storage types for roster columns, declared per header</li>
+ *   <li>{@link com.echo.domain.ValueDictionary} - Dictionary interning low-cardinality column values to int codes</li>
  *   <li>{@link com.echo.domain.CamperRoster} - Roster extension for camper enrollment data - Typically from a Campminder User Report</li>
  *   <li>{@link com.echo.domain.ActivityRoster} - Roster Extension for activity assignment data - Typically from a Campminder Elective Roster</li>
  *   <li>{@link com.echo.domain.EnhancedRoster} - Combined roster linking campers to activity assignments</li>
@@ -5,13 +5,16 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 import com.echo.domain.ActivityRoster;
 import com.echo.domain.Camper;
+import com.echo.domain.CamperKey;
 import com.echo.domain.DataConstants;
 import com.echo.domain.EnhancedRoster;
 import com.echo.domain.RosterHeader;
+import com.echo.domain.RowView;
+import com.echo.logging.Diagnostics;
+import com.echo.logging.Diagnostics.Event;
 import com.echo.logging.RosterWarning;
 import com.echo.logging.WarningManager;
 import com.echo.validation.RosterRegexBuilder;
@@ -63,12 +66,18 @@ public class ActivityFeature implements RosterFeature {
      */
     private static final List<String> ADDED_HEADERS;
 
+    /**
+     * The round-specific activity headers alone, read by features that check campers' assignments.
+     */
+    static final List<String> ROUND_HEADERS;
+
     static {
         List<String> headers = new ArrayList<>();
         // Add headers for each round
         for (int i = 1; i <= MAX_ROUNDS; i++) {
             headers.add(RosterHeader.buildRoundString(i));
         }
+        ROUND_HEADERS = List.copyOf(headers);
         // Add the rounds assigned header
         headers.add(ROUNDS_ASSIGNED_HEADER);
         ADDED_HEADERS = Collections.unmodifiableList(headers);
@@ -79,19 +88,7 @@ public class ActivityFeature implements RosterFeature {
      * - Round must be a single digit 1-3
      * - Activity must be a non-empty string
      */
-    private static final Map<String, String> REQUIRED_FORMATS;
-
-    static {
-        // Convert Pattern objects to String representations for the interface
-        Map<String, Pattern> patternMap = RosterRegexBuilder.buildActivityFormats();
-        Map<String, String> formats = new HashMap<>();
-
-        for (Map.Entry<String, Pattern> entry : patternMap.entrySet()) {
-            formats.put(entry.getKey(), entry.getValue().pattern());
-        }
-
-        REQUIRED_FORMATS = Collections.unmodifiableMap(formats);
-    }
+    private static final Map<String, String> REQUIRED_FORMATS = RosterRegexBuilder.toFormatStrings(RosterRegexBuilder.buildActivityFormats());
 
 
 
@@ -120,6 +117,14 @@ public class ActivityFeature implements RosterFeature {
         return REQUIRED_FORMATS;
     }
 
+    /**
+     * Campers with activities but no matching camper roster entry are added to the roster.
+     */
+    @Override
+    public boolean addsCampers() {
+        return true;
+    }
+
     /**
      * Standard applyFeature method that is overridden to prevent incorrect usage.
      * The ActivityFeature requires an ActivityRoster to function, so this method
@@ -184,8 +189,8 @@ public class ActivityFeature implements RosterFeature {
         }
 
         // First pass: collect all activities for each camper
-        List<Map<String, String>> activityDataList = activityRoster.getCampers().stream().map(Camper::getData).toList();
-        Map<String, Map<String, String>> mergedActivities = arrangeActivitiesByCamper(activityDataList, warningManager);
+        List<RowView> activityDataList = activityRoster.getCampers().stream().map(Camper::view).toList();
+        Map<CamperKey, Map<String, String>> mergedActivities = arrangeActivitiesByCamper(activityDataList, warningManager);
 
         // Second pass: update the roster with merged activity data
         applyActivityDataToRoster(roster, mergedActivities, warningManager);
@@ -197,18 +202,44 @@ public class ActivityFeature implements RosterFeature {
         roster.enableFeature(FEATURE_ID);
     }
 
+    /**
+     * Rebuilds activity data for campers whose activity rows changed, after an incremental re-import of the activity roster.
+     * Each camper's round assignments are cleared and rebuilt from all of its current rows, the same way applyFeature builds them,
+     * so the campers end up as they would in a full rebuild. Assignment counts are only updated for the given campers.
+     *
+     * @param roster The enhanced roster this feature was already applied to
+     * @param changedCampers The campers to rebuild, each already in the roster
+     * @param activityRows Every current activity row belonging to the changed campers, in file order
+     * @param warningManager The warning manager to use for logging issues
+     */
+    public void reapplyToCampers(EnhancedRoster roster, List<Camper> changedCampers, List<? extends Map<String, String>> activityRows, WarningManager warningManager) {
+        // Clear old assignments, so rounds a camper was removed from end up unset rather than stale
+        for (Camper camper : changedCampers) {
+            for (int i = 1; i <= MAX_ROUNDS; i++) {
+                camper.clearValue(RosterHeader.buildRoundString(i));
+            }
+        }
+
+        Map<CamperKey, Map<String, String>> mergedActivities = arrangeActivitiesByCamper(activityRows, warningManager);
+        applyActivityDataToRoster(roster, mergedActivities, warningManager);
+
+        for (Camper camper : changedCampers) {
+            camper.setInt(ROUNDS_ASSIGNED_HEADER, tallyCamperRounds(camper.view()));
+        }
+    }
+
     /**
      * Arranges activity data by camper ID to handle multiple activities per camper.
      * This method iterates through all activity data rows and organizes them by camper ID,
      * merging multiple activities for the same camper into a single map. It also handles
      * duplicate activity assignments by logging warnings and skipping the duplicates.
      *
-     * @param activityDataList List of activity data rows (maps of header/value pairs)
+     * @param activityDataList List of activity data rows (read-only maps of header/value pairs)
      * @param warningManager The warning manager to use for logging issues
-     * @return Map of merged activity data, keyed by generated camper IDs
+     * @return Map of merged activity data, keyed by generated camper keys
      */
-    private Map<String, Map<String, String>> arrangeActivitiesByCamper(List<Map<String, String>> activityDataList, WarningManager warningManager) {
-        Map<String, Map<String, String>> mergedActivities = new HashMap<>();
+    private Map<CamperKey, Map<String, String>> arrangeActivitiesByCamper(List<? extends Map<String, String>> activityDataList, WarningManager warningManager) {
+        Map<CamperKey, Map<String, String>> mergedActivities = new HashMap<>();
 
         for (Map<String, String> row : activityDataList) {
             try {
@@ -223,10 +254,10 @@ public class ActivityFeature implements RosterFeature {
                 }
 
                 // Generate a key for this activity row
-                String camperId = ActivityRoster.generateCamperIdFromActivity(row);
+                CamperKey camperKey = ActivityRoster.generateCamperKeyFromActivity(row);
 
                 // Get or create the merged activity data for this camper
-                Map<String, String> mergedActivity = mergedActivities.computeIfAbsent(camperId, _ -> new HashMap<>());
+                Map<String, String> mergedActivity = mergedActivities.computeIfAbsent(camperKey, _ -> new HashMap<>());
 
                 // Get fields to add from the row
                 String cabin = row.get(RosterHeader.CABIN.activityRosterName);
@@ -258,8 +289,10 @@ public class ActivityFeature implements RosterFeature {
                 }
             }
             catch (Exception e) {
-                // Log the error and continue with the next row
-                System.err.println("Error processing activity row: " + e.getMessage());
+                // Count the error and continue with the next row
+                if (Diagnostics.count(Event.ACTIVITY_ROW_ERROR)) {
+                    Diagnostics.sample(Event.ACTIVITY_ROW_ERROR, String.valueOf(e));
+                }
             }
         }
         return mergedActivities;
@@ -289,50 +322,37 @@ public class ActivityFeature implements RosterFeature {
      * optionally adds it to the roster based on the INCLUDE_ORPHANS setting.
      *
      * @param roster The roster to update with activity data
-     * @param mergedActivities Map of merged activity data, keyed by generated camper IDs
+     * @param mergedActivities Map of merged activity data, keyed by generated camper keys
      * @param warningManager The warning manager to use for logging issues
      */
-    private void applyActivityDataToRoster(EnhancedRoster roster, Map<String, Map<String, String>> mergedActivities, WarningManager warningManager) {
-        // Second pass: update the roster with merged activity data
-        for (Map.Entry<String, Map<String, String>> entry : mergedActivities.entrySet()) {
-            String camperId = entry.getKey();
-            Map<String, String> activityDataRow = entry.getValue();
-
-            // Find the camper in the roster
-            Camper camper = roster.getCamperById(camperId);
-
-            // If the camper exists in the roster, apply all the activity data
-            if (camper != null) {
-                for (String header : activityDataRow.keySet()) {
-                    String value = activityDataRow.get(header);
-                    camper.setValue(header, value);
-                }
-            }
-            // If the camper doesn't exist in the roster, this is an "orphaned" activity
-            else {
-                // Calculate the number of rounds assigned to this orphaned activity
-                activityDataRow.put(RosterHeader.ROUND_COUNT.standardName, Integer.toString(tallyCamperRounds(activityDataRow)));
-
-                // Log a warning about the unmatched activity
-                // RosterWarning warning = RosterWarning.build_unmatchedActivity(activityDataRow);
-                // warningManager.logWarning(warning);
-
-                // If INCLUDE_ORPHANS is true, add the orphaned activity as a new camper
-                // FUTURE - Give user option to include unmatched activities or not
-                // FUTURE - Add a misc "notes" column system for this sort of behavior? seems helpful for exporting and checking later, but adds uneccessary complexity for now
-                if (INCLUDE_ORPHANS) {
-                    // Create a new camper with the orphaned activity data
-                    Camper orphanedCamper = new Camper(activityDataRow);
-
-                    // Add a note to indicate this is an orphaned ("unmatched") activity
-                    // orphanedCamper.setValue("Notes", "UNMATCHED ACTIVITY: No matching camper found in roster");
-
-                    // Add the camper to the roster
-                    roster.addCamper(orphanedCamper);
-
-                    // Log that we've added an orphaned activity
-                    warningManager.logWarning(RosterWarning.build_unmatchedActivityAdded(activityDataRow));
-                }
+    private void applyActivityDataToRoster(EnhancedRoster roster, Map<CamperKey, Map<String, String>> mergedActivities, WarningManager warningManager) {
+        // Second pass: hash join the merged activity data onto matching campers, collecting rows with no match
+        Map<CamperKey, Map<String, String>> orphanedActivities = roster.mergeRowsByKey(mergedActivities);
+
+        // Any remaining rows are "orphaned" activities, with no matching camper in the roster
+        for (Map<String, String> activityDataRow : orphanedActivities.values()) {
+            // Calculate the number of rounds assigned to this orphaned activity
+            activityDataRow.put(RosterHeader.ROUND_COUNT.standardName, Integer.toString(tallyCamperRounds(activityDataRow)));
+
+            // Log a warning about the unmatched activity
+            // RosterWarning warning = RosterWarning.build_unmatchedActivity(activityDataRow);
+            // warningManager.logWarning(warning);
+
+            // If INCLUDE_ORPHANS is true, add the orphaned activity as a new camper
+            // FUTURE - Give user option to include unmatched activities or not
+            // FUTURE - Add a misc "notes" column system for this sort of behavior? seems helpful for exporting and checking later, but adds uneccessary complexity for now
+            if (INCLUDE_ORPHANS) {
+                // Create a new camper with the orphaned activity data
+                Camper orphanedCamper = new Camper(activityDataRow);
+
+                // Add a note to indicate this is an orphaned ("unmatched") activity
+                // orphanedCamper.setValue("Notes", "UNMATCHED ACTIVITY: No matching camper found in roster");
+
+                // Add the camper to the roster
+                roster.addCamper(orphanedCamper);
+
+                // Log that we've added an orphaned activity
+                warningManager.logWarning(RosterWarning.build_unmatchedActivityAdded(activityDataRow));
             }
         }
     }
@@ -346,8 +366,8 @@ public class ActivityFeature implements RosterFeature {
      */
     private void updateAssignmentCounts(EnhancedRoster roster) {
         for (Camper camper : roster.getCampers()) {
-            int count = tallyCamperRounds(camper.getData());
-            camper.setValue(ROUNDS_ASSIGNED_HEADER, Integer.toString(count));
+            int count = tallyCamperRounds(camper.view());
+            camper.setInt(ROUNDS_ASSIGNED_HEADER, count);
         }
     }
 
@@ -431,16 +451,8 @@ public class ActivityFeature implements RosterFeature {
             throw new UnsupportedOperationException("Activity feature not enabled");
         }
 
-        String value = roster.getValue(camperId, ROUNDS_ASSIGNED_HEADER);
-        if (value == null) {
-            return 0;
-        }
-
-        try {
-            return Integer.parseInt(value);
-        } catch (NumberFormatException e) {
-            return 0;
-        }
+        Camper camper = roster.getCamperById(camperId);
+        return camper == null ? 0 : camper.getInt(ROUNDS_ASSIGNED_HEADER, 0);
     }
 }
 
@@ -0,0 +1,154 @@
+package com.echo.feature;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.echo.domain.Camper;
+import com.echo.feature.RosterFeature.CamperWork;
+import com.echo.logging.WarningManager;
+
+/**
+ * Runs a feature's CamperWork over contiguous ranges of campers in parallel.
+ *
+ * Campers are split into at most getParallelism() ranges of at least getMinPartitionSize() campers. Each range is
+ * processed on its own virtual thread, with its own accumulator and a WarningManager of its own as its warning sink.
+ * Once all ranges finish, each range's warnings are merged into the caller's manager and its accumulator is merged
+ * into the roster, one range at a time in camper order, on the calling thread. Lists too small to split run on the
+ * calling thread, logging straight to the caller's manager.
+ *
+ * Splitting is configured for the whole application, like PreferenceFeature's exempt activities.
+ * A parallelism of 1 processes every list in a single range, the same way the features' serial loops did.
+ */
+public final class CamperPartitions {
+
+    public static final int DEFAULT_MIN_PARTITION_SIZE = 256;
+
+    private static volatile int parallelism = Runtime.getRuntime().availableProcessors();
+    private static volatile int minPartitionSize = DEFAULT_MIN_PARTITION_SIZE;
+
+    private CamperPartitions() {
+        // Static methods only
+    }
+
+    /**
+     * Sets the most ranges a list of campers is split into.
+     * @param newParallelism The number of ranges, 1 to process every list serially. Defaults to the number of processors.
+     */
+    public static void setParallelism(int newParallelism) {
+        parallelism = Math.max(1, newParallelism);
+    }
+
+    /**
+     * Gets the most ranges a list of campers is split into.
+     * @return The number of ranges
+     */
+    public static int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the fewest campers in a range, so small rosters aren't split into ranges too small to be worth a thread.
+     * @param newMinPartitionSize The number of campers, DEFAULT_MIN_PARTITION_SIZE by default
+     */
+    public static void setMinPartitionSize(int newMinPartitionSize) {
+        minPartitionSize = Math.max(1, newMinPartitionSize);
+    }
+
+    /**
+     * Gets the fewest campers in a range.
+     * @return The number of campers
+     */
+    public static int getMinPartitionSize() {
+        return minPartitionSize;
+    }
+
+    /**
+     * Processes every camper in a list, in parallel ranges if the list is big enough, then merges the results in camper order.
+     *
+     * @param <A> The type of a range's accumulator
+     * @param campers The campers to process
+     * @param work The work to do for each camper
+     * @param warningManager The warning manager to merge each range's warnings into
+     * @throws IllegalStateException if the calling thread is interrupted while waiting for the ranges
+     */
+    public static <A> void apply(List<Camper> campers, CamperWork<A> work, WarningManager warningManager) {
+        List<List<Camper>> ranges = partition(campers, parallelism, minPartitionSize);
+        if (ranges.size() <= 1) {
+            A accumulator = work.newAccumulator();
+            for (Camper camper : campers) {
+                work.processCamper(camper, accumulator, warningManager);
+            }
+            work.merge(accumulator);
+            return;
+        }
+
+        List<A> accumulators = new ArrayList<>();
+        List<WarningManager> rangeWarnings = new ArrayList<>();
+        try (ExecutorService rangeExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> processing = new ArrayList<>();
+            for (List<Camper> range : ranges) {
+                A accumulator = work.newAccumulator();
+                WarningManager warnings = new WarningManager();
+                accumulators.add(accumulator);
+                rangeWarnings.add(warnings);
+                processing.add(rangeExecutor.submit(() -> {
+                    for (Camper camper : range) {
+                        work.processCamper(camper, accumulator, warnings);
+                    }
+                }));
+            }
+            for (Future<?> range : processing) {
+                awaitRange(range);
+            }
+        }
+
+        for (int i = 0; i < ranges.size(); i++) {
+            warningManager.mergeFrom(rangeWarnings.get(i));
+            work.merge(accumulators.get(i));
+        }
+    }
+
+    /**
+     * Splits campers into contiguous ranges of near-equal size.
+     *
+     * @param campers The campers to split
+     * @param maxRanges The most ranges to split into
+     * @param minRangeSize The fewest campers in a range
+     * @return The ranges in camper order, a single range if the list is too small to split
+     */
+    static List<List<Camper>> partition(List<Camper> campers, int maxRanges, int minRangeSize) {
+        int rangeCount = Math.max(1, Math.min(maxRanges, campers.size() / minRangeSize));
+        List<List<Camper>> ranges = new ArrayList<>(rangeCount);
+        for (int i = 0; i < rangeCount; i++) {
+            int from = (int) ((long) campers.size() * i / rangeCount);
+            int to = (int) ((long) campers.size() * (i + 1) / rangeCount);
+            ranges.add(campers.subList(from, to));
+        }
+        return ranges;
+    }
+
+    /**
+     * Waits for a range to finish, rethrowing anything thrown while processing it.
+     */
+    private static void awaitRange(Future<?> range) {
+        try {
+            range.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing campers", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Error while processing campers", cause);
+        }
+    }
+}
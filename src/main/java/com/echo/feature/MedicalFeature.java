@@ -1,5 +1,6 @@
 package com.echo.feature;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -11,6 +12,7 @@ import com.echo.domain.EnhancedRoster;
 import com.echo.domain.RosterHeader;
 import com.echo.logging.RosterWarning;
 import com.echo.logging.WarningManager;
+import com.echo.logging.WarningSink;
 
 /**
  * Feature that ensures campers have medical notes information.
@@ -38,6 +40,40 @@ public class MedicalFeature implements RosterFeature {
     /** Enables/disables warnings for missing medical notes, relevant here because its common for campers to have no such entry */
     private static boolean WARN_ON_MISSING_DATA = false;
 
+    /**
+     * Finds campers missing medical notes, in parallel ranges, then marks their notes as empty.
+     */
+    private final CamperWork<List<Camper>> notesCheck = new CamperWork<>() {
+        @Override
+        public List<Camper> newAccumulator() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public void processCamper(Camper camper, List<Camper> missingNotes, WarningSink warnings) {
+            String medicalNotes = camper.getValue(RosterHeader.MEDICAL_NOTES.standardName);
+
+            if (DataConstants.isEmpty(medicalNotes)) {
+                missingNotes.add(camper);
+                if (WARN_ON_MISSING_DATA){
+                        RosterWarning warning = RosterWarning.create_camperMissingField(
+                        camper.view(),
+                        RosterHeader.MEDICAL_NOTES.standardName,
+                        FEATURE_NAME
+                    );
+                    warnings.logWarning(warning);
+                }
+            }
+        }
+
+        @Override
+        public void merge(List<Camper> missingNotes) {
+            for (Camper camper : missingNotes) {
+                camper.setValue(RosterHeader.MEDICAL_NOTES.standardName, DataConstants.DISPLAY_EMPTY);
+            }
+        }
+    };
+
     @Override
     public String getFeatureId() {
         return FEATURE_ID;
@@ -66,23 +102,8 @@ public class MedicalFeature implements RosterFeature {
     @Override
     public void applyFeature(EnhancedRoster roster, WarningManager warningManager) {
         // This feature doesn't add any headers or modify data
-        // It just checks that campers have the required medical notes field
-        
-        for (Camper camper : roster.getCampers()) {
-            String medicalNotes = camper.getValue(RosterHeader.MEDICAL_NOTES.standardName);
-            
-            if (DataConstants.isEmpty(medicalNotes)) {
-                camper.setValue(RosterHeader.MEDICAL_NOTES.standardName, DataConstants.DISPLAY_EMPTY);
-                if (WARN_ON_MISSING_DATA){
-                        RosterWarning warning = RosterWarning.create_camperMissingField(
-                        camper.getData(),
-                        RosterHeader.MEDICAL_NOTES.standardName,
-                        FEATURE_NAME
-                    );
-                    warningManager.logWarning(warning);
-                }
-            } 
-        }
+        // It just checks that campers have the required medical notes field, in parallel ranges
+        CamperPartitions.apply(roster.getCampers(), notesCheck, warningManager);
         
         // Enable this feature
         roster.enableFeature(FEATURE_ID);
@@ -1,19 +1,19 @@
 package com.echo.feature;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 import com.echo.domain.Camper;
 import com.echo.domain.DataConstants;
 import com.echo.domain.EnhancedRoster;
 import com.echo.domain.RosterHeader;
+import com.echo.domain.ValueDictionary;
 import com.echo.logging.RosterWarning;
 import com.echo.logging.WarningManager;
+import com.echo.logging.WarningSink;
 import com.echo.validation.RosterRegexBuilder;
 
 
@@ -64,6 +64,11 @@ public class PreferenceFeature implements RosterFeature {
     private static final String FEATURE_ID = "preference";
     public static final String FEATURE_NAME = "Preference Evaluation";
 
+    /**
+     * Required formats for preference data validation, converted once from RosterRegexBuilder's patterns.
+     */
+    private static final Map<String, String> REQUIRED_FORMATS = RosterRegexBuilder.toFormatStrings(RosterRegexBuilder.buildPreferenceFormats());
+
     private final List<String> requiredHeaders = Arrays.asList(RosterHeader.PREFERENCES.camperRosterName,//FUTURE - Update header name upon conversion so standardName can be expected
                                                                RosterHeader.ROUND_COUNT.standardName);
 
@@ -83,7 +88,53 @@ public class PreferenceFeature implements RosterFeature {
     // FUTURE - add config file for preference exemptions?
     private static List<String> DEFAULT_EXEMPT_ACTIVITIES = List.of("Swimming", "Horseback Riding");
     private static List<String> EXEMPT_ACTIVITIES;
-    private Map<String, Double> camperScores;
+    private volatile ExemptCodes exemptCodes; // Exemption flags for the round columns' dictionary, if encoded
+    private volatile RankedRoster rankedRoster; // Scores of the roster percentiles were last calculated for
+
+    /**
+     * Exemption flags indexed by code, for the dictionary they were built from.
+     * Replaced whole rather than updated, so campers scored in parallel can share it.
+     */
+    private record ExemptCodes(ValueDictionary dictionary, boolean[] flags) {}
+
+    /**
+     * Ranks of a roster's preference scores, kept so campers rescored later can update percentiles in place.
+     * Refers to the roster weakly, so a discarded roster isn't kept alive by the feature.
+     */
+    private record RankedRoster(WeakReference<EnhancedRoster> roster, ScoreRanks ranks) {}
+
+    /**
+     * A camper's results, computed while scoring and written to the roster once every camper is scored.
+     */
+    private record CamperScore(Camper camper, List<String> unrequestedActivities, int[] roundPoints, double preferenceScore) {}
+
+    /**
+     * Scores campers with preferences, in parallel ranges, and warns about campers without.
+     */
+    private final CamperWork<List<CamperScore>> scoring = new CamperWork<>() {
+        @Override
+        public List<CamperScore> newAccumulator() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public void processCamper(Camper camper, List<CamperScore> scores, WarningSink warnings) {
+            if (!DataConstants.isEmpty(camper.getValue(RosterHeader.PREFERENCES.standardName))) {
+                scores.add(scoreCamper(camper));
+            } else {
+                warnings.logWarning(RosterWarning.create_camperMissingField(camper.view(),RosterHeader.PREFERENCES.standardName,FEATURE_NAME));
+            }
+        }
+
+        @Override
+        public void merge(List<CamperScore> scores) {
+            for (CamperScore score : scores) {
+                setValue_unrequestedActivities(score.camper(),score.unrequestedActivities());
+                setValue_roundScores(score.camper(),score.roundPoints());
+                setValue_mainScore(score.camper(),score.preferenceScore());
+            }
+        }
+    };
 
     public PreferenceFeature() {
         resetExemptActivities();
@@ -142,47 +193,34 @@ public class PreferenceFeature implements RosterFeature {
         return addedHeaders;
     }
 
+    /**
+     * Campers' round assignments, added by ActivityFeature.
+     */
     @Override
-    public Map<String, String> getRequiredFormats() {
-        // Convert Pattern objects to String representations for the interface
-        Map<String, Pattern> patternMap = RosterRegexBuilder.buildPreferenceFormats();
-        Map<String, String> formats = new HashMap<>();
-
-        for (Map.Entry<String, Pattern> entry : patternMap.entrySet()) {
-            formats.put(entry.getKey(), entry.getValue().pattern());
-        }
+    public List<String> getReadHeaders() {
+        return ActivityFeature.ROUND_HEADERS;
+    }
 
-        return formats;
+    @Override
+    public Map<String, String> getRequiredFormats() {
+        return REQUIRED_FORMATS;
     }
 
     @Override
     public void applyFeature(EnhancedRoster roster, WarningManager warningManager) {
 
-        camperScores = new HashMap<>();
-
+        exemptCodes = null;
 
         for (String header : getAddedHeaders()) {
             roster.addHeader(header);
         }
 
-        // First pass: Calculate and store preference scores for all campers
-
-        for (Camper camper : roster.getCampers()) {
-            String preferenceString = camper.getValue(RosterHeader.PREFERENCES.standardName);
-
-            if (!DataConstants.isEmpty(preferenceString)){
-                // Apply basic preference calculations
-                applyToCamper(camper);
-                // camperScores.put(camper.getId(), score);
-            } else {
-                RosterWarning warning = RosterWarning.create_camperMissingField(camper.getData(),RosterHeader.PREFERENCES.standardName,FEATURE_NAME);
-                warningManager.logWarning(warning);
-            }
-        }
+        // First pass: Calculate and store preference scores for all campers, in parallel ranges
+        CamperPartitions.apply(roster.getCampers(), scoring, warningManager);
 
         // Second pass: Calculate percentiles and update campers
-        calculateAndSetPercentiles(roster, camperScores);
-        camperScores = null;
+        calculateAndSetPercentiles(roster);
+        exemptCodes = null;
 
         //System.out.println("PreferenceFeature.applyFeature: Enabling preference feature");
         roster.enableFeature(FEATURE_ID);
@@ -217,48 +255,92 @@ public class PreferenceFeature implements RosterFeature {
         return true;
     }
 
+    /**
+     * Rescores campers whose assignments changed, then updates the percentiles of campers whose rank moved,
+     * since one camper's new score can move the others' ranks.
+     */
+    @Override
+    public boolean updateChangedCampers(EnhancedRoster roster, List<Camper> changedCampers, WarningManager warningManager) {
+        exemptCodes = null;
+
+        double[] oldScores = new double[changedCampers.size()];
+        for (int i = 0; i < oldScores.length; i++) {
+            oldScores[i] = getScoredValue(changedCampers.get(i));
+        }
+        CamperPartitions.apply(changedCampers, scoring, warningManager);
+
+        updatePercentiles(roster, changedCampers, oldScores);
+        exemptCodes = null;
+        return true;
+    }
+
 
     /**
      * Main logic for applying the feature to a single camper
      *
-     * First uses 'determine' helper methods to assemble information about camper's preferences and outcome
-     * Then uses 'setValue_' helper methods to update the roster with the results
+     * Uses 'determine' helper methods to assemble information about camper's preferences and outcome.
+     * Only reads the camper, so campers can be scored in parallel - the results are written by the 'setValue_' helper methods
      *
      * @param camper The camper to apply the feature to
-     * @return The calculated preference score (as a decimal between 0 and 1)
+     * @return The camper's unrequested activities, round points and preference score (as a decimal between 0 and 1)
      */
-    private void applyToCamper(Camper camper) {
+    private CamperScore scoreCamper(Camper camper) {
 
-        // Determine camper's preferences and assignments
+        // Determine camper's preferences
         List<String> preferences = PreferenceFeatureUtils.parsePreferenceField(camper.getValue(RosterHeader.PREFERENCES.standardName));
-        String[] assignments = new String[ROUNDS_OFFERED];
-        for (int i = 0; i < ROUNDS_OFFERED; i++) {
-            assignments[i] = ActivityFeature.getActivityForCamper(camper, i+1);
-        }
-
-        // Determine camper's unrequested activities
-        List<String> unrequestedActivities = PreferenceFeatureUtils.determineUnrequestedActivities(camper,preferences,assignments);
 
-        // Determine points for each round
-        int[] roundPoints = PreferenceFeatureUtils.determineRoundPoints(preferences,assignments);
+        List<String> unrequestedActivities;
+        int[] roundPoints;
+        double preferenceScore;
+
+        ValueDictionary dictionary = camper.getDictionary(RosterHeader.buildRoundString(1));
+        if (dictionary != null) {
+            // Round columns are dictionary-encoded: compare activity codes instead of names
+            boolean[] exempt = getExemptCodes(dictionary);
+            int[] preferenceCodes = PreferenceFeatureUtils.encodePreferences(preferences, dictionary);
+            int[] assignmentCodes = new int[ROUNDS_OFFERED];
+            for (int i = 0; i < ROUNDS_OFFERED; i++) {
+                int code = camper.getCode(RosterHeader.buildRoundString(i+1));
+                assignmentCodes[i] = code == ValueDictionary.NO_CODE ? ValueDictionary.UNSET_CODE : code;
+            }
 
-        // Determine preference score
-        double preferenceScore = PreferenceFeatureUtils.determinePreferenceScore(camper,roundPoints,assignments);
+            unrequestedActivities = PreferenceFeatureUtils.determineUnrequestedActivities(camper,preferenceCodes,assignmentCodes,exempt,dictionary);
+            roundPoints = PreferenceFeatureUtils.determineRoundPoints(preferenceCodes,assignmentCodes,exempt);
+            preferenceScore = PreferenceFeatureUtils.determinePreferenceScore(camper,roundPoints,assignmentCodes,exempt);
+        } else {
+            String[] assignments = new String[ROUNDS_OFFERED];
+            for (int i = 0; i < ROUNDS_OFFERED; i++) {
+                assignments[i] = ActivityFeature.getActivityForCamper(camper, i+1);
+            }
 
-        // Add results to the roster
-        setValue_unrequestedActivities(camper,unrequestedActivities);
-        setValue_roundScores(camper,roundPoints);
-        setValue_mainScore(camper,preferenceScore);
+            unrequestedActivities = PreferenceFeatureUtils.determineUnrequestedActivities(camper,preferences,assignments);
+            roundPoints = PreferenceFeatureUtils.determineRoundPoints(preferences,assignments);
+            preferenceScore = PreferenceFeatureUtils.determinePreferenceScore(camper,roundPoints,assignments);
+        }
 
-        //Map camper + preference score, enabling percentile checks later
-        camperScores.put(camper.getId(), preferenceScore);
-        // return preferenceScore;
+        return new CamperScore(camper,unrequestedActivities,roundPoints,preferenceScore);
     }
 
 
 
 
 
+    /**
+     * Gets exemption flags for the activity dictionary's codes, rebuilding them if the dictionary has changed or grown.
+     * Threads that find the flags stale at the same time each rebuild them, with the same result.
+     *
+     * @param dictionary Dictionary shared by the round columns
+     * @return Exemption flags indexed by code
+     */
+    private boolean[] getExemptCodes(ValueDictionary dictionary) {
+        ExemptCodes codes = exemptCodes;
+        if (codes == null || dictionary != codes.dictionary() || codes.flags().length < dictionary.size()) {
+            codes = new ExemptCodes(dictionary, PreferenceFeatureUtils.determineExemptCodes(dictionary));
+            exemptCodes = codes;
+        }
+        return codes.flags();
+    }
+
     /**
      * Adds the preference score to the roster
      *
@@ -266,46 +348,109 @@ public class PreferenceFeature implements RosterFeature {
      * @param preferenceScore The preference score to add
      */
     private void setValue_mainScore(Camper camper,double preferenceScore){
-        String value = String.format("%.0f", preferenceScore*100);
-        // String value = Double.toString(preferenceScore*100);
-        // String value = Integer.toString((int)(preferenceScore*100));
-        camper.setValue(RosterHeader.PREFERENCE_SCORE.standardName, value);
+        // Stored as a number - the DECIMAL column type formats it as a whole number for display and export
+        camper.setDouble(RosterHeader.PREFERENCE_SCORE.standardName, preferenceScore*100);
     }
 
     /**
      * Calculates percentiles for all campers based on their preference scores
      * and sets the percentile values in the roster.
+     * Scores are read back from the roster, so percentiles can be recalculated after only some campers were rescored.
+     * The sorted scores are kept for the roster, for updatePercentiles, once the roster's changes are committed.
      *
      * @param roster The roster to update
-     * @param camperScores Map of camper IDs to their preference scores
      */
-    private void calculateAndSetPercentiles(EnhancedRoster roster, Map<String, Double> camperScores) {
+    private void calculateAndSetPercentiles(EnhancedRoster roster) {
         // Extract all scores and sort them
-        List<Double> allScores = new ArrayList<>(camperScores.values());
-        Collections.sort(allScores);
+        List<Camper> campers = roster.getCampers();
+        double[] scores = new double[campers.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = getScoredValue(campers.get(i));
+        }
+        ScoreRanks ranks = new ScoreRanks(scores);
 
-        // Calculate percentile for each camper
+        // Calculate percentile for each camper (percentage of scores that are less than or equal to this score)
+        for (int i = 0; i < scores.length; i++) {
+            if (!Double.isNaN(scores[i])) {
+                campers.get(i).setDouble(RosterHeader.PREFERENCE_PERCENTILE.standardName, ranks.percentile(scores[i]));
+            }
+        }
+        publishRanks(roster, ranks);
+    }
+
+    /**
+     * Keeps ranks for a roster once its changes are committed, so a rolled-back update leaves the ranks of the restored scores.
+     */
+    private void publishRanks(EnhancedRoster roster, ScoreRanks ranks) {
+        RankedRoster ranked = new RankedRoster(new WeakReference<>(roster), ranks);
+        roster.whenCommitted(() -> rankedRoster = ranked);
+    }
+
+    /**
+     * Updates percentiles after some campers were rescored, without sorting every score again.
+     *
+     * Each rescored camper's score is replaced in a copy of the ranks kept by calculateAndSetPercentiles, which is kept in
+     * their place once the roster's changes are committed. If no camper gained or lost a score, only campers with scores between the lowest and highest of the old and new scores change rank, so only
+     * they and the rescored campers are updated. Otherwise every percentile's total changed, so every camper is updated.
+     * Falls back to calculateAndSetPercentiles if the ranks were kept for another roster, or don't hold a rescored camper's old score.
+     *
+     * @param roster The roster to update
+     * @param changedCampers The rescored campers
+     * @param oldScores The rescored campers' scores before rescoring, NaN for campers that weren't scored
+     */
+    private void updatePercentiles(EnhancedRoster roster, List<Camper> changedCampers, double[] oldScores) {
+        RankedRoster ranked = rankedRoster;
+        if (ranked == null || ranked.roster().get() != roster) {
+            calculateAndSetPercentiles(roster);
+            return;
+        }
+
+        // Update a copy, since the kept ranks must still match the roster if this update is rolled back
+        ScoreRanks ranks = new ScoreRanks(ranked.ranks());
+        int rankedCount = ranks.size();
+        double low = Double.POSITIVE_INFINITY;
+        double high = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < oldScores.length; i++) {
+            double newScore = getScoredValue(changedCampers.get(i));
+            if (!ranks.replace(oldScores[i], newScore)) {
+                calculateAndSetPercentiles(roster);
+                return;
+            }
+            if (!Double.isNaN(oldScores[i]) && !Double.isNaN(newScore)) {
+                low = Math.min(low, Math.min(oldScores[i], newScore));
+                high = Math.max(high, Math.max(oldScores[i], newScore));
+            }
+        }
+
+        // Ranks count scores less than or equal to them, so scores from low up to (but not including) high may have moved
+        boolean totalChanged = ranks.size() != rankedCount;
         for (Camper camper : roster.getCampers()) {
-            Double score = camperScores.get(camper.getId());
-            if (score != null) {
-                // Skip campers with missing preference data (they already have percentile set to 0)
-                if (DataConstants.isEmpty(camper.getValue(RosterHeader.PREFERENCES.standardName))) {
-                    continue;
-                }
-
-                // Calculate percentile (percentage of scores that are less than or equal to this score)
-                int rank = 0;
-                for (Double otherScore : allScores) {
-                    if (otherScore <= score) {
-                        rank++;
-                    }
-                }
-
-                double percentile = (double) rank / allScores.size() * 100;
-                String percentileValue = String.format("%.0f", percentile);
-                camper.setValue(RosterHeader.PREFERENCE_PERCENTILE.standardName, percentileValue);
+            double score = getScoredValue(camper);
+            if (!Double.isNaN(score) && (totalChanged || (score >= low && score < high))) {
+                camper.setDouble(RosterHeader.PREFERENCE_PERCENTILE.standardName, ranks.percentile(score));
             }
         }
+        for (Camper camper : changedCampers) {
+            double score = getScoredValue(camper);
+            if (!Double.isNaN(score)) {
+                camper.setDouble(RosterHeader.PREFERENCE_PERCENTILE.standardName, ranks.percentile(score));
+            }
+        }
+        publishRanks(roster, ranks);
+    }
+
+    /**
+     * Gets a camper's stored preference score, for ranking.
+     * Campers with missing preference data aren't scored, and aren't ranked.
+     *
+     * @param camper The camper to check
+     * @return The camper's score as a percentage, or NaN if the camper isn't scored
+     */
+    private double getScoredValue(Camper camper) {
+        if (DataConstants.isEmpty(camper.getValue(RosterHeader.PREFERENCES.standardName))) {
+            return Double.NaN;
+        }
+        return camper.getDouble(RosterHeader.PREFERENCE_SCORE.standardName, Double.NaN);
     }
 
     /**
@@ -6,10 +6,26 @@ import java.util.List;
 import com.echo.domain.Camper;
 import com.echo.domain.DataConstants;
 import com.echo.domain.RosterHeader;
+import com.echo.domain.ValueDictionary;
+import com.echo.logging.Diagnostics;
+import com.echo.logging.Diagnostics.Event;
 
+/**
+ * Helper methods for PreferenceFeature's scoring logic.
+ *
+ * Scoring compares activity names by their codes in the shared activity dictionary (see RosterHeader.getDictionaryKey),
+ * so each comparison is an integer compare. String-based overloads encode their arguments into a scratch dictionary
+ * and delegate, keeping a single implementation of each rule.
+ */
 public class PreferenceFeatureUtils {
 
     public static double determinePreferenceScore(Camper camper,int[] roundPoints,String[] assignments) {
+        ValueDictionary dictionary = new ValueDictionary();
+        int[] assignmentCodes = encodeAssignments(assignments,dictionary);
+        return determinePreferenceScore(camper,roundPoints,assignmentCodes,determineExemptCodes(dictionary));
+    }
+
+    public static double determinePreferenceScore(Camper camper,int[] roundPoints,int[] assignmentCodes,boolean[] exemptCodes) {
         // Sum points for each round - used Arrays.stream(roundPoints, 0, roundCount).sum(); but that seemed less efficient for a 3 index array
         int totalPoints = 0;
         for (int i = 0; i < roundPoints.length; i++) {
@@ -17,13 +33,54 @@ public class PreferenceFeatureUtils {
         }
 
         // Calculate preference score as totalPoints' percentage of maxPoints
-        int maxPoints = determineMaxPoints(camper,assignments);
+        int maxPoints = determineMaxPoints(camper,assignmentCodes,exemptCodes);
         double preferenceScore = maxPoints > 0 ? (double)totalPoints / maxPoints
                                                : 1.0;
 
         return preferenceScore;
     }
 
+    /**
+     * Resolves a camper's preferences to codes in the activity dictionary, without interning them.
+     * Preferences that no camper was assigned resolve to ValueDictionary.NO_CODE, which matches no assignment.
+     *
+     * @param preferences List of camper preferences, in order
+     * @param activityDictionary Dictionary encoding the round columns
+     * @return Array of preference codes, in preference order
+     */
+    public static int[] encodePreferences(List<String> preferences,ValueDictionary activityDictionary) {
+        int[] preferenceCodes = new int[preferences.size()];
+        for (int i = 0; i < preferenceCodes.length; i++) {
+            preferenceCodes[i] = activityDictionary.codeOf(preferences.get(i));
+        }
+        return preferenceCodes;
+    }
+
+    /**
+     * Determines which codes in the activity dictionary are exempt from preference scoring (see isExemptActivity).
+     *
+     * @param activityDictionary Dictionary encoding the round columns
+     * @return Array of exemption flags, indexed by code
+     */
+    public static boolean[] determineExemptCodes(ValueDictionary activityDictionary) {
+        boolean[] exemptCodes = new boolean[activityDictionary.size()];
+        for (int code = 0; code < exemptCodes.length; code++) {
+            exemptCodes[code] = isExemptActivity(activityDictionary.decode(code));
+        }
+        return exemptCodes;
+    }
+
+    /**
+     * Interns a set of assignments into a dictionary, for the string-based overloads.
+     */
+    private static int[] encodeAssignments(String[] assignments,ValueDictionary dictionary) {
+        int[] assignmentCodes = new int[assignments.length];
+        for (int i = 0; i < assignments.length; i++) {
+            assignmentCodes[i] = dictionary.encode(assignments[i]);
+        }
+        return assignmentCodes;
+    }
+
     /**
      * Determines the activities assigned to a camper that were not requested in their preferences
      *
@@ -35,33 +92,59 @@ public class PreferenceFeatureUtils {
      * @return List of activities that were not requested
      */
     public static List<String> determineUnrequestedActivities(Camper camper,List<String> preferences,String[] assignments){
+        ValueDictionary dictionary = new ValueDictionary();
+        int[] assignmentCodes = encodeAssignments(assignments,dictionary);
+        return determineUnrequestedActivities(camper,encodePreferences(preferences,dictionary),assignmentCodes,determineExemptCodes(dictionary),dictionary);
+    }
+
+    /**
+     * Code-based version of determineUnrequestedActivities.
+     *
+     * @param camper Camper to check data for
+     * @param preferenceCodes Codes of the camper's preferences, in order
+     * @param assignmentCodes Codes of the camper's assignment for each round
+     * @param exemptCodes Exemption flags indexed by code, from determineExemptCodes
+     * @param activityDictionary Dictionary the codes belong to, used to decode unrequested activities
+     * @return List of activities that were not requested
+     */
+    public static List<String> determineUnrequestedActivities(Camper camper,int[] preferenceCodes,int[] assignmentCodes,boolean[] exemptCodes,ValueDictionary activityDictionary){
         List<String> unrequestedActivities = new ArrayList<>();
-        for (String assignment : assignments) {
-            if ( DataConstants.isEmpty(assignment)
-                    || preferences.contains(assignment)
-                    || PreferenceFeature.getExemptActivities().contains(assignment) ){
+        for (int assignmentCode : assignmentCodes) {
+            if (exemptCodes[assignmentCode] || indexOfCode(preferenceCodes,assignmentCode) >= 0){
                 continue;
             }
-            unrequestedActivities.add(assignment);
+            unrequestedActivities.add(activityDictionary.decode(assignmentCode));
         }
         return unrequestedActivities;
     }
 
     public static int[] determineRoundPoints(List<String> preferences,String[] assignments){
-        int[] roundPoints = new int[assignments.length];
-        for (int i = 0; i < assignments.length; i++) {
-            roundPoints[i] = isExemptActivity(assignments[i]) ? 0 : scoreActivity(preferences, assignments[i]);
+        ValueDictionary dictionary = new ValueDictionary();
+        int[] assignmentCodes = encodeAssignments(assignments,dictionary);
+        return determineRoundPoints(encodePreferences(preferences,dictionary),assignmentCodes,determineExemptCodes(dictionary));
+    }
+
+    public static int[] determineRoundPoints(int[] preferenceCodes,int[] assignmentCodes,boolean[] exemptCodes){
+        int[] roundPoints = new int[assignmentCodes.length];
+        for (int i = 0; i < assignmentCodes.length; i++) {
+            roundPoints[i] = exemptCodes[assignmentCodes[i]] ? 0 : scoreActivity(preferenceCodes, assignmentCodes[i]);
         }
         return roundPoints;
     }
 
     public static int determineMaxPoints(Camper camper,String[] assignments){
-        int roundCount = Integer.parseInt(camper.getValue(RosterHeader.ROUND_COUNT.standardName));
+        ValueDictionary dictionary = new ValueDictionary();
+        int[] assignmentCodes = encodeAssignments(assignments,dictionary);
+        return determineMaxPoints(camper,assignmentCodes,determineExemptCodes(dictionary));
+    }
+
+    public static int determineMaxPoints(Camper camper,int[] assignmentCodes,boolean[] exemptCodes){
+        int roundCount = camper.getInt(RosterHeader.ROUND_COUNT.standardName, 0); // Set by ActivityFeature, a required feature
 
         //Determine # of elligible (non-exempt) activities
         int nonExemptCount = 0;
         for (int i = 0; i < roundCount; i++) {
-            if (!isExemptActivity(assignments[i])) {
+            if (!exemptCodes[assignmentCodes[i]]) {
                 nonExemptCount++;
             }
         }
@@ -107,8 +190,10 @@ public class PreferenceFeatureUtils {
             String[] splitItem = lastItem.split(PreferenceFeature.PENULTIMATE_TOKEN);
             if (splitItem.length > 2) {
                 // This is a case where there are multiple "and" tokens in the last item
-                // For now, we just log it and proceed with the simple split
-                System.out.println("Potential issue: multiple 'and' tokens in last item");
+                // For now, we just count it and proceed with the simple split
+                if (Diagnostics.count(Event.MULTIPLE_AND_TOKENS)) {
+                    Diagnostics.sample(Event.MULTIPLE_AND_TOKENS, lastItem);
+                }
             }
             preferencesList.removeLast();
             // Add the split items, making sure to trim each one
@@ -135,6 +220,32 @@ public class PreferenceFeatureUtils {
         }
     }
 
+    /**
+     * Code-based version of scoreActivity.
+     *
+     * @param preferenceCodes Codes of the camper's preferences, in order
+     * @param activityCode Code of the activity to score
+     * @return Points for this activity (10 for 1st choice, 9 for 2nd, etc., 0 if not in preferences)
+     */
+    static int scoreActivity(int[] preferenceCodes, int activityCode) {
+        int index = indexOfCode(preferenceCodes, activityCode);
+        return index >= 0 ? PreferenceFeature.PREFERENCE_COUNT - index : 0;
+    }
+
+    /**
+     * Finds the first position of a code in an array of codes.
+     *
+     * @return The index of the code, or -1 if not present
+     */
+    private static int indexOfCode(int[] codes, int code) {
+        for (int i = 0; i < codes.length; i++) {
+            if (codes[i] == code) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Advanced scoring method that takes into account the number of preferences provided.
      * This approach gives higher scores to campers with few input assignments, so minimal lists don't drastically impact scores
@@ -2,7 +2,6 @@ package com.echo.feature;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -15,6 +14,8 @@ import com.echo.domain.EnhancedRoster;
 import com.echo.domain.RosterHeader;
 import com.echo.logging.RosterWarning;
 import com.echo.logging.WarningManager;
+import com.echo.logging.WarningSink;
+import com.echo.validation.RosterRegexBuilder;
 
 /**
  * Feature that extracts and processes program information from enrollment data.
@@ -31,6 +32,9 @@ public class ProgramFeature implements RosterFeature {
     /** Display name for this feature */
     public static final String FEATURE_NAME = "Program Information";
 
+    /** Returned by Camper.getInt for campers without a numeric round count */
+    private static final int NO_COUNT = Integer.MIN_VALUE;
+
     /**
      * Headers required by this feature.
      * The ProgramFeature requires the ESP field to extract program information.
@@ -52,19 +56,7 @@ public class ProgramFeature implements RosterFeature {
      * The ProgramFeature uses regex patterns from RosterRegexBuilder to validate
      * the format of ESP fields and program names.
      */
-    private static final Map<String, String> REQUIRED_FORMATS;
-
-    static {
-        // Convert Pattern objects to String representations for the interface
-        Map<String, Pattern> patternMap = com.echo.validation.RosterRegexBuilder.buildProgramFormats();
-        Map<String, String> formats = new HashMap<>();
-
-        for (Map.Entry<String, Pattern> entry : patternMap.entrySet()) {
-            formats.put(entry.getKey(), entry.getValue().pattern());
-        }
-
-        REQUIRED_FORMATS = Collections.unmodifiableMap(formats);
-    }
+    private static final Map<String, String> REQUIRED_FORMATS = RosterRegexBuilder.toFormatStrings(RosterRegexBuilder.buildProgramFormats());
 
     @Override
     public String getFeatureId() {
@@ -147,24 +139,55 @@ public class ProgramFeature implements RosterFeature {
         // Determine the current session based on all campers
         Integer currentSession = determineCurrentSession(roster.getCampers());
 
-        // Process each camper to extract program information
-        for (Camper camper : roster.getCampers()) {
+        // Process each camper to extract program information, in parallel ranges
+        CamperPartitions.apply(roster.getCampers(), new ProgramExtraction(currentSession), warningManager);
+
+        // Enable this feature
+        roster.enableFeature(FEATURE_ID);
+    }
+
+    /**
+     * A camper's extracted program, written to the roster once every camper is processed.
+     */
+    private record CamperProgram(Camper camper, String programValue) {}
+
+    /**
+     * Extracts each camper's program for the current session, as CamperWork so ranges of campers can be processed in parallel.
+     */
+    private final class ProgramExtraction implements CamperWork<List<CamperProgram>> {
+        private final Integer currentSession;
+
+        ProgramExtraction(Integer currentSession) {
+            this.currentSession = currentSession;
+        }
+
+        @Override
+        public List<CamperProgram> newAccumulator() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public void processCamper(Camper camper, List<CamperProgram> programs, WarningSink warnings) {
             String espValue = camper.getValue(RosterHeader.ESP.camperRosterName);
-            String programValue = extractProgramFromESP(espValue, currentSession, warningManager);
+            String programValue = extractProgramFromESP(espValue, currentSession, warnings);
             // If program extraction failed, use the original ESP value and log a warning
             // System.out.println(espValue+"->"+programValue);
             if (programValue == null) {
                 programValue = espValue;
-                warningManager.logWarning(RosterWarning.create_programParsingFailure(
-                    camper.getData(),
+                warnings.logWarning(RosterWarning.create_programParsingFailure(
+                    camper.view(),
                     currentSession != null ? currentSession.toString() : "unknown"
                 ));
             }
-            camper.setValue(RosterHeader.PROGRAM.standardName, programValue);
+            programs.add(new CamperProgram(camper, programValue));
         }
 
-        // Enable this feature
-        roster.enableFeature(FEATURE_ID);
+        @Override
+        public void merge(List<CamperProgram> programs) {
+            for (CamperProgram program : programs) {
+                program.camper().setValue(RosterHeader.PROGRAM.standardName, program.programValue());
+            }
+        }
     }
 
     /**
@@ -180,7 +203,7 @@ public class ProgramFeature implements RosterFeature {
      * @param warningManager The warning manager to use for logging issues
      * @return The extracted program value, or null if extraction failed
      */
-    private String extractProgramFromESP(String espValue, Integer currentSession, WarningManager warningManager) {
+    private String extractProgramFromESP(String espValue, Integer currentSession, WarningSink warningManager) {
         if (espValue == null || espValue.isEmpty()) {
             return "";
         }
@@ -328,30 +351,21 @@ public class ProgramFeature implements RosterFeature {
                 continue;
             }
 
-            // Get the rounds assigned value
-            String roundsValue = camper.getValue(RosterHeader.ROUND_COUNT.standardName);
-            if (roundsValue != null) {
-                try {
-                    int roundCount = Integer.parseInt(roundsValue);
-
-                    // Update the round count for this program
-                    if (!programRoundCounts.containsKey(program)) {
-                        programRoundCounts.put(program, roundCount);
-                    } else {
-                        int currentCount = programRoundCounts.get(program);
-                        if (currentCount != roundCount) {
-                            // If we find inconsistent counts, mark as mixed (-1)
-                            programRoundCounts.put(program, -1);
-                        }
-                    }
-                } catch (NumberFormatException e) {
-                    // If parsing fails, default to 0
-                    if (!programRoundCounts.containsKey(program)) {
-                        programRoundCounts.put(program, 0);
+            // Get the rounds assigned value, held as a number by its typed column
+            int roundCount = camper.getInt(RosterHeader.ROUND_COUNT.standardName, NO_COUNT);
+            if (roundCount != NO_COUNT) {
+                // Update the round count for this program
+                if (!programRoundCounts.containsKey(program)) {
+                    programRoundCounts.put(program, roundCount);
+                } else {
+                    int currentCount = programRoundCounts.get(program);
+                    if (currentCount != roundCount) {
+                        // If we find inconsistent counts, mark as mixed (-1)
+                        programRoundCounts.put(program, -1);
                     }
                 }
             } else {
-                // If no rounds value, default to 0
+                // If no (or a non-numeric) rounds value, default to 0
                 if (!programRoundCounts.containsKey(program)) {
                     programRoundCounts.put(program, 0);
                 }
@@ -3,8 +3,10 @@ package com.echo.feature;
 import java.util.List;
 import java.util.Map;
 
+import com.echo.domain.Camper;
 import com.echo.domain.EnhancedRoster;
 import com.echo.logging.WarningManager;
+import com.echo.logging.WarningSink;
 
 /**
  * Interface for roster features that can be applied to enhance a roster.
@@ -18,11 +20,53 @@ import com.echo.logging.WarningManager;
  * 2. applyFeature modifies the roster with the feature's functionality
  *   2a. many applyFeature implementations will call an applyToCamper method to perform operations for each camper in turn
  * 3. postValidate ensures the feature was applied correctly
+ * 4. updateChangedCampers keeps the feature's data current when only some campers' activity assignments change
+ *
+ * Features whose per-camper work is independent from camper to camper can express it as a CamperWork,
+ * which CamperPartitions runs over ranges of campers in parallel, with the same result as a serial loop.
  *
  * Each feature has a unique ID, a display name, and may require specific headers to be present
  * in the roster. Features may also add new headers to the roster during application.
+ * Together with getReadHeaders and addsCampers, these declarations tell the RosterService which features depend on each other.
  */
 public interface RosterFeature {
+
+    /**
+     * A feature's per-camper work, split across contiguous ranges of campers that CamperPartitions processes in parallel.
+     *
+     * Each range gets its own accumulator. processCamper runs on the range's thread, and may only read the roster
+     * and state the feature set up beforehand, collecting its results in the accumulator. Warnings go to the given sink.
+     * Once every range is processed, merge runs on the applying thread for each accumulator in camper order,
+     * and is where results are written to the roster. Written this way, a feature gives the same roster and warnings
+     * whether its campers are processed in one range or many.
+     *
+     * @param <A> The type of a range's accumulator
+     */
+    interface CamperWork<A> {
+        /**
+         * Creates an empty accumulator for a range of campers.
+         *
+         * @return The new accumulator
+         */
+        A newAccumulator();
+
+        /**
+         * Processes one camper, on the thread processing its range.
+         *
+         * @param camper The camper to process, read-only
+         * @param accumulator The accumulator for the camper's range
+         * @param warnings The sink for the range's warnings
+         */
+        void processCamper(Camper camper, A accumulator, WarningSink warnings);
+
+        /**
+         * Writes a range's results to the roster, on the applying thread.
+         *
+         * @param accumulator The accumulator of a range, given in camper order
+         */
+        void merge(A accumulator);
+    }
+
     /**
      * Gets the unique identifier for this feature.
      *
@@ -47,11 +91,34 @@ public interface RosterFeature {
 
     /**
      * Gets the list of headers added by this feature.
+     * Features should only write to the headers they add, or to their own required headers where no other feature reads them,
+     * since the RosterService applies features that don't share headers concurrently.
      *
      * @return List of added header names
      */
     List<String> getAddedHeaders();
 
+    /**
+     * Gets the headers this feature reads from other features' output without requiring them in preValidate,
+     * such as the round columns added by ActivityFeature.
+     * The RosterService applies the feature after any earlier feature that adds one of these headers.
+     *
+     * @return List of read header names, empty by default
+     */
+    default List<String> getReadHeaders() {
+        return List.of();
+    }
+
+    /**
+     * Checks if this feature adds campers to the roster, changing the rows every other feature works through.
+     * The RosterService never applies such a feature alongside another.
+     *
+     * @return true if applying the feature can add campers, false by default
+     */
+    default boolean addsCampers() {
+        return false;
+    }
+
     /**
      * Gets a map of field names to regex patterns for validation.
      *
@@ -98,4 +165,20 @@ public interface RosterFeature {
      */
     boolean postValidate(EnhancedRoster roster, WarningManager warningManager);
 
+    /**
+     * Brings this feature's data up to date for campers whose activity assignments changed, after the RosterService
+     * re-imports only the changed rows of an activity roster. The roster should end up as applyFeature would have left it
+     * had the whole roster been rebuilt. Warnings should be logged for the given campers only.
+     *
+     * Features whose data doesn't depend on activity assignments have nothing to update, and can rely on this default.
+     *
+     * @param roster Enhanced roster this feature was already applied to
+     * @param changedCampers Campers whose activity assignments were just rebuilt
+     * @param warningManager The warning manager to use for logging encountered issues
+     * @return true if the feature is up to date; false if it can't be updated incrementally, in which case the roster is rebuilt
+     */
+    default boolean updateChangedCampers(EnhancedRoster roster, List<Camper> changedCampers, WarningManager warningManager) {
+        return true;
+    }
+
 }
@@ -0,0 +1,144 @@
+package com.echo.feature;
+
+import java.util.Arrays;
+
+/**
+ * Sorted multiset of scores that answers rank queries by binary search, for PreferenceFeature's percentiles.
+ *
+ * A score's rank is the number of scores less than or equal to it, and its percentile is that rank as a percentage of all scores.
+ * Building the ranks sorts the scores once, so ranking n campers takes O(n log n) instead of comparing every pair.
+ *
+ * Single scores can be added, removed or replaced in place, so a few rescored campers don't need every score sorted again.
+ * Replacing a score only moves the ranks of scores from the lower of the old and new values up to the higher, unless a camper
+ * gains or loses a score, which changes the total every percentile is taken from.
+ *
+ * NaN stands for a camper without a score: it's never stored, and adding or removing it does nothing.
+ * Not thread-safe - each instance belongs to the feature ranking one roster.
+ */
+final class ScoreRanks {
+
+    private double[] scores;
+    private int size;
+
+    /**
+     * Builds ranks over the given scores.
+     * @param scores The scores to rank, including NaN for campers without one. The array isn't kept.
+     */
+    ScoreRanks(double[] scores) {
+        this.scores = new double[Math.max(scores.length, 1)];
+        for (double score : scores) {
+            if (!Double.isNaN(score)) {
+                this.scores[size++] = score;
+            }
+        }
+        Arrays.sort(this.scores, 0, size);
+    }
+
+    /**
+     * Copies another instance's ranks, so they can be updated without changing the original.
+     * @param other The ranks to copy
+     */
+    ScoreRanks(ScoreRanks other) {
+        this.scores = other.scores.clone();
+        this.size = other.size;
+    }
+
+    /**
+     * Gets the number of scores ranked.
+     * @return The count, not including NaN scores
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Counts the scores less than or equal to a score.
+     *
+     * @param score The score to rank. Needn't be one of the ranked scores.
+     * @return The score's rank, from 0 to size()
+     */
+    int rank(double score) {
+        return upperBound(score);
+    }
+
+    /**
+     * Gets the percentage of scores less than or equal to a score.
+     *
+     * @param score The score to rank
+     * @return The percentile, or NaN for a NaN score or when no scores are ranked
+     */
+    double percentile(double score) {
+        if (Double.isNaN(score) || size == 0) {
+            return Double.NaN;
+        }
+        return (double) rank(score) / size * 100;
+    }
+
+    /**
+     * Adds a score.
+     * @param score The score to add. NaN is ignored.
+     */
+    void add(double score) {
+        if (Double.isNaN(score)) {
+            return;
+        }
+        if (size == scores.length) {
+            scores = Arrays.copyOf(scores, size * 2);
+        }
+        int index = upperBound(score);
+        System.arraycopy(scores, index, scores, index + 1, size - index);
+        scores[index] = score;
+        size++;
+    }
+
+    /**
+     * Removes one occurrence of a score.
+     *
+     * @param score The score to remove. NaN is ignored.
+     * @return true if the score was removed or was NaN, false if it wasn't ranked
+     */
+    boolean remove(double score) {
+        if (Double.isNaN(score)) {
+            return true;
+        }
+        int index = upperBound(score) - 1;
+        if (index < 0 || scores[index] != score) {
+            return false;
+        }
+        System.arraycopy(scores, index + 1, scores, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    /**
+     * Replaces one occurrence of a score with another, as when a camper is rescored.
+     *
+     * @param oldScore The camper's previous score, NaN if it had none
+     * @param newScore The camper's new score, NaN if it has none
+     * @return true if the score was replaced, false if the old score wasn't ranked (leaving the ranks unchanged)
+     */
+    boolean replace(double oldScore, double newScore) {
+        if (!remove(oldScore)) {
+            return false;
+        }
+        add(newScore);
+        return true;
+    }
+
+    /**
+     * Finds the index of the first score greater than a score, which is also the count of scores less than or equal to it.
+     */
+    private int upperBound(double score) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (scores[middle] <= score) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
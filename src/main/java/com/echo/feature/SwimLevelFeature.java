@@ -8,14 +8,15 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 import com.echo.domain.Camper;
 import com.echo.domain.DataConstants;
 import com.echo.domain.EnhancedRoster;
 import com.echo.domain.RosterHeader;
+import com.echo.domain.ValueDictionary;
 import com.echo.logging.RosterWarning;
 import com.echo.logging.WarningManager;
+import com.echo.logging.WarningSink;
 import com.echo.validation.RosterRegexBuilder;
 
 
@@ -31,6 +32,11 @@ public class SwimLevelFeature implements RosterFeature {
     private static final String FEATURE_ID = "swimlevel";
     public static final String FEATURE_NAME = "Swim Level Validation";
 
+    /**
+     * Required formats for data validation, converted once from RosterRegexBuilder's patterns.
+     */
+    private static final Map<String, String> REQUIRED_FORMATS = RosterRegexBuilder.toFormatStrings(RosterRegexBuilder.buildPreferenceFormats());
+
     private final List<String> requiredHeaders = Arrays.asList(RosterHeader.SWIMCOLOR.camperRosterName);
 
     private final List<String> addedHeaders = Arrays.asList(RosterHeader.SWIMCONFLICTS.standardName);
@@ -49,6 +55,54 @@ public class SwimLevelFeature implements RosterFeature {
 
     private Set<String> unknownActivities = new HashSet<>();
 
+    // Swim levels and activity requirements resolved per dictionary code, so per-camper checks are array lookups.
+    // Tables are rebuilt when a camper's dictionary differs from the cached one or has grown.
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+    private volatile CodeTable levelByCode; // Swim level of each code in the swim color dictionary
+    private volatile CodeTable requirementByCode; // Required swim level of each code in the round columns' dictionary
+
+    /**
+     * Integers indexed by code, for the dictionary they were built from.
+     * Replaced whole rather than updated, so campers checked in parallel can share it.
+     */
+    private record CodeTable(ValueDictionary dictionary, int[] values) {}
+
+    /**
+     * A range's results: each checked camper's conflicts, and the unknown activities its campers were assigned.
+     */
+    private record SwimChecks(List<Camper> campers, List<String> conflicts, Set<String> unknownActivities) {}
+
+    /**
+     * Checks campers with a swim level, in parallel ranges, and warns about campers without.
+     */
+    private final CamperWork<SwimChecks> checking = new CamperWork<>() {
+        @Override
+        public SwimChecks newAccumulator() {
+            return new SwimChecks(new ArrayList<>(), new ArrayList<>(), new HashSet<>());
+        }
+
+        @Override
+        public void processCamper(Camper camper, SwimChecks checks, WarningSink warnings) {
+            String swimLevel = camper.getValue(RosterHeader.SWIMCOLOR.camperRosterName);
+
+            if (!DataConstants.isEmpty(swimLevel)){
+                checks.campers().add(camper);
+                checks.conflicts().add(checkCamper(camper,warnings,checks.unknownActivities()));
+            } else {
+                RosterWarning warning = RosterWarning.create_camperMissingField(camper.view(),RosterHeader.SWIMCOLOR.standardName,FEATURE_NAME);
+                warnings.logWarning(warning);
+            }
+        }
+
+        @Override
+        public void merge(SwimChecks checks) {
+            for (int i = 0; i < checks.campers().size(); i++) {
+                checks.campers().get(i).setValue(RosterHeader.SWIMCONFLICTS.standardName, checks.conflicts().get(i));
+            }
+            unknownActivities.addAll(checks.unknownActivities());
+        }
+    };
+
 
     /**
      * Constructor reates a new SwimLevelFeature and sets up the activity requirements.
@@ -126,17 +180,17 @@ public class SwimLevelFeature implements RosterFeature {
         return addedHeaders;
     }
 
+    /**
+     * Campers' round assignments, added by ActivityFeature.
+     */
     @Override
-    public Map<String, String> getRequiredFormats() {
-        // Convert Pattern objects to String representations for the interface
-        Map<String, Pattern> patternMap = RosterRegexBuilder.buildPreferenceFormats();
-        Map<String, String> formats = new HashMap<>();
-
-        for (Map.Entry<String, Pattern> entry : patternMap.entrySet()) {
-            formats.put(entry.getKey(), entry.getValue().pattern());
-        }
+    public List<String> getReadHeaders() {
+        return ActivityFeature.ROUND_HEADERS;
+    }
 
-        return formats;
+    @Override
+    public Map<String, String> getRequiredFormats() {
+        return REQUIRED_FORMATS;
     }
 
     @Override
@@ -146,18 +200,30 @@ public class SwimLevelFeature implements RosterFeature {
             roster.addHeader(header);
         }
 
-        for (Camper camper : roster.getCampers()) {
-            String swimLevel = camper.getValue(RosterHeader.SWIMCOLOR.camperRosterName);
+        CamperPartitions.apply(roster.getCampers(), checking, warningManager);
 
-            if (!DataConstants.isEmpty(swimLevel)){
-                applyToCamper(camper,warningManager);
-            } else {
-                RosterWarning warning = RosterWarning.create_camperMissingField(camper.getData(),RosterHeader.SWIMCOLOR.standardName,FEATURE_NAME);
-                warningManager.logWarning(warning);
-            }
-        }
+        logUnknownActivities(warningManager);
 
-        //If definitions for all activities are required in the configuration, each unknown activity found generates a warning.
+        roster.enableFeature(FEATURE_ID);
+    }
+
+    /**
+     * Rechecks swim conflicts for campers whose assignments changed.
+     */
+    @Override
+    public boolean updateChangedCampers(EnhancedRoster roster, List<Camper> changedCampers, WarningManager warningManager) {
+        CamperPartitions.apply(changedCampers, checking, warningManager);
+
+        logUnknownActivities(warningManager);
+        return true;
+    }
+
+    /**
+     * If definitions for all activities are required in the configuration, logs a warning for each unknown activity found.
+     *
+     * @param warningManager The warning manager to log to
+     */
+    private void logUnknownActivities(WarningManager warningManager) {
         if (REQUIRE_ALL_DEFINITIONS){
             //Sort cached activities
             List<String> sortedActivities = new ArrayList<>(unknownActivities);
@@ -169,8 +235,6 @@ public class SwimLevelFeature implements RosterFeature {
                 warningManager.logWarning(warning);
             }
         }
-
-        roster.enableFeature(FEATURE_ID);
     }
 
     @Override
@@ -199,13 +263,15 @@ public class SwimLevelFeature implements RosterFeature {
     /**
      * Main logic for applying the feature to a single camper
      * 
-     * Sets 'Swim Validity' field to 'Yes' if camper has compatible activities, 'No' if a discrepancy is caught
-     * Sets 'Swim Conflicts' field to display any incompatible activities
+     * Determines the 'Swim Conflicts' field, displaying any incompatible activities.
+     * Only reads the camper, so campers can be checked in parallel - the field is written once every camper is checked
      *
      * @param camper The camper to apply the feature to
-     * @return The calculated preference score (as a decimal between 0 and 1)
+     * @param warningManager The sink for the camper's warnings
+     * @param unknownActivities The set to note activities without a known requirement in
+     * @return The camper's 'Swim Conflicts' value
      */
-    private void applyToCamper(Camper camper,WarningManager warningManager) {
+    private String checkCamper(Camper camper,WarningSink warningManager,Set<String> unknownActivities) {
 
         // Determine camper's swim level and assignments
         String swimLevelName = camper.getValue(RosterHeader.SWIMCOLOR.camperRosterName);
@@ -215,7 +281,7 @@ public class SwimLevelFeature implements RosterFeature {
         }
 
         // Determine camper's incompatible activities
-        List<String> incompatibleActivities = determineIncompatibleActivities(swimLevelName,assignments,camper,warningManager);
+        List<String> incompatibleActivities = determineIncompatibleActivities(swimLevelName,assignments,camper,warningManager,unknownActivities);
         boolean allActivitiesApproved = incompatibleActivities==null || incompatibleActivities.isEmpty();
 
         // // Report presence of incompatible activities as field, add to camper. Currently disabled due to overlap with prior column
@@ -224,11 +290,11 @@ public class SwimLevelFeature implements RosterFeature {
         //     : "No";
         // camper.setValue(RosterHeader.SWIMVALIDITY.standardName, swimValidity);
 
-        // Report specific incompatible activities as field, add to camper.
+        // Report specific incompatible activities as field, to be added to camper.
         String activityConflicts = allActivitiesApproved 
             ? DataConstants.DISPLAY_EMPTY
             : String.join(", ",incompatibleActivities);
-        camper.setValue(RosterHeader.SWIMCONFLICTS.standardName, activityConflicts);
+        return activityConflicts;
 
     }
 
@@ -236,17 +302,19 @@ public class SwimLevelFeature implements RosterFeature {
      * Helper method to determine if an activity is appropriate for a given swim level
      *
      * @param activity The activity to check
+     * @param requirement The activity's required swim level, or UNKNOWN if it has no known requirement
      * @param swimLevel The swim level to check against
+     * @param unknownActivities The set to note the activity in, if it has no known requirement
      * @return True if the activity is appropriate for the swim level, false otherwise
      */
-    private boolean approveActivity(String activity,int swimLevel){
+    private boolean approveActivity(String activity,int requirement,int swimLevel,Set<String> unknownActivities){
         //If activity is empty, return true - no assignment to contradict swim level
         if (DataConstants.isEmpty(activity)){
             return true;
         }
         //If activity and requirement is known, check against swim level
-        else if (activityRequirements.containsKey(activity)){
-            return activityRequirements.get(activity) <= swimLevel;
+        else if (requirement != UNKNOWN){
+            return requirement <= swimLevel;
         } 
         //If activity is unknown, note it, 
         else if (REQUIRE_ALL_DEFINITIONS){
@@ -263,31 +331,95 @@ public class SwimLevelFeature implements RosterFeature {
      * @param camper The camper to check
      * @param swimLevelName The name of the swim level to check against
      * @param assignments The array of assignments to check
+     * @param warningManager The sink for the camper's warnings
+     * @param unknownActivities The set to note activities without a known requirement in
      * @return List of incompatible activities
      */
-    private List<String> determineIncompatibleActivities(String swimLevelName,String[] assignments,Camper camper,WarningManager warningManager){
+    private List<String> determineIncompatibleActivities(String swimLevelName,String[] assignments,Camper camper,WarningSink warningManager,Set<String> unknownActivities){
 
-        Integer swimLevelInt = levelNameMappings.get(swimLevelName);
-        if (swimLevelInt==null){
-            RosterWarning warning = RosterWarning.create_unknownSwimLevelWarning(camper.getData(),swimLevelName,getDefaultLevelNameMappings().keySet());
+        int swimLevelInt = resolveSwimLevel(camper,swimLevelName);
+        if (swimLevelInt==UNKNOWN){
+            RosterWarning warning = RosterWarning.create_unknownSwimLevelWarning(camper.view(),swimLevelName,getDefaultLevelNameMappings().keySet());
             warningManager.logWarning(warning);
             return null;
         }
         //TODO validate swimLevelName. Likely caused by case where swim level is written incorrectly in config/given map
 
         List<String> incompatibleActivities = new ArrayList<>();
-        for (String activity : assignments) {
+        for (int i = 0; i < assignments.length; i++) {
+            String activity = assignments[i];
             //If the activity is empty, skip it
             if (DataConstants.isEmpty(activity)){
                 continue;
             }
             // If the activity isn't approved
-            if (!approveActivity(activity,swimLevelInt)){
+            int requirement = resolveRequirement(camper,RosterHeader.buildRoundString(i+1),activity);
+            if (!approveActivity(activity,requirement,swimLevelInt,unknownActivities)){
                 incompatibleActivities.add(activity);
             }
         }
         return incompatibleActivities;
     }
 
+    /**
+     * Helper method resolves a camper's swim level to its integer value, by dictionary code when the column is encoded.
+     *
+     * @param camper The camper to check
+     * @param swimLevelName The camper's swim level name, used when the column isn't encoded
+     * @return The swim level's integer value, or UNKNOWN if the level isn't mapped
+     */
+    private int resolveSwimLevel(Camper camper,String swimLevelName){
+        ValueDictionary dictionary = camper.getDictionary(RosterHeader.SWIMCOLOR.camperRosterName);
+        if (dictionary == null){
+            return levelNameMappings.getOrDefault(swimLevelName,UNKNOWN);
+        }
+
+        int code = camper.getCode(RosterHeader.SWIMCOLOR.camperRosterName);
+        CodeTable table = levelByCode;
+        if (table == null || dictionary != table.dictionary() || code >= table.values().length){
+            table = new CodeTable(dictionary,buildCodeTable(dictionary,levelNameMappings));
+            levelByCode = table;
+        }
+        return table.values()[code];
+    }
+
+    /**
+     * Helper method resolves the swim level required by a camper's activity in a round, by dictionary code when the column is encoded.
+     *
+     * @param camper The camper to check
+     * @param roundHeader The header of the round holding the activity
+     * @param activity The activity name, used when the column isn't encoded
+     * @return The required swim level, or UNKNOWN if the activity has no known requirement
+     */
+    private int resolveRequirement(Camper camper,String roundHeader,String activity){
+        ValueDictionary dictionary = camper.getDictionary(roundHeader);
+        if (dictionary == null){
+            return activityRequirements.getOrDefault(activity,UNKNOWN);
+        }
+
+        int code = camper.getCode(roundHeader);
+        CodeTable table = requirementByCode;
+        if (table == null || dictionary != table.dictionary() || code >= table.values().length){
+            table = new CodeTable(dictionary,buildCodeTable(dictionary,activityRequirements));
+            requirementByCode = table;
+        }
+        return table.values()[code];
+    }
+
+    /**
+     * Helper method maps every code in a dictionary to the integer its value maps to, or UNKNOWN for unmapped values.
+     *
+     * @param dictionary The dictionary to build a table for
+     * @param valueMappings Map of values to their integers
+     * @return Array of integers, indexed by code
+     */
+    private static int[] buildCodeTable(ValueDictionary dictionary,Map<String, Integer> valueMappings){
+        int[] table = new int[dictionary.size()];
+        for (int code = 0; code < table.length; code++){
+            table[code] = valueMappings.getOrDefault(dictionary.decode(code),UNKNOWN);
+        }
+        return table;
+    }
+
 
 }
@@ -15,6 +15,7 @@
  *   <li>{@link com.echo.feature.PreferenceFeature} - Feature for analyzing camper activity preferences</li>
  *   <li>{@link com.echo.feature.SwimLevelFeature} - Feature for tracking swim levels</li>
  *   <li>{@link com.echo.feature.MedicalFeature} - Feature for tracking medical needs</li>
+ *   <li>{@link com.echo.feature.CamperPartitions} - Runs features' per-camper work over ranges of campers in parallel</li>
  * </ul>
  * 
  * Features follow a consistent lifecycle:
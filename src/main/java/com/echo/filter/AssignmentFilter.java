@@ -20,6 +20,7 @@ public class AssignmentFilter implements RosterFilter {
     private static final String FILTER_ID = "assignment";
     private static final String FILTER_NAME = "Assignment Filter";
     private static final String ROUNDS_ASSIGNED_HEADER = RosterHeader.ROUND_COUNT.standardName;
+    private static final int NO_COUNT = Integer.MIN_VALUE; // Returned by Camper.getInt for campers without a numeric round count
 
     private final Map<Integer, Boolean> roundVisibility = new HashMap<>();
 
@@ -37,19 +38,14 @@ public class AssignmentFilter implements RosterFilter {
 
     @Override
     public boolean apply(Camper camper) {
-        String value = camper.getValue(ROUNDS_ASSIGNED_HEADER);
-        if (value == null) {
-            return true; // Always show campers with no rounds assigned value
+        int assignmentCount = camper.getInt(ROUNDS_ASSIGNED_HEADER, NO_COUNT);
+        if (assignmentCount == NO_COUNT) {
+            return true; // Always show campers with no (or non-numeric) rounds assigned value
         }
 
-        try {
-            int assignmentCount = Integer.parseInt(value);
-            boolean visible = roundVisibility.getOrDefault(assignmentCount, true);
-            //System.out.println("AssignmentFilter: Camper " + camper.getId() + " with " + assignmentCount + " rounds is " + (visible ? "visible" : "hidden"));
-            return visible;
-        } catch (NumberFormatException e) {
-            return true;
-        }
+        boolean visible = roundVisibility.getOrDefault(assignmentCount, true);
+        //System.out.println("AssignmentFilter: Camper " + camper.getId() + " with " + assignmentCount + " rounds is " + (visible ? "visible" : "hidden"));
+        return visible;
     }
 
     @Override
@@ -20,6 +20,7 @@ public class CamperRoundsFilter implements RosterFilter {
     private static final String FILTER_ID = "camper-rounds";
     private static final String FILTER_NAME = "Camper Filter";
     private static final String ROUNDS_ASSIGNED_HEADER = RosterHeader.ROUND_COUNT.standardName;
+    private static final int NO_COUNT = Integer.MIN_VALUE; // Returned by Camper.getInt for campers without a numeric round count
 
     private boolean showMissingCampers = true;
     private boolean showCompleteCampers = true;
@@ -28,21 +29,16 @@ public class CamperRoundsFilter implements RosterFilter {
     @Override
     public boolean apply(Camper camper) {
         // Check camper completion status
-        String roundsValue = camper.getValue(ROUNDS_ASSIGNED_HEADER);
-        if (roundsValue != null) {
-            try {
-                int roundCount = Integer.parseInt(roundsValue);
-                boolean isComplete = (roundCount == 3);// FUTURE - Add support for more than 3 rounds - base ceiling on max_rounds field, not 3
-
-                if (isComplete && !showCompleteCampers) {
-                    return false;
-                }
-
-                if (!isComplete && !showMissingCampers) {
-                    return false;
-                }
-            } catch (NumberFormatException e) {
-                // Ignore parsing errors
+        int roundCount = camper.getInt(ROUNDS_ASSIGNED_HEADER, NO_COUNT);
+        if (roundCount != NO_COUNT) {
+            boolean isComplete = (roundCount == 3);// FUTURE - Add support for more than 3 rounds - base ceiling on max_rounds field, not 3
+
+            if (isComplete && !showCompleteCampers) {
+                return false;
+            }
+
+            if (!isComplete && !showMissingCampers) {
+                return false;
             }
         }
 
@@ -8,6 +8,7 @@ import javax.swing.JCheckBox;
 import com.echo.domain.Camper;
 import com.echo.domain.EnhancedRoster;
 import com.echo.domain.RosterHeader;
+import com.echo.domain.ValueDictionary;
 import com.echo.ui.filter.CollapsibleFilterPanel;
 import com.echo.ui.filter.ProgramFilterBuilder;
 
@@ -26,6 +27,10 @@ public class SortedProgramFilter implements RosterFilter {
     private final Map<String, Boolean> programVisibility = new HashMap<>();
     private EnhancedRoster roster;
 
+    // Visibility resolved per dictionary code of the Program column, so apply() is an array lookup. Rebuilt when stale.
+    private ValueDictionary visibilityDictionary;
+    private boolean[] visibilityByCode = new boolean[0];
+
     // UI component references - these are populated by the ProgramFilterBuilder
     private final Map<Integer, Map<String, JCheckBox>> programCheckboxesByRoundCount = new HashMap<>();
     private final Map<Integer, JCheckBox> sectionHeaderCheckboxes = new HashMap<>();
@@ -39,6 +44,15 @@ public class SortedProgramFilter implements RosterFilter {
 
     @Override
     public boolean apply(Camper camper) {
+        ValueDictionary dictionary = camper.getDictionary(RosterHeader.PROGRAM.standardName);
+        if (dictionary != null) {
+            int code = camper.getCode(RosterHeader.PROGRAM.standardName);
+            if (dictionary != visibilityDictionary || code >= visibilityByCode.length) {
+                resolveVisibilityCodes(dictionary);
+            }
+            return visibilityByCode[code];
+        }
+
         String program = camper.getValue(RosterHeader.PROGRAM.standardName);
 
         // If the program is not in our map, default to visible
@@ -79,6 +93,21 @@ public class SortedProgramFilter implements RosterFilter {
         );
     }
 
+    /**
+     * Resolves the visibility of every program in a Program column dictionary, indexed by code.
+     * Programs not yet in the visibility map default to visible, and are added to it.
+     *
+     * @param dictionary The dictionary encoding the Program column
+     */
+    private void resolveVisibilityCodes(ValueDictionary dictionary) {
+        visibilityByCode = new boolean[dictionary.size()];
+        for (int code = 0; code < visibilityByCode.length; code++) {
+            String program = dictionary.decode(code);
+            visibilityByCode[code] = programVisibility.computeIfAbsent(program, p -> true);
+        }
+        visibilityDictionary = dictionary;
+    }
+
     /**
      * Sets the visibility of a program.
      *
@@ -87,6 +116,14 @@ public class SortedProgramFilter implements RosterFilter {
      */
     public void setProgramVisible(String program, boolean visible) {
         programVisibility.put(program, visible);
+
+        // Update the resolved visibility in place, if the program has a code
+        if (visibilityDictionary != null) {
+            int code = visibilityDictionary.codeOf(program);
+            if (code >= 0 && code < visibilityByCode.length) {
+                visibilityByCode[code] = visible;
+            }
+        }
     }
 
     /**
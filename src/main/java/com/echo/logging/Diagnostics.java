@@ -0,0 +1,332 @@
+package com.echo.logging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Developer diagnostics for the import and feature pipelines, kept off the console unless asked for.
+ *
+ * Hot paths don't print: they count an Event, and only format a message for the first few occurrences of each event,
+ * which are kept as samples. Messages at or above the configured level are handed to a bounded buffer that a background
+ * thread writes to stderr, so callers never wait on console I/O; messages arriving while the buffer is full are dropped and counted.
+ *
+ * Counts and samples are collected for the whole application. Tasks whose results may be discarded count into a Tally
+ * of their own instead, which is only recorded if the results are kept. RosterService resets them at the start of each import and
+ * attaches a summary to the import's WarningManager, where the UI can show it alongside the import's warnings.
+ * Unlike RosterWarnings, diagnostics describe things the import already handled, such as junk characters it cleaned up.
+ */
+public final class Diagnostics {
+
+    /**
+     * Severity of a diagnostic message. Messages below the configured level are neither formatted nor written.
+     */
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    /**
+     * Events counted on hot paths, each with the level its samples are written at and a description for summaries.
+     */
+    public enum Event {
+        JUNK_LINE(Level.INFO, "Lines of junk characters skipped"),
+        JUNK_AT_LINE_START(Level.INFO, "Lines with junk characters before the first quote"),
+        JUNK_AT_LINE_END(Level.INFO, "Lines with junk characters after the last quote"),
+        UNEVEN_QUOTES(Level.INFO, "Lines with an uneven quote count skipped"),
+        MULTIPLE_AND_TOKENS(Level.DEBUG, "Preference lists with multiple 'and' tokens in the last item"),
+        ACTIVITY_ROW_ERROR(Level.WARN, "Activity rows that couldn't be processed");
+
+        public final Level level;
+        public final String description;
+
+        Event(Level level, String description) {
+            this.level = level;
+            this.description = description;
+        }
+    }
+
+    public static final int SAMPLES_PER_EVENT = 3;
+    public static final int BUFFER_CAPACITY = 256;
+
+    private static final Event[] EVENTS = Event.values();
+    private static final LongAdder[] counts = new LongAdder[EVENTS.length];
+    private static final AtomicInteger[] sampleCounts = new AtomicInteger[EVENTS.length];
+    private static final AtomicReferenceArray<String> samples = new AtomicReferenceArray<>(EVENTS.length * SAMPLES_PER_EVENT);
+    private static final LongAdder droppedMessages = new LongAdder();
+
+    private static final BlockingQueue<String> buffer = new ArrayBlockingQueue<>(BUFFER_CAPACITY);
+    private static volatile Level level = Level.WARN;
+
+    static {
+        for (int i = 0; i < EVENTS.length; i++) {
+            counts[i] = new LongAdder();
+            sampleCounts[i] = new AtomicInteger();
+        }
+
+        Thread writer = new Thread(Diagnostics::writeMessages, "diagnostics-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private Diagnostics() {
+        // Static methods only
+    }
+
+    /**
+     * Sets the lowest level of message written to stderr.
+     * @param newLevel The level, WARN by default. OFF writes nothing.
+     */
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    /**
+     * Gets the lowest level of message written to stderr.
+     * @return The level, WARN by default
+     */
+    public static Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Checks if messages at a level are written, so callers can skip building messages that would be discarded.
+     *
+     * @param messageLevel The level to check
+     * @return true if messages at the level are written
+     */
+    public static boolean isEnabled(Level messageLevel) {
+        return messageLevel != Level.OFF && messageLevel.compareTo(level) >= 0;
+    }
+
+    /**
+     * Counts an occurrence of an event. Cheap enough for per-row and per-character loops.
+     * Callers only build an example of the event when this returns true, then pass it to sample.
+     *
+     * @param event The event that occurred
+     * @return true if the event still needs samples
+     */
+    public static boolean count(Event event) {
+        counts[event.ordinal()].increment();
+        return sampleCounts[event.ordinal()].get() < SAMPLES_PER_EVENT;
+    }
+
+    /**
+     * Keeps an example of an event counted by count, writing it out if the event's level is enabled.
+     * Examples beyond the first few for each event are ignored.
+     *
+     * @param event The event the example belongs to
+     * @param example A short description of the occurrence, such as the offending text
+     */
+    public static void sample(Event event, String example) {
+        int slot = sampleCounts[event.ordinal()].getAndIncrement();
+        if (slot >= SAMPLES_PER_EVENT) {
+            return;
+        }
+        samples.set(event.ordinal() * SAMPLES_PER_EVENT + slot, example);
+        log(event.level, event.description + ": " + example);
+    }
+
+    /**
+     * Writes a message to stderr in the background, if its level is enabled.
+     *
+     * @param messageLevel The message's level
+     * @param message The message
+     */
+    public static void log(Level messageLevel, String message) {
+        if (isEnabled(messageLevel) && !buffer.offer(messageLevel + ": " + message)) {
+            droppedMessages.increment();
+        }
+    }
+
+    /**
+     * Writes a message and the exception that caused it to stderr in the background, if its level is enabled.
+     * The exception's stack trace is only included at DEBUG level.
+     *
+     * @param messageLevel The message's level
+     * @param message The message
+     * @param cause The exception being reported
+     */
+    public static void log(Level messageLevel, String message, Throwable cause) {
+        if (!isEnabled(messageLevel)) {
+            return;
+        }
+        StringBuilder text = new StringBuilder(message).append(": ").append(cause);
+        if (isEnabled(Level.DEBUG)) {
+            for (StackTraceElement element : cause.getStackTrace()) {
+                text.append(System.lineSeparator()).append("\tat ").append(element);
+            }
+        }
+        log(messageLevel, text.toString());
+    }
+
+    /**
+     * Adds a tally's counts and samples, as if its events had been counted and sampled here.
+     * Samples beyond the first few for each event are ignored, as they are by sample.
+     *
+     * @param tally The tally to add. Its task must have finished counting.
+     */
+    public static void record(Tally tally) {
+        for (Event event : EVENTS) {
+            int index = event.ordinal();
+            counts[index].add(tally.tallyCounts[index]);
+            for (int slot = 0; slot < Math.min(tally.tallySampleCounts[index], SAMPLES_PER_EVENT); slot++) {
+                sample(event, tally.tallySamples[index * SAMPLES_PER_EVENT + slot]);
+            }
+        }
+    }
+
+    /**
+     * Clears all counts and samples, so a new summary covers only what happens from here on.
+     */
+    public static void reset() {
+        for (int i = 0; i < EVENTS.length; i++) {
+            counts[i].reset();
+            sampleCounts[i].set(0);
+        }
+        for (int i = 0; i < samples.length(); i++) {
+            samples.set(i, null);
+        }
+        droppedMessages.reset();
+    }
+
+    /**
+     * Takes a snapshot of the counts and samples collected since the last reset.
+     *
+     * @return The summary, listing only events that occurred
+     */
+    public static Summary summarize() {
+        Map<Event, Long> eventCounts = new EnumMap<>(Event.class);
+        Map<Event, List<String>> eventSamples = new EnumMap<>(Event.class);
+        for (Event event : EVENTS) {
+            long count = counts[event.ordinal()].sum();
+            if (count == 0) {
+                continue;
+            }
+            eventCounts.put(event, count);
+
+            List<String> examples = new ArrayList<>();
+            for (int slot = 0; slot < SAMPLES_PER_EVENT; slot++) {
+                String example = samples.get(event.ordinal() * SAMPLES_PER_EVENT + slot);
+                if (example != null) {
+                    examples.add(example);
+                }
+            }
+            eventSamples.put(event, Collections.unmodifiableList(examples));
+        }
+        return new Summary(Collections.unmodifiableMap(eventCounts), Collections.unmodifiableMap(eventSamples), droppedMessages.sum());
+    }
+
+    /**
+     * Counts and samples kept by one task apart from the application's, for tasks whose results may be thrown away,
+     * such as a chunk of a file parsed in parallel. The task counts into its tally in place of count and sample,
+     * and the tally is only added (see record) if the task's results are kept. Not thread-safe.
+     */
+    public static final class Tally {
+        private final long[] tallyCounts = new long[EVENTS.length];
+        private final int[] tallySampleCounts = new int[EVENTS.length];
+        private final String[] tallySamples = new String[EVENTS.length * SAMPLES_PER_EVENT];
+
+        /**
+         * Counts an occurrence of an event, as Diagnostics.count does.
+         *
+         * @param event The event that occurred
+         * @return true if the tally still needs samples of the event
+         */
+        public boolean count(Event event) {
+            tallyCounts[event.ordinal()]++;
+            return tallySampleCounts[event.ordinal()] < SAMPLES_PER_EVENT;
+        }
+
+        /**
+         * Keeps an example of an event counted by count, as Diagnostics.sample does, but without writing it out.
+         *
+         * @param event The event the example belongs to
+         * @param example A short description of the occurrence
+         */
+        public void sample(Event event, String example) {
+            int slot = tallySampleCounts[event.ordinal()]++;
+            if (slot < SAMPLES_PER_EVENT) {
+                tallySamples[event.ordinal() * SAMPLES_PER_EVENT + slot] = example;
+            }
+        }
+    }
+
+    /**
+     * Counts and samples of the events that occurred over some period, such as one import.
+     *
+     * @param counts Number of occurrences of each event that occurred
+     * @param samples The first few examples kept for each event that occurred
+     * @param droppedMessages Number of messages dropped because the write buffer was full
+     */
+    public record Summary(Map<Event, Long> counts, Map<Event, List<String>> samples, long droppedMessages) {
+
+        public static final Summary EMPTY = new Summary(Map.of(), Map.of(), 0);
+
+        /**
+         * Checks if no events occurred.
+         * @return true if every event's count is zero
+         */
+        public boolean isEmpty() {
+            return counts.isEmpty();
+        }
+
+        /**
+         * Gets the number of occurrences of all events.
+         * @return The sum of every event's count
+         */
+        public long getTotalCount() {
+            long total = 0;
+            for (long count : counts.values()) {
+                total += count;
+            }
+            return total;
+        }
+
+        /**
+         * Gets the number of times an event occurred.
+         *
+         * @param event The event to check
+         * @return The event's count, 0 if it didn't occur
+         */
+        public long getCount(Event event) {
+            return counts.getOrDefault(event, 0L);
+        }
+
+        /**
+         * Describes the summary in a line per event, with its count and samples.
+         * @return The description, or an empty string if no events occurred
+         */
+        public String describe() {
+            StringBuilder text = new StringBuilder();
+            for (Map.Entry<Event, Long> entry : counts.entrySet()) {
+                text.append(entry.getKey().description).append(": ").append(entry.getValue());
+                List<String> examples = samples.getOrDefault(entry.getKey(), List.of());
+                if (!examples.isEmpty()) {
+                    text.append(" (e.g. ").append(String.join(" | ", examples)).append(')');
+                }
+                text.append('\n');
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Writes buffered messages to stderr, for the life of the application.
+     */
+    private static void writeMessages() {
+        try {
+            while (true) {
+                System.err.println(buffer.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
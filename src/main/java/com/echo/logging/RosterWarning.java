@@ -14,6 +14,10 @@ import com.echo.domain.RosterHeader;
  *
  * Warnings are created using factory methods that ensure consistent formatting
  * and provide appropriate context information for each warning type.
+ *
+ * Factories only store references - the row the warning is about (usually a camper's zero-copy RowView), the column,
+ * the offending value and any context - so warnings are cheap to create in validation's inner loops.
+ * Names and display cells are built the first time the warning is displayed.
  */
 public class RosterWarning {
 
@@ -40,6 +44,11 @@ public class RosterWarning {
             "This shouldn't be possible for a campminder generated roster - double check your data",//Message that accounts for inputting merged rosters?
             new String[]{"Camper","Round","First Assignment","Conflicting Assignment"}
         ),
+        DUPLICATE_CAMPER_ID(
+            "Multiple campers share the same name and grade",
+            "Activity data can only be matched to the first of them - double check your data",
+            new String[]{"Camper ID","Campers Sharing ID"}
+        ),
         BAD_DATA_FORMAT(
             "Some data didn't match the expected format for its column",
             "The program can continue, but some data might look weird",
@@ -55,6 +64,11 @@ public class RosterWarning {
             "The feature(s) will be skipped this time.",
             new String[]{"Required Header","Required For Feature:"}
         ),
+        FEATURE_ROLLED_BACK(
+            "Selected feature(s) failed to validate after being applied",
+            "Their changes were undone, and the remaining features were applied without them.",
+            new String[]{"Feature"}
+        ),
         CAMPER_MISSING_FIELD(
             "Camper data was missing a field required by a selected feature",
             "The feature can continue, but must skip this camper.",
@@ -101,16 +115,40 @@ public class RosterWarning {
     }
 
     private final WarningType type;
-    private final String[] infoCells;
+    private final Map<String, String> row; // Row the warning is about, read when display cells are built. Null if none
+    private final String column; // Column the warning is about, null if none
+    private final String value; // Offending value, captured when the warning is created. Null if none
+    private final Object detail; // Type-specific context, such as the expected format or the feature's name
+    private volatile String[] infoCells; // Built from the fields above the first time they're displayed
 
     /**
      * Private constructor used by factory methods to create warnings.
+     * Only stores references - display cells are built from them when first needed (see getDisplayData).
      *
      * @param type The type of warning
-     * @param infoCells Array of information cells for display in the UI
+     * @param row The row the warning is about, or null
+     * @param column The column the warning is about, or null
+     * @param value The offending value, or null
+     * @param detail Type-specific context for the display cells, or null
      */
-    private RosterWarning(WarningType type, String[] infoCells) {
+    private RosterWarning(WarningType type, Map<String, String> row, String column, String value, Object detail) {
         this.type = type;
+        this.row = row;
+        this.column = column;
+        this.value = value;
+        this.detail = detail;
+    }
+
+    /**
+     * Private constructor used to restore warnings whose display cells are already built.
+     *
+     * @param type The type of warning
+     * @param column The column the warning is about, or null
+     * @param value The offending value, or null
+     * @param infoCells Array of information cells for display in the UI
+     */
+    private RosterWarning(WarningType type, String column, String value, String[] infoCells) {
+        this(type, null, column, value, null);
         this.infoCells = infoCells;
     }
 
@@ -124,19 +162,101 @@ public class RosterWarning {
     }
 
     /**
-     * Gets the display data for this warning.
+     * Gets the display data for this warning, building it from the warning's row and context the first time it's asked for.
+     * Names are read from the row then, so the row's name fields shouldn't change in the meantime - they don't once imported.
      *
      * @return Array of strings containing the warning's context information
      */
     public String[] getDisplayData() {
-        return infoCells;
+        String[] cells = infoCells;
+        if (cells == null) {
+            cells = buildDisplayData();
+            infoCells = cells;
+        }
+        return cells;
+    }
+
+    /**
+     * Builds the display cells for this warning's type, in the order of its display headers.
+     */
+    private String[] buildDisplayData() {
+        return switch (type) {
+            case UNMATCHED_ACTIVITY_SKIPPED -> new String[]{buildNameString(row), row.get(RosterHeader.GRADE.camperRosterName),
+                                                            row.get(RosterHeader.ROUND_COUNT.standardName)};
+            case UNMATCHED_ACTIVITY_ADDED -> new String[]{buildNameString(row), row.getOrDefault(RosterHeader.GRADE.camperRosterName, "Unknown"),
+                                                          row.getOrDefault(RosterHeader.ROUND_COUNT.standardName, "Unknown")};
+            case DUPLICATE_ACTIVITY -> new String[]{buildNameString(row), column, (String) detail, value};
+            case BAD_DATA_FORMAT -> new String[]{buildNameString(row), column, value, (String) detail};
+            case PROGRAM_PARSING_FAILURE -> new String[]{buildNameString(row), value, (String) detail};
+            case MISSING_FEATURE_HEADER -> new String[]{column, (String) detail};
+            case FEATURE_ROLLED_BACK -> new String[]{(String) detail};
+            case CAMPER_MISSING_FIELD -> new String[]{buildNameString(row), column, (String) detail};
+            case UNKNOWN_SWIM_ACTIVITY_FLAGGED, UNKNOWN_SWIM_ACTIVITY_IGNORED -> new String[]{value};
+            case UNKNOWN_SWIM_LEVEL -> {
+                @SuppressWarnings("unchecked")
+                Set<String> acceptedLevels = (Set<String>) detail;
+                yield new String[]{buildNameString(row), value, String.join(", ", acceptedLevels)};
+            }
+            case DUPLICATE_CAMPER_ID, OTHER -> throw new IllegalStateException(type + " warnings are created with their display data");
+        };
+    }
+
+    /**
+     * Gets the column this warning is about, for counting warnings by column (see WarningManager.getWarningCountsByColumn).
+     *
+     * @return The column's header (or round, for duplicate activities), or null if the warning isn't about a column
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Gets the offending value this warning is about, for counting warnings by value (see WarningManager.getWarningCountsByValue).
+     *
+     * @return The value, or null if the warning isn't about a value
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Copies this warning with its display cells built, so it no longer holds on to the row it's about.
+     * Used when warnings outlive the roster they were logged for, such as warnings kept in an import cache.
+     *
+     * @return A warning with the same type, column, value and display data
+     */
+    public RosterWarning detach() {
+        return new RosterWarning(type, column, value, getDisplayData());
     }
 
     /**
-     * Factory method builds a RosterWarning representing a case where a camper represented on one Roster is not found on another roster.
-     * @param dataRow Map representing a CSV row for a camper not found on another roster
-     * @return RosterWarning instance representing this issue.
+     * Rebuilds a warning from the type and display data of one logged earlier, such as a warning read back from an import cache.
+     * @param type The warning's type
+     * @param infoCells The warning's display data, from getDisplayData
+     * @return RosterWarning instance equivalent to the original
      */
+    public static RosterWarning restore(WarningType type, String[] infoCells) {
+        int columnCell = switch (type) {
+            case BAD_DATA_FORMAT, CAMPER_MISSING_FIELD, DUPLICATE_ACTIVITY -> 1;
+            case MISSING_FEATURE_HEADER -> 0;
+            default -> -1;
+        };
+        int valueCell = switch (type) {
+            case BAD_DATA_FORMAT -> 2;
+            case DUPLICATE_ACTIVITY -> 3;
+            case PROGRAM_PARSING_FAILURE, UNKNOWN_SWIM_LEVEL -> 1;
+            case UNKNOWN_SWIM_ACTIVITY_FLAGGED, UNKNOWN_SWIM_ACTIVITY_IGNORED -> 0;
+            default -> -1;
+        };
+        String column = switch (type) {
+            case PROGRAM_PARSING_FAILURE -> RosterHeader.ESP.camperRosterName;
+            case UNKNOWN_SWIM_LEVEL -> RosterHeader.SWIMCOLOR.camperRosterName;
+            default -> columnCell >= 0 && columnCell < infoCells.length ? infoCells[columnCell] : null;
+        };
+        String value = valueCell >= 0 && valueCell < infoCells.length ? infoCells[valueCell] : null;
+        return new RosterWarning(type, column, value, infoCells);
+    }
+
     /**
      * Creates a warning for an activity that couldn't be matched to any camper.
      *
@@ -144,12 +264,7 @@ public class RosterWarning {
      * @return A new RosterWarning instance
      */
     public static RosterWarning build_unmatchedActivity(Map<String,String> dataRow) {
-        String camperName = buildNameString(dataRow);
-        String gradeField = dataRow.get(RosterHeader.GRADE.camperRosterName);
-        String roundsAssigned = dataRow.get(RosterHeader.ROUND_COUNT.standardName);
-
-        String[] displayCells = new String[]{camperName, gradeField, roundsAssigned};
-        return new RosterWarning(WarningType.UNMATCHED_ACTIVITY_SKIPPED, displayCells);
+        return new RosterWarning(WarningType.UNMATCHED_ACTIVITY_SKIPPED, dataRow, null, null, null);
     }
 
     /**
@@ -159,13 +274,7 @@ public class RosterWarning {
      * @return A new RosterWarning instance
      */
     public static RosterWarning build_unmatchedActivityAdded(Map<String,String> dataRow) {
-        
-        String camperName = buildNameString(dataRow);
-        String gradeField = dataRow.getOrDefault(RosterHeader.GRADE.camperRosterName, "Unknown");
-        String roundsAssigned = dataRow.getOrDefault(RosterHeader.ROUND_COUNT.standardName, "Unknown");
-
-        String[] displayCells = new String[]{camperName, gradeField, roundsAssigned};
-        return new RosterWarning(WarningType.UNMATCHED_ACTIVITY_ADDED, displayCells);
+        return new RosterWarning(WarningType.UNMATCHED_ACTIVITY_ADDED, dataRow, null, null, null);
     }
 
     
@@ -179,13 +288,24 @@ public class RosterWarning {
      * @return A new RosterWarning instance
      */
     public static RosterWarning create_duplicateActivity(Map<String,String> mergeRow, String round, String oldAssignment, String newAssignment) {
-        String camperName = buildNameString(mergeRow);
-        String[] displayCells = new String[]{camperName,round,oldAssignment,newAssignment};
-        return new RosterWarning(WarningType.DUPLICATE_ACTIVITY,displayCells);
+        return new RosterWarning(WarningType.DUPLICATE_ACTIVITY, mergeRow, round, newAssignment, oldAssignment);
+    }
+
+    /**
+     * Factory method builds a RosterWarning representing a case where multiple campers generated the same ID.
+     *
+     * @param camperId The shared camper ID
+     * @param camperCount The number of campers sharing the ID
+     * @return A new RosterWarning instance
+     */
+    public static RosterWarning create_duplicateCamperId(String camperId, int camperCount) {
+        // Logged once per colliding ID after validation, so there's nothing to gain from building the cells later
+        return new RosterWarning(WarningType.DUPLICATE_CAMPER_ID, null, null, new String[]{camperId, Integer.toString(camperCount)});
     }
 
     /**
      * Factory method builds a RosterWarning representing a case where parsed CSV data didn't match the provided regex for the column's data format.
+     * Cheap enough for validation's inner loop: the offending value is looked up, but nothing is copied or formatted until displayed.
      *
      * @param dataRow Map representing the CSV row with the format issue
      * @param column The column/header with the format issue
@@ -193,10 +313,8 @@ public class RosterWarning {
      * @return A new RosterWarning instance
      */
     public static RosterWarning create_badDataFormat(Map<String,String> dataRow, String column, String format) {
-        String camperName = buildNameString(dataRow);
         String field = dataRow.getOrDefault(column, "No Data");
-        String[] displayCells = new String[]{camperName,column,field,format};
-        return new RosterWarning(WarningType.BAD_DATA_FORMAT,displayCells);
+        return new RosterWarning(WarningType.BAD_DATA_FORMAT, dataRow, column, field, format);
     }
 
     /**
@@ -207,11 +325,8 @@ public class RosterWarning {
      * @return A new RosterWarning instance
      */
     public static RosterWarning create_programParsingFailure(Map<String,String> dataRow, String currentSession) {
-        String camperName = buildNameString(dataRow);
         String espField = dataRow.getOrDefault(RosterHeader.ESP.camperRosterName, "No Data");
-
-        String[] displayCells = new String[]{camperName,espField,currentSession};
-        return new RosterWarning(WarningType.PROGRAM_PARSING_FAILURE,displayCells);
+        return new RosterWarning(WarningType.PROGRAM_PARSING_FAILURE, dataRow, RosterHeader.ESP.camperRosterName, espField, currentSession);
     }
 
 
@@ -223,8 +338,17 @@ public class RosterWarning {
      * @return A new RosterWarning instance
      */
     public static RosterWarning create_missingFeatureHeader(String header, String feature) {
-        String[] displayCells = new String[]{header,feature};
-        return new RosterWarning(WarningType.MISSING_FEATURE_HEADER,displayCells);
+        return new RosterWarning(WarningType.MISSING_FEATURE_HEADER, null, header, null, feature);
+    }
+
+    /**
+     * Creates a warning for a feature whose changes were rolled back after it failed post-validation.
+     *
+     * @param feature The name of the rolled back feature
+     * @return A new RosterWarning instance
+     */
+    public static RosterWarning create_featureRolledBack(String feature) {
+        return new RosterWarning(WarningType.FEATURE_ROLLED_BACK, null, null, null, feature);
     }
 
     /**
@@ -236,9 +360,7 @@ public class RosterWarning {
      * @return A new RosterWarning instance
      */
     public static RosterWarning create_camperMissingField(Map<String,String> dataRow, String missingField, String feature) {
-        String camperName = buildNameString(dataRow);
-        String[] displayCells = new String[]{camperName,missingField,feature};
-        return new RosterWarning(WarningType.CAMPER_MISSING_FIELD,displayCells);
+        return new RosterWarning(WarningType.CAMPER_MISSING_FIELD, dataRow, missingField, null, feature);
     }
 
 
@@ -254,9 +376,8 @@ public class RosterWarning {
      * @return A new RosterWarning instance
      */
     public static RosterWarning create_unknownSwimActivityWarning(String activityName, boolean unknownActivitiesFlagged) {
-        String[] displayCells = new String[]{activityName};
-        return unknownActivitiesFlagged ? new RosterWarning(WarningType.UNKNOWN_SWIM_ACTIVITY_FLAGGED,displayCells)
-                                        : new RosterWarning(WarningType.UNKNOWN_SWIM_ACTIVITY_IGNORED,displayCells);
+        WarningType type = unknownActivitiesFlagged ? WarningType.UNKNOWN_SWIM_ACTIVITY_FLAGGED : WarningType.UNKNOWN_SWIM_ACTIVITY_IGNORED;
+        return new RosterWarning(type, null, null, activityName, null);
     }
 
     /**
@@ -268,9 +389,7 @@ public class RosterWarning {
      * @return A new RosterWarning instance
      */
     public static RosterWarning create_unknownSwimLevelWarning(Map<String,String> camperData,String swimLevel,Set<String> acceptedLevels){
-        String camperName = buildNameString(camperData);
-        String[] displayCells = new String[]{camperName,swimLevel,String.join(", ",acceptedLevels)};
-        return new RosterWarning(WarningType.UNKNOWN_SWIM_LEVEL,displayCells);
+        return new RosterWarning(WarningType.UNKNOWN_SWIM_LEVEL, camperData, RosterHeader.SWIMCOLOR.camperRosterName, swimLevel, acceptedLevels);
     }
 
 
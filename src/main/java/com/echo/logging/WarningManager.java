@@ -1,8 +1,17 @@
 package com.echo.logging;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
 
 import com.echo.logging.RosterException.ErrorType;
 import com.echo.logging.RosterWarning.WarningType;
@@ -15,22 +24,139 @@ import com.echo.logging.RosterWarning.WarningType;
  *
  * Components throughout the application (mainly RosterFeatures) inject and use this manager to log issues
  * without needing to immediately handle any errors, UI display, or even know how their issues will be displayed
+ *
+ * Any number of threads can log to a manager at once without locking: each warning type has its own lock-free queue.
+ * Every warning is counted, along with the column and value it's about (see RosterWarning.getColumn and getValue),
+ * but only the first few of each type are kept as examples to display, up to the manager's exemplar cap.
+ * A file with thousands of badly formatted rows is reported by exact counts, without holding thousands of warnings.
  */
-public class WarningManager {
-    /** Collection of warnings organized by warning type */
-    private final Map<WarningType, ArrayList<RosterWarning>> warningLog = new EnumMap<>(WarningType.class);
+public class WarningManager implements WarningSink {
+
+    public static final int DEFAULT_EXEMPLAR_CAP = 500;
+
+    /** Key that values beyond the exemplar cap's worth of distinct values are counted under */
+    public static final String OTHER_VALUES = "(other values)";
+
+    private static final WarningType[] WARNING_TYPES = WarningType.values();
+    private static volatile int defaultExemplarCap = DEFAULT_EXEMPLAR_CAP;
+
+    /** Warnings logged so far, indexed by WarningType ordinal. Each type's log is created the first time it's needed */
+    private final AtomicReferenceArray<TypeLog> warningLog = new AtomicReferenceArray<>(WARNING_TYPES.length);
+
+    /** Collection of errors organized by error type. Errors are rare, so all are kept */
+    private final Map<ErrorType, ConcurrentLinkedQueue<RosterException>> errorLog = new ConcurrentHashMap<>();
+
+    /** Diagnostics collected while the process ran, see Diagnostics */
+    private volatile Diagnostics.Summary diagnostics = Diagnostics.Summary.EMPTY;
+
+    private final int exemplarCap;
+
+    /**
+     * Creates an empty manager that keeps up to the default exemplar cap of warnings of each type.
+     */
+    public WarningManager() {
+        this(defaultExemplarCap);
+    }
+
+    /**
+     * Creates an empty manager.
+     *
+     * @param exemplarCap The most warnings of each type to keep for display. Every warning is still counted.
+     */
+    public WarningManager(int exemplarCap) {
+        this.exemplarCap = Math.max(1, exemplarCap);
+    }
+
+    /**
+     * Sets the exemplar cap of managers created from here on with the no-argument constructor.
+     * @param exemplarCap The most warnings of each type to keep, DEFAULT_EXEMPLAR_CAP by default
+     */
+    public static void setDefaultExemplarCap(int exemplarCap) {
+        defaultExemplarCap = Math.max(1, exemplarCap);
+    }
+
+    /**
+     * Gets the most warnings of each type this manager keeps for display.
+     * @return The exemplar cap
+     */
+    public int getExemplarCap() {
+        return exemplarCap;
+    }
+
+    /**
+     * A single warning type's count, examples and aggregated counts, each safe to update from any thread.
+     */
+    private final class TypeLog {
+        private final LongAdder count = new LongAdder();
+        private final AtomicInteger retained = new AtomicInteger();
+        private final ConcurrentLinkedQueue<RosterWarning> exemplars = new ConcurrentLinkedQueue<>();
+        private final ConcurrentHashMap<String, LongAdder> countsByColumn = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, LongAdder> countsByValue = new ConcurrentHashMap<>();
+
+        /**
+         * Claims one of the cap's places for an example, if any are left.
+         */
+        boolean tryRetain() {
+            int current;
+            do {
+                current = retained.get();
+                if (current >= exemplarCap) {
+                    return false;
+                }
+            } while (!retained.compareAndSet(current, current + 1));
+            return true;
+        }
 
-    /** Collection of errors organized by error type */
-    private final Map<ErrorType, ArrayList<RosterException>> errorLog = new EnumMap<>(ErrorType.class);
+        /**
+         * Adds to a key's count, counting keys beyond the cap's worth of distinct keys under OTHER_VALUES,
+         * so a column full of distinct bad values can't grow the map without bound.
+         */
+        void addCount(ConcurrentHashMap<String, LongAdder> counts, String key, long amount) {
+            LongAdder keyCount = counts.get(key);
+            if (keyCount == null) {
+                String countedKey = counts.size() < exemplarCap ? key : OTHER_VALUES;
+                keyCount = counts.computeIfAbsent(countedKey, _ -> new LongAdder());
+            }
+            keyCount.add(amount);
+        }
+    }
+
+    /**
+     * Gets a warning type's log, creating it if nothing of the type has been logged yet.
+     */
+    private TypeLog typeLog(WarningType type) {
+        TypeLog log = warningLog.get(type.ordinal());
+        if (log == null) {
+            TypeLog created = new TypeLog();
+            log = warningLog.compareAndExchange(type.ordinal(), null, created);
+            if (log == null) {
+                log = created;
+            }
+        }
+        return log;
+    }
 
     /**
      * Logs a warning message in the appropriate collection based on its type.
-     * Warnings are logged in separate ArrayLists based on their type, and keyed as such in a Map.
+     * The warning is counted by type, column and value, and kept for display if its type hasn't reached the exemplar cap.
      *
      * @param warning The RosterWarning instance to log
      */
+    @Override
     public void logWarning(RosterWarning warning) {
-        warningLog.computeIfAbsent(warning.getType(), _ -> new ArrayList<>()).add(warning);
+        TypeLog log = typeLog(warning.getType());
+        log.count.increment();
+        String column = warning.getColumn();
+        if (column != null) {
+            log.addCount(log.countsByColumn, column, 1);
+        }
+        String value = warning.getValue();
+        if (value != null) {
+            log.addCount(log.countsByValue, value, 1);
+        }
+        if (log.tryRetain()) {
+            log.exemplars.add(warning);
+        }
     }
 
     /**
@@ -43,7 +169,80 @@ public class WarningManager {
      */
     public void logError(RosterException exception) {
         // Store by type for the ErrorDialog
-        errorLog.computeIfAbsent(exception.getType(), err -> new ArrayList<>()).add(exception);
+        errorLog.computeIfAbsent(exception.getType(), _ -> new ConcurrentLinkedQueue<>()).add(exception);
+    }
+
+    /**
+     * Appends everything logged to another manager to this one, keeping each type's entries in the order they were logged.
+     * Lets concurrent tasks each log to a manager of their own, then be merged in a fixed order once they finish,
+     * so the combined log doesn't depend on how the tasks were scheduled.
+     * Counts are merged exactly, and the other manager's examples are kept while this manager's cap allows.
+     *
+     * @param other The manager to merge in. Its producer must have finished logging.
+     */
+    public void mergeFrom(WarningManager other) {
+        mergeFrom(other, UnaryOperator.identity());
+    }
+
+    /**
+     * Copies this manager's counts, examples and errors to a new manager, detaching every example (see RosterWarning.detach)
+     * so the copy doesn't keep the rows they're about reachable. Used for warnings that outlive their import, like cached ones.
+     *
+     * @return A new manager with this manager's cap, holding detached copies of its examples
+     */
+    public WarningManager detachedCopy() {
+        WarningManager copy = new WarningManager(exemplarCap);
+        copy.mergeFrom(this, RosterWarning::detach);
+        return copy;
+    }
+
+    private void mergeFrom(WarningManager other, UnaryOperator<RosterWarning> copyWarning) {
+        for (WarningType type : WARNING_TYPES) {
+            TypeLog otherLog = other.warningLog.get(type.ordinal());
+            if (otherLog == null) {
+                continue;
+            }
+            TypeLog log = typeLog(type);
+            log.count.add(otherLog.count.sum());
+            otherLog.countsByColumn.forEach((column, count) -> log.addCount(log.countsByColumn, column, count.sum()));
+            otherLog.countsByValue.forEach((value, count) -> log.addCount(log.countsByValue, value, count.sum()));
+            for (RosterWarning warning : otherLog.exemplars) {
+                if (!log.tryRetain()) {
+                    break;
+                }
+                log.exemplars.add(copyWarning.apply(warning));
+            }
+        }
+        for (ErrorType type : ErrorType.values()) {
+            ConcurrentLinkedQueue<RosterException> errors = other.errorLog.get(type);
+            if (errors != null) {
+                errorLog.computeIfAbsent(type, _ -> new ConcurrentLinkedQueue<>()).addAll(errors);
+            }
+        }
+    }
+
+    /**
+     * Restores a warning type's examples and counts as they were in another manager, such as one read back from an import cache.
+     * Unlike logging the examples again, this keeps the counts of warnings that weren't kept as examples.
+     *
+     * @param type The warning type to restore
+     * @param exemplars The type's examples, in the order they were logged
+     * @param count The number of warnings of the type that were logged, from getWarningCount
+     * @param countsByColumn The type's counts by column, from getWarningCountsByColumn
+     * @param countsByValue The type's counts by value, from getWarningCountsByValue
+     */
+    public void restoreWarnings(WarningType type, List<RosterWarning> exemplars, long count,
+                                Map<String, Long> countsByColumn, Map<String, Long> countsByValue) {
+        TypeLog log = typeLog(type);
+        log.count.add(count);
+        countsByColumn.forEach((column, columnCount) -> log.addCount(log.countsByColumn, column, columnCount));
+        countsByValue.forEach((value, valueCount) -> log.addCount(log.countsByValue, value, valueCount));
+        for (RosterWarning warning : exemplars) {
+            if (!log.tryRetain()) {
+                break;
+            }
+            log.exemplars.add(warning);
+        }
     }
 
     /**
@@ -53,7 +252,13 @@ public class WarningManager {
      * @return boolean indicating the presence of warning(s) in the warning log
      */
     public boolean hasWarnings() {
-        return !warningLog.isEmpty();
+        for (int i = 0; i < warningLog.length(); i++) {
+            TypeLog log = warningLog.get(i);
+            if (log != null && log.count.sum() > 0) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -66,20 +271,133 @@ public class WarningManager {
     }
 
     /**
-     * Getter provides access to the full Map of warnings.
+     * Getter provides the warnings kept for display, up to the exemplar cap of each type.
+     * The map is a snapshot, so it doesn't change as more warnings are logged.
      *
-     * @return Map of RosterWarning lists, organized by their WarningTypes
+     * @return Map of RosterWarning lists, organized by their WarningTypes. Types with nothing logged are left out.
      */
     public Map<WarningType, ArrayList<RosterWarning>> getWarningLog() {
-        return warningLog;
+        Map<WarningType, ArrayList<RosterWarning>> snapshot = new EnumMap<>(WarningType.class);
+        for (WarningType type : WARNING_TYPES) {
+            TypeLog log = warningLog.get(type.ordinal());
+            if (log != null && !log.exemplars.isEmpty()) {
+                snapshot.put(type, new ArrayList<>(log.exemplars));
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Gets the number of warnings of a type that were logged, including any beyond the exemplar cap.
+     *
+     * @param type The warning type to count
+     * @return The exact number of warnings of the type
+     */
+    public long getWarningCount(WarningType type) {
+        TypeLog log = warningLog.get(type.ordinal());
+        return log == null ? 0 : log.count.sum();
+    }
+
+    /**
+     * Gets the number of warnings of every type that were logged, including any beyond the exemplar cap.
+     *
+     * @return The exact number of warnings
+     */
+    public long getWarningCount() {
+        long total = 0;
+        for (WarningType type : WARNING_TYPES) {
+            total += getWarningCount(type);
+        }
+        return total;
+    }
+
+    /**
+     * Gets the number of warnings logged of each type.
+     *
+     * @return Map of exact counts, organized by WarningType. Types with nothing logged are left out.
+     */
+    public Map<WarningType, Long> getWarningCounts() {
+        Map<WarningType, Long> counts = new EnumMap<>(WarningType.class);
+        for (WarningType type : WARNING_TYPES) {
+            long count = getWarningCount(type);
+            if (count > 0) {
+                counts.put(type, count);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the number of warnings of a type logged about each column, such as how many values in each column were badly formatted.
+     *
+     * @param type The warning type to count
+     * @return Map of column headers to exact counts, most warned about first. Empty if the type's warnings aren't about columns.
+     */
+    public Map<String, Long> getWarningCountsByColumn(WarningType type) {
+        TypeLog log = warningLog.get(type.ordinal());
+        return log == null ? Map.of() : sortedCounts(log.countsByColumn);
+    }
+
+    /**
+     * Gets the number of warnings of a type logged about each offending value, such as how often each unknown swim level appeared.
+     * Values beyond the exemplar cap's worth of distinct values are counted together under OTHER_VALUES.
+     *
+     * @param type The warning type to count
+     * @return Map of values to exact counts, most warned about first. Empty if the type's warnings aren't about values.
+     */
+    public Map<String, Long> getWarningCountsByValue(WarningType type) {
+        TypeLog log = warningLog.get(type.ordinal());
+        return log == null ? Map.of() : sortedCounts(log.countsByValue);
+    }
+
+    /**
+     * Copies counts into a map ordered from highest count to lowest, then by key.
+     */
+    private static Map<String, Long> sortedCounts(ConcurrentHashMap<String, LongAdder> counts) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>();
+        counts.forEach((key, count) -> entries.add(Map.entry(key, count.sum())));
+        entries.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()));
+
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : entries) {
+            sorted.put(entry.getKey(), entry.getValue());
+        }
+        return sorted;
     }
 
     /**
      * Getter provides access to the full Map of errors, organized by type.
+     * The map is a snapshot, so it doesn't change as more errors are logged.
      *
      * @return Map of RosterException lists, organized by their ErrorTypes
      */
     public Map<ErrorType, ArrayList<RosterException>> getErrorLog() {
-        return errorLog;
+        Map<ErrorType, ArrayList<RosterException>> snapshot = new EnumMap<>(ErrorType.class);
+        for (ErrorType type : ErrorType.values()) {
+            ConcurrentLinkedQueue<RosterException> errors = errorLog.get(type);
+            if (errors != null && !errors.isEmpty()) {
+                snapshot.put(type, new ArrayList<>(errors));
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Attaches a summary of the diagnostics collected while the process ran.
+     * Diagnostics don't count as warnings, since they describe issues the process already handled.
+     *
+     * @param summary The summary, from Diagnostics.summarize
+     */
+    public void setDiagnostics(Diagnostics.Summary summary) {
+        diagnostics = summary;
+    }
+
+    /**
+     * Getter provides access to the diagnostics collected while the process ran.
+     *
+     * @return The diagnostics summary, empty if none was attached
+     */
+    public Diagnostics.Summary getDiagnostics() {
+        return diagnostics;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package com.echo.logging;
+
+/**
+ * Somewhere to log warnings, without access to the rest of a WarningManager's log.
+ *
+ * Handed to work that runs on other threads, such as a feature's per-camper work (see RosterFeature.CamperWork).
+ * Each sink given to such work is only used by the thread it was given to, so sinks don't need to lock.
+ */
+@FunctionalInterface
+public interface WarningSink {
+    /**
+     * Logs a warning.
+     *
+     * @param warning The RosterWarning instance to log
+     */
+    void logWarning(RosterWarning warning);
+}
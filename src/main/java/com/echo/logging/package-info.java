@@ -12,6 +12,7 @@
  *   <li>{@link com.echo.logging.DetailedRosterException} - Exception with detailed context information</li>
  *   <li>{@link com.echo.logging.RosterWarning} - Class for non-fatal issues during processing</li>
  *   <li>{@link com.echo.logging.WarningManager} - Central manager for collecting warnings and errors</li>
+ *   <li>{@link com.echo.logging.WarningSink} - Warning-only view of a log, handed to work on other threads</li>
  * </ul>
  * 
  * The logging system is designed to provide meaningful feedback to users about issues
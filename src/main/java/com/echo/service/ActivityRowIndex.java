@@ -0,0 +1,163 @@
+package com.echo.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.codec.digest.MurmurHash3;
+
+import com.echo.domain.ActivityRoster;
+import com.echo.domain.Camper;
+import com.echo.domain.CamperKey;
+import com.echo.domain.RosterHeader;
+
+/**
+ * Index of an activity roster's rows, used by RosterService to find what changed between two imports of the same activity file.
+ *
+ * Rows are identified by their camper key (as ActivityFeature links them) and round, and each is reduced to a 128-bit
+ * Murmur3 digest of its values, so the index is much smaller than the roster itself and can be kept after the roster is merged
+ * and dropped. Each value is digested as its UTF-8 bytes after a length prefix, so no two different rows share an encoding and
+ * an edit goes unnoticed only on a 128-bit collision. Rows sharing an identity (duplicate assignments) are digested together
+ * in file order.
+ */
+final class ActivityRowIndex {
+    private final List<String> headers;
+    private final Map<CamperKey, Map<String, RowHash>> rowHashes;
+
+    /**
+     * Rows that differ between two imports, and the campers they belong to.
+     *
+     * @param changedCampers Keys of campers with at least one inserted, updated or deleted row, in no particular order
+     * @param inserted Number of rows only in the newer import
+     * @param updated Number of rows in both imports with different values
+     * @param deleted Number of rows only in the older import
+     */
+    record RowDelta(Set<CamperKey> changedCampers, int inserted, int updated, int deleted) {}
+
+    /**
+     * 128-bit digest of one or more rows' values.
+     */
+    private record RowHash(long high, long low) {
+        /**
+         * Digests this hash followed by another, for the next row sharing an identity.
+         */
+        RowHash then(RowHash next) {
+            ByteBuffer bytes = ByteBuffer.allocate(4 * Long.BYTES).putLong(high).putLong(low).putLong(next.high).putLong(next.low);
+            long[] hash = MurmurHash3.hash128x64(bytes.array());
+            return new RowHash(hash[0], hash[1]);
+        }
+    }
+
+    private ActivityRowIndex(List<String> headers, Map<CamperKey, Map<String, RowHash>> rowHashes) {
+        this.headers = headers;
+        this.rowHashes = rowHashes;
+    }
+
+    /**
+     * Hashes every row of an activity roster.
+     *
+     * @param roster The imported activity roster
+     * @return The roster's index
+     */
+    static ActivityRowIndex of(ActivityRoster roster) {
+        List<String> headers = new ArrayList<>(roster.getHeaderMap().keySet());
+        int[] columns = new int[headers.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = roster.getColumnIndex(headers.get(i));
+        }
+        String roundHeader = RosterHeader.ROUND.activityRosterName;
+
+        Map<CamperKey, Map<String, RowHash>> rowHashes = new HashMap<>();
+        for (Camper row : roster.getCampers()) {
+            RowHash hash = hashRow(row, columns);
+            rowHashes.computeIfAbsent(ActivityRoster.generateCamperKeyFromActivity(row.view()), _ -> new HashMap<>())
+                     .merge(String.valueOf(row.getValue(roundHeader)), hash, RowHash::then);
+        }
+        return new ActivityRowIndex(headers, rowHashes);
+    }
+
+    /**
+     * Gets the headers of the indexed roster, in file order.
+     *
+     * @return The header names
+     */
+    List<String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Checks if the indexed roster has any rows for a camper.
+     *
+     * @param key The camper's key
+     * @return true if at least one row belongs to the camper
+     */
+    boolean hasRows(CamperKey key) {
+        return rowHashes.containsKey(key);
+    }
+
+    /**
+     * Compares this index with one from an earlier import of the same file.
+     *
+     * @param previous The earlier import's index
+     * @return The rows that were inserted, updated or deleted since the earlier import
+     */
+    RowDelta diff(ActivityRowIndex previous) {
+        Set<CamperKey> changedCampers = new LinkedHashSet<>();
+        int inserted = 0;
+        int updated = 0;
+        int deleted = 0;
+
+        Set<CamperKey> keys = new HashSet<>(rowHashes.keySet());
+        keys.addAll(previous.rowHashes.keySet());
+        for (CamperKey key : keys) {
+            Map<String, RowHash> current = rowHashes.getOrDefault(key, Map.of());
+            Map<String, RowHash> earlier = previous.rowHashes.getOrDefault(key, Map.of());
+            if (current.equals(earlier)) {
+                continue;
+            }
+            changedCampers.add(key);
+
+            for (Map.Entry<String, RowHash> row : current.entrySet()) {
+                RowHash earlierHash = earlier.get(row.getKey());
+                if (earlierHash == null) {
+                    inserted++;
+                } else if (!earlierHash.equals(row.getValue())) {
+                    updated++;
+                }
+            }
+            for (String round : earlier.keySet()) {
+                if (!current.containsKey(round)) {
+                    deleted++;
+                }
+            }
+        }
+        return new RowDelta(changedCampers, inserted, updated, deleted);
+    }
+
+    /**
+     * Digests a row's values in header order, each as a 4-byte length (-1 for null) followed by its UTF-8 bytes.
+     */
+    private static RowHash hashRow(Camper row, int[] columns) {
+        ByteBuffer bytes = ByteBuffer.allocate(64);
+        for (int column : columns) {
+            String value = row.getValue(column);
+            byte[] encoded = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+            int needed = Integer.BYTES + (encoded == null ? 0 : encoded.length);
+            if (bytes.remaining() < needed) {
+                bytes = ByteBuffer.allocate(Math.max(bytes.position() + needed, bytes.capacity() * 2)).put(bytes.flip());
+            }
+            bytes.putInt(encoded == null ? -1 : encoded.length);
+            if (encoded != null) {
+                bytes.put(encoded);
+            }
+        }
+        long[] hash = MurmurHash3.hash128x64(bytes.array(), 0, bytes.position(), 0);
+        return new RowHash(hash[0], hash[1]);
+    }
+}
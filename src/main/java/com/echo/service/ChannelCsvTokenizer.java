@@ -0,0 +1,431 @@
+package com.echo.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.echo.logging.Diagnostics;
+import com.echo.logging.Diagnostics.Event;
+
+/**
+ * Byte-level CSV tokenizer for comma-delimited UTF-8 files, like Campminder reports and files written by ExportService.
+ *
+ * The file is memory-mapped and tokenized in place, skipping the Reader, ContentCleaner and commons-csv layers:
+ * lines are cleaned by the same rules as ContentCleaner, fields are found by scanning bytes, and each field is decoded from UTF-8 once.
+ * Records match what commons-csv's default format produces from cleaned content - unquoted fields, doubled quotes,
+ * quoted fields running onto the next line and errors included - so either parser can sit behind ImportUtils.streamFile.
+ *
+ * A tokenizer can also cover just a range of lines in a shared mapping, so chunks of a large file can be tokenized in parallel (see ImportUtils).
+ *
+ * Files are always decoded as UTF-8, where the commons-csv path uses the platform charset (UTF-8 by default since Java 18).
+ */
+final class ChannelCsvTokenizer implements AutoCloseable {
+    private static final byte QUOTE = '"';
+    private static final byte COMMA = ',';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private final Arena arena;      // Arena owning the mapping, or null if the mapping is shared
+    private final MemorySegment content;
+    private final long limit;       // End of the range being tokenized
+    private final Diagnostics.Tally tally; // Tally cleaned lines are counted in, or null to count them in Diagnostics
+
+    private long position;          // Start of the next unread source line
+    private long lineStart;         // Current cleaned line, from its first quote up to end (just past its last quote)
+    private long lineEnd;
+    private long lineNumber;        // Source line number of the current line, for error messages
+    private long recordNumber;
+
+    private byte[] scratch = new byte[256];
+    private int scratchLength;
+    private String[] buffer = new String[16];
+    private String[] record = new String[0];
+
+    /**
+     * Opens and maps a file for tokenizing. The mapping is released on close.
+     * @param file The file to read
+     * @throws IOException if the file can't be opened or mapped
+     */
+    ChannelCsvTokenizer(File file) throws IOException {
+        arena = Arena.ofConfined();
+        try {
+            content = map(file, arena);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+        limit = content.byteSize();
+        tally = null;
+    }
+
+    /**
+     * Creates a tokenizer for a range of a mapped file, without taking ownership of the mapping.
+     * The range must start at the start of a record, and line and record numbers continue from the given counts.
+     * @param content The mapped file
+     * @param start Start of the range, at the start of a line
+     * @param limit End of the range, at the start of a line or the end of the file
+     * @param lineNumber Number of source lines before the range
+     * @param recordNumber Number of records before the range, not counting the header row
+     */
+    ChannelCsvTokenizer(MemorySegment content, long start, long limit, long lineNumber, long recordNumber) {
+        this(content, start, limit, lineNumber, recordNumber, null);
+    }
+
+    /**
+     * Creates a tokenizer for a range of a mapped file, as above, counting cleaned lines in a tally rather than in Diagnostics,
+     * so they're only counted if the range's records are kept.
+     * @param tally The tally to count cleaned lines in, or null to count them in Diagnostics
+     */
+    ChannelCsvTokenizer(MemorySegment content, long start, long limit, long lineNumber, long recordNumber, Diagnostics.Tally tally) {
+        this.arena = null;
+        this.content = content;
+        this.limit = limit;
+        this.tally = tally;
+        this.position = start;
+        this.lineNumber = lineNumber;
+        this.recordNumber = recordNumber;
+    }
+
+    /**
+     * Maps a whole file for reading.
+     * @param file The file to map
+     * @param arena The arena controlling how long the mapping lives
+     * @return The mapped file, empty for an empty file
+     * @throws IOException if the file can't be opened or mapped
+     */
+    static MemorySegment map(File file, Arena arena) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            return size == 0 ? MemorySegment.NULL : channel.map(MapMode.READ_ONLY, 0, size, arena);
+        }
+    }
+
+    /**
+     * Finds the start of the first line beginning after the given position, for splitting a mapped file into ranges.
+     * @param content The mapped file
+     * @param from Position to search from
+     * @return Position just past the next line terminator, or the end of the file
+     */
+    static long nextLineStart(MemorySegment content, long from) {
+        long size = content.byteSize();
+        for (long i = from; i < size; i++) {
+            byte b = content.get(ValueLayout.JAVA_BYTE, i);
+            if (b == LF) {
+                return i + 1;
+            }
+            if (b == CR) {
+                return i + 1 < size && content.get(ValueLayout.JAVA_BYTE, i + 1) == LF ? i + 2 : i + 1;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Reads the header record, which must be read before any other record.
+     * @return Unmodifiable list of header names, empty if the file has no cleaned lines
+     * @throws IOException if the header row can't be tokenized
+     * @throws IllegalArgumentException if a header name is blank, as commons-csv rejects them
+     */
+    List<String> readHeaders() throws IOException {
+        String[] headers = nextFields();
+        if (headers == null) {
+            return Collections.emptyList();
+        }
+        List<String> headerNames = Collections.unmodifiableList(Arrays.asList(headers.clone()));
+        for (String header : headers) {
+            if (header.trim().isEmpty()) {
+                throw new IllegalArgumentException("A header name is missing in " + headerNames);
+            }
+        }
+        return headerNames;
+    }
+
+    /**
+     * Reads the next record.
+     * @return The record's values, or null at the end of the file. The array is reused by the next call.
+     * @throws IOException if the record can't be tokenized
+     */
+    String[] nextRecord() throws IOException {
+        String[] values = nextFields();
+        if (values != null) {
+            recordNumber++;
+        }
+        return values;
+    }
+
+    /**
+     * Gets the number of the record last returned by nextRecord, counting from 1 after the header row.
+     * @return The record number
+     */
+    long getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * Gets the number of source lines read so far, including any before the tokenizer's range.
+     * @return The line count
+     */
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Gets the position of the first source line not yet read, where the next record starts.
+     * @return The position in the mapped file
+     */
+    long getPosition() {
+        return position;
+    }
+
+    @Override
+    public void close() {
+        if (arena != null) {
+            arena.close();
+        }
+    }
+
+    /**
+     * Tokenizes the fields of the next cleaned line, continuing onto following lines while a quoted field is open.
+     * @return The fields, or null if no cleaned lines are left
+     * @throws IOException if a quoted field is followed by anything but a delimiter, or never closes
+     */
+    private String[] nextFields() throws IOException {
+        if (!nextLine()) {
+            return null;
+        }
+
+        int count = 0;
+        long i = lineStart;
+        while (true) {
+            String field;
+            if (i < lineEnd && get(i) == QUOTE) {
+                i = readQuoted(i + 1);
+                field = decodeScratch();
+
+                // Only whitespace may separate a closing quote from the next delimiter
+                while (i < lineEnd && get(i) != COMMA && isWhitespace(get(i))) {
+                    i++;
+                }
+                if (i < lineEnd && get(i) != COMMA) {
+                    throw new IOException("Invalid char between encapsulated token and delimiter at line: " + lineNumber);
+                }
+            }
+            else {
+                long fieldEnd = i;
+                while (fieldEnd < lineEnd && get(fieldEnd) != COMMA) {
+                    fieldEnd++;
+                }
+                scratchLength = 0;
+                append(i, fieldEnd);
+                field = decodeScratch();
+                i = fieldEnd;
+            }
+
+            if (count == buffer.length) {
+                buffer = Arrays.copyOf(buffer, count * 2);
+            }
+            buffer[count++] = field;
+
+            if (i >= lineEnd) {
+                break;
+            }
+            i++; // Past the delimiter
+        }
+
+        // Reuse the record array while rows keep the same width
+        if (record.length != count) {
+            record = new String[count];
+        }
+        System.arraycopy(buffer, 0, record, 0, count);
+        return record;
+    }
+
+    /**
+     * Reads a quoted field's content into the scratch buffer, unescaping doubled quotes.
+     * Reaching the end of the line inside quotes continues onto the next cleaned line, joined by a newline.
+     * @param start Position just past the opening quote
+     * @return Position just past the closing quote
+     * @throws IOException if the range ends before the field closes
+     */
+    private long readQuoted(long start) throws IOException {
+        scratchLength = 0;
+        long segmentStart = start;
+        long i = start;
+        while (true) {
+            if (i >= lineEnd) {
+                append(segmentStart, i);
+                appendByte(LF);
+                if (!nextLine()) {
+                    throw new IOException("EOF reached before encapsulated token finished");
+                }
+                i = lineStart;
+                segmentStart = i;
+                continue;
+            }
+            if (get(i) == QUOTE) {
+                if (i + 1 < lineEnd && get(i + 1) == QUOTE) {
+                    append(segmentStart, i + 1);
+                    i += 2;
+                    segmentStart = i;
+                    continue;
+                }
+                append(segmentStart, i);
+                return i + 1;
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Advances to the next source line that survives cleaning, making it the current line.
+     * Lines end at \n, \r or \r\n, as with BufferedReader.readLine.
+     * @return true if a line was found, false at the end of the range
+     */
+    private boolean nextLine() {
+        while (position < limit) {
+            long start = position;
+            long end = start;
+            while (end < limit && get(end) != LF && get(end) != CR) {
+                end++;
+            }
+
+            position = end;
+            if (position < limit) {
+                position += get(position) == CR && position + 1 < limit && get(position + 1) == LF ? 2 : 1;
+            }
+            lineNumber++;
+
+            if (cleanLine(start, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Applies ContentCleaner's rules to a source line: blank, comment, quoteless and uneven lines are skipped,
+     * and anything outside the first and last quotes is trimmed as junk.
+     * @param start Start of the source line
+     * @param end End of the source line, excluding its terminator
+     * @return true if the cleaned line should be tokenized, false if the line should be ignored
+     */
+    private boolean cleanLine(long start, long end) {
+        // Skip empty lines or lines that are just whitespace. Multi-byte characters never contain bytes at or below a space.
+        long firstVisible = start;
+        while (firstVisible < end && (get(firstVisible) & 0xFF) <= ' ') {
+            firstVisible++;
+        }
+        if (firstVisible == end) {
+            return false;
+        }
+
+        // Skip lines that start with a comment character
+        if (get(start) == '#') {
+            return false;
+        }
+
+        // Line must start and end with a quote - anything outside the first and last quotes is junk
+        long first = start;
+        while (first < end && get(first) != QUOTE) {
+            first++;
+        }
+        if (first == end) {
+            if (count(Event.JUNK_LINE)) {
+                sample(Event.JUNK_LINE, "'" + decode(start, end) + "'");
+            }
+            return false;
+        }
+        long last = end - 1;
+        while (get(last) != QUOTE) {
+            last--;
+        }
+        if (first > start && count(Event.JUNK_AT_LINE_START)) {
+            sample(Event.JUNK_AT_LINE_START, "'" + decode(start, first) + "'");
+        }
+        if (last < end - 1 && count(Event.JUNK_AT_LINE_END)) {
+            sample(Event.JUNK_AT_LINE_END, "'" + decode(last + 1, end) + "'");
+        }
+
+        // Check for valid quote count
+        int quotes = 0;
+        for (long i = first; i <= last; i++) {
+            if (get(i) == QUOTE) {
+                quotes++;
+            }
+        }
+        if (quotes % 2 != 0) {
+            if (count(Event.UNEVEN_QUOTES)) {
+                sample(Event.UNEVEN_QUOTES, decode(first, last + 1));
+            }
+            return false;
+        }
+
+        lineStart = first;
+        lineEnd = last + 1;
+        return true;
+    }
+
+    private boolean count(Event event) {
+        return tally != null ? tally.count(event) : Diagnostics.count(event);
+    }
+
+    private void sample(Event event, String example) {
+        if (tally != null) {
+            tally.sample(event, example);
+        } else {
+            Diagnostics.sample(event, example);
+        }
+    }
+
+    private byte get(long index) {
+        return content.get(ValueLayout.JAVA_BYTE, index);
+    }
+
+    /**
+     * Checks for whitespace the way commons-csv does between a closing quote and a delimiter.
+     */
+    private static boolean isWhitespace(byte b) {
+        return b >= 0 && Character.isWhitespace((char) b);
+    }
+
+    /**
+     * Copies a range of the file onto the end of the scratch buffer.
+     */
+    private void append(long from, long to) {
+        int count = Math.toIntExact(to - from);
+        ensureScratch(count);
+        MemorySegment.copy(content, ValueLayout.JAVA_BYTE, from, scratch, scratchLength, count);
+        scratchLength += count;
+    }
+
+    private void appendByte(byte b) {
+        ensureScratch(1);
+        scratch[scratchLength++] = b;
+    }
+
+    private void ensureScratch(int extra) {
+        if (scratchLength + extra > scratch.length) {
+            scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, scratchLength + extra));
+        }
+    }
+
+    private String decodeScratch() {
+        return new String(scratch, 0, scratchLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes a range of the file, for messages about skipped content. Leaves the scratch buffer alone, since a quoted field may be in progress.
+     */
+    private String decode(long from, long to) {
+        return new String(content.asSlice(from, to - from).toArray(ValueLayout.JAVA_BYTE), StandardCharsets.UTF_8);
+    }
+}
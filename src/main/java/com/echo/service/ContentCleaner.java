@@ -0,0 +1,140 @@
+package com.echo.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+import com.echo.logging.Diagnostics;
+import com.echo.logging.Diagnostics.Event;
+
+/**
+ * ContentCleaner taken from version 1, reworked as a streaming Reader.
+ * Cleans problematic characters from CSV content as it's read, including junk leading/trailing characters and uneven quotes.
+ *
+ * Only the current line is held, and junk is trimmed by moving indices rather than copying the line,
+ * so the parser can consume a file directly and import memory scales with row count rather than file size.
+ */
+class ContentCleaner extends Reader {
+    private final BufferedReader source;
+    private String line;            // Current line, served from position up to end, followed by a newline
+    private int position;
+    private int end;
+    private boolean newlinePending;
+
+    /**
+     * Creates a ContentCleaner reading from the given source.
+     * @param reader Reader for a CSV file
+     */
+    ContentCleaner(Reader reader) {
+        this.source = reader instanceof BufferedReader bufferedReader ? bufferedReader : new BufferedReader(reader);
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        int count = 0;
+        while (count < length) {
+            if (position < end) {
+                int chunk = Math.min(length - count, end - position);
+                line.getChars(position, position + chunk, buffer, offset + count);
+                position += chunk;
+                count += chunk;
+            }
+            else if (newlinePending) {
+                buffer[offset + count++] = '\n';
+                newlinePending = false;
+            }
+            else if (!nextLine()) {
+                return count == 0 ? -1 : count;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    /**
+     * Reads source lines until one survives cleaning, making it the current line.
+     * @return true if a line was found, false at the end of the source
+     * @throws IOException
+     */
+    private boolean nextLine() throws IOException {
+        String nextLine;
+        while ((nextLine = source.readLine()) != null) {
+            if (cleanLine(nextLine)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Trims problematic characters from CSV line, ensuring every line starts and ends with quote marks, and has an even number of quotes.
+     * Trimming is a single scan: the cleaned line runs from the first quote to the last, and quotes are counted along the way.
+     * @param rawLine The line to clean
+     * @return true if the cleaned line should be served, false if the line should be ignored
+     */
+    private boolean cleanLine(String rawLine) {
+        // Skip empty lines or lines that are just whitespace
+        if (isBlank(rawLine)) {
+            return false;
+        }
+
+        // Skip lines that start with a comment character
+        if (rawLine.charAt(0) == '#') {
+            return false;
+        }
+
+        // Line must start and end with a quote - anything outside the first and last quotes is junk
+        int start = rawLine.indexOf('"');
+        if (start < 0) {
+            if (Diagnostics.count(Event.JUNK_LINE)) {
+                Diagnostics.sample(Event.JUNK_LINE, "'" + rawLine + "'");
+            }
+            return false;
+        }
+        int last = rawLine.lastIndexOf('"');
+        if (start > 0 && Diagnostics.count(Event.JUNK_AT_LINE_START)) {
+            Diagnostics.sample(Event.JUNK_AT_LINE_START, "'" + rawLine.substring(0, start) + "'");
+        }
+        if (last < rawLine.length() - 1 && Diagnostics.count(Event.JUNK_AT_LINE_END)) {
+            Diagnostics.sample(Event.JUNK_AT_LINE_END, "'" + rawLine.substring(last + 1) + "'");
+        }
+
+        // Check for valid quote count
+        int quotes = 0;
+        for (int i = start; i <= last; i++) {
+            if (rawLine.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        if (quotes % 2 != 0) {
+            if (Diagnostics.count(Event.UNEVEN_QUOTES)) {
+                Diagnostics.sample(Event.UNEVEN_QUOTES, rawLine.substring(start, last + 1));
+            }
+            return false;
+        }
+
+        line = rawLine;
+        position = start;
+        end = last + 1;
+        newlinePending = true;
+        return true;
+    }
+
+    /**
+     * Checks if a line is empty or only holds whitespace, matching String.trim's definition of whitespace.
+     * @param line The line to check
+     * @return true if every character is whitespace
+     */
+    private static boolean isBlank(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,114 @@
+package com.echo.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.echo.domain.RosterHeader;
+import com.echo.feature.RosterFeature;
+
+/**
+ * Groups an import's features into batches whose features can be applied concurrently.
+ *
+ * A feature depends on an earlier one in the enabled list if either adds a header the other requires, reads or adds
+ * (see RosterFeature.getRequiredHeaders, getReadHeaders and getAddedHeaders). Columns sharing a dictionary
+ * (see RosterHeader.getDictionaryKey) count as a single header, since writing either grows the dictionary the other reads.
+ * Features that add campers (see RosterFeature.addsCampers) change the rows every other feature works through,
+ * so they depend on every earlier feature, and every later feature depends on them.
+ *
+ * Each feature goes in the batch after the latest batch holding one of its dependencies, so running the batches in turn
+ * applies every feature after the features it depends on, and never alongside one. Batches list their features in enabled order.
+ */
+final class FeatureScheduler {
+
+    private FeatureScheduler() {
+        // Static methods only
+    }
+
+    /**
+     * Groups features into batches, in the order they can be applied.
+     *
+     * @param features The features to apply, in enabled order
+     * @return The batches, each holding features that don't depend on each other
+     */
+    static List<List<RosterFeature>> schedule(List<RosterFeature> features) {
+        List<List<RosterFeature>> batches = new ArrayList<>();
+        int[] batchOf = new int[features.size()];
+
+        for (int i = 0; i < features.size(); i++) {
+            int batch = 0;
+            for (int j = 0; j < i; j++) {
+                if (dependsOn(features.get(i), features.get(j))) {
+                    batch = Math.max(batch, batchOf[j] + 1);
+                }
+            }
+            batchOf[i] = batch;
+            if (batch == batches.size()) {
+                batches.add(new ArrayList<>());
+            }
+            batches.get(batch).add(features.get(i));
+        }
+        return batches;
+    }
+
+    /**
+     * Puts each feature in a batch of its own, so they're applied one at a time in enabled order.
+     *
+     * @param features The features to apply, in enabled order
+     * @return A single-feature batch for each feature
+     */
+    static List<List<RosterFeature>> inTurn(List<RosterFeature> features) {
+        List<List<RosterFeature>> batches = new ArrayList<>();
+        for (RosterFeature feature : features) {
+            batches.add(List.of(feature));
+        }
+        return batches;
+    }
+
+    /**
+     * Checks if a feature has to be applied after an earlier one, rather than alongside it.
+     *
+     * @param later The feature later in enabled order
+     * @param earlier The feature earlier in enabled order
+     * @return true if the features share a header one of them adds, or either adds campers
+     */
+    static boolean dependsOn(RosterFeature later, RosterFeature earlier) {
+        if (later.addsCampers() || earlier.addsCampers()) {
+            return true;
+        }
+        return overlaps(columnsOf(earlier.getAddedHeaders()), columnsUsedBy(later))
+            || overlaps(columnsOf(later.getAddedHeaders()), columnsUsedBy(earlier));
+    }
+
+    /**
+     * Gets the columns a feature requires, reads or adds.
+     */
+    private static Set<String> columnsUsedBy(RosterFeature feature) {
+        Set<String> columns = columnsOf(feature.getRequiredHeaders());
+        columns.addAll(columnsOf(feature.getReadHeaders()));
+        columns.addAll(columnsOf(feature.getAddedHeaders()));
+        return columns;
+    }
+
+    /**
+     * Maps headers to the columns they're stored in, counting columns that share a dictionary as one.
+     */
+    private static Set<String> columnsOf(List<String> headers) {
+        Set<String> columns = new HashSet<>();
+        for (String header : headers) {
+            String dictionaryKey = RosterHeader.getDictionaryKey(header);
+            columns.add(dictionaryKey != null ? "dictionary:" + dictionaryKey : header);
+        }
+        return columns;
+    }
+
+    private static boolean overlaps(Set<String> first, Set<String> second) {
+        for (String column : first) {
+            if (second.contains(column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,397 @@
+package com.echo.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.codec.digest.MessageDigestAlgorithms;
+
+import com.echo.HappyCamper;
+import com.echo.domain.Camper;
+import com.echo.domain.CamperKey;
+import com.echo.domain.Roster;
+import com.echo.logging.Diagnostics;
+import com.echo.logging.Diagnostics.Level;
+import com.echo.logging.RosterWarning;
+import com.echo.logging.RosterWarning.WarningType;
+import com.echo.logging.WarningManager;
+
+/**
+ * Cache of imported and validated source rosters, so re-importing unchanged files (e.g. just to toggle features) skips parsing and validation.
+ *
+ * Entries are keyed by roster type, a SHA-256 digest of the file's content, and the app and cache versions,
+ * so renamed or touched files still hit, while edited files or a new parser/validator miss.
+ * Each entry holds a private copy of the roster and the warnings its validation logged. Hits hand out a fresh copy of the roster
+ * (see Roster.copyInto), since callers move campers out of source rosters when building an enhanced roster.
+ *
+ * Entries are kept in memory in a bounded LRU, and optionally written to a directory so they survive restarts.
+ * The disk tier is bounded too, keeping the most recently used files.
+ */
+public class ImportCache {
+    /** Version of what an import produces. Increment when parsing or validation changes, to invalidate cached entries. */
+    public static final int CACHE_VERSION = 2;
+    public static final int DEFAULT_CAPACITY = 4;
+    public static final int DEFAULT_DISK_CAPACITY = 16;
+
+    private static final int MAGIC = 0x48434943;
+    private static final String FILE_EXTENSION = ".importcache";
+    private static final String VERSION_TAG = HappyCamper.VERSION + "/" + CACHE_VERSION;
+
+    /**
+     * A cached roster and the warnings logged while validating it. Never modified once cached.
+     */
+    private record Entry(Roster roster, WarningManager warnings) {}
+
+    private final Map<String, Entry> entries;
+    private final Path diskDirectory;
+    private final int diskCapacity;
+
+    /**
+     * Creates a memory-only cache.
+     *
+     * @param capacity Maximum number of rosters kept in memory
+     */
+    public ImportCache(int capacity) {
+        this(capacity, null, 0);
+    }
+
+    /**
+     * Creates a cache with a disk tier.
+     *
+     * @param capacity Maximum number of rosters kept in memory
+     * @param diskDirectory Directory to keep cached rosters in, or null for a memory-only cache
+     * @param diskCapacity Maximum number of rosters kept on disk
+     */
+    public ImportCache(int capacity, Path diskDirectory, int diskCapacity) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.diskDirectory = diskDirectory;
+        this.diskCapacity = diskCapacity;
+    }
+
+    /**
+     * Computes the content digest a file is cached under.
+     *
+     * @param file The file to digest
+     * @return Hex SHA-256 digest of the file's content
+     * @throws IOException if the file can't be read
+     */
+    public static String digest(File file) throws IOException {
+        return new DigestUtils(MessageDigestAlgorithms.SHA_256).digestAsHex(file);
+    }
+
+    /**
+     * Looks up a roster imported from content with the given digest, checking memory first and then the disk tier.
+     * On a hit, the cached roster is copied into the given empty roster, and its warnings are added to the given manager.
+     *
+     * @param digest The file's digest, from digest
+     * @param emptyRoster An empty roster of the type being imported, filled on a hit
+     * @param warnings The manager to add the cached validation warnings to
+     * @return The filled roster, or null on a miss (leaving both arguments untouched)
+     */
+    public <R extends Roster> R get(String digest, R emptyRoster, WarningManager warnings) {
+        String key = key(digest, emptyRoster);
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+
+        if (entry == null && diskDirectory != null) {
+            entry = readEntry(diskDirectory.resolve(key + FILE_EXTENSION));
+            if (entry != null) {
+                synchronized (this) {
+                    entries.put(key, entry);
+                }
+            }
+        }
+        if (entry == null) {
+            return null;
+        }
+
+        warnings.mergeFrom(entry.warnings());
+        return entry.roster().copyInto(emptyRoster);
+    }
+
+    /**
+     * Caches a newly imported and validated roster. The roster is copied, so the caller keeps ownership of it.
+     *
+     * @param digest The file's digest, from digest
+     * @param roster The validated roster
+     * @param warnings The warnings logged while validating the roster
+     */
+    public void put(String digest, Roster roster, WarningManager warnings) {
+        String key = key(digest, roster);
+        // Warnings refer to the rows they're about until displayed - detach them so the entry doesn't keep the caller's roster alive
+        WarningManager cachedWarnings = warnings.detachedCopy();
+        Entry entry = new Entry(roster.copyInto(new Roster()), cachedWarnings);
+        synchronized (this) {
+            entries.put(key, entry);
+        }
+
+        // Only warnings are written to disk - validation that logs errors isn't worth persisting
+        if (diskDirectory != null && !warnings.hasErrors()) {
+            writeEntry(diskDirectory.resolve(key + FILE_EXTENSION), entry);
+        }
+    }
+
+    /**
+     * Removes every entry from memory. Entries on disk are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets the number of entries held in memory.
+     *
+     * @return The entry count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Builds an entry's key, also used as its file name in the disk tier.
+     */
+    private static String key(String digest, Roster roster) {
+        return roster.getClass().getSimpleName().toLowerCase() + "-" + digest;
+    }
+
+    /**
+     * Writes an entry to the disk tier, then trims the tier to its capacity.
+     * The entry is written to a temporary file and moved into place, so readers never see a partial entry.
+     * Failures are reported but otherwise ignored - the memory tier is unaffected.
+     */
+    private void writeEntry(Path file, Entry entry) {
+        Path tempFile = null;
+        try {
+            Files.createDirectories(diskDirectory);
+            tempFile = Files.createTempFile(diskDirectory, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                writeRoster(out, entry);
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            trimDisk();
+        } catch (IOException e) {
+            Diagnostics.log(Level.WARN, "Could not save import cache entry", e);
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    // Nothing left to clean up
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads an entry from the disk tier, marking it as recently used.
+     *
+     * @return The entry, or null if it's missing, from another version, or unreadable
+     */
+    private Entry readEntry(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            Entry entry = readRoster(in);
+            if (entry != null) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            }
+            return entry;
+        } catch (IOException | RuntimeException e) {
+            Diagnostics.log(Level.WARN, "Could not read import cache entry", e);
+            return null;
+        }
+    }
+
+    /**
+     * Deletes the least recently used files once the disk tier holds more than its capacity.
+     */
+    private void trimDisk() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(diskDirectory, "*" + FILE_EXTENSION)) {
+            stream.forEach(files::add);
+        }
+        if (files.size() <= diskCapacity) {
+            return;
+        }
+
+        Map<Path, FileTime> lastUsed = new LinkedHashMap<>();
+        for (Path file : files) {
+            lastUsed.put(file, Files.getLastModifiedTime(file));
+        }
+        files.sort(Comparator.comparing(lastUsed::get).reversed());
+        for (Path file : files.subList(diskCapacity, files.size())) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Writes an entry: version tag, headers with visibility, each camper's key and values, then warnings by type.
+     */
+    private static void writeRoster(DataOutputStream out, Entry entry) throws IOException {
+        Roster roster = entry.roster();
+        List<String> headers = new ArrayList<>(roster.getHeaderMap().keySet());
+
+        out.writeInt(MAGIC);
+        writeString(out, VERSION_TAG);
+        out.writeInt(headers.size());
+        for (String header : headers) {
+            writeString(out, header);
+            out.writeBoolean(roster.isHeaderVisible(header));
+        }
+
+        out.writeInt(roster.getCampers().size());
+        for (Camper camper : roster.getCampers()) {
+            writeString(out, camper.getId());
+            for (String header : headers) {
+                writeString(out, camper.getValue(header));
+            }
+        }
+
+        // Warnings are written by type: exact counts, then the examples kept for display
+        WarningManager warnings = entry.warnings();
+        Map<WarningType, ArrayList<RosterWarning>> warningLog = warnings.getWarningLog();
+        Map<WarningType, Long> warningCounts = warnings.getWarningCounts();
+        out.writeInt(warningCounts.size());
+        for (Map.Entry<WarningType, Long> typeCount : warningCounts.entrySet()) {
+            WarningType type = typeCount.getKey();
+            writeString(out, type.name());
+            out.writeLong(typeCount.getValue());
+            writeCounts(out, warnings.getWarningCountsByColumn(type));
+            writeCounts(out, warnings.getWarningCountsByValue(type));
+
+            List<RosterWarning> exemplars = warningLog.getOrDefault(type, new ArrayList<>());
+            out.writeInt(exemplars.size());
+            for (RosterWarning warning : exemplars) {
+                String[] cells = warning.getDisplayData();
+                out.writeInt(cells.length);
+                for (String cell : cells) {
+                    writeString(out, cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes aggregated warning counts, as written by WarningManager.getWarningCountsByColumn or getWarningCountsByValue.
+     */
+    private static void writeCounts(DataOutputStream out, Map<String, Long> counts) throws IOException {
+        out.writeInt(counts.size());
+        for (Map.Entry<String, Long> count : counts.entrySet()) {
+            writeString(out, count.getKey());
+            out.writeLong(count.getValue());
+        }
+    }
+
+    /**
+     * Reads aggregated warning counts written by writeCounts.
+     */
+    private static Map<String, Long> readCounts(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            counts.put(readString(in), in.readLong());
+        }
+        return counts;
+    }
+
+    /**
+     * Reads an entry written by writeRoster.
+     *
+     * @return The entry, or null if it was written by another version
+     */
+    private static Entry readRoster(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || !VERSION_TAG.equals(readString(in))) {
+            return null;
+        }
+
+        Roster roster = new Roster();
+        String[] headers = new String[in.readInt()];
+        int[] columns = new int[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            headers[i] = readString(in);
+            roster.addHeader(headers[i]);
+            roster.setHeaderVisibility(headers[i], in.readBoolean());
+            columns[i] = roster.getColumnIndex(headers[i]);
+        }
+
+        int camperCount = in.readInt();
+        String[] values = new String[headers.length];
+        for (int c = 0; c < camperCount; c++) {
+            CamperKey key = CamperKey.ofId(readString(in));
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readString(in);
+            }
+            roster.addCamper(key, columns, values);
+        }
+
+        WarningManager warnings = new WarningManager();
+        int typeCount = in.readInt();
+        for (int t = 0; t < typeCount; t++) {
+            WarningType type = WarningType.valueOf(readString(in));
+            long count = in.readLong();
+            Map<String, Long> countsByColumn = readCounts(in);
+            Map<String, Long> countsByValue = readCounts(in);
+
+            List<RosterWarning> exemplars = new ArrayList<>();
+            int exemplarCount = in.readInt();
+            for (int w = 0; w < exemplarCount; w++) {
+                String[] cells = new String[in.readInt()];
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] = readString(in);
+                }
+                exemplars.add(RosterWarning.restore(type, cells));
+            }
+            warnings.restoreWarnings(type, exemplars, count, countsByColumn, countsByValue);
+        }
+        return new Entry(roster, warnings);
+    }
+
+    /**
+     * Writes a nullable string as its UTF-8 length and bytes, without writeUTF's 64KB limit.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,101 @@
+package com.echo.service;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks an import's progress through its stages, and lets another thread cancel it.
+ *
+ * RosterService reports each stage as it starts: reading each file, validating each roster, then applying each feature.
+ * The two files are read and validated concurrently, so their stages may be reported in either order, from different threads.
+ * Stages skipped because their result was cached or restored from a snapshot aren't reported.
+ *
+ * Cancellation is cooperative. The import checks for it as each stage starts and inside its per-row loops,
+ * and stops by throwing a CancellationException, which RosterService turns into a null roster.
+ */
+public class ImportProgress {
+
+    /**
+     * Receives stage updates, on whichever thread the stage runs on.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called as each stage of an import starts.
+         *
+         * @param stage A short description of the stage, such as "Reading camper file"
+         * @param stageNumber The number of stages started so far, including this one
+         * @param stageCount The number of stages the import expects to run
+         */
+        void stageStarted(String stage, int stageNumber, int stageCount);
+    }
+
+    private final Listener listener;
+    private final AtomicInteger stagesStarted = new AtomicInteger();
+    private volatile int stageCount;
+    private volatile boolean cancelled;
+
+    /**
+     * Creates progress tracking for one import.
+     *
+     * @param listener The listener to report each stage to
+     */
+    public ImportProgress(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Creates progress tracking for an import nothing is watching, which can still be cancelled through the returned instance.
+     *
+     * @return A new ImportProgress that reports stages to no one
+     */
+    public static ImportProgress untracked() {
+        return new ImportProgress((stage, stageNumber, count) -> {});
+    }
+
+    /**
+     * Asks the import to stop. It stops at its next check, leaving nothing half-applied to the caller.
+     * Safe to call from any thread, at any time.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Checks if the import has been asked to stop.
+     * @return true if cancel has been called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Stops the import if it has been cancelled. Cheap enough to call once per row.
+     *
+     * @throws CancellationException if cancel has been called
+     */
+    public void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Import was cancelled");
+        }
+    }
+
+    /**
+     * Sets the number of stages the import expects to run, reported alongside each stage.
+     * @param count The number of stages
+     */
+    void setStageCount(int count) {
+        stageCount = count;
+    }
+
+    /**
+     * Reports the start of a stage, first stopping the import if it has been cancelled.
+     *
+     * @param stage A short description of the stage
+     * @throws CancellationException if cancel has been called
+     */
+    void startStage(String stage) {
+        checkCancelled();
+        listener.stageStarted(stage, stagesStarted.incrementAndGet(), stageCount);
+    }
+}
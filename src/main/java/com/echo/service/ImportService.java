@@ -1,11 +1,14 @@
 package com.echo.service;
 
 import java.io.File;
-import java.util.Map;
+import java.util.List;
+import java.util.function.Function;
 
 import com.echo.domain.ActivityRoster;
-import com.echo.domain.Camper;
+import com.echo.domain.CamperKey;
 import com.echo.domain.CamperRoster;
+import com.echo.domain.Roster;
+import com.echo.domain.RosterHeader;
 import com.echo.logging.RosterException;
 import com.echo.validation.ImportFileValidator;
 
@@ -18,8 +21,8 @@ import com.echo.validation.ImportFileValidator;
  *
  * This service is used by the RosterService and UI components to load data from files
  * selected by the user.
- * 
- * FUTURE - user a helper method to reduce redundant code in roster import methods. will need a more common key generation method
+ *
+ * Roster imports share a single-pass helper (importRoster), with camper keys built from each file type's name and grade headers.
  */
 public class ImportService {
 
@@ -56,33 +59,20 @@ public class ImportService {
      * @throws RosterException if the file is invalid or an error occurs during import
      */
     public CamperRoster importCamperRoster(File file) throws RosterException {
+        return importCamperRoster(file, ImportProgress.untracked());
+    }
 
-        // Basic file validation
-        ImportFileValidator.validateBasicFile(file);
-
-        // Parse the file
-        ParsedCSV parsedCSV = ImportUtils.parseFile(file);
-
-        // Validate the parsed content
-        ImportFileValidator.validateCSVFile(file, parsedCSV, CamperRoster.getRequiredHeaders());
-
-        //Create roster instance to represent data as its proper type
-        CamperRoster roster = new CamperRoster();
-
-        // Add headers
-        for (String header : parsedCSV.getHeaderNames()) {
-            roster.addHeader(header);
-        }
-
-        // Add campers
-        for (Map<String, String> row : parsedCSV.getRows()) {
-            String camperId = CamperRoster.generateCamperId(row);
-            Camper camper = new Camper(camperId, row);
-            roster.addCamper(camper);
-        }
-
-        return roster;
-    
+    /**
+     * Imports a camper roster as importCamperRoster(File) does, stopping early if the import it's part of is cancelled.
+     *
+     * @param file The CSV file to import
+     * @param progress The import's progress, checked for cancellation at each row
+     * @return A new CamperRoster containing the imported data
+     * @throws RosterException if the file is invalid or an error occurs during import
+     * @throws java.util.concurrent.CancellationException if the import is cancelled
+     */
+    public CamperRoster importCamperRoster(File file, ImportProgress progress) throws RosterException {
+        return importRoster(file, new CamperRoster(), CamperRoster.getRequiredHeaders(), header -> header.camperRosterName, progress);
     }
 
     /**
@@ -96,33 +86,96 @@ public class ImportService {
      * @throws RosterException if the file is invalid or an error occurs during import
      */
     public ActivityRoster importActivityRoster(File file) throws RosterException {
+        return importActivityRoster(file, ImportProgress.untracked());
+    }
+
+    /**
+     * Imports an activity roster as importActivityRoster(File) does, stopping early if the import it's part of is cancelled.
+     *
+     * @param file The CSV file to import
+     * @param progress The import's progress, checked for cancellation at each row
+     * @return A new ActivityRoster containing the imported data
+     * @throws RosterException if the file is invalid or an error occurs during import
+     * @throws java.util.concurrent.CancellationException if the import is cancelled
+     */
+    public ActivityRoster importActivityRoster(File file, ImportProgress progress) throws RosterException {
+        return importRoster(file, new ActivityRoster(), ActivityRoster.getRequiredHeaders(), header -> header.activityRosterName, progress);
+    }
 
+    /**
+     * Imports a CSV file into a roster in a single pass.
+     * Each record is checked, keyed and written straight into the roster's store as it's parsed,
+     * so rows are never held as maps or copied between stores along the way.
+     * Validation reports the same errors, in the same order, as validating a ParsedCSV would.
+     *
+     * @param file The CSV file to import
+     * @param roster The empty roster to import into
+     * @param requiredHeaders Headers the file must contain
+     * @param headerName Gives the name each RosterHeader has in this type of file, used to find the columns camper keys are built from
+     * @param progress The import's progress, checked for cancellation at each row
+     * @return The given roster, filled with the file's data
+     * @throws RosterException if the file is invalid or an error occurs during import
+     */
+    private static <R extends Roster> R importRoster(File file, R roster, List<String> requiredHeaders,
+                                                     Function<RosterHeader, String> headerName, ImportProgress progress) throws RosterException {
         // Basic file validation
         ImportFileValidator.validateBasicFile(file);
 
-        // Parse the file
-        ParsedCSV parsedCSV = ImportUtils.parseFile(file);
+        // Parse the file straight into the roster, checking each row as it's reached
+        RosterRecordWriter writer = new RosterRecordWriter(roster, headerName, progress);
+        int rowCount = ImportUtils.streamFile(file, writer);
 
-        // Validate the parsed content
-        ImportFileValidator.validateCSVFile(file, parsedCSV, ActivityRoster.getRequiredHeaders());
+        // Validate the file's overall content
+        ImportFileValidator.validateCSVFile(file, writer.headers, rowCount, requiredHeaders);
+
+        return roster;
+    }
 
-        //Create roster instance to represent data as its proper type
-        ActivityRoster roster = new ActivityRoster();
+    /**
+     * RecordHandler adding each record to a roster as a camper, keyed by its name and grade columns.
+     * Passes the parser's reused value array straight through, since the roster copies values into its store.
+     */
+    private static final class RosterRecordWriter implements ImportUtils.RecordHandler {
+        private final Roster roster;
+        private final Function<RosterHeader, String> headerName;
+        private final ImportProgress progress;
+        private List<String> headers;
+        private int[] columns;
+        private int firstNameIndex;
+        private int lastNameIndex;
+        private int gradeIndex;
+
+        RosterRecordWriter(Roster roster, Function<RosterHeader, String> headerName, ImportProgress progress) {
+            this.roster = roster;
+            this.headerName = headerName;
+            this.progress = progress;
+        }
 
-        // Add headers
-        for (String header : parsedCSV.getHeaderNames()) {
-            roster.addHeader(header);
+        @Override
+        public void handleHeaders(List<String> headerNames) {
+            headers = headerNames;
+            columns = new int[headerNames.size()];
+            for (int i = 0; i < headerNames.size(); i++) {
+                roster.addHeader(headerNames.get(i));
+                columns[i] = roster.getColumnIndex(headerNames.get(i));
+            }
+
+            // Last occurrence wins for repeated headers, matching a row map built from the record
+            firstNameIndex = headerNames.lastIndexOf(headerName.apply(RosterHeader.FIRST_NAME));
+            lastNameIndex = headerNames.lastIndexOf(headerName.apply(RosterHeader.LAST_NAME));
+            gradeIndex = headerNames.lastIndexOf(headerName.apply(RosterHeader.GRADE));
         }
 
-        // Add activities
-        for (Map<String, String> row : parsedCSV.getRows()) {
-            String activityId = ActivityRoster.generateCamperIdFromActivity(row);
-            Camper activity = new Camper(activityId, row);
-            roster.addCamper(activity);
+        @Override
+        public void handleRecord(String[] record) {
+            progress.checkCancelled();
+            CamperKey key = CamperKey.of(valueAt(record, firstNameIndex), valueAt(record, lastNameIndex), valueAt(record, gradeIndex));
+            roster.addCamper(key, columns, record);
         }
 
-        return roster;
-        
+        private static String valueAt(String[] record, int index) {
+            return index < 0 ? "" : record[index];
+        }
     }
 
     /**
@@ -137,34 +190,4 @@ public class ImportService {
         return file != null && file.exists() && file.isFile() && file.canRead();
     }
 
-    // /**
-    //  * Generalized import method for any roster type.
-    //  * Not yet ready to implement - needs a commonly named key generation method
-    //  */
-    // public <T extends Roster> T importRoster(File file, Class<T> rosterClass) throws RosterException {
-    //     // Basic file validation
-    //     ImportFileValidator.validateBasicFile(file);
-    //     // Parse the file
-    //     ParsedCSV parsedCSV = ImportUtils.parseFile(file);
-    //     // Validate the parsed content
-    //     ImportFileValidator.validateCSVFile(file, parsedCSV, ActivityRoster.getRequiredHeaders());
-    //     //Create roster instance to represent data as its proper type
-    //     try {
-    //         T roster = rosterClass.getDeclaredConstructor().newInstance();
-    //         // Add headers
-    //     for (String header : parsedCSV.getHeaderNames()) {
-    //         roster.addHeader(header);
-    //     }
-    //     // Add activities
-    //     for (Map<String, String> row : parsedCSV.getRows()) {
-    //         String activityId = T.generateCamperId(row);
-    //         Camper activity = new Camper(activityId, row);
-    //         roster.addCamper(activity);
-    //     }
-    //     return roster;
-    //     } catch (Exception e) {
-    //         throw RosterException.create_normalWrapper("Failed to create roster instance: " + e.getMessage(), e);
-    //     }
-    // }
-
 }
@@ -4,17 +4,22 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.Reader;
-import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 
+import com.echo.logging.Diagnostics;
 import com.echo.logging.RosterException;
 
 /**
@@ -22,6 +27,74 @@ import com.echo.logging.RosterException;
  */
 public class ImportUtils {
 
+    /**
+     * Parser implementations that can sit behind streamFile. Both produce identical headers and records for the same file.
+     */
+    public enum ParserType {
+        BYTE_CHANNEL,   // Memory-mapped byte-level tokenizer, see ChannelCsvTokenizer
+        COMMONS_CSV     // FileReader, ContentCleaner and commons-csv
+    }
+
+    private static volatile ParserType parserType = ParserType.BYTE_CHANNEL;
+
+    public static final long DEFAULT_PARALLEL_THRESHOLD = 4L << 20;    // 4 MiB, roughly 40,000 activity rows
+    private static final long MIN_CHUNK_SIZE = 256L << 10;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static volatile long parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    /**
+     * Sets the parser used by streamFile and parseFile.
+     * @param type The parser to use
+     */
+    public static void setParserType(ParserType type) {
+        parserType = type;
+    }
+
+    /**
+     * Gets the parser used by streamFile and parseFile.
+     * @return The parser in use, BYTE_CHANNEL by default
+     */
+    public static ParserType getParserType() {
+        return parserType;
+    }
+
+    /**
+     * Sets the file size at which the byte-level parser splits files into chunks and parses them in parallel.
+     * @param bytes The smallest file size parsed in parallel. 0 parallelizes every file, Long.MAX_VALUE none.
+     */
+    public static void setParallelThreshold(long bytes) {
+        parallelThreshold = bytes;
+    }
+
+    /**
+     * Gets the file size at which the byte-level parser parses files in parallel.
+     * @return The threshold in bytes, DEFAULT_PARALLEL_THRESHOLD by default
+     */
+    public static long getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Receives a CSV file's records one at a time, as they're parsed.
+     * Lets importers write each record straight into its destination instead of collecting rows first.
+     */
+    public interface RecordHandler {
+        /**
+         * Called once with the file's header row, before any records.
+         * @param headers The header names, in file order
+         * @throws RosterException to abort parsing
+         */
+        void handleHeaders(List<String> headers) throws RosterException;
+
+        /**
+         * Called for each record, in file order. Records have already been checked to have one value per header,
+         * so record[i] holds the value for header i.
+         * @param record The record's values. The array is reused by the parser, so it's only valid during this call, and handlers may overwrite it.
+         * @throws RosterException to abort parsing
+         */
+        void handleRecord(String[] record) throws RosterException;
+    }
 
     /**
      * Parses a file into a ParsedCSV object.
@@ -30,141 +103,229 @@ public class ImportUtils {
      * @throws RosterException if the file is invalid or an error occurs during parsing
      */
     public static ParsedCSV parseFile(File file) throws RosterException{
-        try {
-            CSVParser parser = createSafeParser(file);
-            List<String> headers = parser.getHeaderNames();
-            List<Map<String, String>> rows = new ArrayList<>();
+        List<String> headers = new ArrayList<>();
+        List<Map<String, String>> rows = new ArrayList<>();
 
-            for (CSVRecord record : parser) {
+        streamFile(file, new RecordHandler() {
+            @Override
+            public void handleHeaders(List<String> headerNames) {
+                headers.addAll(headerNames);
+            }
+
+            @Override
+            public void handleRecord(String[] record) {
+                // Last occurrence wins for repeated headers, as with a lookup by header name
                 Map<String, String> row = new HashMap<>();
-                checkMalformedRow(record,headers,file);
-                for (String header : headers) {                    
-                    row.put(header, record.get(header));
+                for (int i = 0; i < record.length; i++) {
+                    row.put(headers.get(i), record[i]);
                 }
                 rows.add(row);
             }
-            return new ParsedCSV(rows,headers);
+        });
+        return new ParsedCSV(rows,headers);
+    }
+
+    /**
+     * Parses a file in a single pass, handing its headers and then each record to the given handler.
+     * Malformed rows are rejected as they're reached, before being handed over.
+     * The file is read by the parser selected with setParserType.
+     * @param file The file to parse
+     * @param handler The handler to receive the file's headers and records
+     * @return The number of records parsed
+     * @throws RosterException if a row is malformed, the handler rejects the data, or an error occurs during parsing
+     */
+    public static int streamFile(File file, RecordHandler handler) throws RosterException {
+        try {
+            return switch (parserType) {
+                case BYTE_CHANNEL -> streamChannel(file, handler);
+                case COMMONS_CSV -> streamCommonsCsv(file, handler);
+            };
         } catch (IOException e) {
             throw RosterException.create_normalWrapper("Error in parsing file '"+file.getName()+"': IOException", e);
         }
     }
-    
+
     /**
-     * Creates a CSVParser that is less likely to throw exceptions when parsing problematic files.
-     * @param file The file being parsed
-     * @return CSVParser instance for the given file
-     * @throws IOException
+     * Streams a file through the byte-level tokenizer, in parallel chunks once it reaches the parallel threshold.
      */
-    private static CSVParser createSafeParser(File file) throws IOException {
-        BufferedReader reader = new BufferedReader(new FileReader(file));
-        StringReader cleanedDataReader = new StringReader(ContentCleaner.cleanFileContent(reader));
-        CSVFormat format = CSVFormat.DEFAULT.builder().setHeader().build();
-        CSVParser parser = CSVParser.parse(cleanedDataReader,format);
-        return parser;
+    private static int streamChannel(File file, RecordHandler handler) throws IOException, RosterException {
+        long size = file.length();
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        if (size >= parallelThreshold && parallelism > 1) {
+            return streamParallel(file, handler, Math.max(MIN_CHUNK_SIZE, size / ((long) parallelism * CHUNKS_PER_THREAD)));
+        }
+
+        try (ChannelCsvTokenizer tokenizer = new ChannelCsvTokenizer(file)) {
+            List<String> headers = tokenizer.readHeaders();
+            handler.handleHeaders(headers);
+            return handleRecords(tokenizer, headers, file, handler);
+        }
     }
 
     /**
-     * Checks if a CSVRecord has the same number of cells as the expected number of headers.
-     * @param record The CSVRecord to check
-     * @param headers The list of headers
-     * @param file The file being parsed
-     * @throws RosterException if the record has a different number of cells than the number of headers
+     * Hands each of a tokenizer's remaining records to a handler, checking each for malformed rows first.
+     * @return The number of records handled
      */
-    private static void checkMalformedRow(CSVRecord record, List<String> headers,File file) throws RosterException {
-        if (record.size() != headers.size()) {
-            throw RosterException.create_malformedRowException(file.getName(), headers.size(), record.size(), (int)record.getRecordNumber());
+    private static int handleRecords(ChannelCsvTokenizer tokenizer, List<String> headers, File file, RecordHandler handler) throws IOException, RosterException {
+        int recordCount = 0;
+        String[] record;
+        while ((record = tokenizer.nextRecord()) != null) {
+            checkMalformedRow(record.length,headers,file,tokenizer.getRecordNumber());
+            handler.handleRecord(record);
+            recordCount++;
         }
+        return recordCount;
     }
-}
 
-/**
- * ContentCleaner taken from version 1.
- * Utility class used to clean problematic characters from CSV files, including junk leading/trailing characters and uneven quotes.
- */
-class ContentCleaner {
-    /** Uses given reader to iterate through a file and clean its content. Used by setupFromCSV()
-     * @param reader BufferedReader for a CSV file
-     * @return StringBuilder containing cleaned content
-     * @throws IOException
+    /**
+     * Records tokenized from one chunk of a file, or a chunk that couldn't be tokenized on its own.
+     * @param start Position of the chunk's first line
+     * @param records The chunk's records, or null if the chunk ended inside a record or hit a tokenizing error
+     * @param lineCount Number of source lines in the chunk
+     * @param diagnostics Lines the chunk cleaned, recorded only if its records are handed over
      */
-    public static String cleanFileContent(Reader reader) throws IOException {
-        BufferedReader bufferedReader = new BufferedReader(reader);
-        StringBuilder builder = new StringBuilder();
-        String line;
-        
-        while ((line = bufferedReader.readLine()) != null) {
-            String cleanedLine = cleanLine(line);
-            if (cleanedLine != null) {
-                builder.append(cleanedLine).append("\n");
-            }
-        }
-        return builder.toString();
-    }
+    private record ParsedChunk(long start, List<String[]> records, long lineCount, Diagnostics.Tally diagnostics) {}
 
     /**
-     * Trims problematic characters from CSV line, ensuring every line starts and ends with quote marks, and has an even number of quotes.
-     * @param line The line to clean
-     * @return Cleaned line or null if line should be ignored
+     * Parses a file by splitting it into chunks of lines, tokenizing the chunks on the common ForkJoinPool,
+     * and handing records over in file order as each chunk finishes. Records are checked for malformed rows in order,
+     * numbered across the whole file, so errors match a sequential parse.
+     *
+     * Chunks are split at line ends, which are record boundaries as long as no quoted field runs onto the next line.
+     * Since records are handed over in order, every chunk before one that fails to tokenize on its own is known to be correct,
+     * so a failed chunk is re-read sequentially from its start to the end of the file, reproducing a sequential parse exactly -
+     * whether the failure was a record spanning chunks or a genuine tokenizing error.
+     * Each chunk counts the lines it cleans in a tally of its own, recorded in Diagnostics as its records are handed over,
+     * so lines in a failed chunk or the chunks after it aren't counted twice when they're re-read.
+     *
+     * @param file The file to parse
+     * @param handler The handler to receive the file's headers and records
+     * @param chunkSize Target size of each chunk in bytes, extended to the next line end
+     * @return The number of records parsed
      */
-    private static String cleanLine(String line) {
-        // Skip empty lines or lines that are just whitespace
-        if (line == null || line.trim().isEmpty()) {
-            return null;
-        }
-        
-        // Skip lines that start with a comment character
-        if (line.charAt(0) == '#') {
-            return null;
-        }
+    static int streamParallel(File file, RecordHandler handler, long chunkSize) throws IOException, RosterException {
+        try (Arena arena = Arena.ofShared()) {
+            MemorySegment content = ChannelCsvTokenizer.map(file, arena);
+            long size = content.byteSize();
 
-        // Clean start of line
-        line = cleanLineStart(line);
-        
-        // Clean end of line
-        line = cleanLineEnd(line);
+            ChannelCsvTokenizer headerReader = new ChannelCsvTokenizer(content, 0, size, 0, 0);
+            List<String> headers = headerReader.readHeaders();
+            handler.handleHeaders(headers);
 
-        // Check for valid quote count
-        if (!hasValidQuoteCount(line)) {
-            System.out.println("Filtered a line with uneven quote count: " + line);
-            return null;
-        }
+            // Split the rest of the file at line ends, and tokenize every chunk in parallel
+            AtomicBoolean cancelled = new AtomicBoolean();
+            List<ForkJoinTask<ParsedChunk>> tasks = new ArrayList<>();
+            long start = headerReader.getPosition();
+            while (start < size) {
+                long chunkStart = start;
+                long chunkEnd = ChannelCsvTokenizer.nextLineStart(content, start + Math.min(size - start, Math.max(1, chunkSize)) - 1);
+                tasks.add(ForkJoinPool.commonPool().submit(() -> parseChunk(content, chunkStart, chunkEnd, cancelled)));
+                start = chunkEnd;
+            }
 
-        return line.trim();
+            try {
+                // Hand over records in file order, numbering lines and records across chunks
+                int recordCount = 0;
+                long lineNumber = headerReader.getLineNumber();
+                for (ForkJoinTask<ParsedChunk> task : tasks) {
+                    ParsedChunk chunk = task.join();
+                    if (chunk.records() == null) {
+                        cancelled.set(true);
+                        ChannelCsvTokenizer rest = new ChannelCsvTokenizer(content, chunk.start(), size, lineNumber, recordCount);
+                        return recordCount + handleRecords(rest, headers, file, handler);
+                    }
+                    Diagnostics.record(chunk.diagnostics());
+                    for (String[] record : chunk.records()) {
+                        recordCount++;
+                        checkMalformedRow(record.length,headers,file,recordCount);
+                        handler.handleRecord(record);
+                    }
+                    lineNumber += chunk.lineCount();
+                }
+                return recordCount;
+            } finally {
+                // Stop unneeded chunks early, and let all of them finish before the mapping is released
+                cancelled.set(true);
+                for (ForkJoinTask<ParsedChunk> task : tasks) {
+                    task.quietlyJoin();
+                }
+            }
+        }
     }
 
     /**
-     * Removes problematic characters from the start of a line until it begins with a quote.
-     * @param line The line to clean
-     * @return Line with clean start
+     * Tokenizes one chunk of a mapped file on its own, copying out each record.
+     * @return The chunk's records, or a chunk without records if it couldn't be tokenized on its own
      */
-    private static String cleanLineStart(String line) {
-        while (!line.startsWith("\"") && !line.isEmpty()) {
-            System.out.println("Caught a junk character at start: '" + line.charAt(0) + "'");
-            line = line.substring(1);
+    private static ParsedChunk parseChunk(MemorySegment content, long start, long end, AtomicBoolean cancelled) {
+        Diagnostics.Tally diagnostics = new Diagnostics.Tally();
+        ChannelCsvTokenizer tokenizer = new ChannelCsvTokenizer(content, start, end, 0, 0, diagnostics);
+        List<String[]> records = new ArrayList<>();
+        try {
+            String[] record;
+            while (!cancelled.get() && (record = tokenizer.nextRecord()) != null) {
+                records.add(record.clone());
+            }
+        } catch (IOException e) {
+            return new ParsedChunk(start, null, 0, diagnostics);
         }
-        return line;
+        return new ParsedChunk(start, records, tokenizer.getLineNumber(), diagnostics);
     }
 
     /**
-     * Removes problematic characters from the end of a line until it ends with a quote.
-     * @param line The line to clean
-     * @return Line with clean end
+     * Streams a file through ContentCleaner and commons-csv, copying each record's values into a reused array.
      */
-    private static String cleanLineEnd(String line) {
-        while (!line.endsWith("\"") && !line.isEmpty()) {
-            System.out.println("Caught a junk character at end: '" + line.charAt(line.length()-1) + "'");
-            line = line.substring(0, line.length()-1);
+    private static int streamCommonsCsv(File file, RecordHandler handler) throws IOException, RosterException {
+        try (CSVParser parser = createSafeParser(file)) {
+            List<String> headers = parser.getHeaderNames();
+            handler.handleHeaders(headers);
+
+            int recordCount = 0;
+            String[] values = new String[headers.size()];
+            for (CSVRecord record : parser) {
+                checkMalformedRow(record.size(),headers,file,record.getRecordNumber());
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = record.get(i);
+                }
+                handler.handleRecord(values);
+                recordCount++;
+            }
+            return recordCount;
+        } catch (UncheckedIOException e) {
+            // The record iterator can't throw IOException directly
+            throw e.getCause();
         }
-        return line;
     }
-
+    
     /**
-     * Checks if a line has a valid number of quotes (even number).
-     * @param line The line to check
-     * @return true if the line has an even number of quotes
+     * Creates a CSVParser that is less likely to throw exceptions when parsing problematic files.
+     * The file is cleaned as it streams into the parser, so it is never buffered whole. Closing the parser closes the file.
+     * @param file The file being parsed
+     * @return CSVParser instance for the given file
+     * @throws IOException
      */
-    private static boolean hasValidQuoteCount(String line) {
-        return line.chars().filter(ch -> ch == '"').count() % 2 == 0;
+    private static CSVParser createSafeParser(File file) throws IOException {
+        ContentCleaner cleanedDataReader = new ContentCleaner(new BufferedReader(new FileReader(file)));
+        CSVFormat format = CSVFormat.DEFAULT.builder().setHeader().build();
+        try {
+            return CSVParser.parse(cleanedDataReader,format);
+        } catch (IOException | RuntimeException e) {
+            cleanedDataReader.close();
+            throw e;
+        }
     }
 
-}
\ No newline at end of file
+    /**
+     * Checks if a record has the same number of cells as the expected number of headers.
+     * @param size The number of cells in the record
+     * @param headers The list of headers
+     * @param file The file being parsed
+     * @param recordNumber The record's number, counting from 1 after the header row
+     * @throws RosterException if the record has a different number of cells than the number of headers
+     */
+    private static void checkMalformedRow(int size, List<String> headers,File file,long recordNumber) throws RosterException {
+        if (size != headers.size()) {
+            throw RosterException.create_malformedRowException(file.getName(), headers.size(), size, (int)recordNumber);
+        }
+    }
+}
@@ -1,14 +1,30 @@
 package com.echo.service;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.echo.HappyCamper;
 import com.echo.domain.ActivityRoster;
 import com.echo.domain.Camper;
+import com.echo.domain.CamperKey;
 import com.echo.domain.CamperRoster;
 import com.echo.domain.EnhancedRoster;
+import com.echo.domain.Roster;
 import com.echo.domain.RosterHeader;
+import com.echo.domain.RosterSnapshot;
+import com.echo.domain.RowView;
 import com.echo.feature.ActivityFeature;
 import com.echo.feature.MedicalFeature;
 import com.echo.feature.PreferenceFeature;
@@ -16,6 +32,9 @@ import com.echo.feature.RosterFeature;
 import com.echo.feature.SwimLevelFeature;
 import com.echo.filter.FilterManager;
 import com.echo.logging.RosterException;
+import com.echo.logging.Diagnostics;
+import com.echo.logging.Diagnostics.Level;
+import com.echo.logging.RosterWarning;
 import com.echo.logging.WarningManager;
 
 /**
@@ -27,8 +46,28 @@ import com.echo.logging.WarningManager;
  *
  * This service acts as the central coordinator between the UI, import/export services,
  * and the feature implementations.
+ *
+ * If a snapshot directory is set, each enhanced roster is also saved as a RosterSnapshot,
+ * and reopening the same files with the same features restores the snapshot instead of re-importing.
+ * A restored roster keeps its snapshot file mapped, so each snapshot is written to a new file rather than over the last one
+ * (which can't be replaced while mapped on some platforms), and older snapshots are deleted once they're no longer in use.
+ * If an ImportCache is set, validated source rosters are cached by file content, so re-importing an unchanged file
+ * with a different feature selection skips parsing and validation.
+ *
+ * After a full import, the activity file's rows are indexed by camper and round, so a re-exported activity file can be
+ * re-imported incrementally (see reimportActivityRoster): only campers whose rows changed are updated, along with the
+ * feature data derived from their assignments.
+ *
+ * Imports can report their progress and be cancelled from another thread through an ImportProgress, so the UI can run them
+ * in the background.
+ *
+ * Features that don't depend on each other's headers (see FeatureScheduler) are applied concurrently, each batch under
+ * a single checkpoint. A batch that fails is rolled back and applied again in turn, so the result doesn't depend on batching.
  */
 public class RosterService {
+    private static final String SNAPSHOT_PREFIX = "session-";
+    private static final String SNAPSHOT_EXTENSION = ".snapshot";
+
     private final ImportService importService;
     private final ExportService exportService;
     private final List<RosterFeature> availableFeatures;
@@ -38,6 +77,12 @@ public class RosterService {
     //TODO manage exportSettings similarly?
     private ViewSettings viewSettings;
 
+    private Path snapshotDirectory; // Null disables snapshots
+    private long lastSnapshotStamp; // Names snapshots in the order they were saved
+    private ImportCache importCache; // Null disables import caching
+    private ActivityBaseline activityBaseline; // Last full import, for incremental activity re-imports
+    private boolean parallelFeatures = true; // Apply independent features concurrently
+
     /**
      * Creates a new RosterService with the given import and export services.
      * Initializes the list of available features that can be applied to rosters.
@@ -61,7 +106,7 @@ public class RosterService {
             RosterFeature programFeature = (RosterFeature) programFeatureClass.getDeclaredConstructor().newInstance();
             availableFeatures.add(programFeature);
         } catch (Exception e) {
-            System.out.println("ProgramFeature not available: " + e.getMessage());
+            Diagnostics.log(Level.INFO, "ProgramFeature not available", e);
             // Continue without ProgramFeature
         }
 
@@ -75,7 +120,7 @@ public class RosterService {
      * Creates an enhanced roster from camper and activity files.
      * This is the main method that orchestrates the entire roster enhancement process:
      * 1. Validates input files
-     * 2. Imports camper and activity data
+     * 2. Imports, normalizes and validates camper and activity data, concurrently
      * 3. Creates an enhanced roster with camper data
      * 4. Applies each enabled feature in sequence
      * 5. Sorts headers for consistent display
@@ -86,21 +131,79 @@ public class RosterService {
      * @return A new EnhancedRoster with all features applied, or null if a critical error occurred
      */
     public EnhancedRoster createEnhancedRoster(File camperFile, File activityFile, List<String> enabledFeatureIds){
+        return createEnhancedRoster(camperFile, activityFile, enabledFeatureIds, ImportProgress.untracked());
+    }
+
+    /**
+     * Creates an enhanced roster as createEnhancedRoster(File, File, List) does, reporting each stage to the given progress.
+     * Safe to call off the event dispatch thread. If the import is cancelled, it stops at its next check,
+     * logs an error and returns null.
+     *
+     * @param camperFile The file containing camper data
+     * @param activityFile The file containing activity data
+     * @param enabledFeatureIds The IDs of features to enable and apply
+     * @param progress The progress to report stages to, which can cancel the import
+     * @return A new EnhancedRoster with all features applied, or null if a critical error occurred or the import was cancelled
+     */
+    public EnhancedRoster createEnhancedRoster(File camperFile, File activityFile, List<String> enabledFeatureIds, ImportProgress progress){
 
         //Create a new WarningManager. doesn't need to be cleared if a new one is created for each process
         warningManager = new WarningManager();
+        activityBaseline = null;
 
+        // Collect diagnostics for this import alone, and hand their summary to the warning manager however the import ends
+        Diagnostics.reset();
         try {
-            // Import tosters (with basic validation)
-            CamperRoster camperRoster = importService.importCamperRoster(camperFile);
-            ActivityRoster activityRoster = importService.importActivityRoster(activityFile);
+            return importEnhancedRoster(camperFile, activityFile, enabledFeatureIds, progress);
+        } finally {
+            warningManager.setDiagnostics(Diagnostics.summarize());
+        }
+    }
 
-            // Standardize program names
-            camperRoster.normalizePrograms();
+    /**
+     * Performs the import for createEnhancedRoster, logging to the current warning manager.
+     */
+    private EnhancedRoster importEnhancedRoster(File camperFile, File activityFile, List<String> enabledFeatureIds, ImportProgress progress){
+        // Reopen the last session's snapshot if it was built from the same files and features, skipping import entirely
+        long fingerprint = 0;
+        if (snapshotDirectory != null) {
+            fingerprint = fingerprintSources(camperFile, activityFile, enabledFeatureIds);
+            EnhancedRoster restoredRoster = readSnapshot(fingerprint);
+            if (restoredRoster != null) {
+                return restoredRoster;
+            }
+        }
+
+        try {
+            // Two stages for each file, then one for each feature
+            List<RosterFeature> features = new ArrayList<>();
+            for (String featureId : enabledFeatureIds) {
+                RosterFeature feature = findFeature(featureId);
+                if (feature != null) {
+                    features.add(feature);
+                }
+            }
+            progress.setStageCount(4 + features.size());
+
+            // Import, normalize and validate both rosters concurrently
+            StagedRoster<CamperRoster> stagedCampers;
+            StagedRoster<ActivityRoster> stagedActivities;
+            try (ExecutorService importExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+                Future<StagedRoster<CamperRoster>> camperImport = importExecutor.submit(() -> stageCamperRoster(camperFile, progress));
+                Future<StagedRoster<ActivityRoster>> activityImport = importExecutor.submit(() -> stageActivityRoster(activityFile, progress));
+
+                // Camper roster errors take precedence, as they did when the rosters were imported in sequence
+                stagedCampers = awaitStage(camperImport);
+                stagedActivities = awaitStage(activityImport);
+            }
 
-            // Validate rosters
-            camperRoster.validate(warningManager);
-            activityRoster.validate(warningManager);
+            // Merge warnings in a fixed order, so they don't depend on which import finished first
+            warningManager.mergeFrom(stagedCampers.warnings());
+            warningManager.mergeFrom(stagedActivities.warnings());
+            CamperRoster camperRoster = stagedCampers.roster();
+            ActivityRoster activityRoster = stagedActivities.roster();
+            stagedCampers = null; // Keep only the roster references, which are dropped once merged below
+            stagedActivities = null;
 
             // Create enhanced roster, add camper headers and data.
             EnhancedRoster enhancedRoster = new EnhancedRoster();
@@ -108,18 +211,36 @@ public class RosterService {
                 enhancedRoster.addHeader(header);
             }
 
-            // Copy camper data
+            // Copy camper data. The camper roster isn't needed after this, so drop it to let it be collected during feature processing
+            Set<CamperKey> camperKeys = new HashSet<>();
             for (Camper camper : camperRoster.getCampers()) {
+                progress.checkCancelled();
                 enhancedRoster.addCamper(camper);
+                camperKeys.add(camper.getKey());
             }
+            camperRoster = null;
+            ActivityRowIndex activityRows = null;
 
-            // Apply each enabled feature
+            // Apply each enabled feature, in batches of features that don't depend on each other
             //System.out.println("RosterService.createEnhancedRoster: Enabled feature IDs: " + enabledFeatureIds);
-            for (String featureId : enabledFeatureIds) {
-                //System.out.println("RosterService.createEnhancedRoster: Processing feature ID: " + featureId);
-                RosterFeature feature = findFeature(featureId);
-                if (feature != null) {
+            List<List<RosterFeature>> batches = parallelFeatures ? FeatureScheduler.schedule(features) : FeatureScheduler.inTurn(features);
+            for (List<RosterFeature> batch : batches) {
+                boolean concurrent = batch.size() > 1;
+                if (concurrent) {
+                    for (RosterFeature feature : batch) {
+                        progress.startStage("Applying " + feature.getFeatureName());
+                    }
+                    if (applyConcurrently(batch, enhancedRoster)) {
+                        continue;
+                    }
+                    // A feature failed or was rolled back, so apply the batch again one feature at a time, as it would have been without batching
+                }
+
+                for (RosterFeature feature : batch) {
                     //System.out.println("RosterService.createEnhancedRoster: Found feature: " + feature.getFeatureId() + " (" + feature.getFeatureName() + ")");
+                    if (!concurrent) {
+                        progress.startStage("Applying " + feature.getFeatureName());
+                    }
 
                     // Prevalidate feature, skipping on failure
                     //System.out.println("RosterService.createEnhancedRoster: Prevalidating feature: " + feature.getFeatureId());
@@ -139,13 +260,18 @@ public class RosterService {
                         continue;
                     }
 
+                    // Checkpoint the roster, so the feature can be undone if it fails post-validation
+                    enhancedRoster.checkpoint();
+
                     // Apply feature, with special handling for ActivityFeature
                     // which needs access to the activity roster
                     //System.out.println("RosterService.createEnhancedRoster: Applying feature: " + feature.getFeatureId());
                     try {
                         if (feature instanceof ActivityFeature activityFeature) {
                             //System.out.println("RosterService.createEnhancedRoster: Applying ActivityFeature with activity roster");
+                            activityRows = ActivityRowIndex.of(activityRoster);
                             activityFeature.applyFeature(enhancedRoster, activityRoster, warningManager);
+                            activityRoster = null; // Merged, so it can be collected
                         } else {
                             //System.out.println("RosterService.createEnhancedRoster: Applying regular feature");
                             feature.applyFeature(enhancedRoster, warningManager);
@@ -153,7 +279,7 @@ public class RosterService {
                         //System.out.println("RosterService.createEnhancedRoster: Feature applied successfully: " + feature.getFeatureId());
                     } catch (Exception e) {
                         //System.out.println("RosterService.createEnhancedRoster: Error applying feature: " + feature.getFeatureId() + ": " + e.getMessage());
-                        e.printStackTrace();
+                        Diagnostics.log(Level.ERROR, "Error applying feature " + feature.getFeatureId(), e);
                         throw e;
                     }
 
@@ -163,20 +289,22 @@ public class RosterService {
                     boolean postValidated = feature.postValidate(enhancedRoster, warningManager);
                     //System.out.println("RosterService.createEnhancedRoster: Post-validation result: " + postValidated);
 
-                    // If post-validation fails, the problem with the roster is critical enough to scrap the whole process
-                    // FUTURE - Save an enhanced roster copy before applying each feature, revert to valid version if post-validation fails
+                    // If post-validation fails, roll back the feature's changes and continue with the remaining features
+                    // ActivityFeature is still fatal, matching prevalidation - other features depend on its data
                     if (!postValidated) {
-                        //System.out.println("RosterService.createEnhancedRoster: Post-validation failed for feature: " + feature.getFeatureId() + ", aborting");
-                        return null;
+                        //System.out.println("RosterService.createEnhancedRoster: Post-validation failed for feature: " + feature.getFeatureId() + ", rolling back");
+                        enhancedRoster.rollback();
+                        if (feature instanceof ActivityFeature) {
+                            return null;
+                        }
+                        warningManager.logWarning(RosterWarning.create_featureRolledBack(feature.getFeatureName()));
+                        continue;
                     }
+                    enhancedRoster.commit();
 
                     //System.out.println("RosterService.createEnhancedRoster: Feature " + feature.getFeatureId() + " successfully applied and validated");
                     //System.out.println("RosterService.createEnhancedRoster: Enabled features in roster: " + enhancedRoster.getEnabledFeatures());
-
                 }
-
-
-
             }
 
             // Sort headers by order once they're all added for consistent display
@@ -184,7 +312,15 @@ public class RosterService {
             // regardless of the order in which features were applied
             RosterHeader.updateHeaderMapOrder(enhancedRoster.getHeaderMap());
 
+            if (snapshotDirectory != null) {
+                saveSnapshot(enhancedRoster, fingerprint);
+            }
 
+            // Keep the activity rows' index, so the next export of the same activity file can be applied incrementally
+            if (activityRows != null) {
+                activityBaseline = new ActivityBaseline(enhancedRoster, describeSource(camperFile), activityFile.getAbsoluteFile(),
+                                                        List.copyOf(enabledFeatureIds), camperKeys, activityRows);
+            }
 
             return enhancedRoster;
         }
@@ -192,6 +328,10 @@ public class RosterService {
             warningManager.logError(e);
             return null;
         }
+        catch (CancellationException e) {
+            warningManager.logError(RosterException.create_normalWrapper("Import was cancelled", e));
+            return null;
+        }
         catch (Exception e) {
             RosterException exceptionWrapper = RosterException.create_normalWrapper("An error occurred while merging rosters: " + e.getMessage(), e);
             warningManager.logError(exceptionWrapper);
@@ -199,6 +339,419 @@ public class RosterService {
         }
     }
 
+    /**
+     * Re-imports an activity file that was re-exported since the roster was created, applying only the rows that changed.
+     *
+     * The file's rows are hashed and diffed against the previous import of the same file. Campers with inserted, updated or
+     * deleted rows get their assignments rebuilt, then each enabled feature updates its data for just those campers
+     * (see RosterFeature.updateChangedCampers). The result matches a full rebuild from the same files.
+     *
+     * Falls back to a full rebuild (see createEnhancedRoster) when the roster wasn't the last one built from these files
+     * and features, the camper file or the activity file's headers changed, or a changed row can't be applied in place -
+     * rows for campers missing from the camper file, or a camper losing all its rows.
+     *
+     * The warning manager reports validation warnings for the whole activity file, but feature warnings only for changed campers.
+     *
+     * @param roster The roster previously built from these files
+     * @param camperFile The file containing camper data, unchanged since the roster was built
+     * @param activityFile The re-exported activity file
+     * @param enabledFeatureIds The IDs of features enabled when the roster was built
+     * @return The given roster updated in place, a rebuilt roster if the changes couldn't be applied incrementally,
+     *         or null if a critical error occurred
+     */
+    public EnhancedRoster reimportActivityRoster(EnhancedRoster roster, File camperFile, File activityFile, List<String> enabledFeatureIds) {
+        ActivityBaseline baseline = activityBaseline;
+        if (baseline == null || !baseline.matches(roster, camperFile, activityFile, enabledFeatureIds)) {
+            return createEnhancedRoster(camperFile, activityFile, enabledFeatureIds);
+        }
+
+        warningManager = new WarningManager();
+        Diagnostics.reset();
+        boolean checkpointed = false;
+        try {
+            StagedRoster<ActivityRoster> stagedActivities = stageActivityRoster(activityFile, ImportProgress.untracked());
+            ActivityRoster activityRoster = stagedActivities.roster();
+            ActivityRowIndex activityRows = ActivityRowIndex.of(activityRoster);
+            ActivityRowIndex.RowDelta delta = activityRows.diff(baseline.activityRows());
+            Diagnostics.log(Level.DEBUG, "Activity re-import: " + delta.inserted() + " rows inserted, " + delta.updated() + " updated, "
+                                         + delta.deleted() + " deleted");
+
+            // Only changes to campers from the camper file, who still have assignments, can be applied in place
+            boolean applicable = activityRows.getHeaders().equals(baseline.activityRows().getHeaders());
+            List<Camper> changedCampers = new ArrayList<>();
+            for (CamperKey key : delta.changedCampers()) {
+                if (!applicable) {
+                    break;
+                }
+                applicable = baseline.camperKeys().contains(key) && activityRows.hasRows(key);
+                changedCampers.add(roster.getCamperByKey(key));
+            }
+            if (!applicable) {
+                return createEnhancedRoster(camperFile, activityFile, enabledFeatureIds);
+            }
+            warningManager.mergeFrom(stagedActivities.warnings());
+
+            List<RowView> changedRows = new ArrayList<>();
+            for (Camper row : activityRoster.getCampers()) {
+                if (delta.changedCampers().contains(ActivityRoster.generateCamperKeyFromActivity(row.view()))) {
+                    changedRows.add(row.view());
+                }
+            }
+
+            // Rebuild the changed campers' assignments, then let each feature catch up, undoing everything if one can't
+            roster.checkpoint();
+            checkpointed = true;
+            for (String featureId : enabledFeatureIds) {
+                RosterFeature feature = findFeature(featureId);
+                if (feature == null || !roster.hasFeature(featureId)) {
+                    continue;
+                }
+                if (feature instanceof ActivityFeature activityFeature) {
+                    activityFeature.reapplyToCampers(roster, changedCampers, changedRows, warningManager);
+                } else if (!feature.updateChangedCampers(roster, changedCampers, warningManager)) {
+                    roster.rollback();
+                    checkpointed = false;
+                    return createEnhancedRoster(camperFile, activityFile, enabledFeatureIds);
+                }
+            }
+            roster.commit();
+            checkpointed = false;
+
+            activityBaseline = new ActivityBaseline(roster, baseline.camperSource(), baseline.activityFile(),
+                                                    baseline.featureIds(), baseline.camperKeys(), activityRows);
+            if (snapshotDirectory != null) {
+                saveSnapshot(roster, fingerprintSources(camperFile, activityFile, enabledFeatureIds));
+            }
+            return roster;
+        }
+        catch (RosterException e){
+            warningManager.logError(e);
+            return null;
+        }
+        catch (Exception e) {
+            RosterException exceptionWrapper = RosterException.create_normalWrapper("An error occurred while re-importing activities: " + e.getMessage(), e);
+            warningManager.logError(exceptionWrapper);
+            return null;
+        }
+        finally {
+            // Leave the roster as it was if the update failed partway
+            if (checkpointed) {
+                roster.rollback();
+            }
+            warningManager.setDiagnostics(Diagnostics.summarize());
+        }
+    }
+
+    /**
+     * What the last full import was built from, so an activity re-import can tell whether it can be applied incrementally.
+     *
+     * @param roster The roster the import built
+     * @param camperSource The camper file's path, size and modification time, from describeSource
+     * @param activityFile The activity file, as an absolute path
+     * @param featureIds The enabled feature IDs, in order
+     * @param camperKeys Keys of the campers imported from the camper file, as opposed to those added for unmatched activities
+     * @param activityRows Index of the activity file's rows
+     */
+    private record ActivityBaseline(EnhancedRoster roster, String camperSource, File activityFile, List<String> featureIds,
+                                    Set<CamperKey> camperKeys, ActivityRowIndex activityRows) {
+
+        boolean matches(EnhancedRoster roster, File camperFile, File activityFile, List<String> featureIds) {
+            return this.roster == roster
+                && this.camperSource.equals(describeSource(camperFile))
+                && this.activityFile.equals(activityFile.getAbsoluteFile())
+                && this.featureIds.equals(featureIds);
+        }
+    }
+
+    /**
+     * Describes a source file by its path, size and modification time, which change whenever the file is replaced.
+     */
+    private static String describeSource(File file) {
+        return file.getAbsolutePath() + '|' + file.length() + '|' + file.lastModified();
+    }
+
+    /**
+     * A source roster imported and validated on the import executor, with the warnings its validation logged.
+     * Each import logs to a WarningManager of its own, so nothing is shared between threads until the stages are merged.
+     */
+    private record StagedRoster<R extends Roster>(R roster, WarningManager warnings) {}
+
+    /**
+     * Imports a camper roster, standardizes its program names and validates it.
+     *
+     * @param camperFile The file containing camper data
+     * @param progress The import's progress
+     * @return The validated roster with its warnings
+     * @throws RosterException if the file is invalid, or the roster fails critical validation
+     */
+    private StagedRoster<CamperRoster> stageCamperRoster(File camperFile, ImportProgress progress) throws RosterException {
+        progress.startStage("Reading camper file");
+        WarningManager stageWarnings = new WarningManager();
+        String digest = digestForCache(camperFile);
+        if (digest != null) {
+            CamperRoster cachedRoster = importCache.get(digest, new CamperRoster(), stageWarnings);
+            if (cachedRoster != null) {
+                return new StagedRoster<>(cachedRoster, stageWarnings);
+            }
+        }
+
+        CamperRoster camperRoster = importService.importCamperRoster(camperFile, progress);
+
+        // Standardize program names
+        camperRoster.normalizePrograms();
+
+        progress.startStage("Validating camper roster");
+        camperRoster.validate(stageWarnings, progress);
+        if (digest != null) {
+            importCache.put(digest, camperRoster, stageWarnings);
+        }
+        return new StagedRoster<>(camperRoster, stageWarnings);
+    }
+
+    /**
+     * Imports and validates an activity roster.
+     *
+     * @param activityFile The file containing activity data
+     * @param progress The import's progress
+     * @return The validated roster with its warnings
+     * @throws RosterException if the file is invalid, or the roster fails critical validation
+     */
+    private StagedRoster<ActivityRoster> stageActivityRoster(File activityFile, ImportProgress progress) throws RosterException {
+        progress.startStage("Reading activity file");
+        WarningManager stageWarnings = new WarningManager();
+        String digest = digestForCache(activityFile);
+        if (digest != null) {
+            ActivityRoster cachedRoster = importCache.get(digest, new ActivityRoster(), stageWarnings);
+            if (cachedRoster != null) {
+                return new StagedRoster<>(cachedRoster, stageWarnings);
+            }
+        }
+
+        ActivityRoster activityRoster = importService.importActivityRoster(activityFile, progress);
+        progress.startStage("Validating activity roster");
+        activityRoster.validate(stageWarnings, progress);
+        if (digest != null) {
+            importCache.put(digest, activityRoster, stageWarnings);
+        }
+        return new StagedRoster<>(activityRoster, stageWarnings);
+    }
+
+    /**
+     * Digests a file for the import cache.
+     *
+     * @return The file's digest, or null if caching is disabled or the file can't be read (leaving the import to report why)
+     */
+    private String digestForCache(File file) {
+        if (importCache == null || file == null) {
+            return null;
+        }
+        try {
+            return ImportCache.digest(file);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Waits for an import stage to finish, rethrowing whatever it failed with.
+     *
+     * @param stage The stage to wait for
+     * @return The stage's result
+     * @throws RosterException if the stage failed with one, or the wait was interrupted
+     */
+    private static <R extends Roster> StagedRoster<R> awaitStage(Future<StagedRoster<R>> stage) throws RosterException {
+        try {
+            return stage.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw RosterException.create_normalWrapper("Import was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RosterException rosterException) {
+                throw rosterException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw RosterException.create_normalWrapper("An error occurred while importing: " + cause.getMessage(), e);
+        }
+    }
+
+    /**
+     * Applies a batch of features that don't depend on each other (see FeatureScheduler) concurrently, as one checkpoint.
+     *
+     * Each feature logs to its own warning manager, and features are prevalidated, given their headers and post-validated
+     * in enabled order, so the roster and warnings match applying the batch in turn. If any feature fails to apply or fails
+     * post-validation, the whole batch is rolled back and its warnings dropped, so the caller can apply it in turn instead.
+     *
+     * @param batch The features to apply, in enabled order
+     * @param roster The roster to apply them to
+     * @return true if every feature that passed prevalidation was applied and validated, false if the batch was rolled back
+     * @throws RosterException if the wait for the features was interrupted
+     */
+    private boolean applyConcurrently(List<RosterFeature> batch, EnhancedRoster roster) throws RosterException {
+        List<WarningManager> featureWarnings = new ArrayList<>();
+        List<RosterFeature> validFeatures = new ArrayList<>();
+        List<WarningManager> validWarnings = new ArrayList<>();
+        roster.checkpoint();
+
+        // Prevalidate and add headers up front, so the features only write cells of columns that already exist
+        for (RosterFeature feature : batch) {
+            WarningManager warnings = new WarningManager();
+            featureWarnings.add(warnings);
+            if (feature.preValidate(roster, warnings)) {
+                validFeatures.add(feature);
+                validWarnings.add(warnings);
+                for (String header : feature.getAddedHeaders()) {
+                    roster.addHeader(header);
+                }
+            }
+        }
+
+        boolean applied = true;
+        try (ExecutorService featureExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> applications = new ArrayList<>();
+            for (int i = 0; i < validFeatures.size(); i++) {
+                RosterFeature feature = validFeatures.get(i);
+                WarningManager warnings = validWarnings.get(i);
+                applications.add(featureExecutor.submit(() -> feature.applyFeature(roster, warnings)));
+            }
+            for (int i = 0; i < applications.size(); i++) {
+                try {
+                    applications.get(i).get();
+                } catch (ExecutionException e) {
+                    Diagnostics.log(Level.WARN, "Error applying feature " + validFeatures.get(i).getFeatureId() + " concurrently", e.getCause());
+                    applied = false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            roster.rollback();
+            throw RosterException.create_normalWrapper("Import was interrupted", e);
+        }
+
+        for (int i = 0; applied && i < validFeatures.size(); i++) {
+            applied = validFeatures.get(i).postValidate(roster, validWarnings.get(i));
+        }
+        if (!applied) {
+            roster.rollback();
+            return false;
+        }
+        roster.commit();
+        for (WarningManager warnings : featureWarnings) {
+            warningManager.mergeFrom(warnings);
+        }
+        return true;
+    }
+
+    /**
+     * Sets whether independent features are applied concurrently during import.
+     * Either way the resulting roster and warnings are the same.
+     *
+     * @param parallelFeatures true to apply batches of independent features concurrently (the default), false to apply features in turn
+     */
+    public void setParallelFeatures(boolean parallelFeatures) {
+        this.parallelFeatures = parallelFeatures;
+    }
+
+    /**
+     * Sets the directory enhanced rosters are snapshotted to, enabling snapshots.
+     * Rosters restored from a snapshot log the warnings saved from their original import again.
+     *
+     * @param snapshotDirectory The directory to keep the last session's snapshots in, or null to disable snapshots
+     */
+    public void setSnapshotDirectory(Path snapshotDirectory) {
+        this.snapshotDirectory = snapshotDirectory;
+    }
+
+    /**
+     * Sets the cache validated source rosters are kept in, enabling import caching.
+     *
+     * @param importCache The cache to use, or null to disable import caching
+     */
+    public void setImportCache(ImportCache importCache) {
+        this.importCache = importCache;
+    }
+
+    /**
+     * Reads the latest snapshot, treating any failure as a missing snapshot so the caller falls back to a CSV import.
+     * A restored snapshot's warnings are added to the current warning manager.
+     *
+     * @return The restored roster, or null if the snapshot is missing, stale, corrupt or unreadable
+     */
+    private EnhancedRoster readSnapshot(long fingerprint) {
+        try {
+            Path snapshotFile = null;
+            if (Files.isDirectory(snapshotDirectory)) {
+                // Snapshot names sort in the order they were saved
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(snapshotDirectory, SNAPSHOT_PREFIX + "*" + SNAPSHOT_EXTENSION)) {
+                    for (Path file : stream) {
+                        if (snapshotFile == null || file.getFileName().toString().compareTo(snapshotFile.getFileName().toString()) > 0) {
+                            snapshotFile = file;
+                        }
+                    }
+                }
+            }
+            return snapshotFile == null ? null : RosterSnapshot.read(snapshotFile, fingerprint, warningManager);
+        } catch (IOException e) {
+            Diagnostics.log(Level.WARN, "Could not read roster snapshot", e);
+            return null;
+        }
+    }
+
+    /**
+     * Saves a snapshot of a newly enhanced roster to a new file, then deletes older snapshots.
+     * Failures are reported but otherwise ignored - the roster itself is unaffected.
+     */
+    private void saveSnapshot(EnhancedRoster roster, long fingerprint) {
+        lastSnapshotStamp = Math.max(System.currentTimeMillis(), lastSnapshotStamp + 1);
+        Path snapshotFile = snapshotDirectory.resolve(SNAPSHOT_PREFIX + String.format("%016x", lastSnapshotStamp) + SNAPSHOT_EXTENSION);
+        try {
+            RosterSnapshot.write(roster, warningManager, snapshotFile, fingerprint);
+        } catch (IOException e) {
+            Diagnostics.log(Level.WARN, "Could not save roster snapshot", e);
+            return;
+        }
+
+        // A snapshot a restored roster still maps can't be deleted on some platforms - it's retried on the next save
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(snapshotDirectory, "*" + SNAPSHOT_EXTENSION)) {
+            for (Path file : stream) {
+                if (!file.equals(snapshotFile)) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        Diagnostics.log(Level.DEBUG, "Could not delete old roster snapshot " + file.getFileName(), e);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            Diagnostics.log(Level.WARN, "Could not delete old roster snapshots", e);
+        }
+    }
+
+    /**
+     * Builds a fingerprint of everything an enhanced roster is derived from: the app version, each file's path, size and
+     * modification time, and the enabled features in order. A snapshot is only restored if its fingerprint matches.
+     *
+     * @return A 64-bit hash of the roster's sources
+     */
+    private static long fingerprintSources(File camperFile, File activityFile, List<String> enabledFeatureIds) {
+        StringBuilder sources = new StringBuilder(HappyCamper.VERSION);
+        for (File file : new File[]{camperFile, activityFile}) {
+            sources.append('\n').append(describeSource(file));
+        }
+        sources.append('\n').append(String.join(",", enabledFeatureIds));
+
+        long hash = 1125899906842597L;
+        for (int i = 0; i < sources.length(); i++) {
+            hash = 31 * hash + sources.charAt(i);
+        }
+        return hash;
+    }
+
     /**
      * Finds a feature by its unique ID.
      * Searches through the list of available features to find one with a matching ID.
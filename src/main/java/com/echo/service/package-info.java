@@ -11,6 +11,8 @@
  * <ul>
  *   <li>{@link com.echo.service.RosterService} - Core service for managing roster data and applying features</li>
  *   <li>{@link com.echo.service.ImportService} - Service for importing data from CSV files</li>
+ *   <li>{@link com.echo.service.ImportCache} - Cache of validated source rosters, keyed by file content</li>
+ *   <li>{@link com.echo.service.ImportProgress} - Stage reporting and cancellation for imports run in the background</li>
  *   <li>{@link com.echo.service.ExportService} - Service for exporting roster data to files</li>
  *   <li>{@link com.echo.service.ImportSettings} - Settings for the import process</li>
  *   <li>{@link com.echo.service.ExportSettings} - Settings for the export process</li>
@@ -9,7 +9,7 @@ import javax.swing.table.TableRowSorter;
 
 /**
  * Custom TableRowSorter that supports different sorting modes for different columns.
- * This allows for numeric sorting of columns that contain numeric data stored as strings.
+ * This allows for numeric sorting of columns holding typed numbers (see RosterHeader.getColumnType) or numeric data stored as strings.
  */
 public class CustomTableRowSorter<M extends TableModel> extends TableRowSorter<M> {
     
@@ -75,11 +75,14 @@ public class CustomTableRowSorter<M extends TableModel> extends TableRowSorter<M
     }
     
     /**
-     * Comparator for numeric values stored as strings.
+     * Comparator for numeric columns.
+     * Typed columns (see RosterHeader.getColumnType) supply Integer and Double values, compared without parsing.
+     * Text values - only expected from untyped numeric-sorted columns like Grade - are parsed as before,
+     * falling back to string comparison if they aren't numeric.
      */
-    private static class NumericComparator implements Comparator<String> {
+    private static class NumericComparator implements Comparator<Object> {
         @Override
-        public int compare(String o1, String o2) {
+        public int compare(Object o1, Object o2) {
             if (o1 == null && o2 == null) {
                 return 0;
             }
@@ -89,16 +92,27 @@ public class CustomTableRowSorter<M extends TableModel> extends TableRowSorter<M
             if (o2 == null) {
                 return 1;
             }
-            
+
+            if (o1 instanceof Number n1 && o2 instanceof Number n2) {
+                return Double.compare(n1.doubleValue(), n2.doubleValue());
+            }
+
             try {
-                double n1 = Double.parseDouble(o1.trim());
-                double n2 = Double.parseDouble(o2.trim());
+                double n1 = toDouble(o1);
+                double n2 = toDouble(o2);
                 return Double.compare(n1, n2);
             } catch (NumberFormatException e) {
                 // Fall back to string comparison if parsing fails
-                return o1.compareTo(o2);
+                return o1.toString().compareTo(o2.toString());
             }
         }
+
+        /**
+         * Gets the numeric value of a cell, parsing it only if it isn't already a number.
+         */
+        private static double toDouble(Object value) {
+            return value instanceof Number number ? number.doubleValue() : Double.parseDouble(value.toString().trim());
+        }
     }
     
     /**
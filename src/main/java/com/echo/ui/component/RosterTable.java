@@ -340,8 +340,12 @@ public class RosterTable extends JPanel {
             return visibleHeaders.get(column);
         }
 
+        /**
+         * Gets a cell's value. Numeric columns return their Integer or Double unformatted,
+         * so sorting compares numbers directly - formatting is left to the cell renderer (see TableLook).
+         */
         @Override
-        public String getValueAt(int rowIndex, int columnIndex) {
+        public Object getValueAt(int rowIndex, int columnIndex) {
             if (rowIndex < 0 || rowIndex >= filteredCampers.size() ||
                     columnIndex < 0 || columnIndex >= visibleHeaders.size()) {
                 return null;
@@ -350,8 +354,7 @@ public class RosterTable extends JPanel {
             Camper camper = filteredCampers.get(rowIndex);
             String header = visibleHeaders.get(columnIndex);
 
-            String value = camper.getValue(header);
-            return value;
+            return camper.getTypedValue(header);
         }
 
         @Override
@@ -53,8 +53,10 @@ public class TableLook {
 
         table.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
             public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
-                // Convert the value for display
-                String displayValue = DataConstants.getDisplayValue((String)value);
+                // Convert the value for display, formatting numbers from typed columns
+                String displayValue = value instanceof Number number
+                        ? RosterHeader.getColumnType(table.getColumnName(column)).format(number)
+                        : DataConstants.getDisplayValue((String)value);
                 Component cell = super.getTableCellRendererComponent(table, displayValue,
                         isSelected, hasFocus, row, column);
 
@@ -1,17 +1,26 @@
 package com.echo.ui.dialog;
 
+import java.awt.Dimension;
 import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
+import javax.swing.Box;
 import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingWorker;
 
 import com.echo.domain.EnhancedRoster;
 import com.echo.feature.RosterFeature;
 import com.echo.logging.WarningManager;
+import com.echo.service.ImportProgress;
 import com.echo.service.ImportSettings;
 import com.echo.service.RosterService;
 import com.echo.ui.help.PageContentBuilder.HelpPage;
@@ -23,6 +32,10 @@ import com.echo.ui.selector.FileSelector.SelectionMode;
 /**
  * Dialog for importing roster data.
  * This dialog extends InputsDialog for a consistent UI experience with other dialogs.
+ *
+ * Imports run on a background thread (see ImportWorker), with each stage shown in a progress bar, so the window stays responsive.
+ * The dialog stays open until the import finishes, and its cancel button cancels the import.
+ * Warnings and errors are shown once the import finishes, back on the event dispatch thread.
  */
 public class ImportDialog extends InputsDialog {
     // Static cache for remembering settings between dialog instances
@@ -37,7 +50,12 @@ public class ImportDialog extends InputsDialog {
     private boolean importSuccessful = false;
     private EnhancedRoster importedRoster;
 
+    private JProgressBar progressBar;
+    private ImportWorker importWorker;          // The running import, null when none is running
+    private boolean importInBackground = true;  // False for automated imports, which finish before automateSelection returns
+
     private static final int IMPORT_DIALOG_WIDTH = 500;
+    private static final int PROGRESS_BAR_WIDTH = 250;
 
     /**
      * Creates a new ImportDialog.
@@ -54,10 +72,37 @@ public class ImportDialog extends InputsDialog {
         activityFileSelector = (FileSelector) selectors[1];
         featureSelector = (CheckBoxSelector) selectors[2];
 
+        setupProgressBar();
+
+        // Closing the window mid-import cancels the import, like the cancel button
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                if (importWorker != null) {
+                    importWorker.progress.cancel();
+                }
+            }
+        });
+
         //Trigger initial validation
         updateContinueButton();
     }
 
+    /**
+     * Adds a progress bar between the bottom panel's buttons, hidden until an import starts.
+     */
+    private void setupProgressBar() {
+        progressBar = new JProgressBar();
+        progressBar.setStringPainted(true);
+        progressBar.setMaximumSize(new Dimension(PROGRESS_BAR_WIDTH, progressBar.getPreferredSize().height));
+        progressBar.setVisible(false);
+
+        // Bottom panel holds the cancel button, glue and the continue button - place the bar just before the continue button
+        JPanel bottomPanel = getBottomPanel();
+        bottomPanel.add(progressBar, 2);
+        bottomPanel.add(Box.createRigidArea(new Dimension(10, 0)), 3);
+    }
+
     /**
      * Creates the selectors for the dialog.
      *
@@ -125,6 +170,42 @@ public class ImportDialog extends InputsDialog {
         return camperFileSelector.getValidationResult().isValid() && activityFileSelector.getValidationResult().isValid();
     }
 
+    /**
+     * Starts the import if all inputs are valid. Unlike other InputsDialogs, the dialog stays open until the import finishes.
+     */
+    @Override
+    protected void onContinueClicked() {
+        if (importWorker == null && areInputsValid()) {
+            inputConfirmed = true;
+            updateSelections();
+        }
+    }
+
+    /**
+     * Cancels the running import, or closes the dialog if there isn't one.
+     * A cancelled import closes the dialog once it stops.
+     */
+    @Override
+    protected void onCancelClicked() {
+        if (importWorker != null) {
+            importWorker.progress.cancel();
+            cancelButton.setEnabled(false);
+            progressBar.setString("Cancelling...");
+            return;
+        }
+        super.onCancelClicked();
+    }
+
+    /**
+     * Keeps the continue button disabled while an import is running.
+     */
+    @Override
+    protected void updateContinueButton() {
+        if (importWorker == null) {
+            super.updateContinueButton();
+        }
+    }
+
     /**
      * Updates the selections in the cached settings.
      * Called when the user confirms the dialog.
@@ -160,51 +241,141 @@ public class ImportDialog extends InputsDialog {
 
     /**
      * Performs the import using the selected options.
+     * Starts the import in the background, or runs it to completion right away for automated imports.
      */
     private void performImport() {
-        try {
-            // Import roster
-            importedRoster = rosterService.createEnhancedRoster(
+        if (!importInBackground) {
+            try {
+                EnhancedRoster roster = rosterService.createEnhancedRoster(
+                    cachedSettings.getCamperFile(),
+                    cachedSettings.getActivityFile(),
+                    cachedSettings.getEnabledFeatureIds()
+                );
+                finishImport(roster, rosterService.getWarningManager());
+            } catch (Exception e) {
+                displayUnexpectedError(e);
+            }
+            dispose();
+            return;
+        }
+
+        nextButton.setEnabled(false);
+        progressBar.setValue(0);
+        progressBar.setString("Starting import...");
+        progressBar.setVisible(true);
+        getBottomPanel().revalidate();
+
+        importWorker = new ImportWorker();
+        importWorker.execute();
+    }
+
+    /**
+     * A stage of a running import, passed from the import's thread to the event dispatch thread.
+     */
+    private record StageUpdate(String stage, int stageNumber, int stageCount) {}
+
+    /**
+     * Runs an import off the event dispatch thread, showing each stage in the progress bar as it starts.
+     * Once the import finishes, its warnings and errors are shown and the dialog is closed, on the event dispatch thread.
+     */
+    private final class ImportWorker extends SwingWorker<EnhancedRoster, StageUpdate> {
+        private final ImportProgress progress = new ImportProgress((stage, stageNumber, stageCount) ->
+            publish(new StageUpdate(stage, stageNumber, stageCount)));
+        private WarningManager warningManager;
+
+        @Override
+        protected EnhancedRoster doInBackground() {
+            EnhancedRoster roster = rosterService.createEnhancedRoster(
                 cachedSettings.getCamperFile(),
                 cachedSettings.getActivityFile(),
-                cachedSettings.getEnabledFeatureIds()
+                cachedSettings.getEnabledFeatureIds(),
+                progress
             );
+            warningManager = rosterService.getWarningManager();
+            return roster;
+        }
 
-            WarningManager warningManager = rosterService.getWarningManager();
-
-            // Display errors if present in warningManager (returns since roster is presumed unusable)
-            if (warningManager.hasErrors()) {
-                displayErrors(warningManager);
-                importSuccessful = false;
+        @Override
+        protected void process(List<StageUpdate> updates) {
+            if (progress.isCancelled()) {
                 return;
             }
+            // Only the latest stage is worth showing
+            StageUpdate latest = updates.get(updates.size() - 1);
+            progressBar.setMaximum(latest.stageCount());
+            progressBar.setValue(latest.stageNumber() - 1);
+            progressBar.setString(latest.stage() + "...");
+        }
 
-            // Display warnings if no errors occurred (return if user chooses not to continue)
-            else if (warningManager.hasWarnings()) {
-                WarningDialog warningDialog = new WarningDialog(this, warningManager);
-                warningDialog.showDialog();
-                if (!warningDialog.checkSelectedContinue()) {
+        @Override
+        protected void done() {
+            importWorker = null;
+            progressBar.setVisible(false);
+
+            if (progress.isCancelled()) {
+                importSuccessful = false;
+            } else {
+                try {
+                    finishImport(get(), warningManager);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
                     importSuccessful = false;
-                    return;
+                } catch (ExecutionException e) {
+                    displayUnexpectedError(e.getCause() instanceof Exception cause ? cause : e);
                 }
             }
+            dispose();
+        }
+    }
+
+    /**
+     * Shows an import's errors or warnings, and records whether it succeeded.
+     *
+     * @param roster The imported roster, or null if the import failed
+     * @param warningManager The warning manager the import logged to
+     */
+    private void finishImport(EnhancedRoster roster, WarningManager warningManager) {
+        importedRoster = roster;
+
+        // Display errors if present in warningManager (returns since roster is presumed unusable)
+        if (warningManager.hasErrors()) {
+            displayErrors(warningManager);
+            importSuccessful = false;
+            return;
+        }
 
-            // If roster is null, display error
-            if (importedRoster == null) {
-                String debugCatch = "Import failed: The roster could not be created";
-                JOptionPane.showMessageDialog(this, debugCatch, "Import Error", JOptionPane.ERROR_MESSAGE);
+        // Display warnings if no errors occurred (return if user chooses not to continue)
+        else if (warningManager.hasWarnings()) {
+            WarningDialog warningDialog = new WarningDialog(this, warningManager);
+            warningDialog.showDialog();
+            if (!warningDialog.checkSelectedContinue()) {
                 importSuccessful = false;
                 return;
             }
+        }
 
-            importSuccessful = true;
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this,
-                "An unexpected error occurred during import: " + e.getMessage(),
-                "Import Error",
-                JOptionPane.ERROR_MESSAGE);
+        // If roster is null, display error
+        if (importedRoster == null) {
+            String debugCatch = "Import failed: The roster could not be created";
+            JOptionPane.showMessageDialog(this, debugCatch, "Import Error", JOptionPane.ERROR_MESSAGE);
             importSuccessful = false;
+            return;
         }
+
+        importSuccessful = true;
+    }
+
+    /**
+     * Reports an exception the import didn't handle itself.
+     *
+     * @param e The exception
+     */
+    private void displayUnexpectedError(Exception e) {
+        JOptionPane.showMessageDialog(this,
+            "An unexpected error occurred during import: " + e.getMessage(),
+            "Import Error",
+            JOptionPane.ERROR_MESSAGE);
+        importSuccessful = false;
     }
 
     /**
@@ -237,6 +408,7 @@ public class ImportDialog extends InputsDialog {
 
     /**
      * Automates the selection of files and features for testing.
+     * The import runs on the calling thread, so it has finished by the time this returns.
      *
      * @param camperFile The camper file to use
      * @param activityFile The activity file to use
@@ -252,8 +424,9 @@ public class ImportDialog extends InputsDialog {
             updateFeatureSelection(features);
         }
 
-        // Trigger import if valid
+        // Trigger import if valid, finishing it before returning so the result can be checked right away
         if (areInputsValid()) {
+            importInBackground = false;
             onContinueClicked();
         }
     }
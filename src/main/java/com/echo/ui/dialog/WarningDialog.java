@@ -7,6 +7,7 @@ import java.util.Map;
 import javax.swing.JDialog;
 import javax.swing.JPanel;
 
+import com.echo.logging.Diagnostics;
 import com.echo.logging.RosterWarning;
 import com.echo.logging.RosterWarning.WarningType;
 import com.echo.logging.WarningManager;
@@ -17,6 +18,7 @@ import com.echo.logging.WarningManager;
 public class WarningDialog extends CardDialog{
 
     private Map<WarningType, ArrayList<RosterWarning>> warningLog;
+    private Map<WarningType, Long> warningCounts;
     private Boolean checkboxChoice;
 
     /**
@@ -27,8 +29,15 @@ public class WarningDialog extends CardDialog{
     public WarningDialog(Window _parentWindow,WarningManager _warningManager){
         super(_parentWindow, true, new String[]{"Try Other Files","Back","Next","Continue"});
         warningLog = _warningManager.getWarningLog();
+        warningCounts = _warningManager.getWarningCounts();
 
         String titleString = warningLog.size()==1? "Warning" : Integer.toString(warningLog.size())+" Warnings";
+
+        // Mention issues the import handled on its own, such as junk characters it cleaned up
+        Diagnostics.Summary diagnostics = _warningManager.getDiagnostics();
+        if (!diagnostics.isEmpty()){
+            titleString += " (" + diagnostics.getTotalCount() + " minor issues handled)";
+        }
         setTitle(titleString);
         setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
 
@@ -61,7 +70,8 @@ public class WarningDialog extends CardDialog{
             // WarningPanel panel = type.equals(WarningType.CAMPER_NOT_FOUND) 
             //                         ? new CheckboxWarningPanel(this,warningSet)                                                  
             //                         : new WarningPanel(this,warningSet);
-            WarningDialogPanel panel = new WarningDialogPanel(this,warningSet);
+            long warningCount = warningCounts.getOrDefault(warningSet.get(0).getType(), (long) warningSet.size());
+            WarningDialogPanel panel = new WarningDialogPanel(this,warningSet,warningCount);
             addCard(panel);
 
         }
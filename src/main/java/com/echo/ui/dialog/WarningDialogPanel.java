@@ -14,8 +14,8 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableColumn;
 
@@ -30,7 +30,6 @@ public class WarningDialogPanel extends JPanel{
     public final WarningDialog parent;
     private final ArrayList<RosterWarning> warnings;
 
-    private final String[][] tableRows;
     private final String[] tableHeaders;
 
 
@@ -47,21 +46,22 @@ public class WarningDialogPanel extends JPanel{
      * Constructor sets the text and table fields, then builds the panel.
      * @param _parent Parent dialog that displays this panel.
      * @param _warnings List of warnings displayed in this panel.
+     * @param _warningCount Number of warnings of this type that were logged, which may be more than were kept to display
      */
-    WarningDialogPanel(WarningDialog _parent,ArrayList<RosterWarning> _warnings) {
+    WarningDialogPanel(WarningDialog _parent,ArrayList<RosterWarning> _warnings,long _warningCount) {
         parent = _parent;
         warnings = _warnings;
 
-        //Set text to show in panel
-        generalExplanationText = warnings.get(0).getType().getGeneralExplanation();
+        //Set text to show in panel, noting when only the first warnings were kept
+        String explanation = warnings.get(0).getType().getGeneralExplanation();
+        if (_warningCount > warnings.size()){
+            explanation += " (showing the first " + warnings.size() + " of " + _warningCount + ")";
+        }
+        generalExplanationText = explanation;
         secondaryExplanationText = warnings.get(0).getType().getSecondaryExplanation();
 
-        //Set up table to display specific warning details
+        //Set up table to display specific warning details - each warning's cells are built when the table first renders them
         tableHeaders = warnings.get(0).getType().getDisplayHeaders();
-        tableRows = new String[warnings.size()][];
-        for (int i = 0;i<warnings.size();i++){
-            tableRows[i] = warnings.get(i).getDisplayData();
-        }
         buildPanel();
     }
 
@@ -111,13 +111,29 @@ public class WarningDialogPanel extends JPanel{
      */
     private JComponent createTableComponent(){
 
-        //Table Model - holds data
-        DefaultTableModel tableModel = new DefaultTableModel(){
-            public boolean isCellEditable(int row,int col){
-                return false;
+        //Table Model - reads each warning's display data as its cells are rendered
+        AbstractTableModel tableModel = new AbstractTableModel(){
+            @Override
+            public int getRowCount(){
+                return warnings.size();
+            }
+
+            @Override
+            public int getColumnCount(){
+                return tableHeaders.length;
+            }
+
+            @Override
+            public String getColumnName(int col){
+                return tableHeaders[col];
+            }
+
+            @Override
+            public Object getValueAt(int row,int col){
+                String[] cells = warnings.get(row).getDisplayData();
+                return col < cells.length ? cells[col] : null;
             }
         };
-        tableModel.setDataVector(tableRows,tableHeaders);
 
 
         //Table - displays model
@@ -0,0 +1,182 @@
+package com.echo.validation;
+
+import java.util.Set;
+
+/**
+ * Hand-written matchers for RosterRegexBuilder's session/program, grade, period and name formats.
+ *
+ * Each accepts exactly the strings its regex matches in full (as Matcher.matches does), but reads every character once,
+ * with a fixed amount of work per character. The session/program regex nests unbounded repetition inside a repeated group,
+ * so a long malformed cell could make the regex engine backtrack for a very long time - these matchers can't.
+ * See RosterRegexBuilder.matcherFor for how patterns are paired with their matchers.
+ */
+final class FormatMatchers {
+
+    private static final Set<String> GRADES = Set.of(
+        "1st", "2nd", "3rd", "4th", "5th", "6th", "7th", "8th", "9th", "10th", "11th", "12th", "12th+"
+    );
+
+    private static final String SESSION_PREFIX = "Session ";
+    private static final String SEPARATOR = " and ";
+
+    // Session/program states, numbered for a bitmask. HEADER states match SESSION_PREFIX one character at a time.
+    private static final int HEADER_END = 8;                           // SESSION_PREFIX.length(), expecting the session number
+    private static final int AFTER_NUMBER = HEADER_END + 1;            // Expecting A/B, '-' or '/'
+    private static final int AFTER_LETTER = HEADER_END + 2;            // Expecting '-' or '/'
+    private static final int RANGE_NUMBER = HEADER_END + 3;            // Expecting the range's end number
+    private static final int AFTER_RANGE_NUMBER = HEADER_END + 4;      // Expecting A/B or '/'
+    private static final int AFTER_RANGE_LETTER = HEADER_END + 5;      // Expecting '/'
+    private static final int PROGRAM_START = HEADER_END + 6;           // Expecting the program's first character
+    private static final int PROGRAM = HEADER_END + 7;                 // Accepting: within a program name
+    private static final int SEPARATOR_START = PROGRAM + 1;            // SEPARATOR matched up to (state - SEPARATOR_START + 1) characters
+    private static final int STATE_COUNT = SEPARATOR_START + SEPARATOR.length() - 1;
+
+    private FormatMatchers() {
+        // Static methods only
+    }
+
+    /**
+     * Matches the session/program format, COMPLEX_SESSIONS_PROGRAMS_EXTRAS: one or more entries joined by " and ",
+     * each either "Session N[AB][-N[AB]]/Program" or any text containing "Family Camp" or "Echo Corps".
+     *
+     * An entry of the second kind can span the whole value, so any value containing either phrase matches, unless it has
+     * a line break, which no part of the format allows. Otherwise every entry must be of the first kind. Program names
+     * may themselves contain " and ", so the value is run through a small automaton that follows both readings at once.
+     *
+     * @param value The value to check
+     * @return true if the regex would match the whole value
+     */
+    static boolean matchesSessionsPrograms(String value) {
+        if (value.contains("Family Camp") || value.contains("Echo Corps")) {
+            return !hasLineTerminator(value);
+        }
+
+        int states = 1; // Start of the first SESSION_PREFIX
+        for (int i = 0; i < value.length() && states != 0; i++) {
+            char c = value.charAt(i);
+            int next = 0;
+            for (int state = 0; state < STATE_COUNT; state++) {
+                if ((states & (1 << state)) != 0) {
+                    next |= advanceSessionState(state, c);
+                }
+            }
+            states = next;
+        }
+        return (states & (1 << PROGRAM)) != 0;
+    }
+
+    /**
+     * Follows one session/program state over a character.
+     * @return A bitmask of the states reached, 0 if none
+     */
+    private static int advanceSessionState(int state, char c) {
+        if (state < HEADER_END) {
+            return c == SESSION_PREFIX.charAt(state) ? 1 << (state + 1) : 0;
+        }
+        return switch (state) {
+            case HEADER_END -> isSessionNumber(c) ? 1 << AFTER_NUMBER : 0;
+            case AFTER_NUMBER -> (c == 'A' || c == 'B') ? 1 << AFTER_LETTER
+                               : c == '-' ? 1 << RANGE_NUMBER
+                               : c == '/' ? 1 << PROGRAM_START : 0;
+            case AFTER_LETTER -> c == '-' ? 1 << RANGE_NUMBER
+                               : c == '/' ? 1 << PROGRAM_START : 0;
+            case RANGE_NUMBER -> isSessionNumber(c) ? 1 << AFTER_RANGE_NUMBER : 0;
+            case AFTER_RANGE_NUMBER -> (c == 'A' || c == 'B') ? 1 << AFTER_RANGE_LETTER
+                                     : c == '/' ? 1 << PROGRAM_START : 0;
+            case AFTER_RANGE_LETTER -> c == '/' ? 1 << PROGRAM_START : 0;
+            case PROGRAM_START -> isProgramChar(c) ? 1 << PROGRAM : 0;
+            case PROGRAM -> {
+                // A space may also start a separator before the next entry
+                int next = isProgramChar(c) ? 1 << PROGRAM : 0;
+                yield c == SEPARATOR.charAt(0) ? next | 1 << SEPARATOR_START : next;
+            }
+            default -> {
+                int matched = state - SEPARATOR_START + 1;
+                if (c != SEPARATOR.charAt(matched)) {
+                    yield 0;
+                }
+                yield matched + 1 == SEPARATOR.length() ? 1 : 1 << (state + 1);
+            }
+        };
+    }
+
+    /**
+     * Matches the camper roster grade format, BETTER_GRADES, or the activity roster one, VALID_GRADES_LIST. Both accept the same grades.
+     *
+     * @param value The value to check
+     * @return true if the value is one of 1st through 12th, or 12th+
+     */
+    static boolean matchesGrade(String value) {
+        return value.length() <= 5 && GRADES.contains(value);
+    }
+
+    /**
+     * Matches the activity period format, PERIOD_REGEX.
+     *
+     * @param value The value to check
+     * @return true if the value is 1, 2 or 3
+     */
+    static boolean matchesPeriod(String value) {
+        return value.length() == 1 && value.charAt(0) >= '1' && value.charAt(0) <= '3';
+    }
+
+    /**
+     * Matches the name format, INCLUSIVE_NAMES: one or more letters (including common Spanish and German accented letters),
+     * spaces, apostrophes, periods, commas, slashes, hyphens or parentheses.
+     *
+     * @param value The value to check
+     * @return true if the value is non-empty and every character is allowed
+     */
+    static boolean matchesName(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!isNameChar(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSessionNumber(char c) {
+        return c >= '1' && c <= '6';
+    }
+
+    /**
+     * Checks for the characters allowed in program names, [A-Za-z ,\-]
+     */
+    private static boolean isProgramChar(char c) {
+        return isAsciiLetter(c) || c == ' ' || c == ',' || c == '-';
+    }
+
+    private static boolean isNameChar(char c) {
+        if (isAsciiLetter(c)) {
+            return true;
+        }
+        switch (c) {
+            case ' ', '\'', '.', ',', '/', '-', '(', ')',
+                 'Á', 'É', 'Í', 'Ó', 'Ú', 'á', 'é', 'í', 'ó', 'ú', 'Ñ', 'ñ', 'ü', 'Ü':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    /**
+     * Checks for the characters '.' doesn't match by default: line feed, carriage return, next line, and line/paragraph separators.
+     */
+    private static boolean hasLineTerminator(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,162 @@
+package com.echo.validation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import com.echo.domain.Camper;
+import com.echo.domain.Roster;
+import com.echo.logging.RosterWarning;
+import com.echo.logging.WarningManager;
+import com.echo.service.ImportProgress;
+
+/**
+ * Checks roster fields against a set of formats, logging a bad data format warning for each value that doesn't match.
+ *
+ * Most validated columns hold only a handful of distinct values (sessions/programs, grades, periods), so each value is matched
+ * once per column and the result is remembered for the rest of the roster. Large rosters are split into partitions of rows
+ * checked on the common ForkJoinPool, each collecting its own warnings, which are logged in row order once every partition finishes.
+ * Warnings match a sequential check exactly: rows in roster order, and each row's fields in the order of the format map given.
+ * Values are matched through RosterRegexBuilder.matcherFor, so the costliest formats never reach the regex engine.
+ *
+ * Validators hold no per-roster state, so a single validator can be built once for a set of formats and shared.
+ */
+public final class FormatValidator {
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 4096;   // Rows, below which partitioning costs more than it saves
+    private static final int MIN_PARTITION_SIZE = 1024;
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    private static volatile int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    private final String[] fields;
+    private final String[] regexes;                         // Each field's regex, as shown in warnings
+    private final List<Function<String, Boolean>> matchers; // Each field's matcher, see RosterRegexBuilder.matcherFor
+
+    /**
+     * Creates a validator for a map of field names to the patterns their values must match.
+     *
+     * @param formats The formats to check. Fields are checked in the map's iteration order.
+     */
+    public FormatValidator(Map<String, Pattern> formats) {
+        Map<String, Pattern> ordered = new LinkedHashMap<>(formats);
+        this.fields = ordered.keySet().toArray(new String[0]);
+        this.regexes = new String[fields.length];
+        this.matchers = new ArrayList<>(fields.length);
+        int i = 0;
+        for (Pattern pattern : ordered.values()) {
+            regexes[i++] = pattern.toString();
+            Predicate<String> matcher = RosterRegexBuilder.matcherFor(pattern);
+            matchers.add(matcher::test);
+        }
+    }
+
+    /**
+     * Compiles a map of field names to regex strings, as returned by RosterFeature.getRequiredFormats.
+     *
+     * @param formats The formats to compile
+     * @return A validator for the compiled formats
+     */
+    public static FormatValidator compile(Map<String, String> formats) {
+        Map<String, Pattern> compiled = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : formats.entrySet()) {
+            compiled.put(entry.getKey(), Pattern.compile(entry.getValue()));
+        }
+        return new FormatValidator(compiled);
+    }
+
+    /**
+     * Sets the number of rows at which rosters are validated in parallel partitions.
+     * @param rows The smallest roster validated in parallel. 0 parallelizes every roster, Integer.MAX_VALUE none.
+     */
+    public static void setParallelThreshold(int rows) {
+        parallelThreshold = rows;
+    }
+
+    /**
+     * Gets the number of rows at which rosters are validated in parallel partitions.
+     * @return The threshold in rows, DEFAULT_PARALLEL_THRESHOLD by default
+     */
+    public static int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Checks every row of a roster, logging a bad data format warning for each set value that doesn't match its field's format.
+     * The roster must not be modified until this returns.
+     *
+     * @param roster The roster to check
+     * @param warningManager The warning manager to log warnings to
+     */
+    public void validate(Roster roster, WarningManager warningManager) {
+        validate(roster, warningManager, ImportProgress.untracked());
+    }
+
+    /**
+     * Checks every row of a roster as validate(Roster, WarningManager) does, stopping early if the import it's part of is cancelled.
+     *
+     * @param roster The roster to check
+     * @param warningManager The warning manager to log warnings to
+     * @param progress The import's progress, checked for cancellation at each row
+     * @throws java.util.concurrent.CancellationException if the import is cancelled, leaving the warnings logged incomplete
+     */
+    public void validate(Roster roster, WarningManager warningManager, ImportProgress progress) {
+        List<Camper> rows = roster.getCampers();
+        int[] columns = new int[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            columns[i] = roster.getColumnIndex(fields[i]);
+        }
+
+        // One memo per call, so results don't outlive the roster they were found in
+        List<Map<String, Boolean>> memos = new ArrayList<>(fields.length);
+        for (int i = 0; i < fields.length; i++) {
+            memos.add(new ConcurrentHashMap<>());
+        }
+
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        if (rows.size() < parallelThreshold || parallelism <= 1) {
+            for (RosterWarning warning : validateRows(rows, columns, memos, progress)) {
+                warningManager.logWarning(warning);
+            }
+            return;
+        }
+
+        // Check partitions in parallel, then log their warnings in row order
+        int partitionSize = Math.max(MIN_PARTITION_SIZE, rows.size() / (parallelism * PARTITIONS_PER_THREAD) + 1);
+        List<ForkJoinTask<List<RosterWarning>>> tasks = new ArrayList<>();
+        for (int start = 0; start < rows.size(); start += partitionSize) {
+            List<Camper> partition = rows.subList(start, Math.min(rows.size(), start + partitionSize));
+            tasks.add(ForkJoinPool.commonPool().submit(() -> validateRows(partition, columns, memos, progress)));
+        }
+        for (ForkJoinTask<List<RosterWarning>> task : tasks) {
+            for (RosterWarning warning : task.join()) {
+                warningManager.logWarning(warning);
+            }
+        }
+    }
+
+    /**
+     * Checks a run of rows, in order.
+     * @return Warnings for the values that didn't match, in the order they were found
+     */
+    private List<RosterWarning> validateRows(List<Camper> rows, int[] columns, List<Map<String, Boolean>> memos, ImportProgress progress) {
+        List<RosterWarning> warnings = new ArrayList<>();
+
+        for (Camper row : rows) {
+            progress.checkCancelled();
+            for (int i = 0; i < fields.length; i++) {
+                String value = row.getValue(columns[i]);
+                if (value != null && !memos.get(i).computeIfAbsent(value, matchers.get(i))) {
+                    warnings.add(RosterWarning.create_badDataFormat(row.view(), fields[i], regexes[i]));
+                }
+            }
+        }
+        return warnings;
+    }
+}
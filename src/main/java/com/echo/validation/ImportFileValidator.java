@@ -114,24 +114,43 @@ public class ImportFileValidator {
      * @throws RosterException if any validation step fails, with a specific error message
      */
     public static void validateCSVFile(File file, ParsedCSV parsedCSV, List<String> requiredHeaders) throws RosterException {
-        validateHasContent(file, parsedCSV);
-        validateHeaders(file, parsedCSV, requiredHeaders);
+        validateHasContent(file, parsedCSV.getHeaderNames(), parsedCSV.getRows().size());
+        validateHeaders(file, parsedCSV.getHeaderNames(), requiredHeaders);
         validateRowConsistency(file, parsedCSV);
     }
 
+    /**
+     * Validates a CSV file that was streamed straight into a roster, rather than parsed into a ParsedCSV.
+     * - Validates file content (headers and data rows)
+     * - Ensures all required headers are present (if specified)
+     *
+     * Row consistency is checked record by record while streaming (see ImportUtils.streamFile), so it isn't repeated here.
+     *
+     * @param file The file to validate
+     * @param headers The file's header names
+     * @param rowCount The number of data rows in the file
+     * @param requiredHeaders List of required headers (optional, can be null for no header requirements)
+     * @throws RosterException if any validation step fails, with a specific error message
+     */
+    public static void validateCSVFile(File file, List<String> headers, int rowCount, List<String> requiredHeaders) throws RosterException {
+        validateHasContent(file, headers, rowCount);
+        validateHeaders(file, headers, requiredHeaders);
+    }
+
     /**
      * Checks that the given file has content (headers and data rows).
      *
      * @param file The file to check
-     * @param parsedCSV The parsed CSV data
+     * @param headers The file's header names
+     * @param rowCount The number of data rows in the file
      * @throws RosterException if the file has no headers or no data rows
      */
-    private static void validateHasContent(File file, ParsedCSV parsedCSV) throws RosterException {
-        if (parsedCSV.getHeaderNames().isEmpty()) {
+    private static void validateHasContent(File file, List<String> headers, int rowCount) throws RosterException {
+        if (headers.isEmpty()) {
             throw RosterException.noData(file.getName(), false);
         }
 
-        if (parsedCSV.isEmpty()) {
+        if (rowCount == 0) {
             throw RosterException.noData(file.getName(), true);
         }
     }
@@ -145,11 +164,23 @@ public class ImportFileValidator {
      * @throws RosterException if the file is invalid or missing any required headers
      */
     public static void validateHeaders(File file, ParsedCSV parsedCSV, List<String> requiredHeaders) throws RosterException {
+        validateHeaders(file, parsedCSV.getHeaderNames(), requiredHeaders);
+    }
+
+    /**
+     * Validates that a CSV file's header row contains all the required headers.
+     *
+     * @param file The file to validate
+     * @param headers The file's header names
+     * @param requiredHeaders List of header names that must be present in the file
+     * @throws RosterException if the file is missing any required headers
+     */
+    public static void validateHeaders(File file, List<String> headers, List<String> requiredHeaders) throws RosterException {
         if (requiredHeaders == null || requiredHeaders.isEmpty()) {
             return;
         }
 
-        Set<String> fileHeaders = new HashSet<>(parsedCSV.getHeaderNames());
+        Set<String> fileHeaders = new HashSet<>(headers);
         List<String> missingHeaders = new ArrayList<>();
 
         for (String header : requiredHeaders) {
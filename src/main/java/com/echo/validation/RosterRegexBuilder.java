@@ -1,7 +1,9 @@
 package com.echo.validation;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 import com.echo.domain.RosterHeader;
@@ -40,6 +42,15 @@ public class RosterRegexBuilder {
     private static final String PREFERENCE_PERCENTILE = "^\\d+$";
     private static final String SCORE_BY_ROUND = "^\\d+,\\d+,\\d+$";
 
+    // Linear-time matchers for the formats whose regexes can backtrack badly, keyed by regex (see FormatMatchers)
+    private static final Map<String, Predicate<String>> LINEAR_MATCHERS = Map.of(
+        COMPLEX_SESSIONS_PROGRAMS_EXTRAS, FormatMatchers::matchesSessionsPrograms,
+        BETTER_GRADES, FormatMatchers::matchesGrade,
+        VALID_GRADES_LIST, FormatMatchers::matchesGrade,
+        PERIOD_REGEX, FormatMatchers::matchesPeriod,
+        INCLUSIVE_NAMES, FormatMatchers::matchesName
+    );
+
     /**
      * Builds a map of regex patterns for validating camper data.
      *
@@ -132,4 +143,32 @@ public class RosterRegexBuilder {
 
         return formatMap;
     }
+
+    /**
+     * Converts a map of compiled patterns to their regex strings, the form RosterFeature.getRequiredFormats returns.
+     * Features convert their formats once, rather than rebuilding the pattern map on every call.
+     *
+     * @param patternMap A map of field names to compiled patterns
+     * @return An unmodifiable map of field names to regex strings
+     */
+    public static Map<String, String> toFormatStrings(Map<String, Pattern> patternMap) {
+        Map<String, String> formats = new HashMap<>();
+        for (Map.Entry<String, Pattern> entry : patternMap.entrySet()) {
+            formats.put(entry.getKey(), entry.getValue().pattern());
+        }
+        return Collections.unmodifiableMap(formats);
+    }
+
+    /**
+     * Gets a matcher accepting exactly the values a pattern matches in full.
+     * Patterns built from this class's session/program, grade, period and name formats get a hand-written matcher with bounded
+     * cost per character, immune to the regex engine's backtracking. Other patterns are matched by the regex engine.
+     *
+     * @param pattern The pattern to match
+     * @return A predicate testing whether a value matches the whole pattern
+     */
+    public static Predicate<String> matcherFor(Pattern pattern) {
+        Predicate<String> linearMatcher = pattern.flags() == 0 ? LINEAR_MATCHERS.get(pattern.pattern()) : null;
+        return linearMatcher != null ? linearMatcher : pattern.asMatchPredicate();
+    }
 }
@@ -11,6 +11,7 @@
  *   <li>{@link com.echo.validation.ImportFileValidator} - Validates file properties and content</li>
  *   <li>{@link com.echo.validation.ExportFileValidator} - Validates export file settings</li>
  *   <li>{@link com.echo.validation.RosterRegexBuilder} - Builds regex patterns for data validation</li>
+ *   <li>{@link com.echo.validation.FormatValidator} - Checks roster fields against those patterns</li>
  *   <li>{@link com.echo.validation.ValidationResult} - Result of a validation operation</li>
  * </ul>
  * 
@@ -0,0 +1,92 @@
+package com.echo.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the CamperKey class.
+ */
+public class CamperKeyTest {
+
+    @Test
+    @DisplayName("Keys should normalize parts and match the legacy ID format")
+    public void testNormalization() {
+        CamperKey key = CamperKey.of("Mary Ann", "Smith", "7th");
+
+        assertEquals("mary_ann_smith_7th", key.toString());
+        assertEquals(key.toString().hashCode(), key.hashCode(), "Precomputed hash should match the ID string's hash");
+        assertEquals("null__", CamperKey.of(null, "", "").toString(), "Null parts should format as String.format did");
+        assertEquals("éclair_o'neil_8", CamperKey.of("Éclair", "O'Neil", "8").toString());
+
+        String normalized = "already_normal";
+        assertSame(normalized, CamperKey.normalize(normalized), "Normalized text shouldn't be copied");
+    }
+
+    @Test
+    @DisplayName("Keys built from parts should equal keys wrapping the same ID string")
+    public void testEqualsAcrossForms() {
+        CamperKey fromParts = CamperKey.of("John", "Doe", "7");
+        CamperKey fromId = CamperKey.ofId("john_doe_7");
+
+        assertEquals(fromParts, fromId);
+        assertEquals(fromId, fromParts);
+        assertEquals(fromParts.hashCode(), fromId.hashCode());
+
+        // Same joined string from different parts still matches, as ID strings did
+        assertEquals(CamperKey.of("john_doe", "", "7").toString(), "john_doe__7");
+        assertNotEquals(CamperKey.of("john", "doe", "8"), fromParts);
+        assertNotEquals(CamperKey.ofId("john_doe_8"), fromId);
+    }
+
+    @Test
+    @DisplayName("Camper and activity rows for the same camper should produce equal keys")
+    public void testRowKeysMatch() {
+        Map<String, String> camperRow = new HashMap<>();
+        camperRow.put(RosterHeader.FIRST_NAME.camperRosterName, "Jane");
+        camperRow.put(RosterHeader.LAST_NAME.camperRosterName, "Van Dyke");
+        camperRow.put(RosterHeader.GRADE.camperRosterName, "5");
+
+        Map<String, String> activityRow = new HashMap<>();
+        activityRow.put(RosterHeader.FIRST_NAME.activityRosterName, "JANE");
+        activityRow.put(RosterHeader.LAST_NAME.activityRosterName, "van dyke");
+        activityRow.put(RosterHeader.GRADE.activityRosterName, "5");
+
+        assertEquals(CamperKey.fromCamperData(camperRow), CamperKey.fromActivityData(activityRow));
+        assertEquals(Roster.generateCamperId(camperRow), ActivityRoster.generateCamperIdFromActivity(activityRow));
+    }
+
+    @Test
+    @DisplayName("Rosters should find and merge campers by key or ID string")
+    public void testRosterLookup() {
+        Roster roster = new Roster();
+        Map<String, String> data = new HashMap<>();
+        data.put(RosterHeader.FIRST_NAME.camperRosterName, "John");
+        data.put(RosterHeader.LAST_NAME.camperRosterName, "Doe");
+        data.put(RosterHeader.GRADE.camperRosterName, "7");
+        Camper camper = new Camper(data);
+        roster.addCamper(camper);
+
+        assertEquals("john_doe_7", camper.getId());
+        assertSame(camper, roster.getCamperByKey(CamperKey.of("John", "Doe", "7")));
+        assertSame(camper, roster.getCamperById("john_doe_7"));
+        assertNull(roster.getCamperById("jane_doe_7"));
+
+        Map<CamperKey, Map<String, String>> rows = new LinkedHashMap<>();
+        rows.put(CamperKey.of("John", "Doe", "7"), Map.of(RosterHeader.CABIN.standardName, "Cabin 3"));
+        rows.put(CamperKey.of("Jane", "Doe", "7"), Map.of(RosterHeader.CABIN.standardName, "Cabin 4"));
+        Map<CamperKey, Map<String, String>> unmatched = roster.mergeRowsByKey(rows);
+
+        assertEquals("Cabin 3", camper.getValue(RosterHeader.CABIN.standardName));
+        assertEquals(1, unmatched.size());
+        assertEquals("jane_doe_7", unmatched.keySet().iterator().next().toString());
+    }
+}
@@ -0,0 +1,191 @@
+package com.echo.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the ColumnStore class and the Camper/Roster views built on it.
+ */
+public class ColumnStoreTest {
+
+    private ColumnStore store;
+
+    @BeforeEach
+    public void setUp() {
+        store = new ColumnStore();
+    }
+
+    @Test
+    @DisplayName("Column indices should be stable and resolvable by name")
+    public void testColumnIndices() {
+        int first = store.ensureColumn("First Name");
+        int last = store.ensureColumn("Last Name");
+
+        assertEquals(0, first);
+        assertEquals(1, last);
+        assertEquals(first, store.ensureColumn("First Name"), "Re-adding a column should return its existing index");
+        assertEquals(last, store.columnOf("Last Name"));
+        assertEquals(-1, store.columnOf("Missing"), "Unknown columns should resolve to -1");
+        assertEquals("Last Name", store.getColumnName(last));
+    }
+
+    @Test
+    @DisplayName("Cells should distinguish unset values from values set to null")
+    public void testUnsetAndNullCells() {
+        int column = store.ensureColumn("Cabin");
+        int row = store.addRow();
+
+        assertFalse(store.isSet(row, column), "New cells should be unset");
+        assertNull(store.get(row, column));
+
+        store.set(row, column, null);
+        assertTrue(store.isSet(row, column), "Cells set to null should count as set");
+        assertNull(store.get(row, column));
+        assertTrue(store.toMap(row).containsKey("Cabin"), "Null cells should appear in row maps");
+    }
+
+    @Test
+    @DisplayName("Columns and rows should grow as cells are written")
+    public void testGrowth() {
+        for (int i = 0; i < 100; i++) {
+            store.ensureColumn("Column " + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            store.addRow();
+        }
+
+        store.set(999, 99, "last");
+        store.set(0, 0, "first");
+
+        assertEquals("last", store.get(999, 99));
+        assertEquals("first", store.get(0, 0));
+        assertNull(store.get(500, 99), "Unwritten rows should read as null");
+        assertEquals(1000, store.getRowCount());
+        assertEquals(100, store.getColumnCount());
+    }
+
+    @Test
+    @DisplayName("Adding a camper to a roster should move its data into the roster's store")
+    public void testCamperMovesIntoRoster() {
+        Map<String, String> data = new HashMap<>();
+        data.put("First Name", "John");
+        data.put("Medical Notes", null);
+        Camper camper = new Camper("john", data);
+
+        Roster roster = new Roster();
+        roster.addHeader("First Name");
+        roster.addCamper(camper);
+
+        assertSame(roster.getStore(), camper.getStore(), "Camper should be backed by the roster's store");
+        assertEquals("John", camper.getValue("First Name"));
+        assertEquals("John", camper.getValue(roster.getColumnIndex("First Name")));
+        assertEquals(data, camper.getData(), "Moving should preserve all set cells, including null ones");
+    }
+
+    @Test
+    @DisplayName("Index-based writes should be visible through name-based reads")
+    public void testIndexedAccess() {
+        Roster roster = new Roster();
+        roster.addHeader("Cabin");
+        Camper camper = new Camper("id", new HashMap<>());
+        roster.addCamper(camper);
+
+        int column = roster.getColumnIndex("Cabin");
+        camper.setValue(column, "Cabin 4");
+
+        assertEquals("Cabin 4", camper.getValue("Cabin"));
+        assertEquals("Cabin 4", roster.getValue("id", "Cabin"));
+    }
+
+    @Test
+    @DisplayName("Low-cardinality columns should be dictionary-encoded, with round columns sharing one dictionary")
+    public void testDictionaryEncodedColumns() {
+        int round1 = store.ensureColumn(RosterHeader.buildRoundString(1));
+        int round2 = store.ensureColumn(RosterHeader.buildRoundString(2));
+        int activity = store.ensureColumn(RosterHeader.ACTIVITY.standardName);
+        int firstName = store.ensureColumn("First Name");
+
+        assertSame(store.getDictionary(round1), store.getDictionary(round2));
+        assertSame(store.getDictionary(round1), store.getDictionary(activity));
+        assertNull(store.getDictionary(firstName), "Free-text columns should not be encoded");
+
+        int row = store.addRow();
+        store.set(row, round1, "Archery");
+        store.set(row, round2, "Archery");
+        store.set(row, activity, null);
+
+        assertEquals("Archery", store.get(row, round1));
+        assertEquals(store.getCode(row, round1), store.getCode(row, round2), "Equal values should share a code");
+        assertTrue(store.isSet(row, activity));
+        assertNull(store.get(row, activity));
+        assertEquals(ValueDictionary.UNSET_CODE, store.getCode(store.addRow(), round1));
+        assertEquals(ValueDictionary.NO_CODE, store.getCode(row, firstName));
+        assertEquals(ValueDictionary.NO_CODE, store.getDictionary(round1).codeOf("Canoeing"), "Lookups should not intern values");
+    }
+
+    @Test
+    @DisplayName("Stores created without encoding should keep every column as plain values")
+    public void testUnencodedStore() {
+        ColumnStore plainStore = new ColumnStore(false);
+        int column = plainStore.ensureColumn(RosterHeader.CABIN.standardName);
+        int row = plainStore.addRow();
+        plainStore.set(row, column, "Cabin 4");
+
+        assertNull(plainStore.getDictionary(column));
+        assertEquals("Cabin 4", plainStore.get(row, column));
+    }
+
+    @Test
+    @DisplayName("Numeric columns should hold numbers unformatted, formatting them only when read as text")
+    public void testNumericColumns() {
+        int rounds = store.ensureColumn(RosterHeader.ROUND_COUNT.standardName);
+        int score = store.ensureColumn(RosterHeader.PREFERENCE_SCORE.standardName);
+        assertEquals(ColumnType.INTEGER, store.getColumnType(rounds));
+        assertEquals(ColumnType.DECIMAL, store.getColumnType(score));
+
+        int row = store.addRow();
+        store.set(row, rounds, "3");
+        store.setDouble(row, score, 200.0 / 3);
+
+        assertEquals(3, store.getInt(row, rounds, -1), "Canonical text should be parsed once on write");
+        assertEquals("3", store.get(row, rounds));
+        assertEquals(200.0 / 3, store.getDouble(row, score, -1), "Decimals should be held at full precision");
+        assertEquals("67", store.get(row, score), "Decimals should be formatted as whole numbers");
+        assertEquals(Double.valueOf(200.0 / 3), store.getTyped(row, score));
+
+        int textRow = store.addRow();
+        store.set(textRow, rounds, "03");
+        store.set(textRow, score, null);
+        assertEquals("03", store.get(textRow, rounds), "Non-canonical text should be kept as text");
+        assertEquals(-1, store.getInt(textRow, rounds, -1));
+        assertTrue(store.isSet(textRow, score));
+        assertFalse(store.holdsNumber(textRow, score));
+        assertFalse(store.holdsNumber(store.addRow(), rounds));
+    }
+
+    @Test
+    @DisplayName("Numbers should keep their precision when a camper moves into a roster")
+    public void testNumericColumnsSurviveMove() {
+        Camper camper = new Camper("id", new HashMap<>());
+        camper.setDouble(RosterHeader.PREFERENCE_PERCENTILE.standardName, 62.5);
+        camper.setInt(RosterHeader.ROUND_COUNT.standardName, 2);
+
+        Roster roster = new Roster();
+        roster.addCamper(camper);
+
+        assertEquals(62.5, camper.getDouble(RosterHeader.PREFERENCE_PERCENTILE.standardName, -1));
+        assertEquals(2, camper.getInt(RosterHeader.ROUND_COUNT.standardName, -1));
+        assertEquals(ColumnType.INTEGER, roster.getColumnType(RosterHeader.ROUND_COUNT.standardName));
+        assertEquals("63", camper.getValue(RosterHeader.PREFERENCE_PERCENTILE.standardName));
+    }
+}
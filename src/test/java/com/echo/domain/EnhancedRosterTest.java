@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -243,4 +244,56 @@ public class EnhancedRosterTest {
         // Verify the modification didn't affect the internal state
         assertFalse(enabledFeatures2.containsKey("feature2"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("rollback should undo all changes made since the checkpoint")
+    public void testCheckpointRollback() {
+        roster.addHeader(RosterHeader.CABIN);
+        roster.addHeader(RosterHeader.ROUND_COUNT);
+        roster.addHeader("Notes");
+        Map<String, String> camperData = new HashMap<>();
+        camperData.put(RosterHeader.CABIN.standardName, "Cabin 1");
+        camperData.put(RosterHeader.ROUND_COUNT.standardName, "2");
+        camperData.put("Notes", "Original");
+        Camper camper = new Camper("john", camperData);
+        roster.addCamper(camper);
+        Map<String, String> originalData = camper.getData();
+
+        roster.checkpoint();
+        camper.setValue(RosterHeader.CABIN.standardName, "Cabin 9");
+        camper.setInt(RosterHeader.ROUND_COUNT.standardName, 3);
+        camper.setValue("Notes", null);
+        roster.addHeader("Feature Column", "Default");
+        roster.addCamper(new Camper("jane", new HashMap<>()));
+        roster.enableFeature("test-feature");
+        roster.rollback();
+
+        assertEquals(originalData, camper.getData(), "Changed cells should be restored");
+        assertEquals(2, camper.getInt(RosterHeader.ROUND_COUNT.standardName, -1));
+        assertEquals(1, roster.getCampers().size(), "Added campers should be removed");
+        assertNull(roster.getCamperById("jane"));
+        assertFalse(roster.hasHeader("Feature Column"), "Added headers should be removed");
+        assertEquals(-1, roster.getColumnIndex("Feature Column"));
+        assertFalse(roster.hasFeature("test-feature"), "Enabled features should be restored");
+        assertThrows(IllegalStateException.class, () -> roster.rollback(), "Rollback should end the checkpoint");
+
+        // The roster should remain fully usable after rolling back
+        roster.addCamper(new Camper("jane", new HashMap<>()));
+        assertNull(roster.getCamperById("jane").getValue(RosterHeader.CABIN.standardName), "Reused rows should start empty");
+    }
+
+    @Test
+    @DisplayName("commit should keep all changes made since the checkpoint")
+    public void testCheckpointCommit() {
+        roster.addHeader("Notes");
+        roster.addCamper(new Camper("john", new HashMap<>()));
+
+        roster.checkpoint();
+        roster.setValue("john", "Notes", "Updated");
+        roster.enableFeature("test-feature");
+        roster.commit();
+
+        assertEquals("Updated", roster.getValue("john", "Notes"));
+        assertTrue(roster.hasFeature("test-feature"));
+    }
+}
@@ -6,6 +6,7 @@ import java.util.Map;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -120,4 +121,19 @@ public class RosterHeaderTest {
         RosterHeader header = RosterHeader.determineHeaderType(headerName, rosterClass);
         assertEquals(null, header, "Should return null for unknown header");
     }
+
+    @Test
+    @DisplayName("determineHeaderType should resolve each naming scheme, preferring standard names")
+    public void testDetermineHeaderType() {
+        assertEquals(RosterHeader.GRADE, RosterHeader.determineHeaderType("Grade"));
+        assertEquals(RosterHeader.GRADE, RosterHeader.determineHeaderType("Camp Grade"));
+        assertEquals(RosterHeader.ROUND, RosterHeader.determineHeaderType("Period"));
+        assertNull(RosterHeader.determineHeaderType("Not A Header"));
+        assertNull(RosterHeader.determineHeaderType(null));
+
+        assertEquals(RosterHeader.GRADE, RosterHeader.determineHeaderType("Camp Grade", CamperRoster.class));
+        assertNull(RosterHeader.determineHeaderType("Camp Grade", ActivityRoster.class));
+        assertEquals(RosterHeader.GRADE, RosterHeader.determineHeaderType("Grade", ActivityRoster.class));
+        assertNull(RosterHeader.determineHeaderType("Camp Grade", EnhancedRoster.class));
+    }
 }
@@ -0,0 +1,201 @@
+package com.echo.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.echo.logging.RosterWarning;
+import com.echo.logging.RosterWarning.WarningType;
+import com.echo.logging.WarningManager;
+
+/**
+ * Tests for the RosterSnapshot class.
+ */
+public class RosterSnapshotTest {
+
+    private static final long FINGERPRINT = 42L;
+
+    @TempDir
+    Path tempDir;
+
+    private EnhancedRoster roster;
+    private String roundHeader;
+
+    @BeforeEach
+    public void setUp() {
+        roster = new EnhancedRoster();
+        roundHeader = RosterHeader.buildRoundString(1);
+        roster.addHeader(RosterHeader.FIRST_NAME.camperRosterName);
+        roster.addHeader(RosterHeader.LAST_NAME.camperRosterName);
+        roster.addHeader(RosterHeader.GRADE.camperRosterName);
+        roster.addHeader(RosterHeader.CABIN.standardName);
+        roster.addHeader(roundHeader);
+        roster.addHeader(RosterHeader.ROUND_COUNT.standardName);
+        roster.addHeader(RosterHeader.PREFERENCE_SCORE.standardName);
+        roster.addHeader("Custom Notes");
+
+        for (int i = 0; i < 50; i++) {
+            Map<String, String> data = new HashMap<>();
+            data.put(RosterHeader.FIRST_NAME.camperRosterName, "First" + i);
+            data.put(RosterHeader.LAST_NAME.camperRosterName, "Last é" + i);
+            data.put(RosterHeader.GRADE.camperRosterName, Integer.toString(i % 6 + 3));
+            data.put(RosterHeader.CABIN.standardName, "Cabin " + i % 5);
+            data.put(roundHeader, i % 3 == 0 ? null : "Archery");
+            Camper camper = new Camper(data);
+            roster.addCamper(camper);
+            camper.setInt(RosterHeader.ROUND_COUNT.standardName, i % 4);
+            if (i % 2 == 0) {
+                camper.setDouble(RosterHeader.PREFERENCE_SCORE.standardName, i / 3.0);
+            } else {
+                camper.setValue(RosterHeader.PREFERENCE_SCORE.standardName, "n/a");
+            }
+        }
+
+        roster.setHeaderVisibility("Custom Notes", false);
+        roster.enableFeature("activity");
+        RosterHeader.updateHeaderMapOrder(roster.getHeaderMap());
+    }
+
+    @Test
+    @DisplayName("Reading a snapshot should restore headers, features and cell data")
+    public void testRoundTrip() throws IOException {
+        Path file = tempDir.resolve("roster.snapshot");
+        RosterSnapshot.write(roster, new WarningManager(), file, FINGERPRINT);
+
+        EnhancedRoster restored = RosterSnapshot.read(file, FINGERPRINT, new WarningManager());
+        assertNotNull(restored);
+
+        assertEquals(roster.getHeaderMap(), restored.getHeaderMap());
+        assertEquals(roster.getVisibleHeaders(), restored.getVisibleHeaders());
+        assertEquals(roster.getEnabledFeatures(), restored.getEnabledFeatures());
+        assertEquals(roster.getCampers().size(), restored.getCampers().size());
+
+        for (int i = 0; i < roster.getCampers().size(); i++) {
+            Camper original = roster.getCampers().get(i);
+            Camper copy = restored.getCampers().get(i);
+            assertEquals(original.getKey(), copy.getKey());
+            assertEquals(original.getData(), copy.getData(), "Camper " + i + " should match");
+            assertEquals(original.getTypedValue(RosterHeader.PREFERENCE_SCORE.standardName),
+                         copy.getTypedValue(RosterHeader.PREFERENCE_SCORE.standardName));
+            assertEquals(original.getInt(RosterHeader.ROUND_COUNT.standardName, -1),
+                         copy.getInt(RosterHeader.ROUND_COUNT.standardName, -1));
+        }
+        assertSame(restored.getCampers().get(3), restored.getCamperById(roster.getCampers().get(3).getId()));
+    }
+
+    @Test
+    @DisplayName("Reading a snapshot should restore the warnings saved with it, only once the roster is restored")
+    public void testWarningsRoundTrip() throws IOException {
+        Path file = tempDir.resolve("roster.snapshot");
+        WarningManager warnings = new WarningManager();
+        warnings.logWarning(RosterWarning.create_featureRolledBack("Preferences"));
+        warnings.logWarning(RosterWarning.create_duplicateCamperId("camper_7", 2));
+        RosterSnapshot.write(roster, warnings, file, FINGERPRINT);
+
+        WarningManager rejected = new WarningManager();
+        assertNull(RosterSnapshot.read(file, FINGERPRINT + 1, rejected));
+        assertFalse(rejected.hasWarnings(), "A rejected snapshot shouldn't log its warnings");
+
+        WarningManager restored = new WarningManager();
+        assertNotNull(RosterSnapshot.read(file, FINGERPRINT, restored));
+        assertEquals(warnings.getWarningCounts(), restored.getWarningCounts());
+        for (WarningType type : warnings.getWarningCounts().keySet()) {
+            assertEquals(Arrays.toString(warnings.getWarningLog().get(type).get(0).getDisplayData()),
+                         Arrays.toString(restored.getWarningLog().get(type).get(0).getDisplayData()));
+        }
+    }
+
+    @Test
+    @DisplayName("Columns should only be decoded when first accessed")
+    public void testColumnsLoadLazily() throws IOException {
+        Path file = tempDir.resolve("roster.snapshot");
+        RosterSnapshot.write(roster, new WarningManager(), file, FINGERPRINT);
+        EnhancedRoster restored = RosterSnapshot.read(file, FINGERPRINT, new WarningManager());
+
+        ColumnStore store = restored.getStore();
+        int cabinColumn = restored.getColumnIndex(RosterHeader.CABIN.standardName);
+        int notesColumn = restored.getColumnIndex("Custom Notes");
+        assertTrue(store.isDeferred(cabinColumn));
+        assertTrue(store.isDeferred(notesColumn));
+
+        assertEquals("Cabin 2", restored.getCampers().get(2).getValue(RosterHeader.CABIN.standardName));
+        assertFalse(store.isDeferred(cabinColumn), "Reading a cell should load its column");
+        assertTrue(store.isDeferred(notesColumn), "Other columns should stay deferred");
+
+        // Dictionary values are interned up front, so code tables built before a column loads stay valid
+        ValueDictionary activities = restored.getDictionary(roundHeader);
+        assertTrue(activities.codeOf("Archery") > ValueDictionary.UNSET_CODE);
+        assertTrue(store.isDeferred(restored.getColumnIndex(roundHeader)));
+    }
+
+    @Test
+    @DisplayName("Deferred columns loaded during a checkpoint should survive a rollback")
+    public void testLazyLoadDuringCheckpoint() throws IOException {
+        Path file = tempDir.resolve("roster.snapshot");
+        RosterSnapshot.write(roster, new WarningManager(), file, FINGERPRINT);
+        EnhancedRoster restored = RosterSnapshot.read(file, FINGERPRINT, new WarningManager());
+
+        restored.checkpoint();
+        restored.getCampers().get(1).setValue(RosterHeader.CABIN.standardName, "Cabin 9");
+        restored.rollback();
+
+        assertEquals("Cabin 1", restored.getCampers().get(1).getValue(RosterHeader.CABIN.standardName));
+        assertEquals("Cabin 0", restored.getCampers().get(0).getValue(RosterHeader.CABIN.standardName));
+    }
+
+    @Test
+    @DisplayName("Stale, corrupt or missing snapshots should be rejected")
+    public void testRejectedSnapshots() throws IOException {
+        Path file = tempDir.resolve("roster.snapshot");
+        assertNull(RosterSnapshot.read(file, FINGERPRINT, new WarningManager()), "Missing snapshot should be rejected");
+
+        RosterSnapshot.write(roster, new WarningManager(), file, FINGERPRINT);
+        assertNull(RosterSnapshot.read(file, FINGERPRINT + 1, new WarningManager()), "Snapshot of other sources should be rejected");
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x5A;
+        Files.write(file, bytes);
+        assertNull(RosterSnapshot.read(file, FINGERPRINT, new WarningManager()), "Snapshot with corrupt metadata should be rejected");
+    }
+
+    @Test
+    @DisplayName("A corrupt column block should reject the whole snapshot, so the roster is re-imported")
+    public void testCorruptColumn() throws IOException {
+        Path file = tempDir.resolve("roster.snapshot");
+        RosterSnapshot.write(roster, new WarningManager(), file, FINGERPRINT);
+
+        // Corrupt one of the first name column's values, which wouldn't be decoded until the column loads
+        byte[] bytes = Files.readAllBytes(file);
+        int index = indexOf(bytes, "First17".getBytes(StandardCharsets.UTF_8));
+        assertTrue(index > 0);
+        bytes[index + 5] ^= 0x5A;
+        Files.write(file, bytes);
+
+        assertNull(RosterSnapshot.read(file, FINGERPRINT, new WarningManager()), "Snapshot with a corrupt column block should be rejected");
+    }
+
+    private static int indexOf(byte[] bytes, byte[] target) {
+        for (int i = 0; i + target.length <= bytes.length; i++) {
+            if (Arrays.equals(bytes, i, i + target.length, target, 0, target.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
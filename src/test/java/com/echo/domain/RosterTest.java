@@ -2,6 +2,7 @@ package com.echo.domain;
 
 import java.io.File;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -9,6 +10,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -87,4 +89,63 @@ public class RosterTest {
         // Check that data was loaded
         assertFalse(roster.getCampers().isEmpty(), "Should have loaded campers");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("getCamperById should keep the first camper when IDs collide, and report the duplicate")
+    public void testDuplicateCamperIds() {
+        Camper first = new Camper("john_doe_7th", new HashMap<>());
+        Camper second = new Camper("john_doe_7th", new HashMap<>());
+        Camper third = new Camper("john_doe_7th", new HashMap<>());
+        roster.addCamper(first);
+        roster.addCamper(second);
+        roster.addCamper(third);
+        roster.addCamper(new Camper("jane_doe_7th", new HashMap<>()));
+
+        assertEquals(first, roster.getCamperById("john_doe_7th"), "Lookup should return the first camper added");
+        assertEquals(1, roster.getDuplicateCamperIds().size(), "Only the colliding ID should be reported");
+        assertEquals(3, roster.getDuplicateCamperIds().get("john_doe_7th"), "Should count every camper sharing the ID");
+    }
+
+    @Test
+    @DisplayName("mergeRowsById should apply matched rows and return unmatched ones")
+    public void testMergeRowsById() {
+        roster.addHeader("Round 1");
+        roster.addCamper(new Camper("john_doe_7th", new HashMap<>()));
+
+        Map<String, Map<String, String>> rows = new HashMap<>();
+        rows.put("john_doe_7th", Map.of("Round 1", "Archery"));
+        rows.put("orphan_camper_8th", Map.of("Round 1", "Sailing"));
+
+        Map<String, Map<String, String>> unmatched = roster.mergeRowsById(rows);
+
+        assertEquals("Archery", roster.getValue("john_doe_7th", "Round 1"), "Matched row should be merged");
+        assertEquals(1, unmatched.size(), "Unmatched row should be returned");
+        assertTrue(unmatched.containsKey("orphan_camper_8th"));
+        assertEquals(1, roster.getCampers().size(), "Unmatched rows should not be added as campers");
+    }
+
+    @Test
+    @DisplayName("Ordered header views should be cached, and rebuilt after header or visibility changes")
+    public void testCachedHeaderViews() {
+        roster.addHeader("Custom Header");
+        roster.addHeader(RosterHeader.LAST_NAME);
+        roster.addHeader(RosterHeader.FIRST_NAME);
+
+        List<String> ordered = roster.getOrderedHeaders();
+        assertEquals(List.of(RosterHeader.FIRST_NAME.standardName, RosterHeader.LAST_NAME.standardName, "Custom Header"), ordered);
+        assertSame(ordered, roster.getOrderedHeaders(), "Views should be reused between changes");
+
+        roster.setAllHeadersVisibility(true);
+        roster.setHeaderVisibility(RosterHeader.LAST_NAME.standardName, false);
+        assertEquals(List.of(RosterHeader.FIRST_NAME.standardName, "Custom Header"), roster.getOrderedVisibleHeaders());
+        assertEquals(List.of("Custom Header", RosterHeader.FIRST_NAME.standardName), roster.getVisibleHeaders());
+
+        roster.addHeader(RosterHeader.GRADE); // Hidden by default
+        assertEquals(4, roster.getOrderedHeaders().size(), "Adding a header should invalidate the views");
+        assertEquals(RosterHeader.GRADE.standardName, roster.getOrderedHeaders().get(2));
+        assertEquals(2, roster.getOrderedVisibleHeaders().size());
+
+        RosterHeader.updateHeaderMapOrder(roster.getHeaderMap());
+        assertEquals(roster.getOrderedHeaders(), roster.getAllHeaders(), "Reordering through the header map should be picked up");
+    }
+}
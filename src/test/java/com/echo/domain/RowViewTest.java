@@ -0,0 +1,230 @@
+package com.echo.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.echo.automation.TestPreset;
+import com.echo.feature.CamperPartitions;
+import com.echo.feature.PreferenceFeature;
+import com.echo.logging.WarningManager;
+import com.echo.service.ExportService;
+import com.echo.service.ImportService;
+import com.echo.service.RosterService;
+
+/**
+ * Tests for the RowView class.
+ */
+public class RowViewTest {
+
+    private static Map<String, String> buildData(int index) {
+        Map<String, String> data = new HashMap<>();
+        data.put(RosterHeader.FIRST_NAME.camperRosterName, "First" + index);
+        data.put(RosterHeader.LAST_NAME.camperRosterName, "Last" + index);
+        data.put(RosterHeader.GRADE.camperRosterName, Integer.toString(index % 6 + 3));
+        data.put(RosterHeader.CABIN.standardName, "Cabin " + index % 20);
+        data.put(RosterHeader.MEDICAL_NOTES.standardName, null);
+        return data;
+    }
+
+    @Test
+    @DisplayName("View should match the camper's data, including explicitly null fields")
+    public void testViewMatchesData() {
+        Camper camper = new Camper("id", buildData(1));
+
+        assertEquals(camper.getData(), camper.view());
+        assertEquals(camper.getData().hashCode(), camper.view().hashCode());
+        assertTrue(camper.view().containsKey(RosterHeader.MEDICAL_NOTES.standardName));
+        assertNull(camper.view().get(RosterHeader.MEDICAL_NOTES.standardName));
+        assertEquals("fallback", camper.view().getOrDefault("Missing Field", "fallback"));
+        assertFalse(camper.view().containsKey("Missing Field"));
+    }
+
+    @Test
+    @DisplayName("View should be cached and stay live across writes and moves into a roster")
+    public void testViewIsLive() {
+        Camper camper = new Camper("id", buildData(1));
+        RowView view = camper.view();
+
+        Roster roster = new Roster();
+        roster.addCamper(camper);
+        camper.setValue(RosterHeader.CABIN.standardName, "Cabin 99");
+
+        assertSame(view, camper.view(), "Each camper should reuse a single view");
+        assertEquals("Cabin 99", view.get(RosterHeader.CABIN.standardName));
+        assertEquals(camper.getData(), view);
+    }
+
+    @Test
+    @DisplayName("View should be read-only, while snapshots are independent copies")
+    public void testSnapshot() {
+        Camper camper = new Camper("id", buildData(1));
+
+        assertThrows(UnsupportedOperationException.class, () -> camper.view().put("Cabin", "Cabin 2"));
+
+        Map<String, String> snapshot = camper.view().snapshot();
+        snapshot.put(RosterHeader.CABIN.standardName, "Cabin 2");
+        assertEquals("Cabin 1", camper.getValue(RosterHeader.CABIN.standardName), "Modifying a snapshot shouldn't affect the camper");
+    }
+
+    @Test
+    @DisplayName("Reading rows through views should not allocate per row, unlike getData copies")
+    public void testViewAllocation() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                   "Thread allocation counters unavailable");
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled(),
+                   "Thread allocation counters unavailable");
+
+        final int camperCount = 10000;
+        Roster roster = new Roster();
+        for (int i = 0; i < camperCount; i++) {
+            roster.addCamper(new Camper("camper" + i, buildData(i)));
+        }
+        readGrades(roster, true); // Warm up, creating each camper's cached view
+
+        long threadId = Thread.currentThread().threadId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        int viewChecksum = readGrades(roster, true);
+        long viewBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        before = threadBean.getThreadAllocatedBytes(threadId);
+        int copyChecksum = readGrades(roster, false);
+        long copyBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(copyChecksum, viewChecksum);
+        assertTrue(viewBytes < camperCount * 8L, "View pass allocated " + viewBytes + " bytes for " + camperCount + " rows");
+        assertTrue(copyBytes > viewBytes, "Copy pass should allocate more than view pass");
+    }
+
+    @Test
+    @DisplayName("Validating rosters and applying a feature shouldn't copy rows, so extra columns shouldn't add allocation")
+    public void testPipelineAllocation() throws Exception {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                   "Thread allocation counters unavailable");
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled(),
+                   "Thread allocation counters unavailable");
+
+        TestPreset preset = TestPreset.BASIC_PREFERENCES;
+        ImportService importService = new ImportService();
+        PreferenceFeature feature = new PreferenceFeature();
+        CamperRoster camperRoster = importService.importCamperRoster(preset.getCamperFile());
+        ActivityRoster activityRoster = importService.importActivityRoster(preset.getActivityFile());
+        EnhancedRoster enhancedRoster = new RosterService(importService, new ExportService())
+            .createEnhancedRoster(preset.getCamperFile(), preset.getActivityFile(), List.of(feature.getFeatureId()));
+        assertNotNull(enhancedRoster);
+
+        // The same rosters with and without columns no stage reads. Copying each row a stage visits into a map
+        // would cost more with every extra column, while reading through views costs the same.
+        final int copies = 8;
+        final int extraColumns = 40;
+        List<Roster> plain = List.of(repeat(camperRoster, new CamperRoster(), copies, 0), repeat(activityRoster, new ActivityRoster(), copies, 0),
+                                     repeat(enhancedRoster, new EnhancedRoster(), copies, 0));
+        List<Roster> padded = List.of(repeat(camperRoster, new CamperRoster(), copies, extraColumns),
+                                      repeat(activityRoster, new ActivityRoster(), copies, extraColumns),
+                                      repeat(enhancedRoster, new EnhancedRoster(), copies, extraColumns));
+
+        CamperPartitions.setParallelism(1); // Keep the feature's work on this thread, where it's measured
+        try {
+            runPipeline(plain, feature); // Warm up, building views, matchers and dictionaries
+            runPipeline(padded, feature);
+
+            long threadId = Thread.currentThread().threadId();
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            runPipeline(plain, feature);
+            long plainBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+            before = threadBean.getThreadAllocatedBytes(threadId);
+            runPipeline(padded, feature);
+            long paddedBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+            // What the extra columns cost a pipeline that copied each row once per stage, as it did before views
+            long plainCopyBytes = copyRows(plain, threadBean, threadId);
+            long paddedCopyBytes = copyRows(padded, threadBean, threadId);
+
+            long extraPipelineBytes = paddedBytes - plainBytes;
+            long extraCopyBytes = paddedCopyBytes - plainCopyBytes;
+            assertTrue(extraCopyBytes > 0);
+            assertTrue(extraPipelineBytes < extraCopyBytes / 4, "Extra columns added " + extraPipelineBytes
+                       + " bytes to validation and the feature pass, and " + extraCopyBytes + " bytes to copying each row once");
+        } finally {
+            CamperPartitions.setParallelism(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    /**
+     * Fills an empty roster with copies of a roster's campers, plus extra columns holding a value in every row.
+     * Each copy's last names get a distinct suffix, so camper IDs don't collide.
+     */
+    private static <R extends Roster> R repeat(Roster source, R target, int copies, int extraColumns) {
+        for (String header : source.getHeaderMap().keySet()) {
+            target.addHeader(header);
+        }
+        for (int copy = 0; copy < copies; copy++) {
+            String suffix = copy == 0 ? "" : Character.toString('a' + copy);
+            for (Camper camper : source.getCampers()) {
+                Map<String, String> data = camper.getData();
+                for (String header : List.of(RosterHeader.LAST_NAME.camperRosterName, RosterHeader.LAST_NAME.activityRosterName,
+                                             RosterHeader.LAST_NAME.standardName)) {
+                    data.computeIfPresent(header, (ignored, lastName) -> lastName + suffix);
+                }
+                for (int column = 0; column < extraColumns; column++) {
+                    data.put("Extra " + column, "Value " + column);
+                }
+                target.addCamper(new Camper(data));
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Validates both source rosters and applies a feature to the enhanced roster, the stages that read every row.
+     */
+    private static void runPipeline(List<Roster> rosters, PreferenceFeature feature) throws Exception {
+        ((CamperRoster) rosters.get(0)).validate(new WarningManager());
+        ((ActivityRoster) rosters.get(1)).validate(new WarningManager());
+        feature.applyFeature((EnhancedRoster) rosters.get(2), new WarningManager());
+    }
+
+    /**
+     * Measures the bytes allocated copying every row of the rosters into a map once.
+     */
+    private static long copyRows(List<Roster> rosters, com.sun.management.ThreadMXBean threadBean, long threadId) {
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        int fields = 0;
+        for (Roster roster : rosters) {
+            for (Camper camper : roster.getCampers()) {
+                fields += camper.getData().size();
+            }
+        }
+        long bytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+        assertTrue(fields > 0);
+        return bytes;
+    }
+
+    /**
+     * Reads every camper's grade and cabin through either its view or a copy of its data.
+     */
+    private static int readGrades(Roster roster, boolean useView) {
+        int checksum = 0;
+        for (Camper camper : roster.getCampers()) {
+            Map<String, String> row = useView ? camper.view() : camper.getData();
+            checksum += row.get(RosterHeader.GRADE.camperRosterName).length();
+            checksum += row.getOrDefault(RosterHeader.CABIN.standardName, "").length();
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,134 @@
+package com.echo.feature;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.echo.automation.TestPreset;
+import com.echo.domain.Camper;
+import com.echo.domain.EnhancedRoster;
+import com.echo.domain.RosterHeader;
+import com.echo.feature.RosterFeature.CamperWork;
+import com.echo.logging.RosterWarning;
+import com.echo.logging.WarningManager;
+import com.echo.logging.WarningSink;
+import com.echo.service.ExportService;
+import com.echo.service.ImportService;
+import com.echo.service.RosterService;
+
+/**
+ * Tests for CamperPartitions, and for the built-in features giving the same results whether their campers are processed
+ * serially or in parallel ranges.
+ */
+public class CamperPartitionsTest {
+
+    @AfterEach
+    public void tearDown() {
+        CamperPartitions.setParallelism(Runtime.getRuntime().availableProcessors());
+        CamperPartitions.setMinPartitionSize(CamperPartitions.DEFAULT_MIN_PARTITION_SIZE);
+    }
+
+    private static List<Camper> createCampers(int count) {
+        List<Camper> campers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Map<String, String> data = new HashMap<>();
+            data.put(RosterHeader.FIRST_NAME.standardName, "Camper" + i);
+            campers.add(new Camper("id-" + i, data));
+        }
+        return campers;
+    }
+
+    @Test
+    @DisplayName("Campers are split into contiguous ranges of near-equal size, no smaller than the minimum")
+    public void testPartition() {
+        List<Camper> campers = createCampers(10);
+
+        List<List<Camper>> ranges = CamperPartitions.partition(campers, 3, 1);
+        assertEquals(3, ranges.size());
+        assertEquals(List.of(3, 3, 4), ranges.stream().map(List::size).toList());
+        assertEquals(campers, ranges.stream().flatMap(List::stream).toList());
+
+        assertEquals(2, CamperPartitions.partition(campers, 8, 4).size(), "Ranges shouldn't fall below the minimum size");
+        assertEquals(1, CamperPartitions.partition(campers, 8, 20).size(), "Lists smaller than the minimum aren't split");
+        assertEquals(1, CamperPartitions.partition(createCampers(0), 8, 1).size());
+    }
+
+    @Test
+    @DisplayName("Accumulators and warnings are merged in camper order")
+    public void testMergeOrder() {
+        CamperPartitions.setParallelism(4);
+        CamperPartitions.setMinPartitionSize(1);
+        List<Camper> campers = createCampers(50);
+        List<String> merged = new ArrayList<>();
+
+        WarningManager warningManager = new WarningManager();
+        CamperPartitions.apply(campers, new CamperWork<List<String>>() {
+            @Override
+            public List<String> newAccumulator() {
+                return new ArrayList<>();
+            }
+
+            @Override
+            public void processCamper(Camper camper, List<String> names, WarningSink warnings) {
+                names.add(camper.getValue(RosterHeader.FIRST_NAME.standardName));
+                warnings.logWarning(RosterWarning.create_camperMissingField(camper.view(), "Test", "Test"));
+            }
+
+            @Override
+            public void merge(List<String> names) {
+                merged.addAll(names);
+            }
+        }, warningManager);
+
+        List<String> expected = campers.stream().map(camper -> camper.getValue(RosterHeader.FIRST_NAME.standardName)).toList();
+        assertEquals(expected, merged);
+        List<String> expectedWarnings = campers.stream()
+            .map(camper -> Arrays.toString(RosterWarning.create_camperMissingField(camper.view(), "Test", "Test").getDisplayData())).toList();
+        List<String> warned = warningManager.getWarningLog().values().iterator().next().stream()
+            .map(warning -> Arrays.toString(warning.getDisplayData())).toList();
+        assertEquals(expectedWarnings, warned);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = TestPreset.class, names = {"MINI_NORMAL", "NEW_BASIC_TEST", "BASIC_PREFERENCES", "BASIC_TRIPLE_FEATURE"})
+    @DisplayName("Features give the same roster and warnings in parallel ranges as serially")
+    public void testParallelMatchesSerial(TestPreset preset) {
+        CamperPartitions.setParallelism(1);
+        RosterService serialService = new RosterService(new ImportService(), new ExportService());
+        List<String> featureIds = serialService.getAvailableFeatures().stream().map(RosterFeature::getFeatureId).toList();
+        EnhancedRoster serial = serialService.createEnhancedRoster(preset.getCamperFile(), preset.getActivityFile(), featureIds);
+        List<String> serialWarnings = describeWarnings(serialService.getWarningManager());
+
+        CamperPartitions.setParallelism(4);
+        CamperPartitions.setMinPartitionSize(1);
+        RosterService parallelService = new RosterService(new ImportService(), new ExportService());
+        EnhancedRoster parallel = parallelService.createEnhancedRoster(preset.getCamperFile(), preset.getActivityFile(), featureIds);
+        List<String> parallelWarnings = describeWarnings(parallelService.getWarningManager());
+
+        assertNotNull(serial);
+        assertNotNull(parallel);
+        assertEquals(serial.getHeaderMap(), parallel.getHeaderMap());
+        assertEquals(serial.getCampers().size(), parallel.getCampers().size());
+        for (int i = 0; i < serial.getCampers().size(); i++) {
+            assertEquals(serial.getCampers().get(i).getData(), parallel.getCampers().get(i).getData());
+        }
+        assertEquals(serialWarnings, parallelWarnings);
+    }
+
+    private static List<String> describeWarnings(WarningManager warningManager) {
+        List<String> warnings = new ArrayList<>();
+        warningManager.getWarningLog().forEach((type, list) ->
+            list.forEach(warning -> warnings.add(type + Arrays.toString(warning.getDisplayData()))));
+        return warnings;
+    }
+}
@@ -1,6 +1,8 @@
 package com.echo.feature;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -208,4 +210,77 @@ public class PreferencePercentileTest {
         assertEquals("100", camper1.getValue(RosterHeader.PREFERENCE_PERCENTILE.standardName));
         assertNull(camper2.getValue(RosterHeader.PREFERENCE_PERCENTILE.standardName));
     }
+
+    @Test
+    @DisplayName("Rescoring some campers updates every percentile the same as recalculating them all")
+    public void testIncrementalPercentileUpdate() {
+        String preferences = "Archery, Sports, Fishing, Water Polo, Skiing";
+        Camper perfect = createTestCamper("Perfect", "Score", preferences, "3", "Archery", "Sports", "Fishing");
+        Camper good = createTestCamper("Good", "Score", preferences, "3", "Archery", "Water Polo", "Skiing");
+        Camper average = createTestCamper("Average", "Score", preferences, "3", "Water Polo", "Skiing", "Biking");
+        Camper poor = createTestCamper("Poor", "Score", preferences, "3", "Biking", "Sailing", "Fishing");
+        for (Camper camper : List.of(perfect, good, average, poor)) {
+            roster.addCamper(camper);
+        }
+        feature.applyFeature(roster, warningManager);
+
+        // Poor camper is reassigned their first choices, moving from the bottom to tie for the top
+        poor.setValue(RosterHeader.ROUND_1.standardName, "Archery");
+        poor.setValue(RosterHeader.ROUND_2.standardName, "Sports");
+        feature.updateChangedCampers(roster, List.of(poor), warningManager);
+
+        assertEquals("100", poor.getValue(RosterHeader.PREFERENCE_PERCENTILE.standardName));
+        assertEquals("100", perfect.getValue(RosterHeader.PREFERENCE_PERCENTILE.standardName));
+        assertEquals("50", good.getValue(RosterHeader.PREFERENCE_PERCENTILE.standardName));
+        assertEquals("25", average.getValue(RosterHeader.PREFERENCE_PERCENTILE.standardName));
+
+        // Two campers swap places in the middle of the ranking at once
+        good.setValue(RosterHeader.ROUND_3.standardName, "Biking");
+        average.setValue(RosterHeader.ROUND_3.standardName, "Archery");
+        feature.updateChangedCampers(roster, List.of(good, average), warningManager);
+
+        List<String> incremental = percentiles();
+        new PreferenceFeature().applyFeature(roster, new WarningManager());
+        assertEquals(percentiles(), incremental, "Incremental update should match a full recalculation");
+    }
+
+    @Test
+    @DisplayName("An update rolled back with the roster leaves later updates ranking the restored scores")
+    public void testRolledBackPercentileUpdate() {
+        String preferences = "Archery, Sports, Fishing, Water Polo, Skiing";
+        Camper perfect = createTestCamper("Perfect", "Score", preferences, "3", "Archery", "Sports", "Fishing");
+        Camper good = createTestCamper("Good", "Score", preferences, "3", "Archery", "Water Polo", "Skiing");
+        Camper average = createTestCamper("Average", "Score", preferences, "3", "Water Polo", "Skiing", "Biking");
+        Camper poor = createTestCamper("Poor", "Score", preferences, "3", "Biking", "Sailing", "Fishing");
+        for (Camper camper : List.of(perfect, good, average, poor)) {
+            roster.addCamper(camper);
+        }
+        feature.applyFeature(roster, warningManager);
+        List<String> applied = percentiles();
+
+        // As in an activity re-import that fails after the feature caught up: the roster's changes are undone
+        roster.checkpoint();
+        poor.setValue(RosterHeader.ROUND_1.standardName, "Archery");
+        poor.setValue(RosterHeader.ROUND_2.standardName, "Sports");
+        feature.updateChangedCampers(roster, List.of(poor), warningManager);
+        assertEquals("100", poor.getValue(RosterHeader.PREFERENCE_PERCENTILE.standardName));
+        roster.rollback();
+        assertEquals(applied, percentiles());
+
+        // The next update must rank against the restored scores, not the rolled-back ones
+        good.setValue(RosterHeader.ROUND_3.standardName, "Biking");
+        feature.updateChangedCampers(roster, List.of(good), warningManager);
+
+        List<String> incremental = percentiles();
+        new PreferenceFeature().applyFeature(roster, new WarningManager());
+        assertEquals(percentiles(), incremental, "Update after a rollback should match a full recalculation");
+    }
+
+    private List<String> percentiles() {
+        List<String> percentiles = new ArrayList<>();
+        for (Camper camper : roster.getCampers()) {
+            percentiles.add(camper.getValue(RosterHeader.PREFERENCE_PERCENTILE.standardName));
+        }
+        return percentiles;
+    }
 }
@@ -0,0 +1,95 @@
+package com.echo.feature;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the ScoreRanks class.
+ */
+public class ScoreRanksTest {
+
+    /**
+     * Ranks a score by comparing it with every other, as percentiles were calculated before ScoreRanks.
+     */
+    private static int naiveRank(double[] scores, double score) {
+        int rank = 0;
+        for (double other : scores) {
+            if (!Double.isNaN(other) && other <= score) {
+                rank++;
+            }
+        }
+        return rank;
+    }
+
+    @Test
+    @DisplayName("Ranks count scores less than or equal, ties included")
+    void rankTest() {
+        ScoreRanks ranks = new ScoreRanks(new double[]{50, Double.NaN, 100, 50, 25});
+
+        assertEquals(4, ranks.size());
+        assertEquals(0, ranks.rank(10));
+        assertEquals(1, ranks.rank(25));
+        assertEquals(3, ranks.rank(50));
+        assertEquals(3, ranks.rank(75));
+        assertEquals(4, ranks.rank(100));
+        assertEquals(75.0, ranks.percentile(50));
+        assertTrue(Double.isNaN(ranks.percentile(Double.NaN)));
+    }
+
+    @Test
+    @DisplayName("Scores can be added, removed and replaced, with NaN ignored")
+    void updateTest() {
+        ScoreRanks ranks = new ScoreRanks(new double[0]);
+        ranks.add(30);
+        ranks.add(10);
+        ranks.add(Double.NaN);
+        ranks.add(20);
+        assertEquals(3, ranks.size());
+        assertEquals(2, ranks.rank(20));
+
+        assertTrue(ranks.replace(10, 40));
+        assertEquals(1, ranks.rank(20));
+        assertEquals(3, ranks.rank(40));
+
+        assertFalse(ranks.remove(15), "Scores that weren't ranked can't be removed");
+        assertFalse(ranks.replace(15, 50));
+        assertEquals(3, ranks.size());
+
+        assertTrue(ranks.replace(20, Double.NaN));
+        assertEquals(2, ranks.size());
+        assertTrue(ranks.replace(Double.NaN, 5));
+        assertEquals(3, ranks.size());
+        assertEquals(1, ranks.rank(5));
+    }
+
+    @Test
+    @DisplayName("Ranks match pairwise comparison as scores are replaced")
+    void matchesNaiveRankTest() {
+        Random random = new Random(42);
+        double[] scores = new double[500];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = random.nextInt(10) == 0 ? Double.NaN : random.nextInt(40) * 2.5;
+        }
+        ScoreRanks ranks = new ScoreRanks(scores);
+
+        for (int update = 0; update < 200; update++) {
+            int camper = random.nextInt(scores.length);
+            double newScore = random.nextInt(10) == 0 ? Double.NaN : random.nextInt(40) * 2.5;
+            assertTrue(ranks.replace(scores[camper], newScore));
+            scores[camper] = newScore;
+
+            double probe = random.nextInt(42) * 2.5 - 2.5;
+            assertEquals(naiveRank(scores, probe), ranks.rank(probe));
+        }
+        for (double score : scores) {
+            if (!Double.isNaN(score)) {
+                assertEquals(naiveRank(scores, score), ranks.rank(score));
+            }
+        }
+    }
+}
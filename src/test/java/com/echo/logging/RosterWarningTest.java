@@ -0,0 +1,116 @@
+package com.echo.logging;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.echo.domain.Camper;
+import com.echo.domain.RosterHeader;
+import com.echo.logging.RosterWarning.WarningType;
+
+/**
+ * Tests for the RosterWarning class.
+ */
+public class RosterWarningTest {
+
+    private static Camper camper(String grade) {
+        Map<String, String> data = new HashMap<>();
+        data.put(RosterHeader.FIRST_NAME.camperRosterName, "Jonathan");
+        data.put(RosterHeader.PREFERRED_NAME.camperRosterName, "Jon");
+        data.put(RosterHeader.LAST_NAME.camperRosterName, "Smith");
+        data.put(RosterHeader.GRADE.camperRosterName, grade);
+        data.put(RosterHeader.ESP.camperRosterName, "Session 1 / Program");
+        data.put(RosterHeader.SWIMCOLOR.camperRosterName, "Plaid");
+        return new Camper(data);
+    }
+
+    @Test
+    @DisplayName("Display data is built from the row when first asked for, and kept")
+    void lazyDisplayDataTest() {
+        Camper camper = camper("5th");
+        RosterWarning warning = RosterWarning.create_badDataFormat(camper.view(), RosterHeader.GRADE.camperRosterName, "\\d+");
+
+        // The offending value is captured when the warning is created, names are read when it's displayed
+        camper.setValue(RosterHeader.GRADE.camperRosterName, "6");
+        camper.setValue(RosterHeader.PREFERRED_NAME.camperRosterName, "Jonny");
+
+        String[] cells = warning.getDisplayData();
+        assertArrayEquals(new String[]{"Jonathan 'Jonny' Smith", RosterHeader.GRADE.camperRosterName, "5th", "\\d+"}, cells);
+        assertSame(cells, warning.getDisplayData(), "Display data should only be built once");
+
+        camper.setValue(RosterHeader.PREFERRED_NAME.camperRosterName, "Jonathan");
+        assertEquals("Jonathan 'Jonny' Smith", warning.getDisplayData()[0], "Built display data shouldn't follow later changes");
+    }
+
+    @Test
+    @DisplayName("Each factory builds the same display data, column and value as before")
+    void factoryDisplayDataTest() {
+        Camper camper = camper("5");
+        Set<String> levels = new TreeSet<>(Set.of("Red", "Blue"));
+
+        RosterWarning parsing = RosterWarning.create_programParsingFailure(camper.view(), "Session 2");
+        assertArrayEquals(new String[]{"Jonathan 'Jon' Smith", "Session 1 / Program", "Session 2"}, parsing.getDisplayData());
+        assertEquals(RosterHeader.ESP.camperRosterName, parsing.getColumn());
+        assertEquals("Session 1 / Program", parsing.getValue());
+
+        RosterWarning missing = RosterWarning.create_camperMissingField(camper.view(), "Cabin", "Cabins");
+        assertArrayEquals(new String[]{"Jonathan 'Jon' Smith", "Cabin", "Cabins"}, missing.getDisplayData());
+        assertEquals("Cabin", missing.getColumn());
+        assertNull(missing.getValue());
+
+        RosterWarning swimLevel = RosterWarning.create_unknownSwimLevelWarning(camper.view(), "Plaid", levels);
+        assertArrayEquals(new String[]{"Jonathan 'Jon' Smith", "Plaid", "Blue, Red"}, swimLevel.getDisplayData());
+        assertEquals(RosterHeader.SWIMCOLOR.camperRosterName, swimLevel.getColumn());
+        assertEquals("Plaid", swimLevel.getValue());
+
+        RosterWarning duplicate = RosterWarning.create_duplicateActivity(camper.view(), "1", "Archery", "Canoeing");
+        assertArrayEquals(new String[]{"Jonathan 'Jon' Smith", "1", "Archery", "Canoeing"}, duplicate.getDisplayData());
+        assertEquals("1", duplicate.getColumn());
+        assertEquals("Canoeing", duplicate.getValue());
+
+        RosterWarning duplicateId = RosterWarning.create_duplicateCamperId("id", 2);
+        assertArrayEquals(new String[]{"id", "2"}, duplicateId.getDisplayData());
+        assertNull(duplicateId.getValue());
+    }
+
+    @Test
+    @DisplayName("Detached and restored warnings keep the original's display data, column and value")
+    void detachAndRestoreTest() {
+        Camper camper = camper("5th");
+        RosterWarning warning = RosterWarning.create_badDataFormat(camper.view(), RosterHeader.GRADE.camperRosterName, "\\d+");
+        RosterWarning detached = warning.detach();
+        RosterWarning restored = RosterWarning.restore(WarningType.BAD_DATA_FORMAT, warning.getDisplayData());
+
+        for (RosterWarning copy : new RosterWarning[]{detached, restored}) {
+            assertEquals(WarningType.BAD_DATA_FORMAT, copy.getType());
+            assertArrayEquals(warning.getDisplayData(), copy.getDisplayData());
+            assertEquals(warning.getColumn(), copy.getColumn());
+            assertEquals(warning.getValue(), copy.getValue());
+        }
+    }
+
+    @Test
+    @DisplayName("Cached copies of a manager hold detached warnings with the same counts")
+    void detachedCopyTest() {
+        Camper camper = camper("5th");
+        WarningManager warningManager = new WarningManager();
+        warningManager.logWarning(RosterWarning.create_badDataFormat(camper.view(), RosterHeader.GRADE.camperRosterName, "\\d+"));
+        warningManager.logWarning(RosterWarning.create_badDataFormat(camper.view(), RosterHeader.ESP.camperRosterName, "\\d+"));
+
+        WarningManager copy = warningManager.detachedCopy();
+        assertEquals(warningManager.getWarningCounts(), copy.getWarningCounts());
+        assertEquals(warningManager.getWarningCountsByColumn(WarningType.BAD_DATA_FORMAT), copy.getWarningCountsByColumn(WarningType.BAD_DATA_FORMAT));
+
+        camper.setValue(RosterHeader.PREFERRED_NAME.camperRosterName, "Jonny");
+        RosterWarning cached = copy.getWarningLog().get(WarningType.BAD_DATA_FORMAT).get(0);
+        assertEquals("Jonathan 'Jon' Smith", cached.getDisplayData()[0], "Detached warnings shouldn't read the row again");
+    }
+}
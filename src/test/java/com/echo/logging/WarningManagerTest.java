@@ -0,0 +1,131 @@
+package com.echo.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.echo.logging.RosterWarning.WarningType;
+
+/**
+ * Tests for the WarningManager class.
+ */
+public class WarningManagerTest {
+
+    private static RosterWarning badFormat(String column, String value) {
+        return RosterWarning.restore(WarningType.BAD_DATA_FORMAT, new String[]{"Camper", column, value, "\\d+"});
+    }
+
+    @Test
+    @DisplayName("Warnings beyond the exemplar cap are counted but not kept")
+    void exemplarCapTest() {
+        WarningManager warningManager = new WarningManager(3);
+        for (int i = 0; i < 10; i++) {
+            warningManager.logWarning(badFormat("Grade", Integer.toString(i)));
+        }
+        warningManager.logWarning(RosterWarning.create_featureRolledBack("Feature"));
+
+        assertTrue(warningManager.hasWarnings());
+        assertEquals(10, warningManager.getWarningCount(WarningType.BAD_DATA_FORMAT));
+        assertEquals(11, warningManager.getWarningCount());
+        assertEquals(Map.of(WarningType.BAD_DATA_FORMAT, 10L, WarningType.FEATURE_ROLLED_BACK, 1L), warningManager.getWarningCounts());
+
+        List<RosterWarning> kept = warningManager.getWarningLog().get(WarningType.BAD_DATA_FORMAT);
+        assertEquals(3, kept.size());
+        assertEquals(List.of("0", "1", "2"), kept.stream().map(RosterWarning::getValue).toList(), "The first warnings logged should be kept");
+    }
+
+    @Test
+    @DisplayName("Warnings are counted by column and by value, with excess distinct values counted together")
+    void aggregatedCountsTest() {
+        WarningManager warningManager = new WarningManager(2);
+        warningManager.logWarning(badFormat("Grade", "x"));
+        warningManager.logWarning(badFormat("Grade", "x"));
+        warningManager.logWarning(badFormat("Grade", "y"));
+        warningManager.logWarning(badFormat("Cabin", "z"));
+
+        Map<String, Long> byColumn = warningManager.getWarningCountsByColumn(WarningType.BAD_DATA_FORMAT);
+        assertEquals(List.of("Grade", "Cabin"), new ArrayList<>(byColumn.keySet()), "Columns should be ordered by count");
+        assertEquals(3L, byColumn.get("Grade"));
+        assertEquals(1L, byColumn.get("Cabin"));
+
+        assertEquals(Map.of("x", 2L, "y", 1L, WarningManager.OTHER_VALUES, 1L), warningManager.getWarningCountsByValue(WarningType.BAD_DATA_FORMAT));
+        assertTrue(warningManager.getWarningCountsByValue(WarningType.FEATURE_ROLLED_BACK).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Merging keeps exact counts and the merged manager's cap")
+    void mergeTest() {
+        WarningManager first = new WarningManager();
+        WarningManager second = new WarningManager();
+        for (int i = 0; i < 4; i++) {
+            first.logWarning(badFormat("Grade", "first"));
+            second.logWarning(badFormat("Grade", "second"));
+        }
+        second.logError(RosterException.create_normalWrapper("Test", new IllegalStateException()));
+
+        WarningManager merged = new WarningManager(6);
+        merged.mergeFrom(first);
+        merged.mergeFrom(second);
+
+        assertEquals(8, merged.getWarningCount(WarningType.BAD_DATA_FORMAT));
+        List<String> kept = merged.getWarningLog().get(WarningType.BAD_DATA_FORMAT).stream().map(RosterWarning::getValue).toList();
+        assertEquals(List.of("first", "first", "first", "first", "second", "second"), kept);
+        assertEquals(Map.of("first", 4L, "second", 4L), merged.getWarningCountsByValue(WarningType.BAD_DATA_FORMAT));
+        assertTrue(merged.hasErrors());
+    }
+
+    @Test
+    @DisplayName("Concurrent logging counts every warning exactly")
+    void concurrentLoggingTest() throws Exception {
+        WarningManager warningManager = new WarningManager(50);
+        int threads = 8;
+        int perThread = 5000;
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String column = "Column " + (t % 2);
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        warningManager.logWarning(badFormat(column, Integer.toString(i % 10)));
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        }
+
+        assertEquals((long) threads * perThread, warningManager.getWarningCount(WarningType.BAD_DATA_FORMAT));
+        assertEquals(50, warningManager.getWarningLog().get(WarningType.BAD_DATA_FORMAT).size());
+        Map<String, Long> byColumn = warningManager.getWarningCountsByColumn(WarningType.BAD_DATA_FORMAT);
+        assertEquals((long) threads / 2 * perThread, byColumn.get("Column 0"));
+        assertEquals((long) threads / 2 * perThread, byColumn.get("Column 1"));
+        Map<String, Long> byValue = warningManager.getWarningCountsByValue(WarningType.BAD_DATA_FORMAT);
+        assertEquals(10, byValue.size());
+        assertEquals(Set.of((long) threads * perThread / 10), Set.copyOf(byValue.values()));
+    }
+
+    @Test
+    @DisplayName("The warning log is a snapshot of the warnings kept so far")
+    void snapshotTest() {
+        WarningManager warningManager = new WarningManager();
+        assertFalse(warningManager.hasWarnings());
+        assertTrue(warningManager.getWarningLog().isEmpty());
+
+        warningManager.logWarning(badFormat("Grade", "x"));
+        Map<WarningType, ArrayList<RosterWarning>> snapshot = warningManager.getWarningLog();
+        warningManager.logWarning(badFormat("Grade", "y"));
+        assertEquals(1, snapshot.get(WarningType.BAD_DATA_FORMAT).size());
+        assertEquals(2, warningManager.getWarningLog().get(WarningType.BAD_DATA_FORMAT).size());
+    }
+}
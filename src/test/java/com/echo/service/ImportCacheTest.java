@@ -0,0 +1,176 @@
+package com.echo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.echo.automation.TestPreset;
+import com.echo.domain.ActivityRoster;
+import com.echo.domain.Camper;
+import com.echo.domain.CamperRoster;
+import com.echo.domain.EnhancedRoster;
+import com.echo.domain.Roster;
+import com.echo.domain.RosterHeader;
+import com.echo.logging.RosterException;
+import com.echo.logging.RosterWarning;
+import com.echo.logging.RosterWarning.WarningType;
+import com.echo.logging.WarningManager;
+
+/**
+ * Tests for the ImportCache class.
+ */
+public class ImportCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File camperFile;
+    private CamperRoster camperRoster;
+    private WarningManager camperWarnings;
+
+    @BeforeEach
+    void setUp() throws RosterException {
+        camperFile = TestPreset.MINI_NORMAL.getCamperFile();
+        camperRoster = new ImportService().importCamperRoster(camperFile);
+        camperWarnings = new WarningManager();
+        camperRoster.validate(camperWarnings);
+    }
+
+    private static List<Object> rows(Roster roster) {
+        List<Object> rows = new ArrayList<>();
+        rows.add(roster.getHeaderMap());
+        for (Camper camper : roster.getCampers()) {
+            rows.add(camper.getId());
+            rows.add(camper.getData());
+        }
+        return rows;
+    }
+
+    private static List<String> warnings(WarningManager manager) {
+        List<String> warnings = new ArrayList<>();
+        manager.getWarningLog().forEach((type, list) ->
+            list.forEach(warning -> warnings.add(type + Arrays.toString(warning.getDisplayData()))));
+        return warnings;
+    }
+
+    @Test
+    @DisplayName("Hits should return an independent copy of the roster with its warnings")
+    void hitReturnsCopyTest() throws IOException {
+        ImportCache cache = new ImportCache(ImportCache.DEFAULT_CAPACITY);
+        String digest = ImportCache.digest(camperFile);
+        assertNull(cache.get(digest, new CamperRoster(), new WarningManager()));
+
+        cache.put(digest, camperRoster, camperWarnings);
+
+        WarningManager hitWarnings = new WarningManager();
+        CamperRoster hit = cache.get(digest, new CamperRoster(), hitWarnings);
+        assertNotNull(hit);
+        assertEquals(rows(camperRoster), rows(hit));
+        assertEquals(warnings(camperWarnings), warnings(hitWarnings));
+        assertNotNull(hit.getCamperById(camperRoster.getCampers().get(0).getId()), "Copies should be indexed by camper key");
+
+        // Changing a copy, or moving its campers into another roster, shouldn't reach the cache
+        hit.getCampers().get(0).setValue(RosterHeader.FIRST_NAME.camperRosterName, "Changed");
+        EnhancedRoster enhanced = new EnhancedRoster();
+        for (Camper camper : hit.getCampers()) {
+            enhanced.addCamper(camper);
+        }
+        assertEquals(rows(camperRoster), rows(cache.get(digest, new CamperRoster(), new WarningManager())));
+
+        // The same content imported as another roster type is a separate entry
+        assertNull(cache.get(digest, new ActivityRoster(), new WarningManager()));
+    }
+
+    @Test
+    @DisplayName("Entries should be keyed by content, not by path")
+    void contentDigestTest() throws IOException {
+        Path copy = tempDir.resolve("renamed.csv");
+        Files.copy(camperFile.toPath(), copy);
+        assertEquals(ImportCache.digest(camperFile), ImportCache.digest(copy.toFile()));
+
+        Files.writeString(copy, "\n", StandardOpenOption.APPEND);
+        assertEquals(64, ImportCache.digest(copy.toFile()).length());
+        assertFalse(ImportCache.digest(camperFile).equals(ImportCache.digest(copy.toFile())));
+    }
+
+    @Test
+    @DisplayName("Memory tier should evict the least recently used entry")
+    void lruEvictionTest() {
+        ImportCache cache = new ImportCache(2);
+        cache.put("a", camperRoster, camperWarnings);
+        cache.put("b", camperRoster, camperWarnings);
+        assertNotNull(cache.get("a", new CamperRoster(), new WarningManager()));
+
+        cache.put("c", camperRoster, camperWarnings);
+        assertEquals(2, cache.size());
+        assertNull(cache.get("b", new CamperRoster(), new WarningManager()), "The least recently used entry should be evicted");
+        assertNotNull(cache.get("a", new CamperRoster(), new WarningManager()));
+        assertNotNull(cache.get("c", new CamperRoster(), new WarningManager()));
+    }
+
+    @Test
+    @DisplayName("Disk tier should restore entries across cache instances, and stay bounded")
+    void diskTierTest() throws IOException {
+        Path directory = tempDir.resolve("import-cache");
+        String digest = ImportCache.digest(camperFile);
+        new ImportCache(1, directory, 2).put(digest, camperRoster, camperWarnings);
+
+        ImportCache restarted = new ImportCache(1, directory, 2);
+        WarningManager hitWarnings = new WarningManager();
+        CamperRoster hit = restarted.get(digest, new CamperRoster(), hitWarnings);
+        assertNotNull(hit);
+        assertEquals(rows(camperRoster), rows(hit));
+        assertEquals(warnings(camperWarnings), warnings(hitWarnings));
+
+        // Older files beyond the disk capacity are deleted
+        restarted.put("second", camperRoster, camperWarnings);
+        restarted.put("third", camperRoster, camperWarnings);
+        try (var files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+
+        // Corrupt files are treated as misses
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.writeString(file, "corrupt");
+            }
+        }
+        assertNull(new ImportCache(1, directory, 2).get("third", new CamperRoster(), new WarningManager()));
+    }
+
+    @Test
+    @DisplayName("Disk tier should keep exact warning counts beyond the examples kept for display")
+    void diskTierWarningCountsTest() {
+        Path directory = tempDir.resolve("import-cache");
+        WarningManager cappedWarnings = new WarningManager(2);
+        Camper camper = camperRoster.getCampers().get(0);
+        for (int i = 0; i < 5; i++) {
+            cappedWarnings.logWarning(RosterWarning.create_badDataFormat(camper.view(), RosterHeader.GRADE.camperRosterName, "\\d+"));
+        }
+        new ImportCache(1, directory, 2).put("capped", camperRoster, cappedWarnings);
+
+        WarningManager hitWarnings = new WarningManager();
+        assertNotNull(new ImportCache(1, directory, 2).get("capped", new CamperRoster(), hitWarnings));
+        assertEquals(5, hitWarnings.getWarningCount(WarningType.BAD_DATA_FORMAT));
+        assertEquals(2, hitWarnings.getWarningLog().get(WarningType.BAD_DATA_FORMAT).size());
+        assertEquals(cappedWarnings.getWarningCountsByColumn(WarningType.BAD_DATA_FORMAT),
+                     hitWarnings.getWarningCountsByColumn(WarningType.BAD_DATA_FORMAT));
+        assertEquals(cappedWarnings.getWarningCountsByValue(WarningType.BAD_DATA_FORMAT),
+                     hitWarnings.getWarningCountsByValue(WarningType.BAD_DATA_FORMAT));
+    }
+}
@@ -1,24 +1,34 @@
 package com.echo.service;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
 
-
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 
 import com.echo.automation.TestPreset;
 import com.echo.domain.ActivityRoster;
+import com.echo.domain.Camper;
 import com.echo.domain.CamperRoster;
+import com.echo.domain.RosterHeader;
+import com.echo.logging.RosterException;
 
 public class ImportServiceTest {
 
     private final ImportService importService = new ImportService();
 
+    @TempDir
+    Path tempDir;
+
     @ParameterizedTest
     @EnumSource(value = TestPreset.class, names = {"MINI_NORMAL"})
     @DisplayName("Should import camper roster from CSV file")
@@ -78,4 +88,42 @@ public class ImportServiceTest {
 
         assertNotNull(exception);
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @EnumSource(value = TestPreset.class, names = {"MINI_NORMAL"})
+    @DisplayName("Single-pass import should produce the same campers as parsing rows first")
+    void importMatchesParsedRowsTest(TestPreset preset) throws Exception {
+        File camperFile = preset.getCamperFile();
+        ParsedCSV parsedCSV = ImportUtils.parseFile(camperFile);
+
+        CamperRoster roster = importService.importCamperRoster(camperFile);
+
+        assertEquals(parsedCSV.getHeaderNames(), roster.getAllHeaders());
+        assertEquals(parsedCSV.getRows().size(), roster.getCampers().size());
+        for (int i = 0; i < parsedCSV.getRows().size(); i++) {
+            Map<String, String> row = parsedCSV.getRows().get(i);
+            Camper camper = roster.getCampers().get(i);
+            assertEquals(row, camper.getData());
+            assertEquals(CamperRoster.generateCamperId(row), camper.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Single-pass import should report malformed rows before missing headers or data")
+    void importValidationOrderTest() throws Exception {
+        File malformedFile = tempDir.resolve("malformed.csv").toFile();
+        Files.writeString(malformedFile.toPath(), "\"Unknown\",\"Header\"\n\"a\",\"b\"\n\"c\"\n");
+        RosterException malformed = assertThrows(RosterException.class, () -> importService.importCamperRoster(malformedFile));
+        assertEquals(RosterException.ErrorType.MALFORMED, malformed.getType());
+
+        File headerOnlyFile = tempDir.resolve("headerOnly.csv").toFile();
+        Files.writeString(headerOnlyFile.toPath(), "\"" + RosterHeader.FIRST_NAME.camperRosterName + "\"\n");
+        RosterException noRows = assertThrows(RosterException.class, () -> importService.importCamperRoster(headerOnlyFile));
+        assertEquals(RosterException.ErrorType.MISSING_DATA, noRows.getType());
+
+        File missingHeaderFile = tempDir.resolve("missingHeader.csv").toFile();
+        Files.writeString(missingHeaderFile.toPath(), "\"Unknown\",\"Header\"\n\"a\",\"b\"\n");
+        RosterException missingHeaders = assertThrows(RosterException.class, () -> importService.importCamperRoster(missingHeaderFile));
+        assertEquals(RosterException.ErrorType.HEADER, missingHeaders.getType());
+    }
+}
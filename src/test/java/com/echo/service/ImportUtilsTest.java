@@ -0,0 +1,249 @@
+package com.echo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.echo.logging.Diagnostics;
+import com.echo.logging.Diagnostics.Event;
+import com.echo.logging.RosterException;
+
+/**
+ * Tests for ImportUtils, its streaming ContentCleaner and the byte-level tokenizer.
+ */
+public class ImportUtilsTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Reads everything from a ContentCleaner, a few characters at a time so reads span line boundaries.
+     */
+    private static String drain(String content) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        try (ContentCleaner cleaner = new ContentCleaner(new StringReader(content))) {
+            char[] buffer = new char[3];
+            int count;
+            while ((count = cleaner.read(buffer, 0, buffer.length)) != -1) {
+                builder.append(buffer, 0, count);
+            }
+        }
+        return builder.toString();
+    }
+
+    @Test
+    @DisplayName("Cleaner should trim junk outside the first and last quotes")
+    public void testTrimsJunk() throws IOException {
+        assertEquals("\"a\",\"b\"\n", drain("\uFEFF\"a\",\"b\""));
+        assertEquals("\"a\",\"b\"\n", drain("xx\"a\",\"b\";;\r\n"));
+        assertEquals("\"a\"\n\"b\"\n", drain("\"a\"\r\"b\""));
+    }
+
+    @Test
+    @DisplayName("Cleaner should skip blank, comment, quoteless and uneven lines")
+    public void testSkipsLines() throws IOException {
+        String content = "\"h1\",\"h2\"\n"
+                       + "   \n"
+                       + "# comment \"x\"\n"
+                       + "no quotes here\n"
+                       + "\"uneven\",\"quotes\n"
+                       + "\"v1\",\"v2\"\n";
+        assertEquals("\"h1\",\"h2\"\n\"v1\",\"v2\"\n", drain(content));
+    }
+
+    @Test
+    @DisplayName("parseFile should parse cleaned content streamed from disk")
+    public void testParseFile() throws IOException, RosterException {
+        File file = tempDir.resolve("roster.csv").toFile();
+        Files.writeString(file.toPath(), "junk\"First\",\"Last\"\n\n\"Ann\",\"Lee\"junk\n\"Bo\",\"Ray\"\n");
+
+        ParsedCSV parsed = ImportUtils.parseFile(file);
+
+        assertEquals(List.of("First", "Last"), parsed.getHeaderNames());
+        assertEquals(2, parsed.getRows().size());
+        assertEquals("Lee", parsed.getRows().get(0).get("Last"));
+        assertEquals("Bo", parsed.getRows().get(1).get("First"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(ImportUtils.ParserType.class)
+    @DisplayName("Both parsers should count cleaned lines as diagnostics, keeping a sample of each")
+    public void testCountsCleanedLines(ImportUtils.ParserType type) throws IOException {
+        File file = tempDir.resolve("dirty.csv").toFile();
+        Files.writeString(file.toPath(), "\"h1\",\"h2\"\nno quotes here\nxx\"v1\",\"v2\"\n\"v3\",\"v4\";;\n\"un\"even\",\"quotes\"\n");
+
+        Diagnostics.reset();
+        streamWith(type, file);
+        Diagnostics.Summary summary = Diagnostics.summarize();
+
+        assertEquals(1, summary.getCount(Event.JUNK_LINE));
+        assertEquals(1, summary.getCount(Event.JUNK_AT_LINE_START));
+        assertEquals(1, summary.getCount(Event.JUNK_AT_LINE_END));
+        assertEquals(1, summary.getCount(Event.UNEVEN_QUOTES));
+        assertEquals(List.of("'no quotes here'"), summary.samples().get(Event.JUNK_LINE));
+        assertEquals(List.of("'xx'"), summary.samples().get(Event.JUNK_AT_LINE_START));
+    }
+
+    /**
+     * Streams a file with the given parser, recording its headers, records and any error as text for comparison.
+     */
+    private static List<String> streamWith(ImportUtils.ParserType type, File file) {
+        ImportUtils.ParserType previous = ImportUtils.getParserType();
+        ImportUtils.setParserType(type);
+        try {
+            return record(handler -> ImportUtils.streamFile(file, handler));
+        } finally {
+            ImportUtils.setParserType(previous);
+        }
+    }
+
+    private interface Streamer {
+        void stream(ImportUtils.RecordHandler handler) throws IOException, RosterException;
+    }
+
+    /**
+     * Runs a streamer, recording the headers, records and any error it produces as text.
+     */
+    private static List<String> record(Streamer streamer) {
+        List<String> output = new ArrayList<>();
+        try {
+            streamer.stream(new ImportUtils.RecordHandler() {
+                @Override
+                public void handleHeaders(List<String> headers) {
+                    output.add("headers " + headers);
+                }
+
+                @Override
+                public void handleRecord(String[] record) {
+                    output.add(Arrays.toString(record));
+                }
+            });
+        } catch (IOException | RosterException | RuntimeException e) {
+            output.add("error " + e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+        return output;
+    }
+
+    static Stream<Path> testRosterFiles() throws IOException {
+        return Files.walk(Paths.get("src/test/resources/testRosters")).filter(Files::isRegularFile).sorted();
+    }
+
+    @ParameterizedTest
+    @MethodSource("testRosterFiles")
+    @DisplayName("Byte-level tokenizer should produce the same records as commons-csv for every test roster")
+    public void testParsersMatchOnRosters(Path path) {
+        List<String> expected = streamWith(ImportUtils.ParserType.COMMONS_CSV, path.toFile());
+        assertEquals(expected, streamWith(ImportUtils.ParserType.BYTE_CHANNEL, path.toFile()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "\"a\",\"b\"\r\n\"1\",\"2\"\r\n",                    // Standard fully quoted rows
+        "\uFEFF\"a\",\"b\"\n\"\u00e9t\u00e9\",\"\u65e5\"",      // BOM, multi-byte characters, no final newline
+        "\"a\",\"b\"\r\"1\",\"2\"\r",                        // Bare carriage returns
+        "\"a\",\"b\"\n\"1\"\"x\",\"2\"\n",                   // Doubled quotes
+        "\"a\",\"b\"\n\"1\",,\"2\"\n",                       // Unquoted empty field, malformed row
+        "\"a\",\"b\"\n\"1\", \"2\"\n\"3\" ,\"4\"\n",          // Whitespace around quoted fields
+        "\"a\",\"b\"\n\"1\",b\"c,\"2\"\n",                    // Quotes inside an unquoted field
+        "\"a\",\"b\"\n\"1\"x,\"2\"\n",                       // Junk between a quote and a delimiter
+        "\"a\",\"b\"\n\"1\",x\",\"\n\"2\"\n",                 // Quoted field continuing onto the next line
+        "\"a\",\"b\"\n\"1\",x\",\"\n",                        // Quoted field left open at the end of the file
+        "\"a\",\" \"\n\"1\",\"2\"\n",                        // Blank header name
+        "\"a\",\"a\"\n\"1\",\"2\"\n",                        // Duplicate header names
+        "junk\n\n# \"comment\"\n\"a\"\n\"odd\n\"1\"junk\n",        // Skipped and trimmed lines
+        ""                                                      // Empty file
+    })
+    @DisplayName("Byte-level tokenizer should match commons-csv on edge cases")
+    public void testParsersMatchOnEdgeCases(String content) throws IOException {
+        File file = tempDir.resolve("edge.csv").toFile();
+        Files.writeString(file.toPath(), content);
+
+        List<String> expected = streamWith(ImportUtils.ParserType.COMMONS_CSV, file);
+        assertFalse(expected.isEmpty() && !content.isEmpty());
+        assertEquals(expected, streamWith(ImportUtils.ParserType.BYTE_CHANNEL, file));
+    }
+
+    @ParameterizedTest
+    @MethodSource("testRosterFiles")
+    @DisplayName("Parallel parsing in small chunks should match commons-csv for every test roster")
+    public void testParallelMatchesOnRosters(Path path) {
+        File file = path.toFile();
+        List<String> expected = streamWith(ImportUtils.ParserType.COMMONS_CSV, file);
+        assertEquals(expected, record(handler -> ImportUtils.streamParallel(file, handler, 512)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 7, 64, 1000, Long.MAX_VALUE})
+    @DisplayName("Parallel parsing should hand over records in order, whatever the chunk boundaries")
+    public void testParallelChunkBoundaries(long chunkSize) throws IOException {
+        StringBuilder content = new StringBuilder("\"First\",\"Last\",\"Period\",\"A\",\"B\"\r\n");
+        for (int i = 0; i < 300; i++) {
+            content.append("\"First").append(i).append("\",\"L\"\"").append(i).append("\",\"").append(i % 3 + 1).append("\",\"\",\"\u00e9\"\r\n");
+            if (i % 50 == 7) {
+                content.append("junk line\n\n");
+            }
+            if (i == 123) {
+                content.append("\"Open\",x\",\"\r\n\" ,y\"z,\"2\"\r\n");  // Quoted field running onto the next line
+            }
+        }
+        File file = tempDir.resolve("large.csv").toFile();
+        Files.writeString(file.toPath(), content);
+
+        List<String> expected = streamWith(ImportUtils.ParserType.COMMONS_CSV, file);
+        assertEquals(302, expected.size(), "Every row should parse: " + expected.get(expected.size() - 1));
+        assertEquals(expected, record(handler -> ImportUtils.streamParallel(file, handler, chunkSize)));
+
+        // A malformed row late in the file should be reported with its record number across chunks
+        Files.writeString(file.toPath(), content + "\"Extra\",\"Cell\",\"1\",\"2\",\"3\",\"4\"\r\n");
+        expected = streamWith(ImportUtils.ParserType.COMMONS_CSV, file);
+        assertEquals(expected, record(handler -> ImportUtils.streamParallel(file, handler, chunkSize)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 64, 1000})
+    @DisplayName("Parallel parsing should count cleaned lines once, even when chunks are re-read")
+    public void testParallelCountsCleanedLinesOnce(long chunkSize) throws IOException {
+        StringBuilder content = new StringBuilder("\"First\",\"Last\",\"Period\",\"A\",\"B\"\r\n");
+        for (int i = 0; i < 200; i++) {
+            content.append("xx\"First").append(i).append("\",\"L\",\"1\",\"\",\"\"\r\n");
+            if (i % 20 == 3) {
+                content.append("junk line\n\"un\"even\",\"quotes\"\n");
+            }
+            if (i == 50) {
+                content.append("\"Open\",x\",\"\r\n\" ,y\"z,\"2\"\r\n");  // Quoted field running onto the next line, failing its chunk
+            }
+        }
+        File file = tempDir.resolve("dirty-large.csv").toFile();
+        Files.writeString(file.toPath(), content);
+
+        Diagnostics.reset();
+        List<String> expected = streamWith(ImportUtils.ParserType.BYTE_CHANNEL, file);
+        Diagnostics.Summary sequential = Diagnostics.summarize();
+
+        Diagnostics.reset();
+        assertEquals(expected, record(handler -> ImportUtils.streamParallel(file, handler, chunkSize)));
+        Diagnostics.Summary parallel = Diagnostics.summarize();
+
+        assertEquals(200, sequential.getCount(Event.JUNK_AT_LINE_START));
+        assertEquals(sequential.counts(), parallel.counts());
+        assertEquals(sequential.samples(), parallel.samples());
+    }
+}
@@ -3,16 +3,24 @@ package com.echo.service;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -26,9 +34,11 @@ import com.echo.domain.Camper;
 import com.echo.domain.CamperRoster;
 import com.echo.domain.EnhancedRoster;
 import com.echo.domain.RosterHeader;
+import com.echo.feature.RosterFeature;
 import com.echo.filter.AssignmentFilter;
 import com.echo.filter.FilterManager;
 import com.echo.logging.RosterException;
+import com.echo.logging.RosterWarning.WarningType;
 
 /**
  * Tests for the RosterService class, focusing on end-to-end functionality.
@@ -189,6 +199,280 @@ public class RosterServiceTest {
         }
     }
 
+    @ParameterizedTest
+    @EnumSource(value = TestPreset.class, names = {"MINI_NORMAL", "MINI_DUPLICATE_ACTIVITIES"})
+    @DisplayName("Reopening the same files restores the saved snapshot and its warnings, and changed sources fall back to import")
+    void snapshotRestoreTest(TestPreset preset) throws Exception {
+        List<String> featureIds = rosterService.getAvailableFeatures().stream().map(RosterFeature::getFeatureId).toList();
+        rosterService.setSnapshotDirectory(tempDir.resolve("snapshots"));
+
+        EnhancedRoster imported = rosterService.createEnhancedRoster(preset.getCamperFile(), preset.getActivityFile(), featureIds);
+        assertNotNull(imported);
+        Path snapshot = singleSnapshot(tempDir.resolve("snapshots"));
+        List<String> importedWarnings = new ArrayList<>();
+        Map<WarningType, Long> importedCounts = rosterService.getWarningManager().getWarningCounts();
+        rosterService.getWarningManager().getWarningLog().forEach((type, list) ->
+            list.forEach(warning -> importedWarnings.add(type + Arrays.toString(warning.getDisplayData()))));
+
+        EnhancedRoster restored = rosterService.createEnhancedRoster(preset.getCamperFile(), preset.getActivityFile(), featureIds);
+        assertNotNull(restored);
+        List<String> restoredWarnings = new ArrayList<>();
+        rosterService.getWarningManager().getWarningLog().forEach((type, list) ->
+            list.forEach(warning -> restoredWarnings.add(type + Arrays.toString(warning.getDisplayData()))));
+        assertEquals(importedWarnings, restoredWarnings, "The original import's warnings should be shown again");
+        assertEquals(importedCounts, rosterService.getWarningManager().getWarningCounts());
+        assertEquals(imported.getHeaderMap(), restored.getHeaderMap());
+        assertEquals(imported.getEnabledFeatures(), restored.getEnabledFeatures());
+        assertEquals(imported.getCampers().size(), restored.getCampers().size());
+        for (int i = 0; i < imported.getCampers().size(); i++) {
+            assertEquals(imported.getCampers().get(i).getData(), restored.getCampers().get(i).getData());
+        }
+
+        // A different feature selection doesn't match the snapshot, so the files are imported again
+        EnhancedRoster reimported = rosterService.createEnhancedRoster(preset.getCamperFile(), preset.getActivityFile(), featureIds.subList(0, 1));
+        assertNotNull(reimported);
+        assertEquals(1, reimported.getEnabledFeatures().size());
+
+        // The restored roster still maps its snapshot, so the new one goes to a new file rather than replacing it
+        Path newSnapshot = singleSnapshot(tempDir.resolve("snapshots"));
+        assertNotEquals(snapshot, newSnapshot, "Snapshots should be saved to a new file each time");
+    }
+
+    /**
+     * Gets the only snapshot in a directory, failing if there isn't exactly one.
+     */
+    private static Path singleSnapshot(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> snapshots = files.filter(file -> file.getFileName().toString().endsWith(".snapshot")).toList();
+            assertEquals(1, snapshots.size(), "Import should save one snapshot, deleting older ones");
+            return snapshots.get(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Re-importing cached files gives the same roster and warnings as a fresh import")
+    void importCacheTest() {
+        TestPreset preset = TestPreset.MINI_NORMAL;
+        List<String> featureIds = rosterService.getAvailableFeatures().stream().map(RosterFeature::getFeatureId).toList();
+        ImportCache importCache = new ImportCache(ImportCache.DEFAULT_CAPACITY);
+        rosterService.setImportCache(importCache);
+
+        assertNotNull(rosterService.createEnhancedRoster(preset.getCamperFile(), preset.getActivityFile(), featureIds));
+        assertEquals(2, importCache.size(), "Both source rosters should be cached");
+
+        // Toggling features re-imports the same files, which now come from the cache
+        for (List<String> features : List.of(featureIds.subList(0, 1), featureIds)) {
+            EnhancedRoster cached = rosterService.createEnhancedRoster(preset.getCamperFile(), preset.getActivityFile(), features);
+            List<String> cachedWarnings = new ArrayList<>();
+            rosterService.getWarningManager().getWarningLog().forEach((type, list) ->
+                list.forEach(warning -> cachedWarnings.add(type + Arrays.toString(warning.getDisplayData()))));
+
+            RosterService uncachedService = new RosterService(new ImportService(), new ExportService());
+            EnhancedRoster imported = uncachedService.createEnhancedRoster(preset.getCamperFile(), preset.getActivityFile(), features);
+            List<String> importedWarnings = new ArrayList<>();
+            uncachedService.getWarningManager().getWarningLog().forEach((type, list) ->
+                list.forEach(warning -> importedWarnings.add(type + Arrays.toString(warning.getDisplayData()))));
+
+            assertNotNull(cached);
+            assertEquals(imported.getHeaderMap(), cached.getHeaderMap());
+            assertEquals(imported.getCampers().size(), cached.getCampers().size());
+            for (int i = 0; i < imported.getCampers().size(); i++) {
+                assertEquals(imported.getCampers().get(i).getData(), cached.getCampers().get(i).getData());
+            }
+            assertEquals(importedWarnings, cachedWarnings);
+        }
+    }
+
+    @Test
+    @DisplayName("Re-importing an edited activity file applies only changed rows, matching a full rebuild")
+    void reimportActivityRosterTest() throws Exception {
+        TestPreset preset = TestPreset.BASIC_PREFERENCES;
+        List<String> featureIds = rosterService.getAvailableFeatures().stream().map(RosterFeature::getFeatureId).toList();
+        Path activityFile = tempDir.resolve("activities.csv");
+        Files.copy(preset.getActivityFile().toPath(), activityFile);
+
+        EnhancedRoster roster = rosterService.createEnhancedRoster(preset.getCamperFile(), activityFile.toFile(), featureIds);
+        assertNotNull(roster);
+
+        // Update one camper's first assignment, and delete another camper's second
+        List<String> lines = new ArrayList<>(Files.readAllLines(activityFile));
+        lines.set(1, lines.get(1).replace("\"Archery\"", "\"Fishing\""));
+        lines.remove(5);
+        Files.write(activityFile, lines);
+
+        EnhancedRoster refreshed = rosterService.reimportActivityRoster(roster, preset.getCamperFile(), activityFile.toFile(), featureIds);
+        assertSame(roster, refreshed, "Changes to matched campers should be applied in place");
+        Camper baker = roster.getCampers().stream()
+            .filter(camper -> "Baker".equals(camper.getValue(RosterHeader.LAST_NAME.camperRosterName))).findFirst().orElseThrow();
+        assertNull(baker.getValue(RosterHeader.buildRoundString(2)));
+        assertEquals(2, baker.getInt(RosterHeader.ROUND_COUNT.standardName, 0));
+
+        EnhancedRoster rebuilt = new RosterService(new ImportService(), new ExportService())
+            .createEnhancedRoster(preset.getCamperFile(), activityFile.toFile(), featureIds);
+        assertEquals(rebuilt.getHeaderMap(), refreshed.getHeaderMap());
+        assertEquals(rebuilt.getCampers().size(), refreshed.getCampers().size());
+        for (int i = 0; i < rebuilt.getCampers().size(); i++) {
+            assertEquals(rebuilt.getCampers().get(i).getData(), refreshed.getCampers().get(i).getData());
+        }
+
+        // Removing every row of a camper can't be applied in place, so the roster is rebuilt
+        lines.removeIf(line -> line.contains("\"Adams\""));
+        Files.write(activityFile, lines);
+        EnhancedRoster fallback = rosterService.reimportActivityRoster(refreshed, preset.getCamperFile(), activityFile.toFile(), featureIds);
+        assertNotNull(fallback);
+        assertNotSame(refreshed, fallback, "Changes that can't be applied in place should rebuild the roster");
+        assertNull(fallback.getCampers().get(0).getValue(RosterHeader.buildRoundString(1)));
+    }
+
+    @Test
+    @DisplayName("Re-importing picks up an edit that keeps a polynomial string hash unchanged")
+    void reimportActivityRosterCollisionTest() throws Exception {
+        TestPreset preset = TestPreset.BASIC_PREFERENCES;
+        List<String> featureIds = rosterService.getAvailableFeatures().stream().map(RosterFeature::getFeatureId).toList();
+        Path activityFile = tempDir.resolve("activities.csv");
+        Files.copy(preset.getActivityFile().toPath(), activityFile);
+
+        EnhancedRoster roster = rosterService.createEnhancedRoster(preset.getCamperFile(), activityFile.toFile(), featureIds);
+        assertNotNull(roster);
+
+        // "Ar" and "BS" have the same String.hashCode, so only a real digest tells these rows apart
+        assertEquals("Archery".hashCode(), "BSchery".hashCode());
+        List<String> lines = new ArrayList<>(Files.readAllLines(activityFile));
+        lines.set(1, lines.get(1).replace("\"Archery\"", "\"BSchery\""));
+        Files.write(activityFile, lines);
+
+        EnhancedRoster refreshed = rosterService.reimportActivityRoster(roster, preset.getCamperFile(), activityFile.toFile(), featureIds);
+        EnhancedRoster rebuilt = new RosterService(new ImportService(), new ExportService())
+            .createEnhancedRoster(preset.getCamperFile(), activityFile.toFile(), featureIds);
+        assertNotNull(refreshed);
+        assertTrue(refreshed.getCampers().stream().anyMatch(camper -> camper.getData().containsValue("BSchery")));
+        for (int i = 0; i < rebuilt.getCampers().size(); i++) {
+            assertEquals(rebuilt.getCampers().get(i).getData(), refreshed.getCampers().get(i).getData());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = TestPreset.class, names = {"MINI_NORMAL", "MINI_UNMATCHED_ACTIVITIES", "MINI_DUPLICATE_ACTIVITIES"})
+    @DisplayName("Concurrent import logs the same warnings, in the same order, on every run")
+    void concurrentImportWarningOrderTest(TestPreset preset) {
+        List<String> featureIds = rosterService.getAvailableFeatures().stream().map(RosterFeature::getFeatureId).toList();
+
+        List<String> firstRun = null;
+        for (int run = 0; run < 5; run++) {
+            assertNotNull(rosterService.createEnhancedRoster(preset.getCamperFile(), preset.getActivityFile(), featureIds));
+            List<String> warnings = new ArrayList<>();
+            rosterService.getWarningManager().getWarningLog().forEach((type, list) ->
+                list.forEach(warning -> warnings.add(type + Arrays.toString(warning.getDisplayData()))));
+            if (firstRun == null) {
+                firstRun = warnings;
+            } else {
+                assertEquals(firstRun, warnings, "Warnings should be identical across runs");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent import reports the camper roster's error when the camper file is malformed")
+    void concurrentImportErrorTest() {
+        TestPreset preset = TestPreset.MINI_MALFORMED_EXTRA;
+        EnhancedRoster roster = rosterService.createEnhancedRoster(preset.getCamperFile(), preset.getActivityFile(), List.of());
+
+        assertNull(roster);
+        assertTrue(rosterService.getWarningManager().getErrorLog().containsKey(RosterException.ErrorType.MALFORMED));
+    }
+
+    @Test
+    @DisplayName("Import reports each file's stages, then each feature's, numbered up to the stage count")
+    void importProgressStagesTest() {
+        TestPreset preset = TestPreset.MINI_NORMAL;
+        List<String> featureIds = new ArrayList<>();
+        for (RosterFeature feature : rosterService.getAvailableFeatures()) {
+            featureIds.add(feature.getFeatureId());
+        }
+
+        List<String> stages = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> stageNumbers = Collections.synchronizedList(new ArrayList<>());
+        ImportProgress progress = new ImportProgress((stage, stageNumber, stageCount) -> {
+            stages.add(stage);
+            stageNumbers.add(stageNumber);
+            assertEquals(4 + featureIds.size(), stageCount);
+        });
+        EnhancedRoster roster = rosterService.createEnhancedRoster(preset.getCamperFile(), preset.getActivityFile(), featureIds, progress);
+
+        assertNotNull(roster);
+        assertEquals(4 + featureIds.size(), stages.size());
+        assertTrue(stages.subList(0, 4).containsAll(List.of("Reading camper file", "Validating camper roster",
+                                                           "Reading activity file", "Validating activity roster")));
+        assertTrue(stages.indexOf("Reading camper file") < stages.indexOf("Validating camper roster"));
+        assertTrue(stages.indexOf("Reading activity file") < stages.indexOf("Validating activity roster"));
+        List<RosterFeature> features = rosterService.getAvailableFeatures();
+        for (int i = 0; i < features.size(); i++) {
+            assertEquals("Applying " + features.get(i).getFeatureName(), stages.get(4 + i));
+        }
+        assertEquals(4 + featureIds.size(), (int) stageNumbers.get(stageNumbers.size() - 1));
+    }
+
+    @Test
+    @DisplayName("Cancelled import stops without a roster and logs an error")
+    void importCancelledTest() {
+        TestPreset preset = TestPreset.MINI_NORMAL;
+        List<String> stages = Collections.synchronizedList(new ArrayList<>());
+        ImportProgress[] progress = new ImportProgress[1];
+        progress[0] = new ImportProgress((stage, stageNumber, stageCount) -> {
+            stages.add(stage);
+            progress[0].cancel();
+        });
+
+        EnhancedRoster roster = rosterService.createEnhancedRoster(preset.getCamperFile(), preset.getActivityFile(), List.of("activity"), progress[0]);
+
+        assertNull(roster);
+        assertTrue(rosterService.getWarningManager().hasErrors());
+        assertFalse(stages.contains("Applying " + rosterService.getAvailableFeatures().get(0).getFeatureName()),
+                    "No feature should start once the import is cancelled");
+    }
+
+    @Test
+    @DisplayName("Features that don't share headers are batched together after the activity feature")
+    void featureScheduleTest() {
+        List<RosterFeature> features = rosterService.getAvailableFeatures();
+        List<List<RosterFeature>> batches = FeatureScheduler.schedule(features);
+
+        // Activity adds campers, so it runs alone, and the rest only read its columns
+        assertEquals(2, batches.size());
+        assertEquals(List.of(features.get(0)), batches.get(0));
+        assertEquals(features.subList(1, features.size()), batches.get(1));
+        assertEquals(features.size(), FeatureScheduler.inTurn(features).size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = TestPreset.class, names = {"MINI_NORMAL", "NEW_BASIC_TEST", "BASIC_PREFERENCES", "BASIC_TRIPLE_FEATURE"})
+    @DisplayName("Applying independent features concurrently gives the same roster and warnings as applying them in turn")
+    void parallelFeaturesTest(TestPreset preset) {
+        List<String> featureIds = rosterService.getAvailableFeatures().stream().map(RosterFeature::getFeatureId).toList();
+
+        EnhancedRoster parallel = rosterService.createEnhancedRoster(preset.getCamperFile(), preset.getActivityFile(), featureIds);
+        List<String> parallelWarnings = new ArrayList<>();
+        rosterService.getWarningManager().getWarningLog().forEach((type, list) ->
+            list.forEach(warning -> parallelWarnings.add(type + Arrays.toString(warning.getDisplayData()))));
+
+        RosterService sequentialService = new RosterService(new ImportService(), new ExportService());
+        sequentialService.setParallelFeatures(false);
+        EnhancedRoster sequential = sequentialService.createEnhancedRoster(preset.getCamperFile(), preset.getActivityFile(), featureIds);
+        List<String> sequentialWarnings = new ArrayList<>();
+        sequentialService.getWarningManager().getWarningLog().forEach((type, list) ->
+            list.forEach(warning -> sequentialWarnings.add(type + Arrays.toString(warning.getDisplayData()))));
+
+        assertNotNull(parallel);
+        assertNotNull(sequential);
+        assertEquals(sequential.getHeaderMap(), parallel.getHeaderMap());
+        assertEquals(sequential.getEnabledFeatures(), parallel.getEnabledFeatures());
+        assertEquals(sequential.getCampers().size(), parallel.getCampers().size());
+        for (int i = 0; i < sequential.getCampers().size(); i++) {
+            assertEquals(sequential.getCampers().get(i).getData(), parallel.getCampers().get(i).getData());
+        }
+        assertEquals(sequentialWarnings, parallelWarnings);
+    }
+
     @Test
     @DisplayName("Performs complete end-to-end workflow from import to export")
     void completeWorkflowTest() throws Exception {
@@ -0,0 +1,127 @@
+package com.echo.validation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.echo.domain.Camper;
+import com.echo.domain.CamperRoster;
+import com.echo.domain.RosterHeader;
+import com.echo.logging.RosterWarning;
+import com.echo.logging.RosterWarning.WarningType;
+import com.echo.logging.WarningManager;
+
+/**
+ * Tests for the FormatValidator class.
+ */
+public class FormatValidatorTest {
+
+    private static final String[] GRADES = {"5th", "6th", "Seventh", "8th", "12th+"};
+    private static final String[] SESSIONS = {"Session 1/Traditional Camp", "Session 2A/Leadership", "Sesion 3/Typo", "Family Camp"};
+
+    @AfterEach
+    public void tearDown() {
+        FormatValidator.setParallelThreshold(FormatValidator.DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Builds a camper roster cycling through a few valid and invalid grades and sessions.
+     */
+    private CamperRoster buildRoster(int size) {
+        CamperRoster roster = new CamperRoster();
+        for (String header : CamperRoster.getRequiredHeaders()) {
+            roster.addHeader(header);
+        }
+        for (int i = 0; i < size; i++) {
+            Map<String, String> camperData = new HashMap<>();
+            camperData.put(RosterHeader.FIRST_NAME.camperRosterName, "Camper");
+            camperData.put(RosterHeader.LAST_NAME.camperRosterName, i % 97 == 0 ? "Smith3" : "Smith");
+            camperData.put(RosterHeader.PREFERRED_NAME.camperRosterName, "Cam");
+            camperData.put(RosterHeader.GRADE.camperRosterName, GRADES[i % GRADES.length]);
+            camperData.put(RosterHeader.ESP.camperRosterName, SESSIONS[i % SESSIONS.length]);
+            roster.addCamper(new Camper(camperData));
+        }
+        return roster;
+    }
+
+    private List<String[]> badFormatCells(WarningManager warningManager) {
+        List<String[]> cells = new ArrayList<>();
+        for (RosterWarning warning : warningManager.getWarningLog().getOrDefault(WarningType.BAD_DATA_FORMAT, new ArrayList<>())) {
+            cells.add(warning.getDisplayData());
+        }
+        return cells;
+    }
+
+    @Test
+    @DisplayName("validate should log the same warnings as matching each value directly, in row order")
+    public void testMatchesDirectCheck() {
+        CamperRoster roster = buildRoster(200);
+        Map<String, Pattern> formats = RosterRegexBuilder.buildCamperFormats();
+
+        WarningManager warningManager = new WarningManager();
+        new FormatValidator(formats).validate(roster, warningManager);
+
+        WarningManager expected = new WarningManager();
+        for (Camper camper : roster.getCampers()) {
+            for (Map.Entry<String, Pattern> entry : formats.entrySet()) {
+                String value = camper.getValue(entry.getKey());
+                if (value != null && !entry.getValue().matcher(value).matches()) {
+                    expected.logWarning(RosterWarning.create_badDataFormat(camper.view(), entry.getKey(), entry.getValue().toString()));
+                }
+            }
+        }
+
+        List<String[]> actualCells = badFormatCells(warningManager);
+        List<String[]> expectedCells = badFormatCells(expected);
+        assertFalse(expectedCells.isEmpty(), "Test data should include bad formats");
+        assertEquals(expectedCells.size(), actualCells.size());
+        for (int i = 0; i < expectedCells.size(); i++) {
+            assertArrayEquals(expectedCells.get(i), actualCells.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel validation should log the same warnings, in the same order, as sequential validation")
+    public void testParallelMatchesSequential() {
+        CamperRoster roster = buildRoster(5000);
+        FormatValidator validator = new FormatValidator(RosterRegexBuilder.buildCamperFormats());
+
+        FormatValidator.setParallelThreshold(Integer.MAX_VALUE);
+        WarningManager sequential = new WarningManager();
+        validator.validate(roster, sequential);
+
+        FormatValidator.setParallelThreshold(0);
+        WarningManager parallel = new WarningManager();
+        validator.validate(roster, parallel);
+
+        List<String[]> sequentialCells = badFormatCells(sequential);
+        List<String[]> parallelCells = badFormatCells(parallel);
+        assertEquals(sequentialCells.size(), parallelCells.size());
+        for (int i = 0; i < sequentialCells.size(); i++) {
+            assertArrayEquals(sequentialCells.get(i), parallelCells.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("compile should check the same formats as the compiled patterns")
+    public void testCompileFromStrings() {
+        CamperRoster roster = buildRoster(50);
+        Map<String, String> formats = RosterRegexBuilder.toFormatStrings(RosterRegexBuilder.buildCamperFormats());
+
+        WarningManager fromStrings = new WarningManager();
+        FormatValidator.compile(formats).validate(roster, fromStrings);
+        WarningManager fromPatterns = new WarningManager();
+        new FormatValidator(RosterRegexBuilder.buildCamperFormats()).validate(roster, fromPatterns);
+
+        assertEquals(badFormatCells(fromPatterns).size(), badFormatCells(fromStrings).size());
+    }
+}
@@ -1,18 +1,26 @@
 package com.echo.validation;
 
+import java.io.File;
+import java.time.Duration;
 import java.util.Map;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import com.echo.ReflectionUtils;
+import com.echo.automation.TestPreset;
 import com.echo.domain.RosterHeader;
+import com.echo.service.ImportUtils;
 
 /**
  * Tests for the RosterRegexBuilder class.
@@ -245,4 +253,57 @@ public class RosterRegexBuilderTest {
         assertTrue(pattern.matcher(input).matches(), "Pattern should match valid input: " + input);
     }
 
+    /**
+     * Checks that matcherFor accepts exactly what each pattern in a format map matches, for a value.
+     */
+    private void assertMatchersAgree(Map<String, Pattern> formatMap, String value) {
+        for (Pattern pattern : formatMap.values()) {
+            Predicate<String> matcher = RosterRegexBuilder.matcherFor(pattern);
+            assertEquals(pattern.matcher(value).matches(), matcher.test(value), "Matcher should agree with " + pattern + " on: " + value);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "Session 1/Traditional Camp", "Session 3A/Leadership", "Session 2-3/Explorers", "Session 1B-6A/Trail, Camp",
+        "Session 1/Traditional Camp and Session 2/Backpacking", "Session 1/Arts and Session 2/Crafts",
+        "Session 1/Arts and Session Crafts", "Session 4/Traditional Camp and Memorial Day Family Camp", "Echo Corps/Leadership",
+        "Session X/Invalid", "Session/Missing Program", "Session 7/Camp", "Session 1/", "Session 1/Camp and ", "Session 1/Camp and Session",
+        "Session 1/Camp 2", "Family Camp\n", "1st", "12th", "12th+", "0th", "13th", "4", "1", "3", "", " ", "John", "O'Connor",
+        "García", "Müller", "Smith Jr.", "Smith (Bob)", "Smith3", "Zoë"
+    })
+    @DisplayName("matcherFor should accept exactly what the camper and activity patterns match")
+    public void testMatcherFor_AgreesWithPatterns(String input) {
+        assertMatchersAgree(RosterRegexBuilder.buildCamperFormats(), input);
+        assertMatchersAgree(RosterRegexBuilder.buildActivityFormats(), input);
+        assertMatchersAgree(RosterRegexBuilder.buildProgramFormats(), input);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = TestPreset.class, names = {"DEMO_S6", "DEMO_S5", "NEW_BASIC_TEST", "BASIC_PREFERENCES", "MINI_DUPLICATE_ACTIVITIES"})
+    @DisplayName("matcherFor should agree with the patterns on every value in the test rosters")
+    public void testMatcherFor_AgreesOnTestRosters(TestPreset preset) throws Exception {
+        Map<String, Pattern> camperFormats = RosterRegexBuilder.buildCamperFormats();
+        Map<String, Pattern> activityFormats = RosterRegexBuilder.buildActivityFormats();
+        for (File file : new File[]{preset.getCamperFile(), preset.getActivityFile()}) {
+            for (Map<String, String> row : ImportUtils.parseFile(file).getRows()) {
+                for (String value : row.values()) {
+                    if (value != null) {
+                        assertMatchersAgree(camperFormats, value);
+                        assertMatchersAgree(activityFormats, value);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("matcherFor should reject long malformed session/program values quickly")
+    public void testMatcherFor_LongMalformedValue() {
+        Pattern pattern = RosterRegexBuilder.buildCamperFormats().get(RosterHeader.ESP.camperRosterName);
+        Predicate<String> matcher = RosterRegexBuilder.matcherFor(pattern);
+        String malformed = "Session 1/" + "Camp and ".repeat(20000) + "Session 9/Camp";
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> assertFalse(matcher.test(malformed)));
+    }
 }